@@ -0,0 +1,19 @@
+package nekopunch_rush.testjava21.application;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 新しい日付順に並べたログ（子要素なし）の1ページ。
+ *
+ * @param logs       このページのログ
+ * @param nextBefore 続きのページを取得する際に before として渡す日付（最後のページの場合はnull）
+ */
+public record DailyLogPage(List<DailyLog> logs, LocalDate nextBefore) {
+
+    public boolean hasNext() {
+        return nextBefore != null;
+    }
+}
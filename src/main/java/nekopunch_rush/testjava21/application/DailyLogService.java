@@ -1,11 +1,14 @@
 package nekopunch_rush.testjava21.application;
 
 import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
 import org.apache.ibatis.javassist.NotFoundException;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface DailyLogService {
 
@@ -18,5 +21,28 @@ public interface DailyLogService {
     DailyLog findByUserIdAndDate(Long userId, LocalDate logDate) throws NotFoundException;
 
     List<DailyLog> findMonthlyByUserId(Long userId, YearMonth yearMonth);
+
+    /**
+     * 指定月のログを子要素込みで取得する（カレンダー画面向け）。
+     */
+    List<DailyLog> findMonthlyWithDetailsByUserId(Long userId, YearMonth yearMonth);
+
+    /**
+     * 半開区間 [from, to) のログを新しい日付順に1ページ分取得する（履歴一覧向け）。
+     * from・to が null の場合はその側を制限しない。
+     *
+     * @param before 前のページの {@link DailyLogPage#nextBefore()}（最初のページはnull）
+     */
+    DailyLogPage findHistoryByUserId(Long userId, LocalDate from, LocalDate to, LocalDate before, int size);
+
+    /**
+     * 開始日が [from, to) に含まれる週・月の集計を期間順に取得する（長期間のグラフ向け）。
+     */
+    List<DailyLogRollup> findRollupsByUserId(Long userId, RollupPeriod period, LocalDate from, LocalDate to);
+
+    /**
+     * ユーザーの全期間のログを日付順に1日分ずつconsumerへ渡す。
+     */
+    void exportByUserId(Long userId, Consumer<DailyLog> consumer);
 }
 
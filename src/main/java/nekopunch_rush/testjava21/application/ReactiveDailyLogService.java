@@ -0,0 +1,29 @@
+package nekopunch_rush.testjava21.application;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * DailyLogServiceのノンブロッキング版（r2dbcプロファイル）。
+ * <p>
+ * 対象が存在しない場合は NotFoundException、重複登録の場合は IllegalStateException でエラー終了する。
+ */
+public interface ReactiveDailyLogService {
+
+    Mono<Void> register(DailyLog log);
+
+    Mono<Void> update(LocalDate logDate, DailyLog log);
+
+    Mono<Void> delete(Long userId, LocalDate logDate);
+
+    Mono<DailyLog> findByUserIdAndDate(Long userId, LocalDate logDate);
+
+    /**
+     * 指定月のログを子要素込みで取得する（カレンダー画面向け）。
+     */
+    Flux<DailyLog> findMonthlyWithDetailsByUserId(Long userId, YearMonth yearMonth);
+}
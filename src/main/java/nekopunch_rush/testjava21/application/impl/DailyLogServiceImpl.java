@@ -1,16 +1,27 @@
 package nekopunch_rush.testjava21.application.impl;
 
 import lombok.RequiredArgsConstructor;
+import nekopunch_rush.testjava21.application.DailyLogPage;
 import nekopunch_rush.testjava21.application.DailyLogService;
 import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
 import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
 import org.apache.ibatis.javassist.NotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.function.Consumer;
 
+/**
+ * ログの登録・更新・削除は1リクエスト1トランザクションで実行する。
+ * <p>
+ * 親テーブルと子テーブル4つへの複数のステートメントを1回のコミットにまとめ、途中で失敗した場合は全体を取り消す。
+ * シャーディング時は、操作対象のユーザーのシャードでのトランザクションになる（ShardTransactionManager）。
+ */
 @Service
 @RequiredArgsConstructor
 public class DailyLogServiceImpl implements DailyLogService {
@@ -18,39 +29,80 @@ public class DailyLogServiceImpl implements DailyLogService {
     private final DailyLogRepository repository;
 
     @Override
+    @Transactional
     public void register(DailyLog log) {
-        if (repository.existsByUserIdAndLogDate(log.getUserId(), log.getLogDate())) {
+        // 事前の存在チェックは行わず、主キー重複で登録できなかった場合に例外とする
+        if (!repository.saveIfAbsent(log)) {
             throw new IllegalStateException("既に同日のログが存在します。");
         }
-        repository.save(log);
     }
 
     @Override
+    @Transactional
     public void update(LocalDate logDate, DailyLog updatedLog) throws NotFoundException {
-        Long userId = updatedLog.getUserId();
-        if (!repository.existsByUserIdAndLogDate(userId, logDate)) {
+        if (!repository.update(logDate, updatedLog)) {
             throw new NotFoundException("指定されたログが存在しません。");
         }
-        repository.update(logDate, updatedLog);
     }
 
     @Override
+    @Transactional
     public void delete(Long userId, LocalDate logDate) throws NotFoundException {
-        if (!repository.existsByUserIdAndLogDate(userId, logDate)) {
+        if (!repository.deleteByUserIdAndLogDate(userId, logDate)) {
             throw new NotFoundException("指定されたログが存在しません。");
         }
-        repository.deleteByUserIdAndLogDate(userId, logDate);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public DailyLog findByUserIdAndDate(Long userId, LocalDate logDate) throws NotFoundException {
         return repository.findByUserIdAndLogDate(userId, logDate)
                 .orElseThrow(() -> new NotFoundException("指定されたログが見つかりません。"));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<DailyLog> findMonthlyByUserId(Long userId, YearMonth yearMonth) {
         return repository.findByUserIdAndMonth(userId, yearMonth);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailyLog> findMonthlyWithDetailsByUserId(Long userId, YearMonth yearMonth) {
+        return repository.findWithDetailsByUserIdAndMonth(userId, yearMonth);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DailyLogPage findHistoryByUserId(Long userId, LocalDate from, LocalDate to, LocalDate before, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("ページサイズは1以上を指定してください。");
+        }
+        // 続きの有無を判定するため1件多く読む
+        List<DailyLog> logs = repository.findPageByUserId(userId, from, earlierOf(to, before), size + 1);
+        if (logs.size() <= size) {
+            return new DailyLogPage(logs, null);
+        }
+        List<DailyLog> page = logs.subList(0, size);
+        return new DailyLogPage(List.copyOf(page), page.get(size - 1).getLogDate());
+    }
+
+    private static LocalDate earlierOf(LocalDate a, LocalDate b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isBefore(b) ? a : b;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailyLogRollup> findRollupsByUserId(Long userId, RollupPeriod period, LocalDate from, LocalDate to) {
+        return repository.findRollupsByUserIdAndPeriodRange(userId, period, from, to);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportByUserId(Long userId, Consumer<DailyLog> consumer) {
+        repository.streamByUserId(userId, consumer);
+    }
 }
 
@@ -0,0 +1,58 @@
+package nekopunch_rush.testjava21.application.impl;
+
+import lombok.RequiredArgsConstructor;
+import nekopunch_rush.testjava21.application.ReactiveDailyLogService;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.ReactiveDailyLogRepository;
+import org.apache.ibatis.javassist.NotFoundException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+@Service
+@Profile("r2dbc")
+@RequiredArgsConstructor
+public class ReactiveDailyLogServiceImpl implements ReactiveDailyLogService {
+
+    private final ReactiveDailyLogRepository repository;
+
+    @Override
+    public Mono<Void> register(DailyLog log) {
+        // 書き込みのトランザクションはリポジトリの1呼び出し単位で完結している
+        return repository.saveIfAbsent(log)
+                .flatMap(inserted -> inserted
+                        ? Mono.<Void>empty()
+                        : Mono.error(new IllegalStateException("既に同日のログが存在します。")));
+    }
+
+    @Override
+    public Mono<Void> update(LocalDate logDate, DailyLog updatedLog) {
+        return repository.update(logDate, updatedLog)
+                .flatMap(ReactiveDailyLogServiceImpl::requireFound);
+    }
+
+    @Override
+    public Mono<Void> delete(Long userId, LocalDate logDate) {
+        return repository.deleteByUserIdAndLogDate(userId, logDate)
+                .flatMap(ReactiveDailyLogServiceImpl::requireFound);
+    }
+
+    @Override
+    public Mono<DailyLog> findByUserIdAndDate(Long userId, LocalDate logDate) {
+        return repository.findByUserIdAndLogDate(userId, logDate)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("指定されたログが見つかりません。")));
+    }
+
+    @Override
+    public Flux<DailyLog> findMonthlyWithDetailsByUserId(Long userId, YearMonth yearMonth) {
+        return repository.findWithDetailsByUserIdAndMonth(userId, yearMonth);
+    }
+
+    private static Mono<Void> requireFound(boolean found) {
+        return found ? Mono.empty() : Mono.error(new NotFoundException("指定されたログが存在しません。"));
+    }
+}
@@ -0,0 +1,169 @@
+package nekopunch_rush.testjava21.domain.lifelog;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.function.BinaryOperator;
+
+/**
+ * ユーザーの1期間（週・月）分のログの集計値。
+ * <p>
+ * 平均は合計と件数から求める。体重・歩数は記録のない期間があるため、件数0の場合は空を返す。
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class DailyLogRollup {
+
+    private final Long userId;
+    private final RollupPeriod period;
+    private final LocalDate periodStart;    // 期間の開始日
+
+    private final int logCount;             // 記録のあった日数
+    private final double sleepHoursSum;
+    private final double sleepHoursMin;
+    private final double sleepHoursMax;
+    private final int moodLevelSum;
+    private final int moodLevelMin;
+    private final int moodLevelMax;
+
+    private final int weightCount;          // 体重の測定回数
+    private final Double weightSum;
+    private final Double weightMin;
+    private final Double weightMax;
+
+    private final int stepsDays;            // 歩数の記録があった日数
+    private final Long stepsSum;
+    private final Long stepsMin;            // 1日あたりの最小
+    private final Long stepsMax;            // 1日あたりの最大
+
+    public static DailyLogRollup of(
+            Long userId,
+            RollupPeriod period,
+            LocalDate periodStart,
+            int logCount,
+            double sleepHoursSum, double sleepHoursMin, double sleepHoursMax,
+            int moodLevelSum, int moodLevelMin, int moodLevelMax,
+            int weightCount, Double weightSum, Double weightMin, Double weightMax,
+            int stepsDays, Long stepsSum, Long stepsMin, Long stepsMax
+    ) {
+        if (userId == null) {
+            throw new IllegalArgumentException("ユーザーIDは必須です");
+        }
+        if (period == null || periodStart == null) {
+            throw new IllegalArgumentException("集計期間は必須です");
+        }
+        if (logCount < 1) {
+            throw new IllegalArgumentException("集計対象の日数は1以上です");
+        }
+        return new DailyLogRollup(userId, period, periodStart, logCount,
+                sleepHoursSum, sleepHoursMin, sleepHoursMax,
+                moodLevelSum, moodLevelMin, moodLevelMax,
+                weightCount, weightSum, weightMin, weightMax,
+                stepsDays, stepsSum, stepsMin, stepsMax);
+    }
+
+    /**
+     * 1期間分のログ（子要素込み）から集計する。集計テーブルのSQLと同じく、
+     * 体重は全測定値、歩数は活動の記録があった日ごとの合計を対象にする。
+     */
+    public static DailyLogRollup aggregate(Long userId, RollupPeriod period, LocalDate periodStart, List<DailyLog> logs) {
+        if (logs.isEmpty()) {
+            throw new IllegalArgumentException("集計対象の日数は1以上です");
+        }
+        double sleepSum = 0, sleepMin = Double.MAX_VALUE, sleepMax = -Double.MAX_VALUE;
+        int moodSum = 0, moodMin = Integer.MAX_VALUE, moodMax = Integer.MIN_VALUE;
+        int weightCount = 0;
+        double weightSum = 0, weightMin = Double.MAX_VALUE, weightMax = -Double.MAX_VALUE;
+        int stepsDays = 0;
+        long stepsSum = 0, stepsMin = Long.MAX_VALUE, stepsMax = Long.MIN_VALUE;
+
+        for (DailyLog log : logs) {
+            sleepSum += log.getSleepHours();
+            sleepMin = Math.min(sleepMin, log.getSleepHours());
+            sleepMax = Math.max(sleepMax, log.getSleepHours());
+            moodSum += log.getMoodLevel();
+            moodMin = Math.min(moodMin, log.getMoodLevel());
+            moodMax = Math.max(moodMax, log.getMoodLevel());
+
+            for (BodyMetrics metrics : log.getBodyMetricsList()) {
+                double weight = metrics.getWeight().getValue();
+                weightCount++;
+                weightSum += weight;
+                weightMin = Math.min(weightMin, weight);
+                weightMax = Math.max(weightMax, weight);
+            }
+
+            if (!log.getActivityList().isEmpty()) {
+                long dailySteps = log.getActivityList().stream()
+                        .mapToLong(activity -> activity.getSteps().getValue())
+                        .sum();
+                stepsDays++;
+                stepsSum += dailySteps;
+                stepsMin = Math.min(stepsMin, dailySteps);
+                stepsMax = Math.max(stepsMax, dailySteps);
+            }
+        }
+        return of(userId, period, periodStart, logs.size(),
+                sleepSum, sleepMin, sleepMax,
+                moodSum, moodMin, moodMax,
+                weightCount,
+                weightCount == 0 ? null : weightSum,
+                weightCount == 0 ? null : weightMin,
+                weightCount == 0 ? null : weightMax,
+                stepsDays,
+                stepsDays == 0 ? null : stepsSum,
+                stepsDays == 0 ? null : stepsMin,
+                stepsDays == 0 ? null : stepsMax);
+    }
+
+    /**
+     * 同じユーザー・期間の、重ならない日付を集計した2つを合わせる。
+     */
+    public DailyLogRollup merge(DailyLogRollup other) {
+        if (!userId.equals(other.userId) || period != other.period || !periodStart.equals(other.periodStart)) {
+            throw new IllegalArgumentException("異なる期間の集計は合算できません");
+        }
+        return of(userId, period, periodStart, logCount + other.logCount,
+                sleepHoursSum + other.sleepHoursSum,
+                Math.min(sleepHoursMin, other.sleepHoursMin),
+                Math.max(sleepHoursMax, other.sleepHoursMax),
+                moodLevelSum + other.moodLevelSum,
+                Math.min(moodLevelMin, other.moodLevelMin),
+                Math.max(moodLevelMax, other.moodLevelMax),
+                weightCount + other.weightCount,
+                combine(weightSum, other.weightSum, Double::sum),
+                combine(weightMin, other.weightMin, Math::min),
+                combine(weightMax, other.weightMax, Math::max),
+                stepsDays + other.stepsDays,
+                combine(stepsSum, other.stepsSum, Long::sum),
+                combine(stepsMin, other.stepsMin, Math::min),
+                combine(stepsMax, other.stepsMax, Math::max));
+    }
+
+    private static <T> T combine(T left, T right, BinaryOperator<T> operator) {
+        if (left == null) return right;
+        if (right == null) return left;
+        return operator.apply(left, right);
+    }
+
+    public double getSleepHoursAverage() {
+        return sleepHoursSum / logCount;
+    }
+
+    public double getMoodLevelAverage() {
+        return (double) moodLevelSum / logCount;
+    }
+
+    public OptionalDouble getWeightAverage() {
+        return weightCount == 0 ? OptionalDouble.empty() : OptionalDouble.of(weightSum / weightCount);
+    }
+
+    /** 歩数の記録があった日の1日あたりの平均 */
+    public OptionalDouble getStepsAverage() {
+        return stepsDays == 0 ? OptionalDouble.empty() : OptionalDouble.of((double) stepsSum / stepsDays);
+    }
+}
@@ -0,0 +1,47 @@
+package nekopunch_rush.testjava21.domain.lifelog;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * 集計の期間単位。
+ */
+public enum RollupPeriod {
+
+    /** 月曜始まりの週 */
+    WEEK {
+        @Override
+        public LocalDate startOf(LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        @Override
+        public LocalDate nextStart(LocalDate start) {
+            return start.plusWeeks(1);
+        }
+    },
+
+    /** 暦月 */
+    MONTH {
+        @Override
+        public LocalDate startOf(LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+
+        @Override
+        public LocalDate nextStart(LocalDate start) {
+            return start.plusMonths(1);
+        }
+    };
+
+    /**
+     * 指定日を含む期間の開始日を返す。
+     */
+    public abstract LocalDate startOf(LocalDate date);
+
+    /**
+     * 開始日が start の期間の、次の期間の開始日（= この期間の終了日の翌日）を返す。
+     */
+    public abstract LocalDate nextStart(LocalDate start);
+}
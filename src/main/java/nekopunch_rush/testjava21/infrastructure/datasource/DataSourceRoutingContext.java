@@ -0,0 +1,42 @@
+package nekopunch_rush.testjava21.infrastructure.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 読み取り専用トランザクションでもプライマリへ接続させるためのスレッドローカルな指定。
+ * <p>
+ * 接続はLazyConnectionDataSourceProxyにより最初のSQL実行時に取得されるため、
+ * SQLを発行する処理を {@link #onPrimary(Supplier)} で囲めばその中の問い合わせはプライマリへ向く。
+ */
+public final class DataSourceRoutingContext {
+
+    private static final ThreadLocal<Integer> PRIMARY_PIN_DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private DataSourceRoutingContext() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        PRIMARY_PIN_DEPTH.set(PRIMARY_PIN_DEPTH.get() + 1);
+        try {
+            return action.get();
+        } finally {
+            int depth = PRIMARY_PIN_DEPTH.get() - 1;
+            if (depth == 0) {
+                PRIMARY_PIN_DEPTH.remove();
+            } else {
+                PRIMARY_PIN_DEPTH.set(depth);
+            }
+        }
+    }
+
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static boolean isPrimaryPinned() {
+        return PRIMARY_PIN_DEPTH.get() > 0;
+    }
+}
@@ -0,0 +1,11 @@
+package nekopunch_rush.testjava21.infrastructure.datasource;
+
+/**
+ * ReadWriteRoutingDataSourceの振り分け先。
+ */
+public enum DataSourceType {
+    /** 書き込み用（プライマリ） */
+    PRIMARY,
+    /** 読み取り専用（レプリカ） */
+    REPLICA
+}
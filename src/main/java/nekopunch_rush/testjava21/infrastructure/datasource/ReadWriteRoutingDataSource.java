@@ -0,0 +1,23 @@
+package nekopunch_rush.testjava21.infrastructure.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 読み取り専用トランザクションをレプリカへ、それ以外をプライマリへ振り分けるDataSource。
+ * <p>
+ * トランザクションの読み取り専用フラグは接続取得より後に確定するため、
+ * LazyConnectionDataSourceProxyで包み、最初のSQL実行時に振り分け先を決める。
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (DataSourceRoutingContext.isPrimaryPinned()) {
+            return DataSourceType.PRIMARY;
+        }
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? DataSourceType.REPLICA
+                : DataSourceType.PRIMARY;
+    }
+}
@@ -0,0 +1,31 @@
+package nekopunch_rush.testjava21.infrastructure.datasource;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.time.Duration;
+
+/**
+ * 直近に書き込みを行ったユーザーを一定時間だけ記録する。
+ * <p>
+ * レプリカの遅延で自分の書き込みが読めなくなるのを避けるため、
+ * 記録が残っている間はそのユーザーの読み取りをプライマリへ向ける（read-your-writes）。
+ */
+public class RecentWriteTracker {
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public RecentWriteTracker(Duration window) {
+        this.recentWriters = CacheBuilder.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public void recordWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean wroteRecently(Long userId) {
+        return recentWriters.getIfPresent(userId) != null;
+    }
+}
@@ -0,0 +1,66 @@
+package nekopunch_rush.testjava21.infrastructure.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.DailyLogRepositoryDecorator;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.ReadYourWritesDailyLogRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * プライマリ/レプリカの2つのプールと、それらを振り分けるDataSourceの定義。
+ * <p>
+ * {@code lifelog.datasource.routing.enabled=true} の場合のみ有効になり、
+ * spring.datasource による単一プールの自動構成を置き換える。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lifelog.datasource.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfiguration {
+
+    /** 読み取りの振り分けはDBに最も近い位置で行う */
+    public static final int READ_YOUR_WRITES_ORDER = 1000;
+
+    @Bean
+    @ConfigurationProperties(prefix = "lifelog.datasource.primary")
+    public HikariDataSource primaryDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "lifelog.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource();
+        routingDataSource.setTargetDataSources(Map.of(
+                DataSourceType.PRIMARY, primaryDataSource,
+                DataSourceType.REPLICA, replicaDataSource));
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        // トランザクション開始時点では読み取り専用フラグが未確定のため、実際の接続取得を最初のSQLまで遅らせる
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public RecentWriteTracker recentWriteTracker(RoutingDataSourceProperties properties) {
+        return new RecentWriteTracker(properties.getReadYourWritesWindow());
+    }
+
+    @Bean
+    public DailyLogRepositoryDecorator readYourWritesDecorator(RecentWriteTracker recentWriteTracker) {
+        return DailyLogRepositoryDecorator.of(READ_YOUR_WRITES_ORDER,
+                delegate -> new ReadYourWritesDailyLogRepository(delegate, recentWriteTracker));
+    }
+}
@@ -0,0 +1,23 @@
+package nekopunch_rush.testjava21.infrastructure.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * プライマリ/レプリカ振り分けの設定。
+ * <p>
+ * application.yml の {@code lifelog.datasource.routing.*} にバインドされる。
+ * 接続先は {@code lifelog.datasource.primary.*} / {@code lifelog.datasource.replica.*} にHikariの設定名で指定する。
+ */
+@Data
+@ConfigurationProperties(prefix = "lifelog.datasource.routing")
+public class RoutingDataSourceProperties {
+
+    /** 振り分けを有効にするか（無効の場合は spring.datasource の単一プールを使う） */
+    private boolean enabled = false;
+
+    /** 書き込み後、同じユーザーの読み取りをプライマリへ向ける期間（レプリカ遅延の上限より長くする） */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
@@ -0,0 +1,14 @@
+package nekopunch_rush.testjava21.infrastructure.repository;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * 最近ログを付けたユーザーと、その最後のログの日付（キャッシュの事前読み込みの対象の抽出用）。
+ */
+public record ActiveUser(Long userId, LocalDate lastLogDate) {
+
+    /** 最後のログの日付の新しい順、同じ日はユーザーIDの昇順 */
+    public static final Comparator<ActiveUser> RECENT_FIRST = Comparator.comparing(ActiveUser::lastLogDate).reversed()
+            .thenComparing(ActiveUser::userId);
+}
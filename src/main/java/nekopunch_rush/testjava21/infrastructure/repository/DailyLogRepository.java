@@ -1,18 +1,84 @@
 package nekopunch_rush.testjava21.infrastructure.repository;
 
 import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface DailyLogRepository {
     void save(DailyLog log);
-    void update(LocalDate logDate, DailyLog log);
-    void deleteByUserIdAndLogDate(Long userId, LocalDate logDate);
+    /**
+     * 複数日のログをまとめて登録する。いずれかの日が既に登録されていた場合は DuplicateKeyException を投げ、何も登録しない。
+     */
+    void saveAll(Collection<DailyLog> logs);
+    /**
+     * 同日のログが未登録の場合のみ登録する。存在チェックは主キー制約に任せる。
+     *
+     * @return 登録した場合true、既に同日のログが存在した場合false
+     */
+    boolean saveIfAbsent(DailyLog log);
+    /**
+     * @return 更新した場合true、対象のログが存在しなかった場合false
+     */
+    boolean update(LocalDate logDate, DailyLog log);
+    /**
+     * @return 削除した場合true、対象のログが存在しなかった場合false
+     */
+    boolean deleteByUserIdAndLogDate(Long userId, LocalDate logDate);
     Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate);
     List<DailyLog> findByUserIdAndMonth(Long userId, YearMonth yearMonth);
+    /**
+     * 半開区間 [from, to) のログをサマリ（子要素なし）として日付順に取得する。
+     */
+    List<DailyLog> findByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to);
+    /**
+     * 指定月のログを子要素込みで日付順に取得する。
+     */
+    List<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth yearMonth);
+    /**
+     * 半開区間 [from, to) のログを子要素込みで日付順に取得する。
+     * 子テーブルは期間全体で1回ずつ問い合わせ、メモリ上で日ごとに振り分ける。
+     */
+    List<DailyLog> findWithDetailsByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to);
+    /**
+     * 半開区間 [from, before) のログをサマリ（子要素なし）として新しい日付順に最大limit件取得する。
+     * from・before が null の場合はその側を制限しない。
+     * 前のページの最後の日付を before に渡すと続きのページになる（キーセットページング）。
+     */
+    List<DailyLog> findPageByUserId(Long userId, LocalDate from, LocalDate before, int limit);
+    /**
+     * ユーザーの全期間のログを日付順に1日分ずつ組み立ててconsumerへ渡す。
+     * 全件をメモリに載せないため、期間の長さによらず使用メモリは一定になる。
+     */
+    void streamByUserId(Long userId, Consumer<DailyLog> consumer);
     boolean existsByUserIdAndLogDate(Long userId, LocalDate logDate);
+    /**
+     * ユーザーのログのある日付を昇順で取得する。ログの内容は読まない。
+     */
+    List<LocalDate> findLogDatesByUserId(Long userId);
+    /**
+     * 指定日以降にログのあるユーザーを、最後のログの日付の新しい順（同じ日はユーザーIDの昇順）に limit 人まで取得する。
+     */
+    List<ActiveUser> findActiveUsersSince(LocalDate since, int limit);
+    /**
+     * 指定日より前のログがあるユーザーIDを昇順で取得する（アーカイブ対象の抽出用）。
+     */
+    List<Long> findUserIdsWithLogsBefore(LocalDate before);
+    /**
+     * 指定日より前のログを子テーブルごと削除する（アーカイブへの移動用）。
+     * 週次・月次の集計は削除前の値のまま残す。
+     */
+    void deleteByUserIdBefore(Long userId, LocalDate before);
+    /**
+     * 開始日が半開区間 [from, to) に含まれる週次・月次の集計を期間順に取得する。
+     * 集計は登録・更新・削除と同じトランザクションで更新されるため、日ごとの行を読まずに推移を表示できる。
+     */
+    List<DailyLogRollup> findRollupsByUserIdAndPeriodRange(Long userId, RollupPeriod period, LocalDate from, LocalDate to);
 }
 
@@ -0,0 +1,51 @@
+package nekopunch_rush.testjava21.infrastructure.repository;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * DailyLogRepositoryのノンブロッキング版。
+ * <p>
+ * 結果はMono / Fluxで返し、購読されるまでSQLは発行されない。
+ */
+public interface ReactiveDailyLogRepository {
+    /**
+     * 同じユーザー・日付のログが無い場合のみ登録する。
+     * @return 登録した場合true、既に存在した場合false
+     */
+    Mono<Boolean> saveIfAbsent(DailyLog log);
+    /**
+     * 指定日のログを更新する。
+     * @return 更新した場合true、対象が存在しない場合false
+     */
+    Mono<Boolean> update(LocalDate logDate, DailyLog log);
+    /**
+     * 指定日のログを子テーブルごと削除する。
+     * @return 削除した場合true、対象が存在しない場合false
+     */
+    Mono<Boolean> deleteByUserIdAndLogDate(Long userId, LocalDate logDate);
+    /**
+     * 指定日のログを子テーブル込みで取得する。存在しない場合は空のMonoを返す。
+     */
+    Mono<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate);
+    /**
+     * 半開区間 [from, to) のログを日付順に取得する（子テーブルは含まない）。
+     */
+    Flux<DailyLog> findByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to);
+    /**
+     * 指定月のログを子テーブル込みで日付順に取得する。
+     */
+    Flux<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth month);
+    /**
+     * 半開区間 [from, to) のログを子テーブル込みで日付順に取得する。
+     */
+    Flux<DailyLog> findWithDetailsByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to);
+    /**
+     * 指定日のログが存在するか。
+     */
+    Mono<Boolean> existsByUserIdAndLogDate(Long userId, LocalDate logDate);
+}
@@ -0,0 +1,55 @@
+package nekopunch_rush.testjava21.infrastructure.repository.archive;
+
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.DailyLogRepositoryDecorator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * 古いログのアーカイブの構成。
+ * <p>
+ * {@code lifelog.archive.enabled=true} の場合のみ有効になり、DailyLogRepositoryにアーカイブを参照するデコレータを重ねる。
+ * アーカイブへの移動は {@code --archive-daily-logs} を付けて起動した場合に行う。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lifelog.archive", name = "enabled", havingValue = "true")
+public class ArchiveConfiguration {
+
+    /** 接続先の振り分けより外側で、DBの結果にアーカイブを補う */
+    public static final int ARCHIVE_ORDER = 500;
+
+    @Bean
+    public DailyLogArchive dailyLogArchive(ArchiveProperties properties) {
+        return new DailyLogArchive(properties.getDirectory(), properties.getMaxOpenSegments());
+    }
+
+    @Bean
+    public ArchivePolicy archivePolicy(ArchiveProperties properties) {
+        return new ArchivePolicy(properties.getRetention(), Clock.systemDefaultZone());
+    }
+
+    @Bean
+    public DailyLogRepositoryDecorator archiveDecorator(DailyLogArchive dailyLogArchive, ArchivePolicy archivePolicy) {
+        return DailyLogRepositoryDecorator.of(ARCHIVE_ORDER,
+                delegate -> new ArchiveFallthroughDailyLogRepository(delegate, dailyLogArchive, archivePolicy));
+    }
+
+    @Bean
+    public DailyLogArchiver dailyLogArchiver(@Qualifier("storageDailyLogRepository") DailyLogRepository storage,
+                                             DailyLogArchive dailyLogArchive,
+                                             ArchivePolicy archivePolicy) {
+        // デコレータを通すとアーカイブ済みのログも読めてしまうため、保存先のリポジトリを直接使う
+        return new DailyLogArchiver(storage, dailyLogArchive, archivePolicy);
+    }
+
+    @Bean
+    public DailyLogArchiveRunner dailyLogArchiveRunner(DailyLogArchiver dailyLogArchiver,
+                                                       ConfigurableApplicationContext context) {
+        return new DailyLogArchiveRunner(dailyLogArchiver, context);
+    }
+}
@@ -0,0 +1,162 @@
+package nekopunch_rush.testjava21.infrastructure.repository.archive;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.archive.DailyLogArchive.UserArchive;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.ForwardingDailyLogRepository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * DBに無いログをアーカイブから補って返すデコレータ。
+ * <p>
+ * 同じ日付がDBとアーカイブの両方にある場合（アーカイブ処理の途中など）はDBの行を優先する。
+ * アーカイブ済みの期間（{@link ArchivePolicy#writableFrom()} より前）への書き込みは受け付けない。
+ */
+public class ArchiveFallthroughDailyLogRepository extends ForwardingDailyLogRepository {
+
+    private final DailyLogArchive archive;
+    private final ArchivePolicy policy;
+
+    public ArchiveFallthroughDailyLogRepository(DailyLogRepository delegate, DailyLogArchive archive, ArchivePolicy policy) {
+        super(delegate);
+        this.archive = archive;
+        this.policy = policy;
+    }
+
+    @Override
+    public void save(DailyLog log) {
+        requireWritable(log.getLogDate());
+        delegate.save(log);
+    }
+
+    @Override
+    public void saveAll(Collection<DailyLog> logs) {
+        logs.forEach(log -> requireWritable(log.getLogDate()));
+        delegate.saveAll(logs);
+    }
+
+    @Override
+    public boolean saveIfAbsent(DailyLog log) {
+        requireWritable(log.getLogDate());
+        return delegate.saveIfAbsent(log);
+    }
+
+    @Override
+    public boolean update(LocalDate logDate, DailyLog log) {
+        requireWritable(logDate);
+        return delegate.update(logDate, log);
+    }
+
+    @Override
+    public boolean deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        requireWritable(logDate);
+        return delegate.deleteByUserIdAndLogDate(userId, logDate);
+    }
+
+    @Override
+    public Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return delegate.findByUserIdAndLogDate(userId, logDate)
+                .or(() -> archive.open(userId).find(logDate));
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return merge(delegate.findByUserIdAndMonth(userId, yearMonth),
+                archive.open(userId).findByDateRange(yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1)));
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return merge(delegate.findByUserIdAndDateRange(userId, from, to),
+                archive.open(userId).findByDateRange(from, to));
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return merge(delegate.findWithDetailsByUserIdAndMonth(userId, yearMonth),
+                archive.open(userId).findWithDetailsByDateRange(yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1)));
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return merge(delegate.findWithDetailsByUserIdAndDateRange(userId, from, to),
+                archive.open(userId).findWithDetailsByDateRange(from, to));
+    }
+
+    @Override
+    public List<DailyLog> findPageByUserId(Long userId, LocalDate from, LocalDate before, int limit) {
+        List<DailyLog> hot = delegate.findPageByUserId(userId, from, before, limit);
+        if (from != null && before != null && !from.isBefore(before)) return hot;
+        // アーカイブからもページの件数分だけ新しい順に日付を選び、その範囲だけを復元して重ねる
+        UserArchive userArchive = archive.open(userId);
+        List<LocalDate> archivedDates = userArchive.logDates()
+                .subSet(from == null ? LocalDate.MIN : from, true, before == null ? LocalDate.MAX : before, false)
+                .descendingSet().stream()
+                .limit(limit)
+                .toList();
+        if (archivedDates.isEmpty()) return hot;
+        List<DailyLog> archived = userArchive.findByDateRange(
+                archivedDates.get(archivedDates.size() - 1), archivedDates.get(0).plusDays(1));
+        return merge(hot, archived).reversed().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void streamByUserId(Long userId, Consumer<DailyLog> consumer) {
+        UserArchive userArchive = archive.open(userId);
+        if (userArchive.isEmpty()) {
+            delegate.streamByUserId(userId, consumer);
+            return;
+        }
+        // アーカイブは日付だけを先に並べ、DBの各行の直前までを1日ずつ復元して挟み込む
+        PeekingIterator<LocalDate> archived = Iterators.peekingIterator(userArchive.logDates().iterator());
+        delegate.streamByUserId(userId, log -> {
+            while (archived.hasNext() && !archived.peek().isAfter(log.getLogDate())) {
+                LocalDate logDate = archived.next();
+                if (logDate.isBefore(log.getLogDate())) {
+                    userArchive.find(logDate).ifPresent(consumer);
+                }
+            }
+            consumer.accept(log);
+        });
+        archived.forEachRemaining(logDate -> userArchive.find(logDate).ifPresent(consumer));
+    }
+
+    @Override
+    public boolean existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return delegate.existsByUserIdAndLogDate(userId, logDate) || archive.open(userId).contains(logDate);
+    }
+
+    @Override
+    public List<LocalDate> findLogDatesByUserId(Long userId) {
+        NavigableSet<LocalDate> logDates = new TreeSet<>(archive.open(userId).logDates());
+        logDates.addAll(delegate.findLogDatesByUserId(userId));
+        return List.copyOf(logDates);
+    }
+
+    private void requireWritable(LocalDate logDate) {
+        if (!policy.isWritable(logDate)) {
+            throw new IllegalStateException("アーカイブ済みの期間のログは変更できません。");
+        }
+    }
+
+    private static List<DailyLog> merge(List<DailyLog> hot, List<DailyLog> archived) {
+        if (archived.isEmpty()) return hot;
+        TreeMap<LocalDate, DailyLog> byDate = new TreeMap<>();
+        archived.forEach(log -> byDate.put(log.getLogDate(), log));
+        hot.forEach(log -> byDate.put(log.getLogDate(), log));
+        return List.copyOf(byDate.values());
+    }
+}
@@ -0,0 +1,44 @@
+package nekopunch_rush.testjava21.infrastructure.repository.archive;
+
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * アーカイブの対象とする日付の境界。
+ * <p>
+ * アーカイブは保持期間より前の月初で区切る。週次・月次の集計はアーカイブ後も残し、対象期間のホットな行から
+ * 集計し直すため、アーカイブ済みの日を含む週・月に属する日は書き込みを受け付けない（読み取り専用）。
+ */
+public class ArchivePolicy {
+
+    private final Period retention;
+    private final Clock clock;
+
+    public ArchivePolicy(Period retention, Clock clock) {
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    /**
+     * この日付より前のログをアーカイブへ移す（保持期間より前の月初）。
+     */
+    public LocalDate archiveBefore() {
+        return RollupPeriod.MONTH.startOf(LocalDate.now(clock).minus(retention));
+    }
+
+    /**
+     * この日付以降のログのみ書き込める。
+     * アーカイブの境界をまたぐ週の残りの日も、週次の集計がアーカイブ済みの日を含むため読み取り専用とする。
+     */
+    public LocalDate writableFrom() {
+        LocalDate archiveBefore = archiveBefore();
+        return RollupPeriod.WEEK.nextStart(RollupPeriod.WEEK.startOf(archiveBefore.minusDays(1)));
+    }
+
+    public boolean isWritable(LocalDate logDate) {
+        return !logDate.isBefore(writableFrom());
+    }
+}
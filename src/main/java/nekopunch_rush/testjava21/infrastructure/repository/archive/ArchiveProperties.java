@@ -0,0 +1,29 @@
+package nekopunch_rush.testjava21.infrastructure.repository.archive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Period;
+
+/**
+ * 古いログのアーカイブの設定。
+ * <p>
+ * application.yml の {@code lifelog.archive.*} にバインドされる。
+ */
+@Data
+@ConfigurationProperties(prefix = "lifelog.archive")
+public class ArchiveProperties {
+
+    /** アーカイブを有効にするか（有効にすると読み取りがアーカイブも参照する） */
+    private boolean enabled = false;
+
+    /** アーカイブファイルを置くディレクトリ（複数インスタンスで動かす場合は共有する） */
+    private Path directory = Path.of("archive");
+
+    /** DBに残す期間。これより前の月のログをアーカイブへ移す */
+    private Period retention = Period.ofYears(1);
+
+    /** メモリマップしたまま保持するユーザー数の上限 */
+    private int maxOpenSegments = 1024;
+}
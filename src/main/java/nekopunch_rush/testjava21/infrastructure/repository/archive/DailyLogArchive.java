@@ -0,0 +1,221 @@
+package nekopunch_rush.testjava21.infrastructure.repository.archive;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.codec.DailyLogCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * 古いログをユーザーごとの追記専用ファイルに保存するアーカイブ。
+ * <p>
+ * ユーザーごとに本体 {@code {userId}.seg}（DailyLogCodecの形式のレコードを連結）と
+ * 索引 {@code {userId}.idx}（logDateのエポック日(4)・本体内の位置(8)・長さ(4)の固定長16バイト）を持つ。
+ * 読み取りは両ファイルをメモリマップして行い、マップ済みのファイルは最大 maxOpenSegments ユーザー分を保持する。
+ * 同じ日付が複数回追記された場合は後のものを有効とする。
+ * <p>
+ * 追記は本体をfsyncしてから索引を書くため、途中で停止しても索引は常に書き込み済みのレコードだけを指す。
+ * 別プロセス（アーカイブ処理）からの追記は、読み取り時に索引のサイズの変化で検出してマップし直す。
+ */
+public class DailyLogArchive {
+
+    private static final int INDEX_ENTRY_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final Cache<Long, UserArchive> openSegments;
+
+    public DailyLogArchive(Path directory, int maxOpenSegments) {
+        this.directory = directory;
+        this.openSegments = CacheBuilder.newBuilder()
+                .maximumSize(maxOpenSegments)
+                .build();
+    }
+
+    /**
+     * ユーザーのログを追記する。
+     */
+    public synchronized void append(Long userId, List<DailyLog> logs) {
+        if (logs.isEmpty()) return;
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel data = FileChannel.open(dataPath(userId),
+                         StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                 FileChannel index = FileChannel.open(indexPath(userId),
+                         StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                long offset = data.size();
+                ByteBuffer entries = ByteBuffer.allocate(logs.size() * INDEX_ENTRY_BYTES);
+                for (DailyLog log : logs) {
+                    byte[] record = DailyLogCodec.encode(log);
+                    writeFully(data, ByteBuffer.wrap(record));
+                    entries.putInt((int) log.getLogDate().toEpochDay()).putLong(offset).putInt(record.length);
+                    offset += record.length;
+                }
+                data.force(false);
+
+                // 前回の追記が索引の途中で止まっていた場合は、書きかけのエントリを切り捨ててから続ける
+                long validIndexSize = index.size() - index.size() % INDEX_ENTRY_BYTES;
+                index.truncate(validIndexSize);
+                index.position(validIndexSize);
+                writeFully(index, entries.flip());
+                index.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("アーカイブへの追記に失敗しました: userId=" + userId, e);
+        } finally {
+            openSegments.invalidate(userId);
+        }
+    }
+
+    /**
+     * ユーザーのアーカイブを開く。返した時点の内容を参照し、その後の追記は反映しない。
+     */
+    public UserArchive open(Long userId) {
+        long indexSize = sizeOf(indexPath(userId));
+        UserArchive cached = openSegments.getIfPresent(userId);
+        if (cached != null && cached.indexSize == indexSize) {
+            return cached;
+        }
+        UserArchive loaded = load(userId, indexSize);
+        openSegments.put(userId, loaded);
+        return loaded;
+    }
+
+    private UserArchive load(Long userId, long indexSize) {
+        long validIndexSize = indexSize - indexSize % INDEX_ENTRY_BYTES;
+        if (validIndexSize == 0) {
+            return new UserArchive(userId, indexSize, null, Collections.emptyNavigableMap());
+        }
+        try (FileChannel index = FileChannel.open(indexPath(userId), StandardOpenOption.READ);
+             FileChannel data = FileChannel.open(dataPath(userId), StandardOpenOption.READ)) {
+            long dataSize = data.size();
+            if (dataSize > Integer.MAX_VALUE) {
+                throw new IllegalStateException("アーカイブファイルが大きすぎます: userId=" + userId);
+            }
+            MappedByteBuffer indexBuffer = index.map(FileChannel.MapMode.READ_ONLY, 0, validIndexSize);
+            NavigableMap<LocalDate, Entry> entries = new TreeMap<>();
+            while (indexBuffer.hasRemaining()) {
+                LocalDate logDate = LocalDate.ofEpochDay(indexBuffer.getInt());
+                long offset = indexBuffer.getLong();
+                int length = indexBuffer.getInt();
+                if (offset + length <= dataSize) {
+                    entries.put(logDate, new Entry((int) offset, length));
+                }
+            }
+            // マップはチャネルを閉じた後も有効
+            MappedByteBuffer dataBuffer = data.map(FileChannel.MapMode.READ_ONLY, 0, dataSize);
+            return new UserArchive(userId, indexSize, dataBuffer, Collections.unmodifiableNavigableMap(entries));
+        } catch (NoSuchFileException e) {
+            return new UserArchive(userId, indexSize, null, Collections.emptyNavigableMap());
+        } catch (IOException e) {
+            throw new UncheckedIOException("アーカイブの読み込みに失敗しました: userId=" + userId, e);
+        }
+    }
+
+    private Path dataPath(Long userId) {
+        return directory.resolve(userId + ".seg");
+    }
+
+    private Path indexPath(Long userId) {
+        return directory.resolve(userId + ".idx");
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private record Entry(int offset, int length) {
+    }
+
+    /**
+     * 1ユーザー分のアーカイブの読み取りビュー。複数スレッドから同時に使える。
+     */
+    public static final class UserArchive {
+
+        private final Long userId;
+        private final long indexSize;
+        private final ByteBuffer data;
+        private final NavigableMap<LocalDate, Entry> entries;
+
+        private UserArchive(Long userId, long indexSize, ByteBuffer data, NavigableMap<LocalDate, Entry> entries) {
+            this.userId = userId;
+            this.indexSize = indexSize;
+            this.data = data;
+            this.entries = entries;
+        }
+
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        public boolean contains(LocalDate logDate) {
+            return entries.containsKey(logDate);
+        }
+
+        /**
+         * アーカイブ済みの日付（昇順）。
+         */
+        public NavigableSet<LocalDate> logDates() {
+            return entries.navigableKeySet();
+        }
+
+        public Optional<DailyLog> find(LocalDate logDate) {
+            Entry entry = entries.get(logDate);
+            return entry == null ? Optional.empty() : Optional.of(DailyLogCodec.decode(userId, logDate, slice(entry)));
+        }
+
+        /**
+         * 半開区間 [from, to) のログを子要素なしで日付順に返す。
+         */
+        public List<DailyLog> findByDateRange(LocalDate from, LocalDate to) {
+            return range(from, to).entrySet().stream()
+                    .map(e -> DailyLogCodec.decodeSummary(userId, e.getKey(), slice(e.getValue())))
+                    .toList();
+        }
+
+        /**
+         * 半開区間 [from, to) のログを子要素込みで日付順に返す。
+         */
+        public List<DailyLog> findWithDetailsByDateRange(LocalDate from, LocalDate to) {
+            return range(from, to).entrySet().stream()
+                    .map(e -> DailyLogCodec.decode(userId, e.getKey(), slice(e.getValue())))
+                    .toList();
+        }
+
+        private NavigableMap<LocalDate, Entry> range(LocalDate from, LocalDate to) {
+            return from.isBefore(to) ? entries.subMap(from, true, to, false) : Collections.emptyNavigableMap();
+        }
+
+        // 絶対位置のsliceは元のバッファの位置を変えないため、共有したまま並行に読める
+        private ByteBuffer slice(Entry entry) {
+            return data.slice(entry.offset(), entry.length());
+        }
+    }
+}
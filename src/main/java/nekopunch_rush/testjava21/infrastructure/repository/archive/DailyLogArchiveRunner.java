@@ -0,0 +1,30 @@
+package nekopunch_rush.testjava21.infrastructure.repository.archive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 起動引数に {@code --archive-daily-logs} がある場合に古いログをアーカイブへ移し、終了後にアプリケーションを停止する。
+ * <p>
+ * 例: {@code java -jar app.jar --lifelog.archive.enabled=true --archive-daily-logs}
+ */
+@RequiredArgsConstructor
+public class DailyLogArchiveRunner implements ApplicationRunner {
+
+    static final String OPTION_NAME = "archive-daily-logs";
+
+    private final DailyLogArchiver archiver;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION_NAME)) {
+            return;
+        }
+        archiver.archive();
+        SpringApplication.exit(context, () -> 0);
+    }
+}
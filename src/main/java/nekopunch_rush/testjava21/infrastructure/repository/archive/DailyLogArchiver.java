@@ -0,0 +1,62 @@
+package nekopunch_rush.testjava21.infrastructure.repository.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * 保持期間より古いログをDBからアーカイブへ移す。
+ * <p>
+ * ユーザーごとに対象のログを月単位で読み出してアーカイブへ追記し、すべて書き終えてからDBの行を削除する。
+ * 途中で失敗してもDBの行は残り、再実行すると同じ日付を追記し直す（アーカイブでは後の追記が有効になる）。
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DailyLogArchiver {
+
+    /** アーカイブ対象の検索の下限（これより前のログは存在しない） */
+    private static final LocalDate EARLIEST = LocalDate.EPOCH;
+
+    /** DBのログ（アーカイブのデコレータを通さないもの） */
+    private final DailyLogRepository hotRepository;
+    private final DailyLogArchive archive;
+    private final ArchivePolicy policy;
+
+    /**
+     * 対象のログを持つ全ユーザーについてアーカイブへ移す。
+     *
+     * @return 対象だったユーザー数
+     */
+    public int archive() {
+        LocalDate before = policy.archiveBefore();
+        List<Long> userIds = hotRepository.findUserIdsWithLogsBefore(before);
+        for (Long userId : userIds) {
+            archiveUser(userId, before);
+        }
+        log.info("Archived logs before {} for {} users", before, userIds.size());
+        return userIds.size();
+    }
+
+    void archiveUser(Long userId, LocalDate before) {
+        // 子要素込みの読み出しは、日付の一覧から分かるログのある月ごとに行い、使用メモリを1か月分に抑える
+        List<YearMonth> months = hotRepository.findByUserIdAndDateRange(userId, EARLIEST, before).stream()
+                .map(dailyLog -> YearMonth.from(dailyLog.getLogDate()))
+                .distinct()
+                .toList();
+        int archived = 0;
+        for (YearMonth month : months) {
+            List<DailyLog> logs = hotRepository.findWithDetailsByUserIdAndMonth(userId, month).stream()
+                    .filter(dailyLog -> dailyLog.getLogDate().isBefore(before))
+                    .toList();
+            archive.append(userId, logs);
+            archived += logs.size();
+        }
+        hotRepository.deleteByUserIdBefore(userId, before);
+        log.debug("Archived {} logs of user {}", archived, userId);
+    }
+}
@@ -0,0 +1,27 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * キャッシュのデコレータに共通の処理。
+ */
+final class CacheSupport {
+
+    private CacheSupport() {
+    }
+
+    /**
+     * ヒット・ミス・追い出しなどの統計を {@code cache.*} のメトリクスとして登録し、
+     * サイズの調整に使うヒット率を {@code cache.hit.ratio} として加える。
+     */
+    static void bindMetrics(MeterRegistry registry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .description("The ratio of cache requests which were hits")
+                .register(registry);
+    }
+}
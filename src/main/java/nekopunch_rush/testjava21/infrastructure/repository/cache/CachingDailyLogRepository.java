@@ -0,0 +1,83 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.InvalidatingDailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogInvalidation;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * 1日分の詳細取得（{@link #findByUserIdAndLogDate}）の結果をキャッシュするデコレータ。
+ * <p>
+ * 同じ日の詳細を繰り返し取得する場合に、委譲先の問い合わせ（MyBatisでは子テーブルを含む5クエリ）を省略する。
+ * DailyLogは不変のため、キャッシュしたインスタンスをそのまま返す。存在しなかった結果もキャッシュする。
+ * <p>
+ * 登録・更新・削除では対象の日のエントリだけを破棄する（トランザクション内の場合はコミット後にも破棄する）。
+ * 他のインスタンスでの変更は {@link #onInvalidation} で受け取った時点で破棄する（受け取れなかった場合は {@code expireAfterWrite} が経つまで反映されない）。
+ */
+public class CachingDailyLogRepository extends InvalidatingDailyLogRepository implements MeterBinder {
+
+    private final Cache<Key, Optional<DailyLog>> cache;
+
+    public CachingDailyLogRepository(DailyLogRepository delegate, long maximumSize, Duration expireAfterWrite) {
+        super(delegate);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    protected void onWrite(Long userId, LocalDate logDate) {
+        cache.invalidate(new Key(userId, logDate));
+    }
+
+    @Override
+    protected void onWriteBefore(Long userId, LocalDate before) {
+        cache.asMap().keySet().removeIf(key -> key.userId().equals(userId) && key.logDate().isBefore(before));
+    }
+
+    @Override
+    public Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        // 同じキーの読み込みが並行した場合は1回だけ委譲する
+        return cache.get(new Key(userId, logDate), key -> delegate.findByUserIdAndLogDate(userId, logDate));
+    }
+
+    @Override
+    public boolean existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        Optional<DailyLog> cached = cache.getIfPresent(new Key(userId, logDate));
+        return cached != null ? cached.isPresent() : delegate.existsByUserIdAndLogDate(userId, logDate);
+    }
+
+    /**
+     * 他のインスタンスで変更された日のエントリを破棄する。
+     */
+    public void onInvalidation(DailyLogInvalidation invalidation) {
+        if (invalidation.isAllDays()) {
+            cache.asMap().keySet().removeIf(key -> key.userId().equals(invalidation.userId()));
+        } else {
+            cache.invalidate(new Key(invalidation.userId(), invalidation.logDate()));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheSupport.bindMetrics(registry, cache, DailyLogCacheConfiguration.CACHE_NAME);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private record Key(Long userId, LocalDate logDate) {
+    }
+}
@@ -0,0 +1,115 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.DailyLogRepositoryDecorator;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogInvalidationBus;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogWriteNotifier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * ログの読み取りキャッシュの構成。
+ * <p>
+ * {@code lifelog.cache.enabled=true} の場合のみ有効になり、DailyLogRepositoryの最も外側にキャッシュを重ねる。
+ * 1日分の詳細と月単位の一覧を別々にキャッシュし、ヒット率・追い出し数などは {@code cache.*} のメトリクス
+ * （{@code cache=dailyLog} / {@code cache=dailyLogMonth} / {@code cache=dailyLogOffHeap}）として公開する。
+ * {@code lifelog.cache.off-heap.enabled=true} の場合は、1日分の詳細の2段目としてヒープ外のキャッシュを重ねる。
+ * {@code lifelog.invalidation.enabled=true} の場合は、他のインスタンスでの変更を受け取って破棄する。
+ * R2DBC版リポジトリの書き込み（デコレータを通らない）は、DailyLogWriteNotifierから受け取って破棄する。
+ * {@code lifelog.cache.warmup.enabled=true} の場合は、トラフィックを受ける前に最近ログを付けたユーザーの分を読み込む。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lifelog.cache", name = "enabled", havingValue = "true")
+public class DailyLogCacheConfiguration {
+
+    /** ヒットした読み取りがアーカイブ・遅延書き込み・接続先の振り分けをすべて省略できるよう、最も外側に置く */
+    public static final int CACHE_ORDER = 250;
+
+    /** 1日分のヒープ外のキャッシュ。ヒープ上のキャッシュから追い出された日を受けるよう、そのすぐ内側に置く */
+    public static final int OFF_HEAP_CACHE_ORDER = 255;
+
+    /** 月単位の一覧のキャッシュ。1日分のキャッシュのすぐ内側に置く */
+    public static final int MONTH_CACHE_ORDER = 260;
+
+    static final String CACHE_NAME = "dailyLog";
+    static final String MONTH_CACHE_NAME = "dailyLogMonth";
+    static final String OFF_HEAP_CACHE_NAME = "dailyLogOffHeap";
+
+    @Bean
+    public DailyLogRepositoryDecorator dailyLogCacheDecorator(DailyLogCacheProperties properties,
+                                                              ObjectProvider<MeterRegistry> meterRegistry,
+                                                              ObjectProvider<DailyLogInvalidationBus> invalidationBus,
+                                                              ObjectProvider<DailyLogWriteNotifier> writeNotifier) {
+        return DailyLogRepositoryDecorator.of(CACHE_ORDER, delegate -> {
+            CachingDailyLogRepository repository = new CachingDailyLogRepository(delegate,
+                    properties.getMaximumSize(), properties.getExpireAfterWrite());
+            meterRegistry.ifAvailable(repository::bindTo);
+            invalidationBus.ifAvailable(bus -> bus.subscribe(repository::onInvalidation));
+            writeNotifier.ifAvailable(notifier -> notifier.subscribe(repository::onInvalidation));
+            return repository;
+        });
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "lifelog.cache.off-heap", name = "enabled", havingValue = "true")
+    public DailyLogRepositoryDecorator offHeapDailyLogCacheDecorator(DailyLogCacheProperties properties,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry,
+                                                                     ObjectProvider<DailyLogInvalidationBus> invalidationBus,
+                                                                     ObjectProvider<DailyLogWriteNotifier> writeNotifier) {
+        DailyLogCacheProperties.OffHeap offHeap = properties.getOffHeap();
+        return DailyLogRepositoryDecorator.of(OFF_HEAP_CACHE_ORDER, delegate -> {
+            OffHeapCachingDailyLogRepository repository = new OffHeapCachingDailyLogRepository(delegate,
+                    offHeap.getCapacity().toBytes(), (int) offHeap.getChunkSize().toBytes(),
+                    offHeap.getSegments(), offHeap.getExpireAfterWrite());
+            meterRegistry.ifAvailable(repository::bindTo);
+            invalidationBus.ifAvailable(bus -> bus.subscribe(repository::onInvalidation));
+            writeNotifier.ifAvailable(notifier -> notifier.subscribe(repository::onInvalidation));
+            return repository;
+        });
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "lifelog.cache.month", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public DailyLogRepositoryDecorator monthSummaryCacheDecorator(DailyLogCacheProperties properties,
+                                                                  ObjectProvider<MeterRegistry> meterRegistry,
+                                                                  ObjectProvider<DailyLogInvalidationBus> invalidationBus,
+                                                                  ObjectProvider<DailyLogWriteNotifier> writeNotifier) {
+        DailyLogCacheProperties.Month month = properties.getMonth();
+        return DailyLogRepositoryDecorator.of(MONTH_CACHE_ORDER, delegate -> {
+            MonthSummaryCachingDailyLogRepository repository = new MonthSummaryCachingDailyLogRepository(delegate,
+                    month.getMaximumSize(), month.getCurrentMonthExpiry(), month.getPastMonthExpiry(),
+                    Clock.systemDefaultZone());
+            meterRegistry.ifAvailable(repository::bindTo);
+            invalidationBus.ifAvailable(bus -> bus.subscribe(repository::onInvalidation));
+            writeNotifier.ifAvailable(notifier -> notifier.subscribe(repository::onInvalidation));
+            return repository;
+        });
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "lifelog.cache.warmup", name = "enabled", havingValue = "true")
+    public DailyLogCacheWarmer dailyLogCacheWarmer(DailyLogRepository dailyLogRepository,
+                                                   DailyLogCacheProperties properties) {
+        DailyLogCacheProperties.Warmup warmup = properties.getWarmup();
+        // キャッシュに載せるため、デコレータを重ねたリポジトリ（@Primary）を通して読む
+        return new DailyLogCacheWarmer(dailyLogRepository, warmup.getActiveWithin(), warmup.getMaximumUsers(),
+                warmup.getConcurrency(), warmup.getTimeout(), Clock.systemDefaultZone());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "lifelog.cache.warmup", name = "enabled", havingValue = "true")
+    public DailyLogCacheWarmupRunner dailyLogCacheWarmupRunner(DailyLogCacheWarmer dailyLogCacheWarmer) {
+        return new DailyLogCacheWarmupRunner(dailyLogCacheWarmer);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "lifelog.cache.warmup", name = "enabled", havingValue = "true")
+    public DailyLogCacheWarmupHealthIndicator cacheWarmupHealthIndicator(DailyLogCacheWarmer dailyLogCacheWarmer) {
+        return new DailyLogCacheWarmupHealthIndicator(dailyLogCacheWarmer);
+    }
+}
@@ -0,0 +1,90 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Period;
+
+/**
+ * ログの読み取りキャッシュの設定。
+ * <p>
+ * application.yml の {@code lifelog.cache.*} にバインドされる。
+ */
+@Data
+@ConfigurationProperties(prefix = "lifelog.cache")
+public class DailyLogCacheProperties {
+
+    /** 1日分の詳細取得の結果をメモリにキャッシュするか */
+    private boolean enabled = false;
+
+    /** キャッシュする (userId, logDate) の件数の上限。超えた分は使われていないものから追い出す */
+    private long maximumSize = 10_000;
+
+    /** 登録からこの時間が経ったエントリは破棄する（他のインスタンスでの更新が反映されるまでの上限） */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /** 月単位の一覧のキャッシュ */
+    private Month month = new Month();
+
+    /** 1日分の詳細のヒープ外のキャッシュ */
+    private OffHeap offHeap = new OffHeap();
+
+    /** 起動時の事前読み込み */
+    private Warmup warmup = new Warmup();
+
+    @Data
+    public static class Month {
+
+        /** 月単位の一覧（カレンダー表示）の結果もキャッシュするか */
+        private boolean enabled = true;
+
+        /** キャッシュする (userId, 年月) の件数の上限 */
+        private long maximumSize = 10_000;
+
+        /** 当月（以降）のエントリを破棄するまでの時間 */
+        private Duration currentMonthExpiry = Duration.ofMinutes(5);
+
+        /** 過去の月のエントリを破棄するまでの時間（ほとんど変更されないため長く保持する） */
+        private Duration pastMonthExpiry = Duration.ofHours(24);
+    }
+
+    @Data
+    public static class OffHeap {
+
+        /** ヒープ上のキャッシュから追い出された日を、直接メモリにバイナリ形式で保持するか */
+        private boolean enabled = false;
+
+        /** 使う直接メモリの上限（-XX:MaxDirectMemorySize より小さくする） */
+        private DataSize capacity = DataSize.ofMegabytes(256);
+
+        /** 値を格納する単位。1日分の詳細のバイナリ形式の典型的な大きさに合わせる */
+        private DataSize chunkSize = DataSize.ofBytes(256);
+
+        /** 容量を分けるセグメント数（セグメントごとにロックするため、並行する読み取りの多さに合わせる） */
+        private int segments = 16;
+
+        /** 登録からこの時間が経ったエントリは破棄する */
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Warmup {
+
+        /** 起動時（トラフィックを受ける前）に、最近ログを付けたユーザーの当月・前月の一覧と今日の詳細を読み込むか */
+        private boolean enabled = false;
+
+        /** この期間内にログのあるユーザーを対象にする */
+        private Period activeWithin = Period.ofDays(7);
+
+        /** 対象にするユーザー数の上限（キャッシュの件数の上限を超えないようにする） */
+        private int maximumUsers = 2_000;
+
+        /** 同時に読み込むユーザー数（DBの接続プールの大きさより小さくする） */
+        private int concurrency = 4;
+
+        /** これを超えたら残りを諦めてトラフィックを受け始める */
+        private Duration timeout = Duration.ofMinutes(2);
+    }
+}
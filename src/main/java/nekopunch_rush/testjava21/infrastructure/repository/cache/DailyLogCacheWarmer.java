@@ -0,0 +1,141 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import nekopunch_rush.testjava21.infrastructure.repository.ActiveUser;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 最近ログを付けたユーザーについて、よく読まれる範囲を読み取りキャッシュへ先に読み込む。
+ * <p>
+ * 対象は activeWithin 以内にログのあるユーザー（最後にログを付けた日の新しい順に maximumUsers まで）で、
+ * 当月と前月の一覧、今日の詳細をデコレータを通して読み、キャッシュに載せる。
+ * 同時に読み込むユーザー数は concurrency までに抑え、timeout が経ったらまだ始めていないユーザーを諦めて終える。
+ * 読み込み中のユーザーは割り込まずに最後まで読ませる（割り込むと接続プールの接続が閉じられるため）。
+ * 読み込みに失敗したユーザーは数えて読み飛ばす（キャッシュに無い分は通常どおり読み取り時に読み込まれる）。
+ * 読み込み中のスレッドが割り込まれた場合は、割り込みの状態を戻して残りのユーザーを読まずに終える。
+ */
+@Slf4j
+public class DailyLogCacheWarmer {
+
+    public enum State {
+        NOT_STARTED, RUNNING, COMPLETED, TIMED_OUT, FAILED
+    }
+
+    private final DailyLogRepository repository;
+    private final Period activeWithin;
+    private final int maximumUsers;
+    private final int concurrency;
+    private final Duration timeout;
+    private final Clock clock;
+
+    private volatile State state = State.NOT_STARTED;
+    private volatile boolean stopped;
+    private final AtomicInteger targetUsers = new AtomicInteger();
+    private final AtomicInteger warmedUsers = new AtomicInteger();
+    private final AtomicInteger failedUsers = new AtomicInteger();
+
+    public DailyLogCacheWarmer(DailyLogRepository repository, Period activeWithin, int maximumUsers,
+                               int concurrency, Duration timeout, Clock clock) {
+        this.repository = repository;
+        this.activeWithin = activeWithin;
+        this.maximumUsers = maximumUsers;
+        this.concurrency = concurrency;
+        this.timeout = timeout;
+        this.clock = clock;
+    }
+
+    /**
+     * 読み込みが終わるか timeout が経つまで、呼び出したスレッドを待たせる。
+     */
+    public void warmUp() {
+        state = State.RUNNING;
+        long startedAt = System.nanoTime();
+        LocalDate today = LocalDate.now(clock);
+        List<ActiveUser> users;
+        try {
+            users = repository.findActiveUsersSince(today.minus(activeWithin), maximumUsers);
+        } catch (RuntimeException e) {
+            log.warn("キャッシュの事前読み込みの対象ユーザーを取得できませんでした", e);
+            state = State.FAILED;
+            return;
+        }
+        targetUsers.set(users.size());
+
+        stopped = false;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+                Thread.ofPlatform().name("cache-warmup-", 0).daemon().factory());
+        try {
+            users.forEach(user -> executor.execute(() -> warmUp(user.userId(), today)));
+            executor.shutdown();
+            state = executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                    ? State.COMPLETED : State.TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.TIMED_OUT;
+        } finally {
+            // 待ち行列に残ったユーザーは読まずに終わらせる。読み込み中のスレッドはデーモンのため起動を妨げない
+            stopped = true;
+        }
+        log.info("キャッシュの事前読み込みを終了しました: state={}, users={}/{}, failed={}, elapsed={}ms",
+                state, warmedUsers.get(), targetUsers.get(), failedUsers.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /** 読み込み対象のユーザー数 */
+    public int getTargetUsers() {
+        return targetUsers.get();
+    }
+
+    /** 読み込みを終えたユーザー数 */
+    public int getWarmedUsers() {
+        return warmedUsers.get();
+    }
+
+    /** 読み込みに失敗したユーザー数 */
+    public int getFailedUsers() {
+        return failedUsers.get();
+    }
+
+    private void warmUp(Long userId, LocalDate today) {
+        if (stopped) return;
+        try {
+            load(userId, today);
+            warmedUsers.incrementAndGet();
+        } catch (InterruptedException e) {
+            // 割り込まれた場合は残りのユーザーも読まずに終える
+            Thread.currentThread().interrupt();
+            stopped = true;
+        } catch (RuntimeException e) {
+            failedUsers.incrementAndGet();
+            log.warn("キャッシュの事前読み込みに失敗しました: userId={}", userId, e);
+        }
+    }
+
+    private void load(Long userId, LocalDate today) throws InterruptedException {
+        YearMonth currentMonth = YearMonth.from(today);
+        repository.findByUserIdAndMonth(userId, currentMonth);
+        checkInterrupted();
+        repository.findByUserIdAndMonth(userId, currentMonth.minusMonths(1));
+        checkInterrupted();
+        repository.findByUserIdAndLogDate(userId, today);
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) throw new InterruptedException();
+    }
+}
@@ -0,0 +1,32 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * キャッシュの事前読み込みの進み具合を {@code cacheWarmup} として返す。
+ * <p>
+ * 読み込み中は OUT_OF_SERVICE、終了後は（timeout・失敗で打ち切った場合も）UP とし、
+ * 対象・完了・失敗のユーザー数を詳細に含める。
+ */
+@RequiredArgsConstructor
+public class DailyLogCacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final DailyLogCacheWarmer warmer;
+
+    @Override
+    public Health health() {
+        DailyLogCacheWarmer.State state = warmer.getState();
+        Health.Builder builder = switch (state) {
+            case NOT_STARTED, RUNNING -> Health.outOfService();
+            case COMPLETED, TIMED_OUT, FAILED -> Health.up();
+        };
+        return builder
+                .withDetail("state", state)
+                .withDetail("targetUsers", warmer.getTargetUsers())
+                .withDetail("warmedUsers", warmer.getWarmedUsers())
+                .withDetail("failedUsers", warmer.getFailedUsers())
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+/**
+ * 起動時にキャッシュの事前読み込みを行う。
+ * <p>
+ * ApplicationRunnerの完了後に readiness が ACCEPTING_TRAFFIC になるため、読み込みが終わるまで
+ * （または timeout が経つまで）ロードバランサからのトラフィックを受けない。
+ * 進み具合は {@code /actuator/health} の {@code cacheWarmup} で確認できる。
+ */
+@RequiredArgsConstructor
+public class DailyLogCacheWarmupRunner implements ApplicationRunner {
+
+    private final DailyLogCacheWarmer warmer;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmer.warmUp();
+    }
+}
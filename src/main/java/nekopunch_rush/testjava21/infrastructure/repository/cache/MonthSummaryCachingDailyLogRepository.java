@@ -0,0 +1,105 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.InvalidatingDailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogInvalidation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * 月単位の一覧（{@link #findByUserIdAndMonth}、子要素なし）の結果を (userId, 年月) ごとにキャッシュするデコレータ。
+ * <p>
+ * カレンダー表示のたびに同じ月を問い合わせる場合に、委譲先の問い合わせを省略する。
+ * 登録・更新・削除ではその日を含む月のエントリだけを破棄する（トランザクション内の場合はコミット後にも破棄する）。
+ * <p>
+ * 過去の月はほとんど変更されないため、当月より長く保持する。当月かどうかはエントリの登録時点で判定する。
+ */
+public class MonthSummaryCachingDailyLogRepository extends InvalidatingDailyLogRepository implements MeterBinder {
+
+    private final Cache<Key, List<DailyLog>> cache;
+
+    public MonthSummaryCachingDailyLogRepository(DailyLogRepository delegate, long maximumSize,
+                                                 Duration currentMonthExpiry, Duration pastMonthExpiry, Clock clock) {
+        super(delegate);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new MonthExpiry(currentMonthExpiry, pastMonthExpiry, clock))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    protected void onWrite(Long userId, LocalDate logDate) {
+        cache.invalidate(new Key(userId, YearMonth.from(logDate)));
+    }
+
+    @Override
+    protected void onWriteBefore(Long userId, LocalDate before) {
+        // before を含む月も、その月の before より前の日が消えている
+        YearMonth last = YearMonth.from(before);
+        cache.asMap().keySet().removeIf(key -> key.userId().equals(userId) && !key.yearMonth().isAfter(last));
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return cache.get(new Key(userId, yearMonth),
+                key -> List.copyOf(delegate.findByUserIdAndMonth(userId, yearMonth)));
+    }
+
+    /**
+     * 他のインスタンスで変更された日を含む月のエントリを破棄する。
+     */
+    public void onInvalidation(DailyLogInvalidation invalidation) {
+        if (invalidation.isAllDays()) {
+            cache.asMap().keySet().removeIf(key -> key.userId().equals(invalidation.userId()));
+        } else {
+            cache.invalidate(new Key(invalidation.userId(), YearMonth.from(invalidation.logDate())));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheSupport.bindMetrics(registry, cache, DailyLogCacheConfiguration.MONTH_CACHE_NAME);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private record Key(Long userId, YearMonth yearMonth) {
+    }
+
+    /**
+     * 登録時点で過去の月なら pastMonthExpiry、当月以降なら currentMonthExpiry で期限切れにする。
+     */
+    private record MonthExpiry(Duration currentMonthExpiry, Duration pastMonthExpiry, Clock clock)
+            implements Expiry<Key, List<DailyLog>> {
+
+        @Override
+        public long expireAfterCreate(Key key, List<DailyLog> value, long currentTime) {
+            boolean past = key.yearMonth().isBefore(YearMonth.now(clock));
+            return (past ? pastMonthExpiry : currentMonthExpiry).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, List<DailyLog> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, List<DailyLog> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
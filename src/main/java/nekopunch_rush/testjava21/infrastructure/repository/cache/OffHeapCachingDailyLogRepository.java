@@ -0,0 +1,136 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.codec.DailyLogCodec;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.InvalidatingDailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogInvalidation;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 1日分の詳細取得（{@link #findByUserIdAndLogDate}）の結果を、{@link DailyLogCodec} の形式でヒープ外にキャッシュするデコレータ。
+ * <p>
+ * 大量の日をキャッシュする場合に、子要素・値オブジェクトを含むオブジェクトのグラフをヒープに持たず、
+ * 古い世代の肥大とGCの停止時間を抑える。ヒットするたびにデコードするため、1件あたりの取得は
+ * ヒープ上のキャッシュより遅い。ヒープ上のキャッシュ（{@link CachingDailyLogRepository}）の内側に置き、
+ * そこから追い出された日を保持する2段目として使う。
+ * <p>
+ * 登録・更新・削除では対象の日を破棄する（トランザクション内の場合はコミット後にも破棄する）。
+ * 存在しなかった結果は0バイトの値としてキャッシュする。
+ */
+public class OffHeapCachingDailyLogRepository extends InvalidatingDailyLogRepository implements MeterBinder {
+
+    private static final byte[] ABSENT = new byte[0];
+
+    private final OffHeapLruStore<Key> store;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public OffHeapCachingDailyLogRepository(DailyLogRepository delegate, long capacityBytes, int chunkSize,
+                                            int segments, Duration expireAfterWrite) {
+        this(delegate, capacityBytes, chunkSize, segments, expireAfterWrite, System::nanoTime);
+    }
+
+    OffHeapCachingDailyLogRepository(DailyLogRepository delegate, long capacityBytes, int chunkSize,
+                                     int segments, Duration expireAfterWrite, LongSupplier nanoTime) {
+        super(delegate);
+        this.store = new OffHeapLruStore<>(capacityBytes, chunkSize, segments, expireAfterWrite, nanoTime);
+    }
+
+    @Override
+    protected void onWrite(Long userId, LocalDate logDate) {
+        store.remove(new Key(userId, logDate));
+    }
+
+    @Override
+    protected void onWriteBefore(Long userId, LocalDate before) {
+        store.removeIf(key -> key.userId().equals(userId) && key.logDate().isBefore(before));
+    }
+
+    @Override
+    public Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        Key key = new Key(userId, logDate);
+        byte[] cached = store.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached.length == 0
+                    ? Optional.empty()
+                    : Optional.of(DailyLogCodec.decode(userId, logDate, ByteBuffer.wrap(cached)));
+        }
+        misses.increment();
+        long stamp = store.stamp(key);
+        Optional<DailyLog> loaded = delegate.findByUserIdAndLogDate(userId, logDate);
+        store.putIfUnchanged(key, loaded.map(DailyLogCodec::encode).orElse(ABSENT), stamp);
+        return loaded;
+    }
+
+    @Override
+    public boolean existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        byte[] cached = store.get(new Key(userId, logDate));
+        return cached != null ? cached.length > 0 : delegate.existsByUserIdAndLogDate(userId, logDate);
+    }
+
+    /**
+     * 他のインスタンスで変更された日のエントリを破棄する。
+     */
+    public void onInvalidation(DailyLogInvalidation invalidation) {
+        if (invalidation.isAllDays()) {
+            store.removeIf(key -> key.userId().equals(invalidation.userId()));
+        } else {
+            store.remove(new Key(invalidation.userId(), invalidation.logDate()));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        String name = DailyLogCacheConfiguration.OFF_HEAP_CACHE_NAME;
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", store, OffHeapLruStore::evictions)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", store, OffHeapLruStore::size)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.hit.ratio", this, OffHeapCachingDailyLogRepository::hitRate)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("lifelog.cache.off-heap.used", store, OffHeapLruStore::usedBytes)
+                .tag("cache", name)
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        Gauge.builder("lifelog.cache.off-heap.capacity", store, OffHeapLruStore::capacityBytes)
+                .tag("cache", name)
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /** 使用中のバイト数 */
+    public long usedBytes() {
+        return store.usedBytes();
+    }
+
+    private record Key(Long userId, LocalDate logDate) {
+    }
+}
@@ -0,0 +1,207 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * ヒープ外（ダイレクトメモリ）にバイト列を格納する、バイト数の上限付きのLRUストア。
+ * <p>
+ * 容量をセグメントに分け、各セグメントは1つのダイレクトバッファを固定長のチャンクに区切って使う。
+ * 値は必要な数のチャンクに分けて書き、ヒープにはキーとチャンク番号の表だけを持つ。
+ * 空きチャンクが足りない場合は、そのセグメントで最も長く使われていないエントリから追い出す。
+ * <p>
+ * 読み込み中に同じキーが破棄された場合に古い値を書き戻さないよう、書き込みは {@link #stamp} で得た
+ * 破棄の世代が変わっていない場合だけ行う（{@link #putIfUnchanged}）。
+ */
+final class OffHeapLruStore<K> {
+
+    private final Segment<K>[] segments;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier nanoTime;
+
+    @SuppressWarnings("unchecked")
+    OffHeapLruStore(long capacityBytes, int chunkSize, int segmentCount, Duration expireAfterWrite, LongSupplier nanoTime) {
+        long chunksPerSegment = capacityBytes / chunkSize / segmentCount;
+        if (chunksPerSegment < 1 || chunksPerSegment * chunkSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("1セグメントの容量は1チャンク以上2GB未満にしてください: capacity="
+                    + capacityBytes + ", chunkSize=" + chunkSize + ", segments=" + segmentCount);
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>((int) chunksPerSegment, chunkSize);
+        }
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * 格納した値のコピーを返す。無い場合・期限切れの場合は null。
+     */
+    byte[] get(K key) {
+        return segmentFor(key).get(key, nanoTime.getAsLong());
+    }
+
+    /**
+     * キーの破棄の世代。読み込みの前に取得し、{@link #putIfUnchanged} に渡す。
+     */
+    long stamp(K key) {
+        return segmentFor(key).generation();
+    }
+
+    /**
+     * stamp の取得後に同じセグメントで破棄が無かった場合だけ格納する。
+     *
+     * @return 格納した場合true（破棄があった場合、値が容量より大きい場合はfalse）
+     */
+    boolean putIfUnchanged(K key, byte[] value, long stamp) {
+        return segmentFor(key).put(key, value, stamp, nanoTime.getAsLong() + expireAfterWriteNanos);
+    }
+
+    void remove(K key) {
+        segmentFor(key).remove(key);
+    }
+
+    void removeIf(Predicate<K> filter) {
+        for (Segment<K> segment : segments) {
+            segment.removeIf(filter);
+        }
+    }
+
+    long size() {
+        long size = 0;
+        for (Segment<K> segment : segments) size += segment.size();
+        return size;
+    }
+
+    /** 使用中のチャンクのバイト数（チャンク内の未使用分を含む） */
+    long usedBytes() {
+        long used = 0;
+        for (Segment<K> segment : segments) used += segment.usedBytes();
+        return used;
+    }
+
+    long capacityBytes() {
+        long capacity = 0;
+        for (Segment<K> segment : segments) capacity += segment.capacityBytes();
+        return capacity;
+    }
+
+    /** 容量の不足または期限切れで追い出したエントリ数 */
+    long evictions() {
+        long evictions = 0;
+        for (Segment<K> segment : segments) evictions += segment.evictions();
+        return evictions;
+    }
+
+    private Segment<K> segmentFor(K key) {
+        int hash = key.hashCode();
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    private record Slot(int length, long expiresAt, int[] chunks) {
+    }
+
+    private static final class Segment<K> {
+
+        private final ByteBuffer memory;
+        private final int chunkSize;
+        private final int[] freeChunks;
+        private int freeCount;
+        // アクセス順。先頭が最も長く使われていないエントリ
+        private final LinkedHashMap<K, Slot> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long generation;
+        private long evictions;
+
+        Segment(int chunks, int chunkSize) {
+            this.memory = ByteBuffer.allocateDirect(chunks * chunkSize);
+            this.chunkSize = chunkSize;
+            this.freeChunks = new int[chunks];
+            for (int i = 0; i < chunks; i++) {
+                freeChunks[i] = chunks - 1 - i;
+            }
+            this.freeCount = chunks;
+        }
+
+        synchronized byte[] get(K key, long now) {
+            Slot slot = entries.get(key);
+            if (slot == null) return null;
+            if (slot.expiresAt() - now <= 0) {
+                release(entries.remove(key));
+                evictions++;
+                return null;
+            }
+            byte[] value = new byte[slot.length()];
+            int[] chunks = slot.chunks();
+            for (int i = 0; i < chunks.length; i++) {
+                int offset = i * chunkSize;
+                memory.get(chunks[i] * chunkSize, value, offset, Math.min(chunkSize, value.length - offset));
+            }
+            return value;
+        }
+
+        synchronized boolean put(K key, byte[] value, long stamp, long expiresAt) {
+            int needed = (value.length + chunkSize - 1) / chunkSize;
+            if (stamp != generation || needed > freeChunks.length) return false;
+            release(entries.remove(key));
+            Iterator<Slot> eldest = entries.values().iterator();
+            while (freeCount < needed) {
+                release(eldest.next());
+                eldest.remove();
+                evictions++;
+            }
+            int[] chunks = new int[needed];
+            for (int i = 0; i < needed; i++) {
+                int offset = i * chunkSize;
+                chunks[i] = freeChunks[--freeCount];
+                memory.put(chunks[i] * chunkSize, value, offset, Math.min(chunkSize, value.length - offset));
+            }
+            entries.put(key, new Slot(value.length, expiresAt, chunks));
+            return true;
+        }
+
+        synchronized void remove(K key) {
+            generation++;
+            release(entries.remove(key));
+        }
+
+        synchronized void removeIf(Predicate<K> filter) {
+            generation++;
+            entries.entrySet().removeIf(entry -> {
+                if (!filter.test(entry.getKey())) return false;
+                release(entry.getValue());
+                return true;
+            });
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long usedBytes() {
+            return (long) (freeChunks.length - freeCount) * chunkSize;
+        }
+
+        long capacityBytes() {
+            return (long) freeChunks.length * chunkSize;
+        }
+
+        synchronized long evictions() {
+            return evictions;
+        }
+
+        private void release(Slot slot) {
+            if (slot == null) return;
+            for (int chunk : slot.chunks()) {
+                freeChunks[freeCount++] = chunk;
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package nekopunch_rush.testjava21.infrastructure.repository.codec;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.ActivityEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.BodyMetricsEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.DailyLogEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.MealEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.MentalNoteEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogMapperSupport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * ファイルに格納する1日分のログのバイナリ形式（アーカイブ・組み込みストレージエンジンで共用）。
+ * <p>
+ * userIdとlogDateはファイルと索引から分かるため含めない。先頭に睡眠時間・気分を置き、
+ * 一覧表示（子要素なし）では先頭の13バイトだけを読む。
+ * <pre>
+ * version(1) sleepHours(8) moodLevel(4)
+ * 件数(4) 体重 [weight(8) bodyFat(8) muscle(8) measuredAt(12)]...
+ * 件数(4) 活動 [type(str) startedAt(12) duration(4) distance(8) steps(4) calories(4)]...
+ * 件数(4) 食事 [time(8) content(str) calories(4) photoUrl(str)]...
+ * 件数(4) メモ [recordedAt(12) stress(4) motivation(4) note(str)]...
+ * </pre>
+ * 日時はUTCとみなした秒(8)とナノ秒(4)、文字列はUTF-8のバイト長(4、nullは-1)と本体で表す。
+ */
+public final class DailyLogCodec {
+
+    private static final byte VERSION = 1;
+
+    /** {@link #decodeSummary} が読む先頭のバイト数 */
+    public static final int SUMMARY_BYTES = 1 + Double.BYTES + Integer.BYTES;
+
+    private DailyLogCodec() {
+    }
+
+    public static byte[] encode(DailyLog log) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeDouble(log.getSleepHours());
+            out.writeInt(log.getMoodLevel());
+
+            List<BodyMetricsEntity> bodyMetrics = DailyLogMapperSupport.toBodyMetricsEntities(log);
+            out.writeInt(bodyMetrics.size());
+            for (BodyMetricsEntity e : bodyMetrics) {
+                out.writeDouble(e.getWeight());
+                out.writeDouble(e.getBodyFatPercentage());
+                out.writeDouble(e.getMuscleMass());
+                writeDateTime(out, e.getMeasuredAt());
+            }
+
+            List<ActivityEntity> activities = DailyLogMapperSupport.toActivityEntities(log);
+            out.writeInt(activities.size());
+            for (ActivityEntity e : activities) {
+                writeString(out, e.getType());
+                writeDateTime(out, e.getStartedAt());
+                out.writeInt(e.getDurationInMinutes());
+                out.writeDouble(e.getDistanceKm());
+                out.writeInt(e.getSteps());
+                out.writeInt(e.getCaloriesBurned());
+            }
+
+            List<MealEntity> meals = DailyLogMapperSupport.toMealEntities(log);
+            out.writeInt(meals.size());
+            for (MealEntity e : meals) {
+                out.writeLong(e.getTime().toNanoOfDay());
+                writeString(out, e.getContent());
+                out.writeInt(e.getCalories());
+                writeString(out, e.getPhotoUrl());
+            }
+
+            List<MentalNoteEntity> notes = DailyLogMapperSupport.toMentalNoteEntities(log);
+            out.writeInt(notes.size());
+            for (MentalNoteEntity e : notes) {
+                writeDateTime(out, e.getRecordedAt());
+                out.writeInt(e.getStressLevel());
+                out.writeInt(e.getMotivationLevel());
+                writeString(out, e.getNote());
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStreamへの書き込みでは発生しない
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 子要素込みで復元する。buffer の位置は先頭であること。
+     */
+    public static DailyLog decode(Long userId, LocalDate logDate, ByteBuffer buffer) {
+        DailyLogEntity entity = decodeHeader(userId, logDate, buffer);
+        entity.setBodyMetricsList(readList(buffer, in -> BodyMetricsEntity.builder()
+                .userId(userId)
+                .logDate(logDate)
+                .weight(in.getDouble())
+                .bodyFatPercentage(in.getDouble())
+                .muscleMass(in.getDouble())
+                .measuredAt(readDateTime(in))
+                .build()));
+        entity.setActivityList(readList(buffer, in -> ActivityEntity.builder()
+                .userId(userId)
+                .logDate(logDate)
+                .type(readString(in))
+                .startedAt(readDateTime(in))
+                .durationInMinutes(in.getInt())
+                .distanceKm(in.getDouble())
+                .steps(in.getInt())
+                .caloriesBurned(in.getInt())
+                .build()));
+        entity.setMealList(readList(buffer, in -> MealEntity.builder()
+                .userId(userId)
+                .logDate(logDate)
+                .time(LocalTime.ofNanoOfDay(in.getLong()))
+                .content(readString(in))
+                .calories(in.getInt())
+                .photoUrl(readString(in))
+                .build()));
+        entity.setMentalNoteList(readList(buffer, in -> MentalNoteEntity.builder()
+                .userId(userId)
+                .logDate(logDate)
+                .recordedAt(readDateTime(in))
+                .stressLevel(in.getInt())
+                .motivationLevel(in.getInt())
+                .note(readString(in))
+                .build()));
+        return DailyLogMapperSupport.toDomain(entity);
+    }
+
+    /**
+     * 睡眠時間・気分のみを復元する（子要素は空）。
+     */
+    public static DailyLog decodeSummary(Long userId, LocalDate logDate, ByteBuffer buffer) {
+        return DailyLogMapperSupport.toDomainSummary(decodeHeader(userId, logDate, buffer));
+    }
+
+    private static DailyLogEntity decodeHeader(Long userId, LocalDate logDate, ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("未対応のアーカイブ形式です: version=" + version);
+        }
+        return DailyLogEntity.builder()
+                .userId(userId)
+                .logDate(logDate)
+                .sleepHours(buffer.getDouble())
+                .moodLevel(buffer.getInt())
+                .build();
+    }
+
+    private static <E> List<E> readList(ByteBuffer buffer, Function<ByteBuffer, E> reader) {
+        int size = buffer.getInt();
+        List<E> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(reader.apply(buffer));
+        }
+        return list;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(value.getNano());
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer buffer) {
+        long epochSecond = buffer.getLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
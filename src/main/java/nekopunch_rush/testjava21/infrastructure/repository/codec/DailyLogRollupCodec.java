@@ -0,0 +1,86 @@
+package nekopunch_rush.testjava21.infrastructure.repository.codec;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * ファイルに格納する1期間分の集計値のバイナリ形式。
+ * <p>
+ * userId・期間単位・開始日はファイルのキーから分かるため含めない。体重・歩数の合計・最小・最大は
+ * 件数0の場合に空となるため、件数の後に置き、件数0の場合は書き込まない。
+ * <pre>
+ * version(1) logCount(4) sleepHours sum/min/max(8x3) moodLevel sum/min/max(4x3)
+ * weightCount(4) [weight sum/min/max(8x3)] stepsDays(4) [steps sum/min/max(8x3)]
+ * </pre>
+ */
+public final class DailyLogRollupCodec {
+
+    private static final byte VERSION = 1;
+    private static final int MAX_BYTES = 1 + 4 + 8 * 3 + 4 * 3 + 4 + 8 * 3 + 4 + 8 * 3;
+
+    private DailyLogRollupCodec() {
+    }
+
+    public static byte[] encode(DailyLogRollup rollup) {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_BYTES)
+                .put(VERSION)
+                .putInt(rollup.getLogCount())
+                .putDouble(rollup.getSleepHoursSum())
+                .putDouble(rollup.getSleepHoursMin())
+                .putDouble(rollup.getSleepHoursMax())
+                .putInt(rollup.getMoodLevelSum())
+                .putInt(rollup.getMoodLevelMin())
+                .putInt(rollup.getMoodLevelMax())
+                .putInt(rollup.getWeightCount());
+        if (rollup.getWeightCount() > 0) {
+            buffer.putDouble(rollup.getWeightSum())
+                    .putDouble(rollup.getWeightMin())
+                    .putDouble(rollup.getWeightMax());
+        }
+        buffer.putInt(rollup.getStepsDays());
+        if (rollup.getStepsDays() > 0) {
+            buffer.putLong(rollup.getStepsSum())
+                    .putLong(rollup.getStepsMin())
+                    .putLong(rollup.getStepsMax());
+        }
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * buffer の位置は先頭であること。
+     */
+    public static DailyLogRollup decode(Long userId, RollupPeriod period, LocalDate periodStart, ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("未対応の集計形式です: version=" + version);
+        }
+        int logCount = buffer.getInt();
+        double sleepHoursSum = buffer.getDouble();
+        double sleepHoursMin = buffer.getDouble();
+        double sleepHoursMax = buffer.getDouble();
+        int moodLevelSum = buffer.getInt();
+        int moodLevelMin = buffer.getInt();
+        int moodLevelMax = buffer.getInt();
+
+        int weightCount = buffer.getInt();
+        Double weightSum = weightCount > 0 ? buffer.getDouble() : null;
+        Double weightMin = weightCount > 0 ? buffer.getDouble() : null;
+        Double weightMax = weightCount > 0 ? buffer.getDouble() : null;
+
+        int stepsDays = buffer.getInt();
+        Long stepsSum = stepsDays > 0 ? buffer.getLong() : null;
+        Long stepsMin = stepsDays > 0 ? buffer.getLong() : null;
+        Long stepsMax = stepsDays > 0 ? buffer.getLong() : null;
+
+        return DailyLogRollup.of(userId, period, periodStart, logCount,
+                sleepHoursSum, sleepHoursMin, sleepHoursMax,
+                moodLevelSum, moodLevelMin, moodLevelMax,
+                weightCount, weightSum, weightMin, weightMax,
+                stepsDays, stepsSum, stepsMin, stepsMax);
+    }
+}
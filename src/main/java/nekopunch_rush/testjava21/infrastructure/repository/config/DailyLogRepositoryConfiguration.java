@@ -0,0 +1,52 @@
+package nekopunch_rush.testjava21.infrastructure.repository.config;
+
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.DailyLogRepositoryDecorator;
+import nekopunch_rush.testjava21.infrastructure.repository.embedded.EmbeddedDailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.impl.DailyLogRepositoryImpl;
+import nekopunch_rush.testjava21.infrastructure.repository.sharding.ShardedDailyLogRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.List;
+
+/**
+ * サービス層へ注入するDailyLogRepositoryの組み立て。
+ * <p>
+ * 保存先のリポジトリ（DailyLogRepositoryImpl、シャーディング有効時はShardedDailyLogRepository、
+ * 組み込みストレージ使用時はEmbeddedDailyLogRepository）に登録済みのDailyLogRepositoryDecoratorを重ね、
+ * 最も外側のものを公開する。
+ */
+@Configuration(proxyBeanMethods = false)
+public class DailyLogRepositoryConfiguration {
+
+    /**
+     * デコレータを通さない保存先のリポジトリ。アーカイブ処理など、保存先を直接読み書きする処理で使う。
+     */
+    @Bean(destroyMethod = "")
+    public DailyLogRepository storageDailyLogRepository(ObjectProvider<EmbeddedDailyLogRepository> embeddedDailyLogRepository,
+                                                        ObjectProvider<ShardedDailyLogRepository> shardedDailyLogRepository,
+                                                        ObjectProvider<DailyLogRepositoryImpl> dailyLogRepositoryImpl) {
+        EmbeddedDailyLogRepository embedded = embeddedDailyLogRepository.getIfAvailable();
+        if (embedded != null) return embedded;
+        ShardedDailyLogRepository sharded = shardedDailyLogRepository.getIfAvailable();
+        if (sharded != null) return sharded;
+        return dailyLogRepositoryImpl.getObject();
+    }
+
+    @Bean
+    @Primary
+    public DailyLogRepository dailyLogRepository(@Qualifier("storageDailyLogRepository") DailyLogRepository storage,
+                                                 ObjectProvider<DailyLogRepositoryDecorator> decorators) {
+        // 順序の大きい（DBに近い）ものから内側に重ねる
+        List<DailyLogRepositoryDecorator> ordered = decorators.orderedStream().toList();
+        DailyLogRepository repository = storage;
+        for (DailyLogRepositoryDecorator decorator : ordered.reversed()) {
+            repository = decorator.decorate(repository);
+        }
+        return repository;
+    }
+}
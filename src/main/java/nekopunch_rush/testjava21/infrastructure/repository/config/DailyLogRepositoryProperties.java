@@ -0,0 +1,68 @@
+package nekopunch_rush.testjava21.infrastructure.repository.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * DailyLogRepositoryの動作設定。
+ * <p>
+ * application.yml の {@code lifelog.repository.*} にバインドされる。
+ */
+@Data
+@ConfigurationProperties(prefix = "lifelog.repository")
+public class DailyLogRepositoryProperties {
+
+    /** ログの保存先 */
+    private StorageEngine engine = StorageEngine.MYBATIS;
+
+    /** engine=EMBEDDED の場合の設定 */
+    private Embedded embedded = new Embedded();
+
+    /** 集約（daily_log + 子テーブル）の取得方式 */
+    private AggregateFetchMode fetchMode = AggregateFetchMode.MULTI_RESULT_SET;
+
+    /** saveAllで子テーブルを複数行INSERTする際の1ステートメントあたりの最大行数 */
+    private int batchChunkSize = 500;
+
+    public enum AggregateFetchMode {
+        /**
+         * daily_log と子テーブル4つをテーブルごとに個別に問い合わせる（5往復）。
+         */
+        PER_TABLE,
+        /**
+         * 5つのSELECTを1ステートメントで送信し、複数結果セットとして1往復で受け取る。
+         * MySQLの場合は接続URLに {@code allowMultiQueries=true} が必要。
+         */
+        MULTI_RESULT_SET
+    }
+
+    public enum StorageEngine {
+        /**
+         * MySQL / PostgreSQL（DailyLogRepositoryImpl）。
+         */
+        MYBATIS,
+        /**
+         * ローカルの追記専用ファイル（EmbeddedDailyLogRepository）。DBを使えない環境向け。
+         */
+        EMBEDDED
+    }
+
+    @Data
+    public static class Embedded {
+
+        /** ログファイルを置くディレクトリ */
+        private Path directory = Path.of("data");
+
+        /** 書き込みごとにfsyncするか（falseの場合、OSの停止で直前の書き込みが失われることがある） */
+        private boolean syncOnWrite = true;
+
+        /** コンパクションの要否を確認する間隔（0で無効） */
+        private Duration compactionInterval = Duration.ofMinutes(10);
+
+        /** ファイルのうち不要なレコードの割合がこれ以上になったらコンパクションする */
+        private double compactionMinGarbageRatio = 0.5;
+    }
+}
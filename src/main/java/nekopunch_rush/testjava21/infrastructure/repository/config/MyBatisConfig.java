@@ -0,0 +1,29 @@
+package nekopunch_rush.testjava21.infrastructure.repository.config;
+
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Properties;
+
+/**
+ * MyBatisの追加設定。
+ * <p>
+ * 接続先の製品名からdatabaseIdを決定し、Mapper XML内の {@code databaseId="mysql"} /
+ * {@code databaseId="postgresql"} のステートメントを切り替えられるようにする。
+ */
+@Configuration(proxyBeanMethods = false)
+public class MyBatisConfig {
+
+    @Bean
+    public DatabaseIdProvider databaseIdProvider() {
+        Properties properties = new Properties();
+        properties.setProperty("MySQL", "mysql");
+        properties.setProperty("PostgreSQL", "postgresql");
+
+        VendorDatabaseIdProvider provider = new VendorDatabaseIdProvider();
+        provider.setProperties(properties);
+        return provider;
+    }
+}
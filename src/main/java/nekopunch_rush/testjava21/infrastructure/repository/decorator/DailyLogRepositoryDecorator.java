@@ -0,0 +1,31 @@
+package nekopunch_rush.testjava21.infrastructure.repository.decorator;
+
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.springframework.core.Ordered;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * DailyLogRepositoryImplに重ねるデコレータ。
+ * <p>
+ * Beanとして登録すると {@code DailyLogRepositoryConfiguration} が順序の小さいものを外側にして合成する。
+ * DBに近い処理（接続先の振り分けなど）ほど大きい順序を指定する。
+ */
+public interface DailyLogRepositoryDecorator extends Ordered {
+
+    DailyLogRepository decorate(DailyLogRepository delegate);
+
+    static DailyLogRepositoryDecorator of(int order, UnaryOperator<DailyLogRepository> decorator) {
+        return new DailyLogRepositoryDecorator() {
+            @Override
+            public DailyLogRepository decorate(DailyLogRepository delegate) {
+                return decorator.apply(delegate);
+            }
+
+            @Override
+            public int getOrder() {
+                return order;
+            }
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package nekopunch_rush.testjava21.infrastructure.repository.decorator;
+
+import lombok.RequiredArgsConstructor;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+import nekopunch_rush.testjava21.infrastructure.repository.ActiveUser;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * すべての呼び出しを委譲先へそのまま渡すDailyLogRepository。
+ * <p>
+ * デコレータは必要なメソッドだけをオーバーライドして振る舞いを追加する。
+ */
+@RequiredArgsConstructor
+public abstract class ForwardingDailyLogRepository implements DailyLogRepository {
+
+    protected final DailyLogRepository delegate;
+
+    @Override
+    public void save(DailyLog log) {
+        delegate.save(log);
+    }
+
+    @Override
+    public void saveAll(Collection<DailyLog> logs) {
+        delegate.saveAll(logs);
+    }
+
+    @Override
+    public boolean saveIfAbsent(DailyLog log) {
+        return delegate.saveIfAbsent(log);
+    }
+
+    @Override
+    public boolean update(LocalDate logDate, DailyLog log) {
+        return delegate.update(logDate, log);
+    }
+
+    @Override
+    public boolean deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return delegate.deleteByUserIdAndLogDate(userId, logDate);
+    }
+
+    @Override
+    public Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return delegate.findByUserIdAndLogDate(userId, logDate);
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return delegate.findByUserIdAndMonth(userId, yearMonth);
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return delegate.findByUserIdAndDateRange(userId, from, to);
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return delegate.findWithDetailsByUserIdAndMonth(userId, yearMonth);
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return delegate.findWithDetailsByUserIdAndDateRange(userId, from, to);
+    }
+
+    @Override
+    public List<DailyLog> findPageByUserId(Long userId, LocalDate from, LocalDate before, int limit) {
+        return delegate.findPageByUserId(userId, from, before, limit);
+    }
+
+    @Override
+    public void streamByUserId(Long userId, Consumer<DailyLog> consumer) {
+        delegate.streamByUserId(userId, consumer);
+    }
+
+    @Override
+    public boolean existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return delegate.existsByUserIdAndLogDate(userId, logDate);
+    }
+
+    @Override
+    public List<LocalDate> findLogDatesByUserId(Long userId) {
+        return delegate.findLogDatesByUserId(userId);
+    }
+
+    @Override
+    public List<ActiveUser> findActiveUsersSince(LocalDate since, int limit) {
+        return delegate.findActiveUsersSince(since, limit);
+    }
+
+    @Override
+    public List<Long> findUserIdsWithLogsBefore(LocalDate before) {
+        return delegate.findUserIdsWithLogsBefore(before);
+    }
+
+    @Override
+    public void deleteByUserIdBefore(Long userId, LocalDate before) {
+        delegate.deleteByUserIdBefore(userId, before);
+    }
+
+    @Override
+    public List<DailyLogRollup> findRollupsByUserIdAndPeriodRange(Long userId, RollupPeriod period, LocalDate from, LocalDate to) {
+        return delegate.findRollupsByUserIdAndPeriodRange(userId, period, from, to);
+    }
+}
@@ -0,0 +1,104 @@
+package nekopunch_rush.testjava21.infrastructure.repository.decorator;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * 書き込みのたびに、変更した日について保持している内容を破棄するデコレータの基底クラス。
+ * <p>
+ * 登録・更新・削除を委譲した後（失敗した場合も）に {@link #onWrite} / {@link #onWriteBefore} を呼ぶ。
+ * 登録しなかった saveIfAbsent（既に同じ日があった場合）は何も変わっていないため呼ばない。
+ * トランザクション内の場合はコミット後にもう一度呼び、コミット前に別の読み取りが古い内容を載せ直した場合も残らないようにする。
+ */
+public abstract class InvalidatingDailyLogRepository extends ForwardingDailyLogRepository {
+
+    protected InvalidatingDailyLogRepository(DailyLogRepository delegate) {
+        super(delegate);
+    }
+
+    /**
+     * 1日分のログが変更された（可能性がある）ときに呼ばれる。
+     */
+    protected abstract void onWrite(Long userId, LocalDate logDate);
+
+    /**
+     * 指定日より前のログがまとめて削除されたときに呼ばれる。
+     */
+    protected abstract void onWriteBefore(Long userId, LocalDate before);
+
+    @Override
+    public void save(DailyLog log) {
+        try {
+            delegate.save(log);
+        } finally {
+            written(log.getUserId(), log.getLogDate());
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<DailyLog> logs) {
+        try {
+            delegate.saveAll(logs);
+        } finally {
+            logs.forEach(log -> written(log.getUserId(), log.getLogDate()));
+        }
+    }
+
+    @Override
+    public boolean saveIfAbsent(DailyLog log) {
+        boolean saved = true;
+        try {
+            saved = delegate.saveIfAbsent(log);
+            return saved;
+        } finally {
+            if (saved) written(log.getUserId(), log.getLogDate());
+        }
+    }
+
+    @Override
+    public boolean update(LocalDate logDate, DailyLog log) {
+        try {
+            return delegate.update(logDate, log);
+        } finally {
+            written(log.getUserId(), logDate);
+        }
+    }
+
+    @Override
+    public boolean deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        try {
+            return delegate.deleteByUserIdAndLogDate(userId, logDate);
+        } finally {
+            written(userId, logDate);
+        }
+    }
+
+    @Override
+    public void deleteByUserIdBefore(Long userId, LocalDate before) {
+        try {
+            delegate.deleteByUserIdBefore(userId, before);
+        } finally {
+            runNowAndAfterCommit(() -> onWriteBefore(userId, before));
+        }
+    }
+
+    private void written(Long userId, LocalDate logDate) {
+        runNowAndAfterCommit(() -> onWrite(userId, logDate));
+    }
+
+    private static void runNowAndAfterCommit(Runnable invalidation) {
+        invalidation.run();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidation.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,141 @@
+package nekopunch_rush.testjava21.infrastructure.repository.decorator;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+import nekopunch_rush.testjava21.infrastructure.datasource.DataSourceRoutingContext;
+import nekopunch_rush.testjava21.infrastructure.datasource.RecentWriteTracker;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 書き込みを行ったユーザーの読み取りを、一定時間プライマリへ向けるデコレータ。
+ * <p>
+ * 書き込みはコミット後に記録する（トランザクション外の場合は即時）。
+ * 記録が残っているユーザーの読み取りは読み取り専用トランザクション内でもプライマリから読む。
+ */
+public class ReadYourWritesDailyLogRepository extends ForwardingDailyLogRepository {
+
+    private final RecentWriteTracker recentWriteTracker;
+
+    public ReadYourWritesDailyLogRepository(DailyLogRepository delegate, RecentWriteTracker recentWriteTracker) {
+        super(delegate);
+        this.recentWriteTracker = recentWriteTracker;
+    }
+
+    @Override
+    public void save(DailyLog log) {
+        delegate.save(log);
+        recordWrite(log.getUserId());
+    }
+
+    @Override
+    public void saveAll(Collection<DailyLog> logs) {
+        delegate.saveAll(logs);
+        logs.stream().map(DailyLog::getUserId).distinct().forEach(this::recordWrite);
+    }
+
+    @Override
+    public boolean saveIfAbsent(DailyLog log) {
+        boolean saved = delegate.saveIfAbsent(log);
+        if (saved) recordWrite(log.getUserId());
+        return saved;
+    }
+
+    @Override
+    public boolean update(LocalDate logDate, DailyLog log) {
+        boolean updated = delegate.update(logDate, log);
+        if (updated) recordWrite(log.getUserId());
+        return updated;
+    }
+
+    @Override
+    public boolean deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        boolean deleted = delegate.deleteByUserIdAndLogDate(userId, logDate);
+        if (deleted) recordWrite(userId);
+        return deleted;
+    }
+
+    @Override
+    public Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return read(userId, () -> delegate.findByUserIdAndLogDate(userId, logDate));
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return read(userId, () -> delegate.findByUserIdAndMonth(userId, yearMonth));
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return read(userId, () -> delegate.findByUserIdAndDateRange(userId, from, to));
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return read(userId, () -> delegate.findWithDetailsByUserIdAndMonth(userId, yearMonth));
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return read(userId, () -> delegate.findWithDetailsByUserIdAndDateRange(userId, from, to));
+    }
+
+    @Override
+    public List<DailyLog> findPageByUserId(Long userId, LocalDate from, LocalDate before, int limit) {
+        return read(userId, () -> delegate.findPageByUserId(userId, from, before, limit));
+    }
+
+    @Override
+    public void streamByUserId(Long userId, Consumer<DailyLog> consumer) {
+        read(userId, () -> {
+            delegate.streamByUserId(userId, consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return read(userId, () -> delegate.existsByUserIdAndLogDate(userId, logDate));
+    }
+
+    @Override
+    public List<LocalDate> findLogDatesByUserId(Long userId) {
+        return read(userId, () -> delegate.findLogDatesByUserId(userId));
+    }
+
+    @Override
+    public List<DailyLogRollup> findRollupsByUserIdAndPeriodRange(Long userId, RollupPeriod period,
+                                                                  LocalDate from, LocalDate to) {
+        return read(userId, () -> delegate.findRollupsByUserIdAndPeriodRange(userId, period, from, to));
+    }
+
+    private <T> T read(Long userId, Supplier<T> action) {
+        return recentWriteTracker.wroteRecently(userId)
+                ? DataSourceRoutingContext.onPrimary(action)
+                : action.get();
+    }
+
+    private void recordWrite(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWriteTracker.recordWrite(userId);
+            return;
+        }
+        // 未コミットの間はレプリカに反映され得ないため、期間はコミット時点から数える
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriteTracker.recordWrite(userId);
+            }
+        });
+    }
+}
@@ -0,0 +1,543 @@
+package nekopunch_rush.testjava21.infrastructure.repository.embedded;
+
+import lombok.extern.slf4j.Slf4j;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+import nekopunch_rush.testjava21.infrastructure.repository.ActiveUser;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.codec.DailyLogCodec;
+import nekopunch_rush.testjava21.infrastructure.repository.codec.DailyLogRollupCodec;
+import nekopunch_rush.testjava21.infrastructure.repository.embedded.WriteAheadLog.Entry;
+import nekopunch_rush.testjava21.infrastructure.repository.embedded.WriteAheadLog.Location;
+import nekopunch_rush.testjava21.infrastructure.repository.embedded.WriteAheadLog.Type;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * MySQLを使わずに、ローカルの追記専用ログファイル（{@link WriteAheadLog}）へ保存するDailyLogRepository。
+ * <p>
+ * 値はファイルにだけ置き、メモリには (userId, logDate) からファイル内の位置への索引だけを持つ。
+ * 起動時にファイルを先頭から読み直して索引を復元する。上書き・削除で不要になったレコードの割合が
+ * 閾値を超えると、有効なレコードだけを次の世代のファイルへ書き出して置き換える（コンパクション）。
+ * <p>
+ * 1回の呼び出しの書き込みは1フレームとして原子的に永続化されるが、複数の呼び出しにまたがるトランザクションはない。
+ * 週次・月次の集計は読み取り時に日ごとのログから求める。deleteByUserIdBefore で削除した日の分だけは、
+ * 削除前に集計してファイルに残し、残りの日の集計と合算して返す。
+ */
+@Slf4j
+public class EmbeddedDailyLogRepository implements DailyLogRepository, AutoCloseable {
+
+    // コンパクションで1フレームにまとめるレコード数
+    private static final int COMPACTION_BATCH_SIZE = 1_000;
+
+    private final boolean syncOnWrite;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, NavigableMap<LocalDate, Location>> logIndex = new HashMap<>();
+    private final Map<RollupPeriod, Map<Long, NavigableMap<LocalDate, Location>>> archivedRollups =
+            new EnumMap<>(RollupPeriod.class);
+    private final ScheduledExecutorService compactionExecutor;
+    private WriteAheadLog wal;
+    // 索引から参照されているレコードの合計バイト数
+    private long liveBytes;
+
+    /**
+     * @param syncOnWrite        trueの場合は書き込みごとにfsyncする
+     * @param compactionInterval コンパクションの要否を確認する間隔（0の場合は自動では行わない）
+     * @param minGarbageRatio    コンパクションを行う、不要なレコードの割合の下限
+     */
+    public EmbeddedDailyLogRepository(Path directory, boolean syncOnWrite,
+                                      Duration compactionInterval, double minGarbageRatio) {
+        this.syncOnWrite = syncOnWrite;
+        for (RollupPeriod period : RollupPeriod.values()) {
+            archivedRollups.put(period, new HashMap<>());
+        }
+        try {
+            this.wal = WriteAheadLog.open(directory, this::apply);
+        } catch (IOException e) {
+            throw new UncheckedIOException("ストレージの読み込みに失敗しました: " + directory, e);
+        }
+        log.info("組み込みストレージを開きました: directory={}, ユーザー数={}, ファイル={}バイト, 有効={}バイト",
+                directory, logIndex.size(), wal.size(), liveBytes);
+
+        if (compactionInterval.isZero()) {
+            this.compactionExecutor = null;
+        } else {
+            this.compactionExecutor = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("embedded-compaction").daemon().factory());
+            compactionExecutor.scheduleWithFixedDelay(() -> compactIfNeeded(minGarbageRatio),
+                    compactionInterval.toMillis(), compactionInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void save(DailyLog log) {
+        withWriteLock(() -> {
+            requireAbsent(log.getUserId(), log.getLogDate());
+            write(List.of(put(log.getUserId(), log.getLogDate(), log)));
+            return null;
+        });
+    }
+
+    @Override
+    public void saveAll(Collection<DailyLog> logs) {
+        if (logs.isEmpty()) return;
+        withWriteLock(() -> {
+            // 1件でも重複があれば何も書き込まない（DB版のトランザクションのロールバックに合わせる）
+            Set<Key> keys = new HashSet<>();
+            for (DailyLog log : logs) {
+                requireAbsent(log.getUserId(), log.getLogDate());
+                if (!keys.add(new Key(log.getUserId(), log.getLogDate()))) {
+                    throw duplicate(log.getUserId(), log.getLogDate());
+                }
+            }
+            write(logs.stream().map(log -> put(log.getUserId(), log.getLogDate(), log)).toList());
+            return null;
+        });
+    }
+
+    @Override
+    public boolean saveIfAbsent(DailyLog log) {
+        return withWriteLock(() -> {
+            if (locate(log.getUserId(), log.getLogDate()) != null) return false;
+            write(List.of(put(log.getUserId(), log.getLogDate(), log)));
+            return true;
+        });
+    }
+
+    @Override
+    public boolean update(LocalDate logDate, DailyLog log) {
+        return withWriteLock(() -> {
+            if (locate(log.getUserId(), logDate) == null) return false;
+            write(List.of(put(log.getUserId(), logDate, log)));
+            return true;
+        });
+    }
+
+    @Override
+    public boolean deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return withWriteLock(() -> {
+            if (locate(userId, logDate) == null) return false;
+            write(List.of(new Entry(Type.DELETE, userId, logDate, new byte[0])));
+            return true;
+        });
+    }
+
+    @Override
+    public Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return withReadLock(() -> {
+            Location location = locate(userId, logDate);
+            if (location == null) return Optional.empty();
+            return Optional.of(DailyLogCodec.decode(userId, logDate, read(location, Integer.MAX_VALUE)));
+        });
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return findByUserIdAndDateRange(userId, yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1));
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        // 一覧は睡眠時間・気分だけを使うため、各レコードの先頭だけを読む
+        return withReadLock(() -> range(userId, from, to).entrySet().stream()
+                .map(e -> DailyLogCodec.decodeSummary(userId, e.getKey(),
+                        read(e.getValue(), DailyLogCodec.SUMMARY_BYTES)))
+                .toList());
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return findWithDetailsByUserIdAndDateRange(userId, yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1));
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return withReadLock(() -> readWithDetails(userId, range(userId, from, to)));
+    }
+
+    @Override
+    public List<DailyLog> findPageByUserId(Long userId, LocalDate from, LocalDate before, int limit) {
+        return withReadLock(() -> range(userId, from == null ? LocalDate.MIN : from, before == null ? LocalDate.MAX : before)
+                .descendingMap().entrySet().stream()
+                .limit(limit)
+                .map(e -> DailyLogCodec.decodeSummary(userId, e.getKey(),
+                        read(e.getValue(), DailyLogCodec.SUMMARY_BYTES)))
+                .toList());
+    }
+
+    @Override
+    public void streamByUserId(Long userId, Consumer<DailyLog> consumer) {
+        // 日付だけを先に控え、1日ずつ読み出す（consumerの処理中は書き込みを止めない）
+        List<LocalDate> logDates = withReadLock(() -> List.copyOf(range(userId, LocalDate.MIN, LocalDate.MAX).keySet()));
+        for (LocalDate logDate : logDates) {
+            findByUserIdAndLogDate(userId, logDate).ifPresent(consumer);
+        }
+    }
+
+    @Override
+    public boolean existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return withReadLock(() -> locate(userId, logDate) != null);
+    }
+
+    @Override
+    public List<LocalDate> findLogDatesByUserId(Long userId) {
+        return withReadLock(() -> List.copyOf(range(userId, LocalDate.MIN, LocalDate.MAX).keySet()));
+    }
+
+    @Override
+    public List<ActiveUser> findActiveUsersSince(LocalDate since, int limit) {
+        return withReadLock(() -> logIndex.entrySet().stream()
+                .filter(e -> e.getValue().ceilingKey(since) != null)
+                .map(e -> new ActiveUser(e.getKey(), e.getValue().lastKey()))
+                .sorted(ActiveUser.RECENT_FIRST)
+                .limit(limit)
+                .toList());
+    }
+
+    @Override
+    public List<Long> findUserIdsWithLogsBefore(LocalDate before) {
+        return withReadLock(() -> logIndex.entrySet().stream()
+                .filter(e -> e.getValue().firstKey().isBefore(before))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList());
+    }
+
+    @Override
+    public void deleteByUserIdBefore(Long userId, LocalDate before) {
+        withWriteLock(() -> {
+            NavigableMap<LocalDate, Location> deleted = range(userId, LocalDate.MIN, before);
+            if (deleted.isEmpty()) return null;
+
+            // 削除する日の集計を、既に残してある集計と合算して書き込み、削除と同じフレームで確定する
+            List<DailyLog> deletedLogs = readWithDetails(userId, deleted);
+            List<Entry> entries = new ArrayList<>();
+            for (RollupPeriod period : RollupPeriod.values()) {
+                groupByPeriod(period, deletedLogs).forEach((periodStart, periodLogs) -> {
+                    DailyLogRollup rollup = DailyLogRollup.aggregate(userId, period, periodStart, periodLogs);
+                    DailyLogRollup merged = findArchivedRollup(userId, period, periodStart)
+                            .map(rollup::merge)
+                            .orElse(rollup);
+                    entries.add(new Entry(rollupType(period), userId, periodStart, DailyLogRollupCodec.encode(merged)));
+                });
+            }
+            deleted.keySet().forEach(logDate -> entries.add(new Entry(Type.DELETE, userId, logDate, new byte[0])));
+            write(entries);
+            return null;
+        });
+    }
+
+    @Override
+    public List<DailyLogRollup> findRollupsByUserIdAndPeriodRange(Long userId, RollupPeriod period, LocalDate from, LocalDate to) {
+        return withReadLock(() -> {
+            // 開始日が [from, to) の期間に含まれる日は [fromの以降最初の開始日, toの以降最初の開始日)
+            List<DailyLog> periodLogs = readWithDetails(userId,
+                    range(userId, firstStartOnOrAfter(period, from), firstStartOnOrAfter(period, to)));
+            TreeMap<LocalDate, DailyLogRollup> rollups = new TreeMap<>();
+            groupByPeriod(period, periodLogs).forEach((periodStart, logsInPeriod) ->
+                    rollups.put(periodStart, DailyLogRollup.aggregate(userId, period, periodStart, logsInPeriod)));
+
+            NavigableMap<LocalDate, Location> archived = archivedRollups.get(period)
+                    .getOrDefault(userId, Collections.emptyNavigableMap());
+            if (from.isBefore(to)) {
+                archived.subMap(from, true, to, false).forEach((periodStart, location) ->
+                        rollups.merge(periodStart,
+                                DailyLogRollupCodec.decode(userId, period, periodStart, read(location, Integer.MAX_VALUE)),
+                                DailyLogRollup::merge));
+            }
+            return List.copyOf(rollups.values());
+        });
+    }
+
+    /**
+     * 不要なレコードの割合が minGarbageRatio 以上の場合にコンパクションを行う。
+     *
+     * @return コンパクションを行った場合true
+     */
+    public boolean compactIfNeeded(double minGarbageRatio) {
+        if (garbageRatio() < minGarbageRatio) return false;
+        try {
+            compact();
+            return true;
+        } catch (RuntimeException e) {
+            // 定期実行のスレッドを止めないよう、失敗は記録して次回に持ち越す
+            log.error("コンパクションに失敗しました", e);
+            return false;
+        }
+    }
+
+    /**
+     * ファイルのうち、索引から参照されていない（上書き・削除済みの）部分の割合。
+     */
+    public double garbageRatio() {
+        return withReadLock(() -> wal.size() == 0 ? 0.0 : 1.0 - (double) liveBytes / wal.size());
+    }
+
+    /**
+     * 有効なレコードだけを次の世代のファイルへ書き出して置き換える。
+     * <p>
+     * 書き出しの間は書き込みを止めず、置き換えの直前にその間の追記分を写してから索引を差し替える。
+     */
+    public synchronized void compact() {
+        List<Live> live = new ArrayList<>();
+        WriteAheadLog current;
+        long copiedUpTo;
+        lock.readLock().lock();
+        try {
+            current = wal;
+            copiedUpTo = current.size();
+            collectLive(Type.PUT, logIndex, live);
+            for (RollupPeriod period : RollupPeriod.values()) {
+                collectLive(rollupType(period), archivedRollups.get(period), live);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        WriteAheadLog next = null;
+        try {
+            next = current.createNextGeneration();
+            // 書き込み済みの部分は変更されないため、ロックを持たずに読み出せる
+            List<Location> relocated = new ArrayList<>(live.size());
+            for (int start = 0; start < live.size(); start += COMPACTION_BATCH_SIZE) {
+                List<Entry> entries = new ArrayList<>();
+                for (Live l : live.subList(start, Math.min(start + COMPACTION_BATCH_SIZE, live.size()))) {
+                    ByteBuffer value = current.read(l.location(), Integer.MAX_VALUE);
+                    entries.add(new Entry(l.type(), l.userId(), l.key(), value.array()));
+                }
+                relocated.addAll(next.append(entries, false));
+            }
+
+            lock.writeLock().lock();
+            try {
+                // 書き出しの間の追記分をそのまま写し、写し先の位置へ索引を付け替える
+                long tailStart = current.copyTo(next, copiedUpTo);
+                for (int i = 0; i < live.size(); i++) {
+                    Live l = live.get(i);
+                    relocate(l.type(), l.userId(), l.key(), l.location(), relocated.get(i));
+                }
+                long shift = tailStart - copiedUpTo;
+                next.replay(tailStart, (type, userId, key, location) -> relocate(type, userId, key,
+                        new Location(location.position() - shift, location.length()), location));
+                next.install();
+                wal = next;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("コンパクションを行いました: {}バイト → {}バイト", current.size(), next.size());
+            current.closeAndDelete();
+        } catch (IOException e) {
+            if (next != null && wal != next) {
+                try {
+                    next.closeAndDelete();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new UncheckedIOException("コンパクションに失敗しました", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (compactionExecutor != null) {
+            // 割り込むと実行中のコンパクションのファイル操作が中断されるため、割り込まずに完了を待つ
+            compactionExecutor.shutdown();
+            awaitCompaction();
+        }
+        // 手動で実行中のコンパクションの完了も待ってから閉じる
+        synchronized (this) {
+            lock.writeLock().lock();
+            try {
+                wal.close();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void awaitCompaction() {
+        try {
+            while (!compactionExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("実行中のコンパクションの完了を待っています");
+            }
+        } catch (InterruptedException e) {
+            // 待つのをやめても、下の synchronized で実行中のコンパクションとは重ならない
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void collectLive(Type type, Map<Long, NavigableMap<LocalDate, Location>> index, List<Live> live) {
+        index.forEach((userId, byKey) ->
+                byKey.forEach((key, location) -> live.add(new Live(type, userId, key, location))));
+    }
+
+    /**
+     * 起動時の読み直しと書き込みで、レコードを索引へ反映する。
+     */
+    private void apply(Type type, long userId, LocalDate key, Location location) {
+        Map<Long, NavigableMap<LocalDate, Location>> index = indexOf(type);
+        Location previous = type == Type.DELETE
+                ? remove(index, userId, key)
+                : index.computeIfAbsent(userId, id -> new TreeMap<>()).put(key, location);
+        if (previous != null) liveBytes -= sizeOf(previous);
+        if (type != Type.DELETE) liveBytes += sizeOf(location);
+    }
+
+    /**
+     * コンパクションで、索引が from を指したままのレコードだけを to へ付け替える。
+     */
+    private void relocate(Type type, long userId, LocalDate key, Location from, Location to) {
+        if (type == Type.DELETE) return;
+        NavigableMap<LocalDate, Location> byKey = indexOf(type).get(userId);
+        if (byKey != null && from.equals(byKey.get(key))) {
+            byKey.put(key, to);
+        }
+    }
+
+    private static Location remove(Map<Long, NavigableMap<LocalDate, Location>> index, long userId, LocalDate key) {
+        NavigableMap<LocalDate, Location> byKey = index.get(userId);
+        if (byKey == null) return null;
+        Location removed = byKey.remove(key);
+        if (byKey.isEmpty()) index.remove(userId);
+        return removed;
+    }
+
+    private Map<Long, NavigableMap<LocalDate, Location>> indexOf(Type type) {
+        return switch (type) {
+            case PUT, DELETE -> logIndex;
+            case WEEK_ROLLUP -> archivedRollups.get(RollupPeriod.WEEK);
+            case MONTH_ROLLUP -> archivedRollups.get(RollupPeriod.MONTH);
+        };
+    }
+
+    private static Type rollupType(RollupPeriod period) {
+        return switch (period) {
+            case WEEK -> Type.WEEK_ROLLUP;
+            case MONTH -> Type.MONTH_ROLLUP;
+        };
+    }
+
+    private static long sizeOf(Location location) {
+        return WriteAheadLog.ENTRY_HEADER_BYTES + location.length();
+    }
+
+    private void write(List<Entry> entries) {
+        try {
+            List<Location> locations = wal.append(entries, syncOnWrite);
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                apply(entry.type(), entry.userId(), entry.key(), locations.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("ストレージへの書き込みに失敗しました", e);
+        }
+    }
+
+    private ByteBuffer read(Location location, int maxBytes) {
+        try {
+            return wal.read(location, maxBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("ストレージの読み込みに失敗しました: " + location, e);
+        }
+    }
+
+    private List<DailyLog> readWithDetails(Long userId, NavigableMap<LocalDate, Location> locations) {
+        return locations.entrySet().stream()
+                .map(e -> DailyLogCodec.decode(userId, e.getKey(), read(e.getValue(), Integer.MAX_VALUE)))
+                .toList();
+    }
+
+    private Optional<DailyLogRollup> findArchivedRollup(Long userId, RollupPeriod period, LocalDate periodStart) {
+        NavigableMap<LocalDate, Location> byStart = archivedRollups.get(period).get(userId);
+        Location location = byStart == null ? null : byStart.get(periodStart);
+        if (location == null) return Optional.empty();
+        return Optional.of(DailyLogRollupCodec.decode(userId, period, periodStart, read(location, Integer.MAX_VALUE)));
+    }
+
+    private static Map<LocalDate, List<DailyLog>> groupByPeriod(RollupPeriod period, List<DailyLog> logs) {
+        Map<LocalDate, List<DailyLog>> byPeriod = new TreeMap<>();
+        logs.forEach(log -> byPeriod.computeIfAbsent(period.startOf(log.getLogDate()), start -> new ArrayList<>()).add(log));
+        return byPeriod;
+    }
+
+    private static LocalDate firstStartOnOrAfter(RollupPeriod period, LocalDate date) {
+        LocalDate start = period.startOf(date);
+        return start.equals(date) ? date : period.nextStart(start);
+    }
+
+    private Location locate(Long userId, LocalDate logDate) {
+        NavigableMap<LocalDate, Location> byDate = logIndex.get(userId);
+        return byDate == null ? null : byDate.get(logDate);
+    }
+
+    private NavigableMap<LocalDate, Location> range(Long userId, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Location> byDate = logIndex.get(userId);
+        if (byDate == null || !from.isBefore(to)) return Collections.emptyNavigableMap();
+        return byDate.subMap(from, true, to, false);
+    }
+
+    private void requireAbsent(Long userId, LocalDate logDate) {
+        if (locate(userId, logDate) != null) {
+            throw duplicate(userId, logDate);
+        }
+    }
+
+    private static DuplicateKeyException duplicate(Long userId, LocalDate logDate) {
+        return new DuplicateKeyException("既に同日のログが存在します: userId=" + userId + ", logDate=" + logDate);
+    }
+
+    private static Entry put(Long userId, LocalDate logDate, DailyLog log) {
+        return new Entry(Type.PUT, userId, logDate, DailyLogCodec.encode(log));
+    }
+
+    private <T> T withReadLock(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T withWriteLock(Supplier<T> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Key(Long userId, LocalDate logDate) {
+    }
+
+    private record Live(Type type, long userId, LocalDate key, Location location) {
+    }
+}
@@ -0,0 +1,32 @@
+package nekopunch_rush.testjava21.infrastructure.repository.embedded;
+
+import nekopunch_rush.testjava21.infrastructure.repository.config.DailyLogRepositoryProperties;
+import nekopunch_rush.testjava21.infrastructure.repository.config.DailyLogRepositoryProperties.Embedded;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 組み込みストレージエンジンの構成。
+ * <p>
+ * {@code lifelog.repository.engine=EMBEDDED} の場合のみ有効になり、DailyLogRepositoryConfiguration は
+ * DailyLogRepositoryImplの代わりにEmbeddedDailyLogRepositoryへデコレータを重ねる。
+ * DBへ接続しないよう、embeddedプロファイル（application-embedded.yml）でDataSourceの自動構成を除外して使う。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lifelog.repository", name = "engine", havingValue = "EMBEDDED")
+public class EmbeddedEngineConfiguration {
+
+    @Bean
+    public EmbeddedDailyLogRepository embeddedDailyLogRepository(DailyLogRepositoryProperties properties) {
+        Embedded embedded = properties.getEmbedded();
+        return new EmbeddedDailyLogRepository(embedded.getDirectory(), embedded.isSyncOnWrite(),
+                embedded.getCompactionInterval(), embedded.getCompactionMinGarbageRatio());
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new EmbeddedTransactionManager();
+    }
+}
@@ -0,0 +1,31 @@
+package nekopunch_rush.testjava21.infrastructure.repository.embedded;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * 組み込みストレージ使用時に、サービス層の {@code @Transactional} を何もせずに通すトランザクションマネージャ。
+ * <p>
+ * EmbeddedDailyLogRepository は呼び出しごとに原子的に書き込むため、トランザクションで束ねるものがない。
+ * DBの接続が無い構成ではDataSourceTransactionManagerが作られないため、代わりにこれを登録する。
+ */
+public class EmbeddedTransactionManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+}
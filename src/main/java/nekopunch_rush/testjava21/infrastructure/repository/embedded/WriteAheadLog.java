@@ -0,0 +1,394 @@
+package nekopunch_rush.testjava21.infrastructure.repository.embedded;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * 組み込みストレージエンジンの追記専用ログファイル。
+ * <p>
+ * ファイル {@code data-{世代}.log} へ、1回の書き込みを1フレームとして追記する。
+ * <pre>
+ * フレーム: crc32(4) 本体の長さ(4) 本体
+ * 本体:     [種別(1) userId(8) キーのエポック日(4) 値の長さ(4) 値]...
+ * </pre>
+ * 起動時は最も新しい世代のファイルを先頭から読み直し、長さやCRCの合わない（書きかけの）フレーム以降を切り捨てる。
+ * フレーム内の複数のレコードは、まとめて有効になるかまとめて捨てられる。
+ * <p>
+ * コンパクションは次の世代を {@code .tmp} として書き、fsync後に名前を変えて置き換える。
+ * 置き換えの途中で停止した場合は、起動時に完成した最も新しい世代だけを残す。
+ * ファイルの書き込み済みの部分は変更しないため、追記と並行して位置指定で読み取れる。
+ * <p>
+ * FileChannelは入出力中のスレッドが割り込まれると閉じられ、他のスレッドの入出力も失敗する。
+ * {@link #close()} 以外で閉じられた場合はファイルを開き直して同じ位置の入出力をやり直し、割り込みの状態は呼び出し元へ戻す。
+ * 位置を指定した読み書きのため、やり直しても内容は変わらない。
+ */
+@Slf4j
+final class WriteAheadLog implements Closeable {
+
+    private static final Pattern FILE_NAME = Pattern.compile("data-(\\d+)\\.log");
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int FRAME_HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+    static final int ENTRY_HEADER_BYTES = 1 + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final long generation;
+    private volatile FileChannel channel;
+    private volatile Path path;
+    private volatile long size;
+    private volatile boolean closed;
+
+    private WriteAheadLog(Path directory, long generation, Path path, FileChannel channel, long size) {
+        this.directory = directory;
+        this.generation = generation;
+        this.path = path;
+        this.channel = channel;
+        this.size = size;
+    }
+
+    /**
+     * ディレクトリ内の最新の世代を開き、全レコードを先頭から順に visitor へ渡す。
+     */
+    static WriteAheadLog open(Path directory, Visitor visitor) throws IOException {
+        Files.createDirectories(directory);
+        long latest = -1;
+        List<Path> stale = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher matcher = FILE_NAME.matcher(name);
+                if (matcher.matches()) {
+                    long generation = Long.parseLong(matcher.group(1));
+                    if (latest >= 0) {
+                        stale.add(pathOf(directory, Math.min(latest, generation)));
+                    }
+                    latest = Math.max(latest, generation);
+                } else if (name.endsWith(TEMP_SUFFIX)) {
+                    // 置き換え前に停止したコンパクションの書きかけ
+                    stale.add(file);
+                }
+            }
+        }
+        for (Path file : stale) {
+            log.info("不要になったファイルを削除します: {}", file);
+            Files.deleteIfExists(file);
+        }
+
+        long generation = Math.max(latest, 0);
+        Path path = pathOf(directory, generation);
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        WriteAheadLog wal = new WriteAheadLog(directory, generation, path, channel, channel.size());
+        long validSize = wal.replay(0, visitor);
+        if (validSize < wal.size) {
+            log.warn("書きかけのレコードを切り捨てます: file={}, 有効={}バイト, ファイル={}バイト", path, validSize, wal.size);
+            wal.io(ch -> ch.truncate(validSize));
+            wal.io(ch -> {
+                ch.force(false);
+                return null;
+            });
+            wal.size = validSize;
+        }
+        return wal;
+    }
+
+    /**
+     * レコードを1フレームとして追記し、各レコードの値の位置を返す。
+     *
+     * @param sync trueの場合は追記後にfsyncする
+     */
+    List<Location> append(List<Entry> entries, boolean sync) throws IOException {
+        long bodyBytes = entries.stream().mapToLong(entry -> ENTRY_HEADER_BYTES + entry.value().length).sum();
+        if (FRAME_HEADER_BYTES + bodyBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("1回に書き込むレコードが大きすぎます: " + bodyBytes + "バイト");
+        }
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + (int) bodyBytes);
+        frame.position(FRAME_HEADER_BYTES);
+        List<Location> locations = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            frame.put(entry.type().code)
+                    .putLong(entry.userId())
+                    .putInt((int) entry.key().toEpochDay())
+                    .putInt(entry.value().length);
+            locations.add(new Location(size + frame.position(), entry.value().length));
+            frame.put(entry.value());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), FRAME_HEADER_BYTES, (int) bodyBytes);
+        frame.putInt(0, (int) crc.getValue()).putInt(Integer.BYTES, (int) bodyBytes);
+
+        // 書き込みに失敗した場合は size を進めないため、次の追記が書きかけの部分を上書きする
+        writeFully(frame.flip(), size);
+        if (sync) {
+            force();
+        }
+        size += frame.capacity();
+        return locations;
+    }
+
+    ByteBuffer read(Location location, int maxBytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(location.length(), maxBytes));
+        long position = location.position();
+        while (buffer.hasRemaining()) {
+            long at = position;
+            int read = io(ch -> ch.read(buffer, at));
+            if (read < 0) {
+                throw new EOFException("レコードがファイルの末尾を超えています: " + location);
+            }
+            position += read;
+        }
+        return buffer.flip();
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * from から末尾までのフレームを読み、各レコードを visitor へ渡す。
+     *
+     * @return 最後の有効なフレームの終端の位置
+     */
+    long replay(long from, Visitor visitor) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        long position = from;
+        while (position + FRAME_HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, position);
+            int crc = header.flip().getInt();
+            int bodyBytes = header.getInt();
+            if (bodyBytes <= 0 || bodyBytes > size - position - FRAME_HEADER_BYTES) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(bodyBytes);
+            readFully(body, position + FRAME_HEADER_BYTES);
+            CRC32 actual = new CRC32();
+            actual.update(body.array());
+            if ((int) actual.getValue() != crc) {
+                break;
+            }
+            List<StoredEntry> records = parse(body.flip(), position + FRAME_HEADER_BYTES);
+            if (records == null) {
+                break;
+            }
+            records.forEach(r -> visitor.visit(r.type(), r.userId(), r.key(), r.location()));
+            position += FRAME_HEADER_BYTES + bodyBytes;
+        }
+        return position;
+    }
+
+    private static List<StoredEntry> parse(ByteBuffer body, long bodyPosition) {
+        List<StoredEntry> records = new ArrayList<>();
+        try {
+            while (body.hasRemaining()) {
+                Type type = Type.of(body.get());
+                long userId = body.getLong();
+                LocalDate key = LocalDate.ofEpochDay(body.getInt());
+                int length = body.getInt();
+                if (length < 0 || length > body.remaining()) {
+                    return null;
+                }
+                records.add(new StoredEntry(type, userId, key, new Location(bodyPosition + body.position(), length)));
+                body.position(body.position() + length);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+            return null;
+        }
+        return records;
+    }
+
+    /**
+     * 次の世代のファイルを {@code .tmp} として作成する。{@link #install()} するまでは起動時に無視される。
+     */
+    WriteAheadLog createNextGeneration() throws IOException {
+        long next = generation + 1;
+        Path temp = pathOf(directory, next).resolveSibling(pathOf(directory, next).getFileName() + TEMP_SUFFIX);
+        FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new WriteAheadLog(directory, next, temp, tempChannel, 0);
+    }
+
+    /**
+     * from から末尾までをそのまま target の末尾へ写す。
+     *
+     * @return target 内の写し先の開始位置
+     */
+    long copyTo(WriteAheadLog target, long from) throws IOException {
+        long targetStart = target.size;
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+        for (long position = from; position < size; ) {
+            buffer.clear().limit((int) Math.min(COPY_BUFFER_BYTES, size - position));
+            readFully(buffer, position);
+            int copied = buffer.flip().remaining();
+            target.writeFully(buffer, target.size);
+            target.size += copied;
+            position += copied;
+        }
+        return targetStart;
+    }
+
+    /**
+     * fsyncしてから正式なファイル名に変え、起動時に読み込まれる世代にする。
+     */
+    void install() throws IOException {
+        force();
+        Path target = pathOf(directory, generation);
+        Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+        path = target;
+        forceDirectory();
+    }
+
+    void closeAndDelete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+
+    private void forceDirectory() {
+        // 名前の変更を旧世代の削除より先に永続化する（ディレクトリを開けないOSでは省略）
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            log.debug("ディレクトリのfsyncを省略しました: {}", directory, e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            long at = position;
+            int read = io(ch -> ch.read(buffer, at));
+            if (read < 0) {
+                throw new EOFException();
+            }
+            position += read;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            long at = position;
+            position += io(ch -> ch.write(buffer, at));
+        }
+    }
+
+    private void force() throws IOException {
+        io(ch -> {
+            ch.force(false);
+            return null;
+        });
+    }
+
+    /**
+     * チャネルへの1回の入出力を行う。割り込みなど {@link #close()} 以外の理由でチャネルが閉じられていた場合は、
+     * 開き直してやり直す。割り込まれたスレッドは割り込みの状態を消してやり直し、戻る前に状態を戻す。
+     */
+    private <T> T io(ChannelOperation<T> operation) throws IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                FileChannel current = channel;
+                try {
+                    return operation.apply(current);
+                } catch (ClosedChannelException e) {
+                    if (closed) throw e;
+                    if (e instanceof ClosedByInterruptException) {
+                        interrupted |= Thread.interrupted();
+                    }
+                    reopen(current);
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void reopen(FileChannel failed) throws IOException {
+        // 並行して失敗した他のスレッドが開き直し済みの場合はそれを使う
+        if (channel != failed || closed) return;
+        log.warn("閉じられたファイルを開き直します: {}", path);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static Path pathOf(Path directory, long generation) {
+        return directory.resolve("data-" + generation + ".log");
+    }
+
+    /**
+     * レコードの種別。
+     */
+    enum Type {
+        /** 1日分のログ（値はDailyLogCodecの形式） */
+        PUT(0),
+        /** 1日分のログの削除（値は空） */
+        DELETE(1),
+        /** アーカイブで削除した日の週次集計（値はDailyLogRollupCodecの形式） */
+        WEEK_ROLLUP(2),
+        /** アーカイブで削除した日の月次集計 */
+        MONTH_ROLLUP(3);
+
+        private final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        static Type of(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) return type;
+            }
+            throw new IllegalArgumentException("未知のレコード種別です: " + code);
+        }
+    }
+
+    /**
+     * 書き込むレコード。キーは (userId, 日付)、集計の場合は期間の開始日。
+     */
+    record Entry(Type type, long userId, LocalDate key, byte[] value) {
+    }
+
+    /**
+     * ファイル内の値の位置。
+     */
+    record Location(long position, int length) {
+    }
+
+    private record StoredEntry(Type type, long userId, LocalDate key, Location location) {
+    }
+
+    @FunctionalInterface
+    private interface ChannelOperation<T> {
+        T apply(FileChannel channel) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(Type type, long userId, LocalDate key, Location location);
+    }
+}
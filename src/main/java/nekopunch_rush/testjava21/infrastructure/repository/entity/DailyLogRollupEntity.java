@@ -0,0 +1,33 @@
+package nekopunch_rush.testjava21.infrastructure.repository.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyLogRollupEntity {
+    private Long userId;
+    private String periodType;
+    private LocalDate periodStart;
+    private int logCount;
+    private double sleepHoursSum;
+    private double sleepHoursMin;
+    private double sleepHoursMax;
+    private int moodLevelSum;
+    private int moodLevelMin;
+    private int moodLevelMax;
+    private int weightCount;
+    private Double weightSum;
+    private Double weightMin;
+    private Double weightMax;
+    private int stepsDays;
+    private Long stepsSum;
+    private Long stepsMin;
+    private Long stepsMax;
+}
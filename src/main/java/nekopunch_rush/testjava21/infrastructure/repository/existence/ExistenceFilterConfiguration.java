@@ -0,0 +1,39 @@
+package nekopunch_rush.testjava21.infrastructure.repository.existence;
+
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.DailyLogRepositoryDecorator;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogInvalidationBus;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogWriteNotifier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ログの存在判定の索引の構成。
+ * <p>
+ * {@code lifelog.existence-filter.enabled=true} の場合のみ有効になり、DailyLogRepositoryに
+ * ログの無い日への読み取り・更新・削除・存在確認をDBへ送らずに答えるデコレータを重ねる。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lifelog.existence-filter", name = "enabled", havingValue = "true")
+public class ExistenceFilterConfiguration {
+
+    /**
+     * 索引は保存先の内容から作るため、アーカイブ・遅延書き込みより内側（保存先側）に置く。
+     * 接続先の振り分けより外側のため、索引の読み込みも書き込み直後のユーザーはプライマリから読む
+     */
+    public static final int EXISTENCE_FILTER_ORDER = 900;
+
+    @Bean
+    public DailyLogRepositoryDecorator existenceFilterDecorator(ExistenceFilterProperties properties,
+                                                                ObjectProvider<DailyLogInvalidationBus> invalidationBus,
+                                                                ObjectProvider<DailyLogWriteNotifier> writeNotifier) {
+        return DailyLogRepositoryDecorator.of(EXISTENCE_FILTER_ORDER, delegate -> {
+            ExistenceFilterDailyLogRepository repository = new ExistenceFilterDailyLogRepository(delegate,
+                    properties.getMaximumUsers(), properties.getExpireAfterLoad());
+            invalidationBus.ifAvailable(bus -> bus.subscribe(repository::onInvalidation));
+            writeNotifier.ifAvailable(notifier -> notifier.subscribe(repository::onInvalidation));
+            return repository;
+        });
+    }
+}
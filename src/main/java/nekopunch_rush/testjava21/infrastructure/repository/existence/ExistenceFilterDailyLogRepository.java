@@ -0,0 +1,123 @@
+package nekopunch_rush.testjava21.infrastructure.repository.existence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.ForwardingDailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogInvalidation;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * ユーザーごとのログのある日の索引をメモリに持ち、ログの無い日への問い合わせをDBへ送らずに答えるデコレータ。
+ * <p>
+ * 索引はユーザーごとに最初の参照時に保存先から日付だけを読み込んで作り、登録時に日を追加する。
+ * 索引に無い日は存在しないと確定できるため、存在確認・1日分の取得・更新・削除を委譲せずに返す。
+ * 索引にある日（削除済みかもしれない日を含む）は委譲先で確認する。
+ * <p>
+ * 索引の読み込み中に登録が並行しても漏れないよう、登録した日は書き込み直後とコミット後の2回追加する
+ * （読み込みと追加は同じユーザーについて排他になる）。
+ * 他のインスタンスで登録された日は、索引を読み直すまで存在しないと判定するため、書き込むインスタンスが1つの構成で使う
+ * （{@code lifelog.invalidation} を有効にした場合は、{@link #onInvalidation} で受け取った時点で索引に追加する）。
+ */
+public class ExistenceFilterDailyLogRepository extends ForwardingDailyLogRepository {
+
+    private final Cache<Long, LogDaySet> index;
+
+    public ExistenceFilterDailyLogRepository(DailyLogRepository delegate, long maximumUsers, Duration expireAfterLoad) {
+        super(delegate);
+        this.index = Caffeine.newBuilder()
+                .maximumSize(maximumUsers)
+                .expireAfterWrite(expireAfterLoad)
+                .build();
+    }
+
+    @Override
+    public void save(DailyLog log) {
+        delegate.save(log);
+        recordPresent(log.getUserId(), log.getLogDate());
+    }
+
+    @Override
+    public void saveAll(Collection<DailyLog> logs) {
+        delegate.saveAll(logs);
+        logs.forEach(log -> recordPresent(log.getUserId(), log.getLogDate()));
+    }
+
+    @Override
+    public boolean saveIfAbsent(DailyLog log) {
+        boolean saved = delegate.saveIfAbsent(log);
+        // 登録できなかった場合も、その日のログは存在している
+        recordPresent(log.getUserId(), log.getLogDate());
+        return saved;
+    }
+
+    @Override
+    public boolean update(LocalDate logDate, DailyLog log) {
+        if (isAbsent(log.getUserId(), logDate)) return false;
+        return delegate.update(logDate, log);
+    }
+
+    @Override
+    public boolean deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        if (isAbsent(userId, logDate)) return false;
+        return delegate.deleteByUserIdAndLogDate(userId, logDate);
+    }
+
+    @Override
+    public Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        if (isAbsent(userId, logDate)) return Optional.empty();
+        return delegate.findByUserIdAndLogDate(userId, logDate);
+    }
+
+    @Override
+    public boolean existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return !isAbsent(userId, logDate) && delegate.existsByUserIdAndLogDate(userId, logDate);
+    }
+
+    /**
+     * 他のインスタンスで変更された日を索引に追加する。
+     * 登録か更新・削除かは区別しないが、索引に余分な日があっても委譲先で確認するだけのため問題ない。
+     * 削除（全日の無効化を含む）は索引から日を除かなくてよいため何もしない。
+     */
+    public void onInvalidation(DailyLogInvalidation invalidation) {
+        if (invalidation.isAllDays()) return;
+        addIfLoaded(invalidation.userId(), invalidation.logDate());
+    }
+
+    private boolean isAbsent(Long userId, LocalDate logDate) {
+        return !index.get(userId, this::load).mightContain(logDate);
+    }
+
+    private LogDaySet load(Long userId) {
+        LogDaySet days = new LogDaySet();
+        delegate.findLogDatesByUserId(userId).forEach(days::add);
+        return days;
+    }
+
+    private void recordPresent(Long userId, LocalDate logDate) {
+        addIfLoaded(userId, logDate);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        // コミット前に読み込んだ索引には、この登録が含まれていない
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                addIfLoaded(userId, logDate);
+            }
+        });
+    }
+
+    private void addIfLoaded(Long userId, LocalDate logDate) {
+        // 読み込み中の場合は読み込みの完了を待ってから追加する。未読み込みの場合は次回の読み込みに含まれる
+        index.asMap().computeIfPresent(userId, (key, days) -> {
+            days.add(logDate);
+            return days;
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package nekopunch_rush.testjava21.infrastructure.repository.existence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * ログの存在判定をメモリ上の索引で先に行う設定。
+ * <p>
+ * application.yml の {@code lifelog.existence-filter.*} にバインドされる。
+ */
+@Data
+@ConfigurationProperties(prefix = "lifelog.existence-filter")
+public class ExistenceFilterProperties {
+
+    /** ユーザーごとのログのある日の索引をメモリに持ち、無い日への問い合わせをDBへ送らないか */
+    private boolean enabled = false;
+
+    /** 索引を保持するユーザー数の上限。超えた分は使われていないものから破棄し、次回の参照時に読み直す */
+    private long maximumUsers = 10_000;
+
+    /** 索引を読み込んでからこの時間が経ったら読み直す（他のインスタンスでの登録が反映されるまでの上限） */
+    private Duration expireAfterLoad = Duration.ofMinutes(10);
+}
@@ -0,0 +1,38 @@
+package nekopunch_rush.testjava21.infrastructure.repository.existence;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * 1ユーザーのログのある日の集合。最も古い日を起点としたビット列で持つ（1年分で約46バイト）。
+ * <p>
+ * 読み込み後の登録は {@link #add} で反映する。削除は反映しない（ビットが残った日は「あるかもしれない」として扱う）。
+ */
+final class LogDaySet {
+
+    private long baseEpochDay;
+    private BitSet days = new BitSet();
+    private boolean empty = true;
+
+    synchronized void add(LocalDate logDate) {
+        long epochDay = logDate.toEpochDay();
+        if (empty) {
+            baseEpochDay = epochDay;
+            empty = false;
+        } else if (epochDay < baseEpochDay) {
+            // 起点より前の日は、起点を移してビット列をずらす
+            int shift = Math.toIntExact(baseEpochDay - epochDay);
+            BitSet shifted = new BitSet(days.length() + shift);
+            days.stream().forEach(i -> shifted.set(i + shift));
+            days = shifted;
+            baseEpochDay = epochDay;
+        }
+        days.set(Math.toIntExact(epochDay - baseEpochDay));
+    }
+
+    synchronized boolean mightContain(LocalDate logDate) {
+        if (empty) return false;
+        long offset = logDate.toEpochDay() - baseEpochDay;
+        return offset >= 0 && offset <= Integer.MAX_VALUE && days.get((int) offset);
+    }
+}
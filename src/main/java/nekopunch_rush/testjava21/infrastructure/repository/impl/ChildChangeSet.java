@@ -0,0 +1,47 @@
+package nekopunch_rush.testjava21.infrastructure.repository.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 子テーブル1つ分の差分（追加・更新・削除）。
+ * <p>
+ * 保存済みの行と更新後の行を主キー（同一日の中で一意な時刻）で突き合わせ、
+ * 値が変わらない行は書き込み対象から外す。
+ *
+ * @param inserts 保存済みに無いキーの行
+ * @param updates キーは一致するが値が異なる行
+ * @param deletes 更新後に無くなったキー
+ * @param <K>     主キー（日付以外）の型
+ * @param <E>     エンティティの型
+ */
+record ChildChangeSet<K, E>(List<E> inserts, List<E> updates, List<K> deletes) {
+
+    static <K, E> ChildChangeSet<K, E> of(List<E> stored, List<E> desired, Function<E, K> keyOf) {
+        Map<K, E> remaining = new LinkedHashMap<>();
+        for (E e : stored) {
+            remaining.put(keyOf.apply(e), e);
+        }
+
+        List<E> inserts = new ArrayList<>();
+        List<E> updates = new ArrayList<>();
+        for (E e : desired) {
+            E current = remaining.remove(keyOf.apply(e));
+            if (current == null) {
+                inserts.add(e);
+            } else if (!Objects.equals(current, e)) {
+                updates.add(e);
+            }
+        }
+        return new ChildChangeSet<>(inserts, updates, new ArrayList<>(remaining.keySet()));
+    }
+
+    /** 書き込む行数（追加 + 更新 + 削除） */
+    int size() {
+        return inserts.size() + updates.size() + deletes.size();
+    }
+}
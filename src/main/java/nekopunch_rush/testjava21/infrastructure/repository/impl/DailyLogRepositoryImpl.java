@@ -1,27 +1,69 @@
 package nekopunch_rush.testjava21.infrastructure.repository.impl;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.PeekingIterator;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+import nekopunch_rush.testjava21.infrastructure.repository.ActiveUser;
 import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.config.DailyLogRepositoryProperties;
+import nekopunch_rush.testjava21.infrastructure.repository.config.DailyLogRepositoryProperties.AggregateFetchMode;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.ActivityEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.BodyMetricsEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.DailyLogEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.MealEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.MentalNoteEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogMapper;
 import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogMapperSupport;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogRollupMapper;
 import nekopunch_rush.testjava21.infrastructure.repository.mapper.RelatedEntitiesMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.MyBatisExceptionTranslator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Repository
+@ConditionalOnProperty(prefix = "lifelog.repository", name = "engine", havingValue = "MYBATIS", matchIfMissing = true)
 @RequiredArgsConstructor
 public class DailyLogRepositoryImpl implements DailyLogRepository {
 
     private final DailyLogMapper dailyLogMapper;
     private final RelatedEntitiesMapper relatedEntitiesMapper;
+    private final DailyLogRollupMapper rollupMapper;
+    private final DailyLogRepositoryProperties properties;
+    private final SqlSessionFactory sqlSessionFactory;
 
     @Override
+    @Transactional
     public void save(DailyLog log) {
         DailyLogEntity entity = DailyLogMapperSupport.toEntity(log);
         dailyLogMapper.insert(entity);
@@ -30,57 +72,339 @@ public class DailyLogRepositoryImpl implements DailyLogRepository {
         dailyLogMapper.insertActivity(DailyLogMapperSupport.toActivityEntities(log));
         dailyLogMapper.insertMeal(DailyLogMapperSupport.toMealEntities(log));
         dailyLogMapper.insertMentalNote(DailyLogMapperSupport.toMentalNoteEntities(log));
+        refreshRollups(log.getUserId(), log.getLogDate());
     }
 
+    /**
+     * 全行をJDBCバッチで送信し、1トランザクションで確定する。
+     * <p>
+     * BATCHエグゼキュータのセッションは同じトランザクションの他のMapper（SIMPLE）と共存できないため、
+     * SqlSessionTemplateではなく直接開く。そのため失敗はSqlSessionTemplateと同じく
+     * {@link MyBatisExceptionTranslator} でDataAccessExceptionへ変換する（主キーの重複は {@link DuplicateKeyException}）。
+     */
     @Override
-    public void update(LocalDate logDate, DailyLog log) {
-        DailyLogEntity entity = DailyLogMapperSupport.toEntity(log);
-        dailyLogMapper.update(logDate, entity);
+    @Transactional
+    public void saveAll(Collection<DailyLog> logs) {
+        if (logs.isEmpty()) return;
 
-        // 削除して再登録（差分更新しない方針）
-        dailyLogMapper.deleteBodyMetrics(log.getUserId(), logDate);
-        dailyLogMapper.deleteActivity(log.getUserId(), logDate);
-        dailyLogMapper.deleteMeal(log.getUserId(), logDate);
-        dailyLogMapper.deleteMentalNote(log.getUserId(), logDate);
+        // BATCHエグゼキュータで同一SQLをまとめ、flushStatementsでテーブルごとにJDBCバッチとして送信する
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            DailyLogMapper batchMapper = session.getMapper(DailyLogMapper.class);
 
-        dailyLogMapper.insertBodyMetrics(DailyLogMapperSupport.toBodyMetricsEntities(log));
-        dailyLogMapper.insertActivity(DailyLogMapperSupport.toActivityEntities(log));
-        dailyLogMapper.insertMeal(DailyLogMapperSupport.toMealEntities(log));
-        dailyLogMapper.insertMentalNote(DailyLogMapperSupport.toMentalNoteEntities(log));
+            logs.forEach(log -> batchMapper.insert(DailyLogMapperSupport.toEntity(log)));
+            insertInChunks(logs, DailyLogMapperSupport::toBodyMetricsEntities, batchMapper::insertBodyMetrics);
+            insertInChunks(logs, DailyLogMapperSupport::toActivityEntities, batchMapper::insertActivity);
+            insertInChunks(logs, DailyLogMapperSupport::toMealEntities, batchMapper::insertMeal);
+            insertInChunks(logs, DailyLogMapperSupport::toMentalNoteEntities, batchMapper::insertMentalNote);
+
+            session.flushStatements();
+        } catch (PersistenceException e) {
+            throw translate(e);
+        }
+        // 同じ週・月に含まれる複数日は1回の再集計にまとめる
+        logs.stream()
+                .flatMap(log -> Arrays.stream(RollupPeriod.values())
+                        .map(period -> new RollupKey(log.getUserId(), period, period.startOf(log.getLogDate()))))
+                .distinct()
+                .forEach(this::refreshRollup);
+    }
+
+    private DataAccessException translate(PersistenceException e) {
+        DataSource dataSource = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource();
+        return new MyBatisExceptionTranslator(dataSource, true).translateExceptionIfPossible(e);
+    }
+
+    private <E> void insertInChunks(Collection<DailyLog> logs,
+                                    Function<DailyLog, List<E>> toEntities,
+                                    Consumer<List<E>> insert) {
+        List<E> rows = logs.stream()
+                .flatMap(log -> toEntities.apply(log).stream())
+                .toList();
+        // 複数行INSERTのSQLが肥大化しないよう一定行数ごとに分割する（空リストはSQLにならないので送らない）
+        Lists.partition(rows, properties.getBatchChunkSize()).forEach(insert);
+    }
+
+    @Override
+    @Transactional
+    public boolean saveIfAbsent(DailyLog log) {
+        // 重複判定は主キー制約に任せ、登録できた場合のみ子データを書き込む
+        if (!insertIfAbsent(DailyLogMapperSupport.toEntity(log))) return false;
+
+        insertIfNotEmpty(DailyLogMapperSupport.toBodyMetricsEntities(log), dailyLogMapper::insertBodyMetrics);
+        insertIfNotEmpty(DailyLogMapperSupport.toActivityEntities(log), dailyLogMapper::insertActivity);
+        insertIfNotEmpty(DailyLogMapperSupport.toMealEntities(log), dailyLogMapper::insertMeal);
+        insertIfNotEmpty(DailyLogMapperSupport.toMentalNoteEntities(log), dailyLogMapper::insertMentalNote);
+        refreshRollups(log.getUserId(), log.getLogDate());
+        return true;
+    }
+
+    private boolean insertIfAbsent(DailyLogEntity entity) {
+        try {
+            return dailyLogMapper.insertIfAbsent(entity) > 0;
+        } catch (DuplicateKeyException e) {
+            // MySQLは重複を一意制約違反として返す（文単位のロールバックのため、トランザクションはそのまま続けられる）
+            return false;
+        }
+    }
+
+    private static <E> void insertIfNotEmpty(List<E> rows, Consumer<List<E>> insert) {
+        if (!rows.isEmpty()) insert.accept(rows);
+    }
+
+    @Override
+    @Transactional
+    public boolean update(LocalDate logDate, DailyLog updatedLog) {
+        Long userId = updatedLog.getUserId();
+        DailyLogEntity stored = loadAggregate(userId, logDate);
+        if (stored == null) return false;
+
+        // 読み込み後に削除された場合も影響行数0で検知する
+        DailyLogEntity entity = DailyLogMapperSupport.toEntity(updatedLog);
+        if (dailyLogMapper.update(logDate, entity) == 0) return false;
+
+        // 保存済みの子データと突き合わせ、変化のあった行だけを書き込む
+        int rowsWritten = 1;
+        rowsWritten += applyChanges(
+                ChildChangeSet.of(childrenOf(stored, DailyLogEntity::getBodyMetricsList),
+                        onDate(DailyLogMapperSupport.toBodyMetricsEntities(updatedLog), logDate, BodyMetricsEntity::setLogDate),
+                        BodyMetricsEntity::getMeasuredAt),
+                dailyLogMapper::insertBodyMetrics,
+                dailyLogMapper::updateBodyMetrics,
+                keys -> dailyLogMapper.deleteBodyMetricsByKeys(userId, logDate, keys));
+        rowsWritten += applyChanges(
+                ChildChangeSet.of(childrenOf(stored, DailyLogEntity::getActivityList),
+                        onDate(DailyLogMapperSupport.toActivityEntities(updatedLog), logDate, ActivityEntity::setLogDate),
+                        ActivityEntity::getStartedAt),
+                dailyLogMapper::insertActivity,
+                dailyLogMapper::updateActivity,
+                keys -> dailyLogMapper.deleteActivityByKeys(userId, logDate, keys));
+        rowsWritten += applyChanges(
+                ChildChangeSet.of(childrenOf(stored, DailyLogEntity::getMealList),
+                        onDate(DailyLogMapperSupport.toMealEntities(updatedLog), logDate, MealEntity::setLogDate),
+                        MealEntity::getTime),
+                dailyLogMapper::insertMeal,
+                dailyLogMapper::updateMeal,
+                keys -> dailyLogMapper.deleteMealByKeys(userId, logDate, keys));
+        rowsWritten += applyChanges(
+                ChildChangeSet.of(childrenOf(stored, DailyLogEntity::getMentalNoteList),
+                        onDate(DailyLogMapperSupport.toMentalNoteEntities(updatedLog), logDate, MentalNoteEntity::setLogDate),
+                        MentalNoteEntity::getRecordedAt),
+                dailyLogMapper::insertMentalNote,
+                dailyLogMapper::updateMentalNote,
+                keys -> dailyLogMapper.deleteMentalNoteByKeys(userId, logDate, keys));
+
+        log.debug("daily_log差分更新: userId={}, logDate={}, 書き込み行数={}", userId, logDate, rowsWritten);
+        refreshRollups(userId, logDate);
+        return true;
+    }
+
+    private static <K, E> int applyChanges(ChildChangeSet<K, E> changes,
+                                           Consumer<List<E>> insert,
+                                           Consumer<List<E>> update,
+                                           Consumer<List<K>> delete) {
+        // 主キーの付け替えが起きないよう、削除 → 更新 → 追加の順で反映する
+        if (!changes.deletes().isEmpty()) delete.accept(changes.deletes());
+        if (!changes.updates().isEmpty()) update.accept(changes.updates());
+        if (!changes.inserts().isEmpty()) insert.accept(changes.inserts());
+        return changes.size();
+    }
+
+    private static <E> List<E> childrenOf(DailyLogEntity stored, Function<DailyLogEntity, List<E>> getter) {
+        if (stored == null || getter.apply(stored) == null) return Collections.emptyList();
+        return getter.apply(stored);
+    }
+
+    private static <E> List<E> onDate(List<E> entities, LocalDate logDate, BiConsumer<E, LocalDate> setter) {
+        // 子データは更新対象日（パスで指定された日付）に紐付ける
+        entities.forEach(e -> setter.accept(e, logDate));
+        return entities;
     }
 
     @Override
-    public void deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
-        dailyLogMapper.delete(userId, logDate);
+    @Transactional
+    public boolean deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        if (dailyLogMapper.delete(userId, logDate) == 0) return false;
+
         dailyLogMapper.deleteBodyMetrics(userId, logDate);
         dailyLogMapper.deleteActivity(userId, logDate);
         dailyLogMapper.deleteMeal(userId, logDate);
         dailyLogMapper.deleteMentalNote(userId, logDate);
+        refreshRollups(userId, logDate);
+        return true;
+    }
+
+    /**
+     * 指定日を含む週と月の集計行を、同じトランザクション内で集計し直す。
+     */
+    private void refreshRollups(Long userId, LocalDate logDate) {
+        for (RollupPeriod period : RollupPeriod.values()) {
+            refreshRollup(new RollupKey(userId, period, period.startOf(logDate)));
+        }
+    }
+
+    private void refreshRollup(RollupKey key) {
+        // 削除してから登録し直すと、同じ期間を並行して集計し直した際に主キー違反・デッドロックになるため、
+        // ログがあれば登録または更新し、期間内のログが無くなった場合のみ削除する
+        LocalDate periodEnd = key.period().nextStart(key.periodStart());
+        rollupMapper.upsertFromDailyLogs(key.userId(), key.period().name(), key.periodStart(), periodEnd);
+        rollupMapper.deleteIfNoDailyLogs(key.userId(), key.period().name(), key.periodStart(), periodEnd);
+    }
+
+    private record RollupKey(Long userId, RollupPeriod period, LocalDate periodStart) {
     }
 
     @Override
     public Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
-        DailyLogEntity logEntity = dailyLogMapper.findByUserIdAndLogDate(userId, logDate);
+        DailyLogEntity logEntity = loadAggregate(userId, logDate);
         if (logEntity == null) return Optional.empty();
 
+        return Optional.of(DailyLogMapperSupport.toDomain(logEntity));
+    }
+
+    private DailyLogEntity loadAggregate(Long userId, LocalDate logDate) {
+        return properties.getFetchMode() == AggregateFetchMode.MULTI_RESULT_SET
+                ? dailyLogMapper.findAggregateByUserIdAndLogDate(userId, logDate)
+                : findAggregatePerTable(userId, logDate);
+    }
+
+    private DailyLogEntity findAggregatePerTable(Long userId, LocalDate logDate) {
+        DailyLogEntity logEntity = dailyLogMapper.findByUserIdAndLogDate(userId, logDate);
+        if (logEntity == null) return null;
+
         logEntity.setBodyMetricsList(relatedEntitiesMapper.selectBodyMetrics(userId, logDate));
         logEntity.setActivityList(relatedEntitiesMapper.selectActivity(userId, logDate));
         logEntity.setMealList(relatedEntitiesMapper.selectMeal(userId, logDate));
         logEntity.setMentalNoteList(relatedEntitiesMapper.selectMentalNote(userId, logDate));
-
-        return Optional.of(DailyLogMapperSupport.toDomain(logEntity));
+        return logEntity;
     }
 
     @Override
     public List<DailyLog> findByUserIdAndMonth(Long userId, YearMonth yearMonth) {
-        List<DailyLogEntity> entities = dailyLogMapper.findByUserIdAndMonth(userId, yearMonth.getYear(), yearMonth.getMonthValue());
+        return findByUserIdAndDateRange(userId, yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1));
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        List<DailyLogEntity> entities = dailyLogMapper.findByUserIdAndDateRange(userId, from, to);
         return entities.stream()
                 .map(DailyLogMapperSupport::toDomainSummary)
                 .toList();
     }
 
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return findWithDetailsByUserIdAndDateRange(userId, yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1));
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        List<DailyLogEntity> entities = dailyLogMapper.findByUserIdAndDateRange(userId, from, to);
+        if (entities.isEmpty()) return List.of();
+
+        // 子テーブルは期間全体で1回ずつ取得し、日付ごとに振り分ける（日数によらず合計5クエリ）
+        Map<LocalDate, List<BodyMetricsEntity>> bodyMetrics = groupByLogDate(
+                relatedEntitiesMapper.selectBodyMetricsByDateRange(userId, from, to), BodyMetricsEntity::getLogDate);
+        Map<LocalDate, List<ActivityEntity>> activities = groupByLogDate(
+                relatedEntitiesMapper.selectActivityByDateRange(userId, from, to), ActivityEntity::getLogDate);
+        Map<LocalDate, List<MealEntity>> meals = groupByLogDate(
+                relatedEntitiesMapper.selectMealByDateRange(userId, from, to), MealEntity::getLogDate);
+        Map<LocalDate, List<MentalNoteEntity>> mentalNotes = groupByLogDate(
+                relatedEntitiesMapper.selectMentalNoteByDateRange(userId, from, to), MentalNoteEntity::getLogDate);
+
+        return entities.stream()
+                .map(entity -> {
+                    LocalDate logDate = entity.getLogDate();
+                    entity.setBodyMetricsList(bodyMetrics.getOrDefault(logDate, List.of()));
+                    entity.setActivityList(activities.getOrDefault(logDate, List.of()));
+                    entity.setMealList(meals.getOrDefault(logDate, List.of()));
+                    entity.setMentalNoteList(mentalNotes.getOrDefault(logDate, List.of()));
+                    return DailyLogMapperSupport.toDomain(entity);
+                })
+                .toList();
+    }
+
+    @Override
+    public List<DailyLog> findPageByUserId(Long userId, LocalDate from, LocalDate before, int limit) {
+        return dailyLogMapper.findPageByUserId(userId, from, before, limit).stream()
+                .map(DailyLogMapperSupport::toDomainSummary)
+                .toList();
+    }
+
+    private static <E> Map<LocalDate, List<E>> groupByLogDate(List<E> rows, Function<E, LocalDate> logDateOf) {
+        return rows.stream().collect(Collectors.groupingBy(logDateOf));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByUserId(Long userId, Consumer<DailyLog> consumer) {
+        // テーブルごとのカーソルを同一トランザクション内で並行して開き、日付順にマージする
+        // （MySQLで複数のカーソルを同時に開くにはuseCursorFetch=trueが必要）
+        try (Cursor<DailyLogEntity> logs = dailyLogMapper.streamByUserId(userId);
+             Cursor<BodyMetricsEntity> bodyMetrics = relatedEntitiesMapper.streamBodyMetricsByUserId(userId);
+             Cursor<ActivityEntity> activities = relatedEntitiesMapper.streamActivityByUserId(userId);
+             Cursor<MealEntity> meals = relatedEntitiesMapper.streamMealByUserId(userId);
+             Cursor<MentalNoteEntity> mentalNotes = relatedEntitiesMapper.streamMentalNoteByUserId(userId)) {
+
+            PeekingIterator<BodyMetricsEntity> bodyMetricsRows = Iterators.peekingIterator(bodyMetrics.iterator());
+            PeekingIterator<ActivityEntity> activityRows = Iterators.peekingIterator(activities.iterator());
+            PeekingIterator<MealEntity> mealRows = Iterators.peekingIterator(meals.iterator());
+            PeekingIterator<MentalNoteEntity> mentalNoteRows = Iterators.peekingIterator(mentalNotes.iterator());
+
+            for (DailyLogEntity entity : logs) {
+                LocalDate logDate = entity.getLogDate();
+                entity.setBodyMetricsList(takeRowsOf(bodyMetricsRows, logDate, BodyMetricsEntity::getLogDate));
+                entity.setActivityList(takeRowsOf(activityRows, logDate, ActivityEntity::getLogDate));
+                entity.setMealList(takeRowsOf(mealRows, logDate, MealEntity::getLogDate));
+                entity.setMentalNoteList(takeRowsOf(mentalNoteRows, logDate, MentalNoteEntity::getLogDate));
+                consumer.accept(DailyLogMapperSupport.toDomain(entity));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <E> List<E> takeRowsOf(PeekingIterator<E> rows, LocalDate logDate, Function<E, LocalDate> logDateOf) {
+        // 親行の無い日付の子行は読み飛ばす
+        while (rows.hasNext() && logDateOf.apply(rows.peek()).isBefore(logDate)) {
+            rows.next();
+        }
+        List<E> result = new ArrayList<>();
+        while (rows.hasNext() && logDateOf.apply(rows.peek()).equals(logDate)) {
+            result.add(rows.next());
+        }
+        return result;
+    }
+
     @Override
     public boolean existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
         return dailyLogMapper.countByUserIdAndLogDate(userId, logDate) > 0;
     }
+
+    @Override
+    public List<LocalDate> findLogDatesByUserId(Long userId) {
+        return dailyLogMapper.findLogDatesByUserId(userId);
+    }
+
+    @Override
+    public List<ActiveUser> findActiveUsersSince(LocalDate since, int limit) {
+        return dailyLogMapper.findActiveUsersSince(since, limit);
+    }
+
+    @Override
+    public List<Long> findUserIdsWithLogsBefore(LocalDate before) {
+        return dailyLogMapper.findUserIdsWithLogsBefore(before);
+    }
+
+    @Override
+    @Transactional
+    public void deleteByUserIdBefore(Long userId, LocalDate before) {
+        dailyLogMapper.deleteByUserIdBefore(userId, before);
+    }
+
+    @Override
+    public List<DailyLogRollup> findRollupsByUserIdAndPeriodRange(Long userId, RollupPeriod period, LocalDate from, LocalDate to) {
+        return rollupMapper.findByUserIdAndPeriodRange(userId, period.name(), from, to).stream()
+                .map(DailyLogMapperSupport::toDomain)
+                .toList();
+    }
 }
@@ -0,0 +1,43 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import java.time.LocalDate;
+
+/**
+ * あるインスタンスでログが変更されたことを他のインスタンスへ知らせるメッセージ。
+ *
+ * @param origin      送信元のインスタンスの識別子（自分が送ったメッセージを読み飛ばすために使う）
+ * @param userId      変更されたユーザー
+ * @param logDate     変更された日。null の場合はそのユーザーのすべての日（期間指定の削除など）
+ * @param publishedAt 送信時刻（エポックミリ秒）。反映までの遅延の計測に使う
+ */
+public record DailyLogInvalidation(String origin, Long userId, LocalDate logDate, long publishedAt) {
+
+    private static final String SEPARATOR = "|";
+
+    public boolean isAllDays() {
+        return logDate == null;
+    }
+
+    /**
+     * 伝送路で送る文字列（{@code origin|userId|logDate|publishedAt}、全日の場合 logDate は空）に変換する。
+     */
+    public String encode() {
+        return origin + SEPARATOR + userId + SEPARATOR + (logDate == null ? "" : logDate) + SEPARATOR + publishedAt;
+    }
+
+    /**
+     * @throws IllegalArgumentException 形式が正しくない場合
+     */
+    public static DailyLogInvalidation decode(String message) {
+        String[] parts = message.split("\\|", -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("無効化メッセージの形式が正しくありません: " + message);
+        }
+        try {
+            return new DailyLogInvalidation(parts[0], Long.valueOf(parts[1]),
+                    parts[2].isEmpty() ? null : LocalDate.parse(parts[2]), Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("無効化メッセージの形式が正しくありません: " + message, e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * このインスタンスでの変更を伝送路へ送り、他のインスタンスでの変更をこのインスタンスのキャッシュへ配る。
+ * <p>
+ * インスタンスごとに識別子を持ち、自分が送ったメッセージは配らない（送信側のキャッシュは書き込み時に破棄済み）。
+ * 受信したメッセージは {@code lifelog.cache.invalidation.received} で数え、送信から受信までの遅延を
+ * {@code lifelog.cache.invalidation.lag} として記録する（インスタンス間の時計のずれを含む）。
+ */
+@Slf4j
+public class DailyLogInvalidationBus implements MeterBinder {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final InvalidationTransport transport;
+    private final Clock clock;
+    private final List<Consumer<DailyLogInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private volatile Counter received;
+    private volatile Timer lag;
+
+    public DailyLogInvalidationBus(InvalidationTransport transport, Clock clock) {
+        this.transport = transport;
+        this.clock = clock;
+        transport.subscribe(this::receive);
+    }
+
+    /**
+     * 変更を他のインスタンスへ知らせる。
+     *
+     * @param logDate 変更された日。null の場合はそのユーザーのすべての日
+     */
+    public void publish(Long userId, LocalDate logDate) {
+        transport.publish(new DailyLogInvalidation(nodeId, userId, logDate, clock.millis()));
+    }
+
+    /**
+     * 他のインスタンスでの変更を受け取るキャッシュを登録する。
+     */
+    public void subscribe(Consumer<DailyLogInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        received = Counter.builder("lifelog.cache.invalidation.received")
+                .description("Invalidations received from other instances")
+                .register(registry);
+        lag = Timer.builder("lifelog.cache.invalidation.lag")
+                .description("Time from publishing an invalidation to applying it on this instance")
+                .register(registry);
+    }
+
+    private void receive(DailyLogInvalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) return;
+        for (Consumer<DailyLogInvalidation> listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.error("無効化の反映に失敗しました: userId={}, logDate={}",
+                        invalidation.userId(), invalidation.logDate(), e);
+            }
+        }
+        if (received != null) received.increment();
+        if (lag != null) lag.record(Duration.ofMillis(Math.max(0, clock.millis() - invalidation.publishedAt())));
+    }
+}
@@ -0,0 +1,59 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * DailyLogRepositoryのデコレータを通らない書き込み（R2DBC版リポジトリ）を、このインスタンスのキャッシュと他のインスタンスへ知らせる。
+ * <p>
+ * 各キャッシュ（{@code lifelog.cache}・{@code lifelog.existence-filter}）は作成時に {@link #subscribe} で登録し、
+ * 書き込みのコミット後に {@link #committed} が呼ばれると、他のインスタンスから受信した変更と同じく
+ * {@link DailyLogInvalidation} として受け取る。{@code lifelog.invalidation} が有効な場合は他のインスタンスへも送る。
+ */
+@Slf4j
+public class DailyLogWriteNotifier {
+
+    /** このインスタンスでの書き込みを表す送信元 */
+    static final String LOCAL_ORIGIN = "local";
+
+    private final DailyLogInvalidationBus bus;
+    private final Clock clock;
+    private final List<Consumer<DailyLogInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param bus インスタンス間の無効化の送り先。無効の場合は null
+     */
+    public DailyLogWriteNotifier(DailyLogInvalidationBus bus, Clock clock) {
+        this.bus = bus;
+        this.clock = clock;
+    }
+
+    /**
+     * このインスタンスでの書き込みを受け取るキャッシュを登録する。
+     */
+    public void subscribe(Consumer<DailyLogInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 書き込みがコミットされた日を知らせる。
+     *
+     * @param logDate 変更された日。null の場合はそのユーザーのすべての日
+     */
+    public void committed(Long userId, LocalDate logDate) {
+        DailyLogInvalidation invalidation = new DailyLogInvalidation(LOCAL_ORIGIN, userId, logDate, clock.millis());
+        for (Consumer<DailyLogInvalidation> listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.error("無効化の反映に失敗しました: userId={}, logDate={}", userId, logDate, e);
+            }
+        }
+        if (bus != null) bus.publish(userId, logDate);
+    }
+}
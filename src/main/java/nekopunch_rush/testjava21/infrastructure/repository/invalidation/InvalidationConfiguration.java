@@ -0,0 +1,53 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.DailyLogRepositoryDecorator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * インスタンス間のキャッシュ無効化の構成。
+ * <p>
+ * {@code lifelog.invalidation.enabled=true} の場合のみ有効になる。保存先への書き込みを伝送路へ送るデコレータを重ね、
+ * 各キャッシュ（{@code lifelog.cache}・{@code lifelog.existence-filter}）は {@link DailyLogInvalidationBus} から
+ * 他のインスタンスでの変更を受け取る。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lifelog.invalidation", name = "enabled", havingValue = "true")
+public class InvalidationConfiguration {
+
+    /**
+     * 保存先への書き込みが確定した時点で送るよう、遅延書き込み・接続先の振り分けより内側（保存先側）に置く
+     */
+    public static final int INVALIDATION_PUBLISH_ORDER = 1100;
+
+    @Bean
+    @ConditionalOnProperty(prefix = "lifelog.invalidation", name = "transport", havingValue = "REDIS", matchIfMissing = true)
+    public InvalidationTransport redisInvalidationTransport(InvalidationProperties properties) {
+        return new RedisInvalidationTransport(properties.getRedis().getUri(), properties.getChannel());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "lifelog.invalidation", name = "transport", havingValue = "LOOPBACK")
+    public InvalidationTransport loopbackInvalidationTransport(InvalidationProperties properties) {
+        return new LoopbackInvalidationTransport(properties.getChannel());
+    }
+
+    @Bean
+    public DailyLogInvalidationBus dailyLogInvalidationBus(InvalidationTransport transport,
+                                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        DailyLogInvalidationBus bus = new DailyLogInvalidationBus(transport, Clock.systemUTC());
+        meterRegistry.ifAvailable(bus::bindTo);
+        return bus;
+    }
+
+    @Bean
+    public DailyLogRepositoryDecorator invalidationPublishingDecorator(DailyLogInvalidationBus bus) {
+        return DailyLogRepositoryDecorator.of(INVALIDATION_PUBLISH_ORDER,
+                delegate -> new InvalidationPublishingDailyLogRepository(delegate, bus));
+    }
+}
@@ -0,0 +1,39 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * インスタンス間のキャッシュ無効化の設定。
+ * <p>
+ * application.yml の {@code lifelog.invalidation.*} にバインドされる。
+ */
+@Data
+@ConfigurationProperties(prefix = "lifelog.invalidation")
+public class InvalidationProperties {
+
+    /** 書き込みを他のインスタンスへ知らせ、他のインスタンスでの書き込みでこのインスタンスのキャッシュを破棄するか */
+    private boolean enabled = false;
+
+    /** 無効化メッセージの伝送路 */
+    private Transport transport = Transport.REDIS;
+
+    /** 無効化メッセージを送るチャンネル名。同じデータベースを使うインスタンスで揃える */
+    private String channel = "lifelog:daily-log:invalidation";
+
+    private Redis redis = new Redis();
+
+    public enum Transport {
+        /** RedisのPub/Sub */
+        REDIS,
+        /** 同じJVM内のみ（テスト・ローカル確認用） */
+        LOOPBACK
+    }
+
+    @Data
+    public static class Redis {
+
+        /** 接続先（redis://[password@]host:port[/database]） */
+        private String uri = "redis://localhost:6379";
+    }
+}
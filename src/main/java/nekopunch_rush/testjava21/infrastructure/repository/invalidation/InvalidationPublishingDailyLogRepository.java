@@ -0,0 +1,78 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.ForwardingDailyLogRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * 保存先への書き込みが確定したら、変更した日を他のインスタンスへ知らせるデコレータ。
+ * <p>
+ * トランザクション内の場合はコミット後に送る（コミット前に送ると、受信側が変更前の内容を読み直してしまう）。
+ * 何も変更しなかった場合（更新・削除の対象が無い、既に登録済み）は送らない。
+ */
+public class InvalidationPublishingDailyLogRepository extends ForwardingDailyLogRepository {
+
+    private final DailyLogInvalidationBus bus;
+
+    public InvalidationPublishingDailyLogRepository(DailyLogRepository delegate, DailyLogInvalidationBus bus) {
+        super(delegate);
+        this.bus = bus;
+    }
+
+    @Override
+    public void save(DailyLog log) {
+        delegate.save(log);
+        publishAfterCommit(log.getUserId(), log.getLogDate());
+    }
+
+    @Override
+    public void saveAll(Collection<DailyLog> logs) {
+        delegate.saveAll(logs);
+        logs.forEach(log -> publishAfterCommit(log.getUserId(), log.getLogDate()));
+    }
+
+    @Override
+    public boolean saveIfAbsent(DailyLog log) {
+        boolean saved = delegate.saveIfAbsent(log);
+        if (saved) publishAfterCommit(log.getUserId(), log.getLogDate());
+        return saved;
+    }
+
+    @Override
+    public boolean update(LocalDate logDate, DailyLog log) {
+        boolean updated = delegate.update(logDate, log);
+        if (updated) publishAfterCommit(log.getUserId(), logDate);
+        return updated;
+    }
+
+    @Override
+    public boolean deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        boolean deleted = delegate.deleteByUserIdAndLogDate(userId, logDate);
+        if (deleted) publishAfterCommit(userId, logDate);
+        return deleted;
+    }
+
+    @Override
+    public void deleteByUserIdBefore(Long userId, LocalDate before) {
+        delegate.deleteByUserIdBefore(userId, before);
+        publishAfterCommit(userId, null);
+    }
+
+    private void publishAfterCommit(Long userId, LocalDate logDate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bus.publish(userId, logDate);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bus.publish(userId, logDate);
+            }
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * インスタンス間で無効化メッセージを配る伝送路。
+ * <p>
+ * 配信は最大1回（届かないこともある）でよい。届かなかった変更は各キャッシュの有効期限が経つまで反映されない。
+ * 送信したインスタンス自身にも配信してよい（受信側で送信元を見て読み飛ばす）。
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    void publish(DailyLogInvalidation invalidation);
+
+    void subscribe(Consumer<DailyLogInvalidation> subscriber);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,45 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 同じJVM内の同じチャンネル名の伝送路へ、送信したスレッドでそのまま配る伝送路（テスト・ローカル確認用）。
+ * <p>
+ * 1つのJVMで複数のアプリケーションコンテキストを起動した場合に、コンテキスト間で無効化を配るために使う。
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private static final Map<String, Set<LoopbackInvalidationTransport>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private final List<Consumer<DailyLogInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    public LoopbackInvalidationTransport(String channel) {
+        this.channel = channel;
+        CHANNELS.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+
+    @Override
+    public void publish(DailyLogInvalidation invalidation) {
+        CHANNELS.getOrDefault(channel, Set.of())
+                .forEach(transport -> transport.subscribers.forEach(subscriber -> subscriber.accept(invalidation)));
+    }
+
+    @Override
+    public void subscribe(Consumer<DailyLogInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void close() {
+        CHANNELS.computeIfPresent(channel, (key, transports) -> {
+            transports.remove(this);
+            return transports.isEmpty() ? null : transports;
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * RedisのPub/Sub（PUBLISH / SUBSCRIBE）で無効化メッセージを配る伝送路。
+ * <p>
+ * Redisはメッセージを保存しないため、切断中に送られたメッセージは届かない（再接続後に購読し直す）。
+ * 送信は応答を待たずに行い、失敗はログに残すだけにする。
+ */
+@Slf4j
+public class RedisInvalidationTransport implements InvalidationTransport {
+
+    private final String channel;
+    private final RedisClient client;
+    private final StatefulRedisConnection<String, String> publishConnection;
+    private final StatefulRedisPubSubConnection<String, String> subscribeConnection;
+    private final List<Consumer<DailyLogInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    public RedisInvalidationTransport(String uri, String channel) {
+        this.channel = channel;
+        this.client = RedisClient.create(uri);
+        this.publishConnection = client.connect();
+        this.subscribeConnection = client.connectPubSub();
+        subscribeConnection.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String receivedChannel, String message) {
+                if (channel.equals(receivedChannel)) deliver(message);
+            }
+        });
+        subscribeConnection.sync().subscribe(channel);
+    }
+
+    @Override
+    public void publish(DailyLogInvalidation invalidation) {
+        publishConnection.async().publish(channel, invalidation.encode())
+                .exceptionally(e -> {
+                    log.warn("無効化メッセージを送信できませんでした: userId={}, logDate={}",
+                            invalidation.userId(), invalidation.logDate(), e);
+                    return null;
+                });
+    }
+
+    @Override
+    public void subscribe(Consumer<DailyLogInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void close() {
+        subscribeConnection.close();
+        publishConnection.close();
+        client.shutdown();
+    }
+
+    private void deliver(String message) {
+        DailyLogInvalidation invalidation;
+        try {
+            invalidation = DailyLogInvalidation.decode(message);
+        } catch (IllegalArgumentException e) {
+            log.warn("無効化メッセージを読み飛ばします: {}", message, e);
+            return;
+        }
+        subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+    }
+}
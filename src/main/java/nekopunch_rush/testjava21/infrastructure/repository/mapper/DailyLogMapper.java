@@ -1,5 +1,6 @@
 package nekopunch_rush.testjava21.infrastructure.repository.mapper;
 
+import nekopunch_rush.testjava21.infrastructure.repository.ActiveUser;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.ActivityEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.BodyMetricsEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.DailyLogEntity;
@@ -10,9 +11,12 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Result;
 import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.annotations.Select;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @Mapper
@@ -34,41 +38,110 @@ public interface DailyLogMapper {
     // DailyLog
     void insert(@Param("log") DailyLogEntity log);
 
-    void update(@Param("logDate") LocalDate logDate,
-                @Param("log") DailyLogEntity log);
+    /**
+     * 主キーが未登録の場合のみ登録する。
+     * MySQLでは既に存在した場合に {@link org.springframework.dao.DuplicateKeyException} を送出する。
+     *
+     * @return 登録した行数（PostgreSQLで既に存在した場合は0）
+     */
+    int insertIfAbsent(@Param("log") DailyLogEntity log);
 
-    void delete(@Param("userId") Long userId,
-                @Param("logDate") LocalDate logDate);
+    int update(@Param("logDate") LocalDate logDate,
+               @Param("log") DailyLogEntity log);
+
+    int delete(@Param("userId") Long userId,
+               @Param("logDate") LocalDate logDate);
 
     DailyLogEntity findByUserIdAndLogDate(@Param("userId") Long userId,
                                           @Param("logDate") LocalDate logDate);
 
-    List<DailyLogEntity> findByUserIdAndMonth(@Param("userId") Long userId,
-                                              @Param("year") int year,
-                                              @Param("month") int month);
+    /**
+     * daily_log と子テーブル4つを1往復で取得し、子リストを設定済みのDailyLogEntityを返す。
+     */
+    DailyLogEntity findAggregateByUserIdAndLogDate(@Param("userId") Long userId,
+                                                   @Param("logDate") LocalDate logDate);
+
+    /**
+     * 半開区間 [from, to) に含まれるdaily_logを日付順に取得する（子テーブルは含まない）。
+     */
+    List<DailyLogEntity> findByUserIdAndDateRange(@Param("userId") Long userId,
+                                                  @Param("from") LocalDate from,
+                                                  @Param("to") LocalDate to);
+
+    /**
+     * 半開区間 [from, before) のdaily_logを新しい日付順に最大limit件取得する（子テーブルは含まない）。
+     * from・before が null の場合はその側を制限しない。
+     */
+    List<DailyLogEntity> findPageByUserId(@Param("userId") Long userId,
+                                          @Param("from") LocalDate from,
+                                          @Param("before") LocalDate before,
+                                          @Param("limit") int limit);
+
+    /**
+     * ユーザーの全期間のdaily_logを日付順に逐次読み出す（子テーブルは含まない）。
+     */
+    Cursor<DailyLogEntity> streamByUserId(@Param("userId") Long userId);
+
+    /**
+     * ユーザーのログのある日付を昇順で取得する。
+     */
+    List<LocalDate> findLogDatesByUserId(@Param("userId") Long userId);
+
+    /**
+     * 指定日以降にログのあるユーザーを、最後のログの日付の新しい順（同じ日はユーザーIDの昇順）に limit 人まで取得する。
+     */
+    List<ActiveUser> findActiveUsersSince(@Param("since") LocalDate since, @Param("limit") int limit);
+
+    /**
+     * 指定日より前にログのあるユーザーIDを昇順で取得する。
+     */
+    List<Long> findUserIdsWithLogsBefore(@Param("before") LocalDate before);
+
+    /**
+     * 指定日より前のログを子テーブルごと削除する（集計は残す）。
+     */
+    void deleteByUserIdBefore(@Param("userId") Long userId, @Param("before") LocalDate before);
+
+    /**
+     * ログのあるすべてのユーザーIDを昇順で取得する（シャード間の移動用）。
+     */
+    List<Long> findUserIds();
+
+    /**
+     * ユーザーの全期間のログを集計を含む全テーブルから削除する（シャード間の移動用）。
+     */
+    void deleteAllByUserId(@Param("userId") Long userId);
 
     int countByUserIdAndLogDate(@Param("userId") Long userId,
                                 @Param("logDate") LocalDate logDate);
 
     // BodyMetrics
     void insertBodyMetrics(@Param("metrics") List<BodyMetricsEntity> metrics);
-    void updateBodyMetrics(@Param("metrics") List<BodyMetricsEntity> metrics);
+    int updateBodyMetrics(@Param("metrics") List<BodyMetricsEntity> metrics);
     void deleteBodyMetrics(@Param("userId") Long userId, @Param("logDate") LocalDate logDate);
+    int deleteBodyMetricsByKeys(@Param("userId") Long userId, @Param("logDate") LocalDate logDate,
+                                @Param("measuredAts") List<LocalDateTime> measuredAts);
 
     // Activity
     void insertActivity(@Param("activities") List<ActivityEntity> activities);
-    void updateActivity(@Param("activities") List<ActivityEntity> activities);
+    int updateActivity(@Param("activities") List<ActivityEntity> activities);
     void deleteActivity(@Param("userId") Long userId, @Param("logDate") LocalDate logDate);
+    int deleteActivityByKeys(@Param("userId") Long userId, @Param("logDate") LocalDate logDate,
+                             @Param("startedAts") List<LocalDateTime> startedAts);
 
     // Meal
     void insertMeal(@Param("meals") List<MealEntity> meals);
-    void updateMeal(@Param("meals") List<MealEntity> meals);
+    int updateMeal(@Param("meals") List<MealEntity> meals);
     void deleteMeal(@Param("userId") Long userId, @Param("logDate") LocalDate logDate);
+    int deleteMealByKeys(@Param("userId") Long userId, @Param("logDate") LocalDate logDate,
+                         @Param("times") List<LocalTime> times);
 
     // MentalNote
     void insertMentalNote(@Param("notes") List<MentalNoteEntity> notes);
-    void updateMentalNote(@Param("notes") List<MentalNoteEntity> notes);
+    int updateMentalNote(@Param("notes") List<MentalNoteEntity> notes);
     void deleteMentalNote(@Param("userId") Long userId, @Param("logDate") LocalDate logDate);
+    int deleteMentalNoteByKeys(@Param("userId") Long userId, @Param("logDate") LocalDate logDate,
+                               @Param("recordedAts") List<LocalDateTime> recordedAts);
 }
 
 
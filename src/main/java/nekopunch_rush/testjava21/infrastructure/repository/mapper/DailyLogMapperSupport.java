@@ -4,8 +4,10 @@ package nekopunch_rush.testjava21.infrastructure.repository.mapper;
 import nekopunch_rush.testjava21.domain.lifelog.Activity;
 import nekopunch_rush.testjava21.domain.lifelog.BodyMetrics;
 import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
 import nekopunch_rush.testjava21.domain.lifelog.Meal;
 import nekopunch_rush.testjava21.domain.lifelog.MentalNote;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
 import nekopunch_rush.testjava21.domain.lifelog.valueobject.BodyFatPercentage;
 import nekopunch_rush.testjava21.domain.lifelog.valueobject.CaloriesBurned;
 import nekopunch_rush.testjava21.domain.lifelog.valueobject.MeasuredAt;
@@ -15,9 +17,13 @@ import nekopunch_rush.testjava21.domain.lifelog.valueobject.Weight;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.ActivityEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.BodyMetricsEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.DailyLogEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.DailyLogRollupEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.MealEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.MentalNoteEntity;
 
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Collections;
@@ -42,7 +48,7 @@ public class DailyLogMapperSupport {
                         .weight(m.getWeight().getValue())
                         .bodyFatPercentage(m.getBodyFatPercentage().getValue())
                         .muscleMass(m.getMuscleMass().getValue())
-                        .measuredAt(m.getMeasuredAt().getValue())
+                        .measuredAt(toStoredPrecision(m.getMeasuredAt().getValue()))
                         .build())
                 .collect(Collectors.toList());
     }
@@ -53,7 +59,7 @@ public class DailyLogMapperSupport {
                         .userId(log.getUserId())
                         .logDate(log.getLogDate())
                         .type(a.getType())
-                        .startedAt(a.getStartedAt().getValue())
+                        .startedAt(toStoredPrecision(a.getStartedAt().getValue()))
                         .durationInMinutes(a.getDurationInMinutes())
                         .distanceKm(a.getDistanceKm())
                         .steps(a.getSteps().getValue())
@@ -67,7 +73,7 @@ public class DailyLogMapperSupport {
                 .map(m -> MealEntity.builder()
                         .userId(log.getUserId())
                         .logDate(log.getLogDate())
-                        .time(m.getTime())
+                        .time(toStoredPrecision(m.getTime()))
                         .content(m.getContent())
                         .calories(m.getCalories())
                         .photoUrl(m.getPhotoUrl())
@@ -80,7 +86,7 @@ public class DailyLogMapperSupport {
                 .map(m -> MentalNoteEntity.builder()
                         .userId(log.getUserId())
                         .logDate(log.getLogDate())
-                        .recordedAt(m.getRecordedAt())
+                        .recordedAt(toStoredPrecision(m.getRecordedAt()))
                         .stressLevel(m.getStressLevel())
                         .motivationLevel(m.getMotivationLevel())
                         .note(m.getNote())
@@ -159,4 +165,29 @@ public class DailyLogMapperSupport {
                 Collections.emptyList()
         );
     }
+
+    public static DailyLogRollup toDomain(DailyLogRollupEntity entity) {
+        return DailyLogRollup.of(
+                entity.getUserId(),
+                RollupPeriod.valueOf(entity.getPeriodType()),
+                entity.getPeriodStart(),
+                entity.getLogCount(),
+                entity.getSleepHoursSum(), entity.getSleepHoursMin(), entity.getSleepHoursMax(),
+                entity.getMoodLevelSum(), entity.getMoodLevelMin(), entity.getMoodLevelMax(),
+                entity.getWeightCount(), entity.getWeightSum(), entity.getWeightMin(), entity.getWeightMax(),
+                entity.getStepsDays(), entity.getStepsSum(), entity.getStepsMin(), entity.getStepsMax()
+        );
+    }
+
+    /**
+     * 子テーブルのキーの時刻をDBに保存できる精度（マイクロ秒）に切り捨てる。
+     * ナノ秒を含むまま比べると、更新時の差分で保存済みの行と一致しなくなる。
+     */
+    private static LocalDateTime toStoredPrecision(LocalDateTime value) {
+        return value.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static LocalTime toStoredPrecision(LocalTime value) {
+        return value.truncatedTo(ChronoUnit.MICROS);
+    }
 }
@@ -0,0 +1,53 @@
+package nekopunch_rush.testjava21.infrastructure.repository.mapper;
+
+import nekopunch_rush.testjava21.infrastructure.repository.entity.DailyLogRollupEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Mapper
+public interface DailyLogRollupMapper {
+
+    /**
+     * 半開区間 [periodStart, periodEnd) のdaily_logと子テーブルから集計し、集計行を登録または更新する。
+     * 期間内にログが無い場合は何もしない。
+     */
+    void upsertFromDailyLogs(@Param("userId") Long userId,
+                             @Param("periodType") String periodType,
+                             @Param("periodStart") LocalDate periodStart,
+                             @Param("periodEnd") LocalDate periodEnd);
+
+    /**
+     * 半開区間 [periodStart, periodEnd) にログが無い場合のみ、1期間分の集計行を削除する。
+     */
+    void deleteIfNoDailyLogs(@Param("userId") Long userId,
+                             @Param("periodType") String periodType,
+                             @Param("periodStart") LocalDate periodStart,
+                             @Param("periodEnd") LocalDate periodEnd);
+
+    /**
+     * 集計行をそのまま登録し、既にある期間は置き換える（シャード間の移動用）。
+     */
+    void upsertAll(@Param("rollups") List<DailyLogRollupEntity> rollups);
+
+    /**
+     * 集計のあるすべてのユーザーIDを昇順で取得する（シャード間の移動用）。
+     * ログをすべてアーカイブへ移したユーザーは daily_log に行が無く、集計だけが残る。
+     */
+    List<Long> findUserIds();
+
+    /**
+     * ユーザーのすべての集計行を取得する（シャード間の移動用）。
+     */
+    List<DailyLogRollupEntity> findAllByUserId(@Param("userId") Long userId);
+
+    /**
+     * 開始日が半開区間 [from, to) に含まれる集計行を期間順に取得する。
+     */
+    List<DailyLogRollupEntity> findByUserIdAndPeriodRange(@Param("userId") Long userId,
+                                                          @Param("periodType") String periodType,
+                                                          @Param("from") LocalDate from,
+                                                          @Param("to") LocalDate to);
+}
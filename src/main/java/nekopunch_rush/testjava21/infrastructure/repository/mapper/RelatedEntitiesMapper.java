@@ -6,6 +6,7 @@ import nekopunch_rush.testjava21.infrastructure.repository.entity.MealEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.MentalNoteEntity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -20,4 +21,30 @@ public interface RelatedEntitiesMapper {
     List<MealEntity> selectMeal(@Param("userId") Long userId, @Param("logDate") LocalDate logDate);
 
     List<MentalNoteEntity> selectMentalNote(@Param("userId") Long userId, @Param("logDate") LocalDate logDate);
+
+    // 半開区間 [from, to) の子データを日付順にまとめて取得する（日ごとの問い合わせを避ける）
+    List<BodyMetricsEntity> selectBodyMetricsByDateRange(@Param("userId") Long userId,
+                                                         @Param("from") LocalDate from,
+                                                         @Param("to") LocalDate to);
+
+    List<ActivityEntity> selectActivityByDateRange(@Param("userId") Long userId,
+                                                   @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to);
+
+    List<MealEntity> selectMealByDateRange(@Param("userId") Long userId,
+                                           @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to);
+
+    List<MentalNoteEntity> selectMentalNoteByDateRange(@Param("userId") Long userId,
+                                                       @Param("from") LocalDate from,
+                                                       @Param("to") LocalDate to);
+
+    // ユーザーの全期間を日付順に逐次読み出す（DailyLogMapper#streamByUserIdと突き合わせる）
+    Cursor<BodyMetricsEntity> streamBodyMetricsByUserId(@Param("userId") Long userId);
+
+    Cursor<ActivityEntity> streamActivityByUserId(@Param("userId") Long userId);
+
+    Cursor<MealEntity> streamMealByUserId(@Param("userId") Long userId);
+
+    Cursor<MentalNoteEntity> streamMentalNoteByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,84 @@
+package nekopunch_rush.testjava21.infrastructure.repository.r2dbc;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Mapper XMLのステートメントを、DatabaseClientで実行できる名前付きパラメータのSQLとして読み込んだもの。
+ * <p>
+ * 同じSQLをMapper XMLとR2DBC版で二重に持たないよう、MyBatisでXMLを読み込んで組み立てたSQLの {@code ?} を
+ * {@code :p0, :p1 ...} に置き換え、それぞれに対応するパラメータ名を保持する。
+ * 引数によって文が変わる動的SQL（if / foreach など）のステートメントは扱えない。
+ *
+ * @param sql            名前付きパラメータのSQL
+ * @param parameterNames {@code :p0, :p1 ...} に対応するパラメータ名
+ */
+record MapperXmlStatement(String sql, List<String> parameterNames) {
+
+    /** application.yml の mybatis.type-aliases-package と同じ（resultMapの型の解決に使う） */
+    private static final String TYPE_ALIASES_PACKAGE = "nekopunch_rush.testjava21.infrastructure.repository.entity";
+
+    /**
+     * Mapper XMLを指定したdatabaseIdで読み込み、指定したステートメントをIDごとに返す。
+     */
+    static Map<String, MapperXmlStatement> load(String resource, String databaseId, String... statementIds) {
+        Configuration configuration = new Configuration();
+        configuration.setDatabaseId(databaseId);
+        configuration.getTypeAliasRegistry().registerAliases(TYPE_ALIASES_PACKAGE);
+        try (InputStream in = Resources.getResourceAsStream(resource)) {
+            new XMLMapperBuilder(in, configuration, resource, configuration.getSqlFragments()).parse();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Mapper XMLを読み込めません: " + resource, e);
+        }
+        return Arrays.stream(statementIds)
+                .collect(Collectors.toUnmodifiableMap(Function.identity(),
+                        id -> of(configuration.getMappedStatement(id))));
+    }
+
+    private static MapperXmlStatement of(MappedStatement statement) {
+        if (statement.getSqlSource() instanceof DynamicSqlSource) {
+            throw new IllegalArgumentException("動的SQLのステートメントは扱えません: " + statement.getId());
+        }
+        BoundSql boundSql = statement.getBoundSql(new HashMap<>());
+        StringBuilder sql = new StringBuilder();
+        int index = 0;
+        for (char c : boundSql.getSql().toCharArray()) {
+            if (c == '?') {
+                sql.append(":p").append(index++);
+            } else {
+                sql.append(c);
+            }
+        }
+        return new MapperXmlStatement(sql.toString(), boundSql.getParameterMappings().stream()
+                .map(ParameterMapping::getProperty)
+                .toList());
+    }
+
+    /**
+     * パラメータ名と値の対応から、SQLのすべての名前付きパラメータを設定する。
+     */
+    GenericExecuteSpec bind(DatabaseClient databaseClient, Map<String, ?> parameters) {
+        GenericExecuteSpec spec = databaseClient.sql(sql);
+        for (int i = 0; i < parameterNames.size(); i++) {
+            spec = spec.bind("p" + i, parameters.get(parameterNames.get(i)));
+        }
+        return spec;
+    }
+}
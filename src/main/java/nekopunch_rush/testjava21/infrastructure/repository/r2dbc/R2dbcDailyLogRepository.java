@@ -0,0 +1,431 @@
+package nekopunch_rush.testjava21.infrastructure.repository.r2dbc;
+
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.Readable;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+import nekopunch_rush.testjava21.infrastructure.repository.ReactiveDailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.ActivityEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.BodyMetricsEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.DailyLogEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.MealEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.MentalNoteEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogWriteNotifier;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogMapperSupport;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * R2DBCによるReactiveDailyLogRepositoryの実装。
+ * <p>
+ * 詳細取得では親テーブルと子テーブル4つのSELECTを同時に発行する。トランザクション外の問い合わせは
+ * それぞれがプールから別の接続を取得するため、5本が並行に実行される。
+ * 書き込みはTransactionalOperatorで1トランザクションにまとめる（同一接続上で順に実行される）。
+ * 更新時の子テーブルは差分ではなく、指定日の行を削除してから更新後の行を登録し直す。
+ * 週次・月次の集計（daily_log_rollup）はDailyLogRepositoryImplと同じく、同じトランザクションで該当期間を集計し直す
+ * （SQLはMapper XMLから {@link MapperXmlStatement} で読み込み、MyBatis版と共有する）。
+ * <p>
+ * 書き込みはDailyLogRepositoryのデコレータを通らないため、コミット後に {@link DailyLogWriteNotifier} へ変更した日を知らせ、
+ * このインスタンスのキャッシュの破棄と他のインスタンスへの通知を行う。
+ */
+public class R2dbcDailyLogRepository implements ReactiveDailyLogRepository {
+
+    // INSERT IGNOREは重複以外のエラーも警告にしてしまうため、MySQLは通常のINSERTとし重複エラーを登録なしとして扱う
+    private static final String INSERT_IF_ABSENT_MYSQL = """
+            INSERT INTO daily_log (user_id, log_date, sleep_hours, mood_level)
+            VALUES (:userId, :logDate, :sleepHours, :moodLevel)""";
+    private static final String INSERT_IF_ABSENT_POSTGRESQL = """
+            INSERT INTO daily_log (user_id, log_date, sleep_hours, mood_level)
+            VALUES (:userId, :logDate, :sleepHours, :moodLevel)
+            ON CONFLICT (user_id, log_date) DO NOTHING""";
+    private static final String UPDATE = """
+            UPDATE daily_log SET sleep_hours = :sleepHours, mood_level = :moodLevel
+            WHERE user_id = :userId AND log_date = :logDate""";
+    private static final String SELECT_BY_DATE_RANGE = """
+            SELECT user_id, log_date, sleep_hours, mood_level FROM daily_log
+            WHERE user_id = :userId AND log_date >= :from AND log_date < :to
+            ORDER BY log_date""";
+    private static final String COUNT = """
+            SELECT COUNT(*) AS cnt FROM daily_log WHERE user_id = :userId AND log_date = :logDate""";
+
+    private static final String INSERT_BODY_METRICS = """
+            INSERT INTO body_metrics (user_id, log_date, weight, body_fat_percentage, muscle_mass, measured_at)
+            VALUES (:userId, :logDate, :weight, :bodyFatPercentage, :muscleMass, :measuredAt)""";
+    private static final String INSERT_ACTIVITY = """
+            INSERT INTO activity (user_id, log_date, type, started_at, duration_in_minutes, distance_km, steps, calories_burned)
+            VALUES (:userId, :logDate, :type, :startedAt, :durationInMinutes, :distanceKm, :steps, :caloriesBurned)""";
+    private static final String INSERT_MEAL = """
+            INSERT INTO meal (user_id, log_date, time, content, calories, photo_url)
+            VALUES (:userId, :logDate, :time, :content, :calories, :photoUrl)""";
+    private static final String INSERT_MENTAL_NOTE = """
+            INSERT INTO mental_note (user_id, log_date, recorded_at, stress_level, motivation_level, note)
+            VALUES (:userId, :logDate, :recordedAt, :stressLevel, :motivationLevel, :note)""";
+
+    private static final String SELECT_BODY_METRICS_BY_DATE_RANGE = """
+            SELECT user_id, log_date, weight, body_fat_percentage, muscle_mass, measured_at FROM body_metrics
+            WHERE user_id = :userId AND log_date >= :from AND log_date < :to
+            ORDER BY log_date, measured_at""";
+    private static final String SELECT_ACTIVITY_BY_DATE_RANGE = """
+            SELECT user_id, log_date, type, started_at, duration_in_minutes, distance_km, steps, calories_burned FROM activity
+            WHERE user_id = :userId AND log_date >= :from AND log_date < :to
+            ORDER BY log_date, started_at""";
+    private static final String SELECT_MEAL_BY_DATE_RANGE = """
+            SELECT user_id, log_date, time, content, calories, photo_url FROM meal
+            WHERE user_id = :userId AND log_date >= :from AND log_date < :to
+            ORDER BY log_date, time""";
+    private static final String SELECT_MENTAL_NOTE_BY_DATE_RANGE = """
+            SELECT user_id, log_date, recorded_at, stress_level, motivation_level, note FROM mental_note
+            WHERE user_id = :userId AND log_date >= :from AND log_date < :to
+            ORDER BY log_date, recorded_at""";
+
+    /** 週次・月次の集計は、DailyLogRepositoryImplと同じSQLをMapper XMLから読み込んで使う */
+    private static final String ROLLUP_MAPPER_XML = "mapper/DailyLogRollupMapper.xml";
+    private static final String UPSERT_ROLLUP = "upsertFromDailyLogs";
+    private static final String DELETE_ROLLUP_IF_NO_DAILY_LOGS = "deleteIfNoDailyLogs";
+
+    /** MySQLの主キー重複エラー（ER_DUP_ENTRY） */
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
+    private static final List<String> CHILD_TABLES = List.of("body_metrics", "activity", "meal", "mental_note");
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    /** 接続先の種類（mysql / postgresql）。Mapper XMLのdatabaseIdと同じ値 */
+    private final String databaseId;
+    private final DailyLogWriteNotifier writeNotifier;
+    private final Map<String, MapperXmlStatement> rollupStatements;
+
+    public R2dbcDailyLogRepository(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+                                   String databaseId, DailyLogWriteNotifier writeNotifier) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.databaseId = databaseId;
+        this.writeNotifier = writeNotifier;
+        this.rollupStatements = MapperXmlStatement.load(ROLLUP_MAPPER_XML, databaseId,
+                UPSERT_ROLLUP, DELETE_ROLLUP_IF_NO_DAILY_LOGS);
+    }
+
+    @Override
+    public Mono<Boolean> saveIfAbsent(DailyLog log) {
+        DailyLogEntity entity = DailyLogMapperSupport.toEntity(log);
+        String sql = "postgresql".equals(databaseId) ? INSERT_IF_ABSENT_POSTGRESQL : INSERT_IF_ABSENT_MYSQL;
+        return databaseClient.sql(sql)
+                .bind("userId", entity.getUserId())
+                .bind("logDate", entity.getLogDate())
+                .bind("sleepHours", entity.getSleepHours())
+                .bind("moodLevel", entity.getMoodLevel())
+                .fetch().rowsUpdated()
+                .onErrorResume(R2dbcDailyLogRepository::isDuplicateKey, e -> Mono.just(0L))
+                .flatMap(rows -> rows == 0
+                        ? Mono.just(false)
+                        : insertChildren(log, log.getLogDate())
+                                .then(refreshRollups(log.getUserId(), log.getLogDate()))
+                                .then(notifyAfterCommit(log.getUserId(), log.getLogDate()))
+                                .thenReturn(true))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * 主キーの重複による失敗かを判定する。
+     * DatabaseClientはR2dbcExceptionをDataAccessExceptionに変換するため、原因をたどってドライバの例外も確認する。
+     */
+    private static boolean isDuplicateKey(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof DuplicateKeyException) return true;
+            if (e instanceof R2dbcDataIntegrityViolationException violation
+                    && violation.getErrorCode() == MYSQL_DUPLICATE_ENTRY) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Mono<Boolean> update(LocalDate logDate, DailyLog log) {
+        Long userId = log.getUserId();
+        return databaseClient.sql(UPDATE)
+                .bind("userId", userId)
+                .bind("logDate", logDate)
+                .bind("sleepHours", log.getSleepHours())
+                .bind("moodLevel", log.getMoodLevel())
+                .fetch().rowsUpdated()
+                .flatMap(rows -> rows == 0
+                        ? Mono.just(false)
+                        : deleteChildren(userId, logDate)
+                                .then(insertChildren(log, logDate))
+                                .then(refreshRollups(userId, logDate))
+                                .then(notifyAfterCommit(userId, logDate))
+                                .thenReturn(true))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Boolean> deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return delete("daily_log", userId, logDate)
+                .flatMap(rows -> rows == 0
+                        ? Mono.just(false)
+                        : deleteChildren(userId, logDate)
+                                .then(refreshRollups(userId, logDate))
+                                .then(notifyAfterCommit(userId, logDate))
+                                .thenReturn(true))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return findWithDetailsByUserIdAndDateRange(userId, logDate, logDate.plusDays(1)).next();
+    }
+
+    @Override
+    public Flux<DailyLog> findByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return selectByDateRange(SELECT_BY_DATE_RANGE, userId, from, to, R2dbcDailyLogRepository::toDailyLogEntity)
+                .map(DailyLogMapperSupport::toDomainSummary);
+    }
+
+    @Override
+    public Flux<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth month) {
+        return findWithDetailsByUserIdAndDateRange(userId, month.atDay(1), month.plusMonths(1).atDay(1));
+    }
+
+    @Override
+    public Flux<DailyLog> findWithDetailsByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        // 5本のSELECTを同時に購読し、すべて揃ってから日付ごとに組み立てる
+        return Mono.zip(
+                        selectByDateRange(SELECT_BY_DATE_RANGE, userId, from, to, R2dbcDailyLogRepository::toDailyLogEntity).collectList(),
+                        selectByDateRange(SELECT_BODY_METRICS_BY_DATE_RANGE, userId, from, to, R2dbcDailyLogRepository::toBodyMetricsEntity).collectList(),
+                        selectByDateRange(SELECT_ACTIVITY_BY_DATE_RANGE, userId, from, to, R2dbcDailyLogRepository::toActivityEntity).collectList(),
+                        selectByDateRange(SELECT_MEAL_BY_DATE_RANGE, userId, from, to, R2dbcDailyLogRepository::toMealEntity).collectList(),
+                        selectByDateRange(SELECT_MENTAL_NOTE_BY_DATE_RANGE, userId, from, to, R2dbcDailyLogRepository::toMentalNoteEntity).collectList())
+                .flatMapMany(rows -> {
+                    Map<LocalDate, List<BodyMetricsEntity>> bodyMetrics = groupByLogDate(rows.getT2(), BodyMetricsEntity::getLogDate);
+                    Map<LocalDate, List<ActivityEntity>> activities = groupByLogDate(rows.getT3(), ActivityEntity::getLogDate);
+                    Map<LocalDate, List<MealEntity>> meals = groupByLogDate(rows.getT4(), MealEntity::getLogDate);
+                    Map<LocalDate, List<MentalNoteEntity>> notes = groupByLogDate(rows.getT5(), MentalNoteEntity::getLogDate);
+                    return Flux.fromIterable(rows.getT1()).map(entity -> {
+                        LocalDate date = entity.getLogDate();
+                        entity.setBodyMetricsList(bodyMetrics.getOrDefault(date, List.of()));
+                        entity.setActivityList(activities.getOrDefault(date, List.of()));
+                        entity.setMealList(meals.getOrDefault(date, List.of()));
+                        entity.setMentalNoteList(notes.getOrDefault(date, List.of()));
+                        return DailyLogMapperSupport.toDomain(entity);
+                    });
+                });
+    }
+
+    @Override
+    public Mono<Boolean> existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return databaseClient.sql(COUNT)
+                .bind("userId", userId)
+                .bind("logDate", logDate)
+                .map(row -> row.get("cnt", Long.class))
+                .one()
+                .map(count -> count > 0);
+    }
+
+    private <E> Flux<E> selectByDateRange(String sql, Long userId, LocalDate from, LocalDate to,
+                                          Function<Readable, E> mapper) {
+        return databaseClient.sql(sql)
+                .bind("userId", userId)
+                .bind("from", from)
+                .bind("to", to)
+                .map(mapper)
+                .all();
+    }
+
+    private static <E> Map<LocalDate, List<E>> groupByLogDate(List<E> rows, Function<E, LocalDate> logDateOf) {
+        return rows.stream().collect(Collectors.groupingBy(logDateOf));
+    }
+
+    private Mono<Void> insertChildren(DailyLog log, LocalDate logDate) {
+        return Flux.concat(
+                        insertAll(DailyLogMapperSupport.toBodyMetricsEntities(log), logDate, BodyMetricsEntity::setLogDate, this::insertBodyMetrics),
+                        insertAll(DailyLogMapperSupport.toActivityEntities(log), logDate, ActivityEntity::setLogDate, this::insertActivity),
+                        insertAll(DailyLogMapperSupport.toMealEntities(log), logDate, MealEntity::setLogDate, this::insertMeal),
+                        insertAll(DailyLogMapperSupport.toMentalNoteEntities(log), logDate, MentalNoteEntity::setLogDate, this::insertMentalNote))
+                .then();
+    }
+
+    /**
+     * 子テーブルの行を1行ずつ順に登録する（同一トランザクションの接続は並行に使えないため）。
+     */
+    private static <E> Flux<Long> insertAll(List<E> entities, LocalDate logDate,
+                                            BiConsumer<E, LocalDate> setLogDate,
+                                            Function<E, Mono<Long>> insert) {
+        return Flux.fromIterable(entities)
+                .doOnNext(entity -> setLogDate.accept(entity, logDate))
+                .concatMap(insert);
+    }
+
+    private Mono<Long> insertBodyMetrics(BodyMetricsEntity e) {
+        return databaseClient.sql(INSERT_BODY_METRICS)
+                .bind("userId", e.getUserId())
+                .bind("logDate", e.getLogDate())
+                .bind("weight", e.getWeight())
+                .bind("bodyFatPercentage", e.getBodyFatPercentage())
+                .bind("muscleMass", e.getMuscleMass())
+                .bind("measuredAt", e.getMeasuredAt())
+                .fetch().rowsUpdated();
+    }
+
+    private Mono<Long> insertActivity(ActivityEntity e) {
+        return databaseClient.sql(INSERT_ACTIVITY)
+                .bind("userId", e.getUserId())
+                .bind("logDate", e.getLogDate())
+                .bind("type", e.getType())
+                .bind("startedAt", e.getStartedAt())
+                .bind("durationInMinutes", e.getDurationInMinutes())
+                .bind("distanceKm", e.getDistanceKm())
+                .bind("steps", e.getSteps())
+                .bind("caloriesBurned", e.getCaloriesBurned())
+                .fetch().rowsUpdated();
+    }
+
+    private Mono<Long> insertMeal(MealEntity e) {
+        GenericExecuteSpec spec = databaseClient.sql(INSERT_MEAL)
+                .bind("userId", e.getUserId())
+                .bind("logDate", e.getLogDate())
+                .bind("time", e.getTime())
+                .bind("content", e.getContent())
+                .bind("calories", e.getCalories());
+        return bindNullable(spec, "photoUrl", e.getPhotoUrl(), String.class).fetch().rowsUpdated();
+    }
+
+    private Mono<Long> insertMentalNote(MentalNoteEntity e) {
+        GenericExecuteSpec spec = databaseClient.sql(INSERT_MENTAL_NOTE)
+                .bind("userId", e.getUserId())
+                .bind("logDate", e.getLogDate())
+                .bind("recordedAt", e.getRecordedAt())
+                .bind("stressLevel", e.getStressLevel())
+                .bind("motivationLevel", e.getMotivationLevel());
+        return bindNullable(spec, "note", e.getNote(), String.class).fetch().rowsUpdated();
+    }
+
+    private static GenericExecuteSpec bindNullable(GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private Mono<Void> deleteChildren(Long userId, LocalDate logDate) {
+        return Flux.fromIterable(CHILD_TABLES)
+                .concatMap(table -> delete(table, userId, logDate))
+                .then();
+    }
+
+    private Mono<Long> delete(String table, Long userId, LocalDate logDate) {
+        return databaseClient.sql("DELETE FROM " + table + " WHERE user_id = :userId AND log_date = :logDate")
+                .bind("userId", userId)
+                .bind("logDate", logDate)
+                .fetch().rowsUpdated();
+    }
+
+    /**
+     * 実行中のトランザクションのコミット後に、変更した日を知らせるよう登録する。ロールバックされた場合は知らせない。
+     */
+    private Mono<Void> notifyAfterCommit(Long userId, LocalDate logDate) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .doOnNext(manager -> manager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(() -> writeNotifier.committed(userId, logDate));
+                    }
+                }))
+                .then();
+    }
+
+    private Mono<Void> refreshRollups(Long userId, LocalDate logDate) {
+        return Flux.fromArray(RollupPeriod.values())
+                .concatMap(period -> {
+                    LocalDate periodStart = period.startOf(logDate);
+                    Map<String, Object> parameters = Map.of(
+                            "userId", userId,
+                            "periodType", period.name(),
+                            "periodStart", periodStart,
+                            "periodEnd", period.nextStart(periodStart));
+                    // ログがあれば登録または更新し、期間内のログが無くなった場合のみ削除する
+                    return rollupStatements.get(UPSERT_ROLLUP).bind(databaseClient, parameters)
+                            .fetch().rowsUpdated()
+                            .then(rollupStatements.get(DELETE_ROLLUP_IF_NO_DAILY_LOGS).bind(databaseClient, parameters)
+                                    .fetch().rowsUpdated());
+                })
+                .then();
+    }
+
+    private static DailyLogEntity toDailyLogEntity(Readable row) {
+        return DailyLogEntity.builder()
+                .userId(row.get("user_id", Long.class))
+                .logDate(row.get("log_date", LocalDate.class))
+                .sleepHours(row.get("sleep_hours", Double.class))
+                .moodLevel(row.get("mood_level", Integer.class))
+                .build();
+    }
+
+    private static BodyMetricsEntity toBodyMetricsEntity(Readable row) {
+        return BodyMetricsEntity.builder()
+                .userId(row.get("user_id", Long.class))
+                .logDate(row.get("log_date", LocalDate.class))
+                .weight(row.get("weight", Double.class))
+                .bodyFatPercentage(row.get("body_fat_percentage", Double.class))
+                .muscleMass(row.get("muscle_mass", Double.class))
+                .measuredAt(row.get("measured_at", LocalDateTime.class))
+                .build();
+    }
+
+    private static ActivityEntity toActivityEntity(Readable row) {
+        return ActivityEntity.builder()
+                .userId(row.get("user_id", Long.class))
+                .logDate(row.get("log_date", LocalDate.class))
+                .type(row.get("type", String.class))
+                .startedAt(row.get("started_at", LocalDateTime.class))
+                .durationInMinutes(row.get("duration_in_minutes", Integer.class))
+                .distanceKm(doubleOrZero(row, "distance_km"))
+                .steps(intOrZero(row, "steps"))
+                .caloriesBurned(intOrZero(row, "calories_burned"))
+                .build();
+    }
+
+    private static MealEntity toMealEntity(Readable row) {
+        return MealEntity.builder()
+                .userId(row.get("user_id", Long.class))
+                .logDate(row.get("log_date", LocalDate.class))
+                .time(row.get("time", LocalTime.class))
+                .content(row.get("content", String.class))
+                .calories(intOrZero(row, "calories"))
+                .photoUrl(row.get("photo_url", String.class))
+                .build();
+    }
+
+    private static MentalNoteEntity toMentalNoteEntity(Readable row) {
+        return MentalNoteEntity.builder()
+                .userId(row.get("user_id", Long.class))
+                .logDate(row.get("log_date", LocalDate.class))
+                .recordedAt(row.get("recorded_at", LocalDateTime.class))
+                .stressLevel(intOrZero(row, "stress_level"))
+                .motivationLevel(intOrZero(row, "motivation_level"))
+                .note(row.get("note", String.class))
+                .build();
+    }
+
+    // NULL許容の列はMyBatisのプリミティブへのマッピングと同じく0として扱う
+    private static int intOrZero(Readable row, String column) {
+        Integer value = row.get(column, Integer.class);
+        return value == null ? 0 : value;
+    }
+
+    private static double doubleOrZero(Readable row, String column) {
+        Double value = row.get(column, Double.class);
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,75 @@
+package nekopunch_rush.testjava21.infrastructure.repository.r2dbc;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import nekopunch_rush.testjava21.infrastructure.repository.archive.ArchivePolicy;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogInvalidationBus;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogWriteNotifier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.Clock;
+
+/**
+ * r2dbcプロファイルで有効になる、R2DBC版リポジトリの定義。
+ * <p>
+ * Spring BootのR2DBC自動構成は除外している（Testjava21Application）。自動構成のR2dbcTransactionManagerが
+ * Beanとして登録されると、JDBC側のDataSourceTransactionManagerが作られなくなるため、
+ * トランザクションマネージャはBeanにせずTransactionalOperatorの内部でのみ使う。
+ * <p>
+ * R2DBC版の書き込みはDailyLogRepositoryのデコレータを通らないため、{@link DailyLogWriteNotifier} を通して
+ * 各キャッシュの破棄と他のインスタンスへの通知（{@code lifelog.invalidation.enabled=true} の場合）を行う。
+ * 同じ理由でアーカイブ（{@code lifelog.archive.enabled=true}）の書き込み制限と読み取りの補完も効かないため、
+ * アーカイブとは併用できない（起動時にエラーとする）。
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("r2dbc")
+public class R2dbcRepositoryConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool r2dbcConnectionPool(R2dbcRepositoryProperties properties) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .initialSize(properties.getInitialSize())
+                .maxSize(properties.getMaxSize())
+                .build());
+    }
+
+    @Bean
+    public DailyLogWriteNotifier dailyLogWriteNotifier(ObjectProvider<DailyLogInvalidationBus> invalidationBus) {
+        return new DailyLogWriteNotifier(invalidationBus.getIfAvailable(), Clock.systemUTC());
+    }
+
+    @Bean
+    public R2dbcDailyLogRepository r2dbcDailyLogRepository(ConnectionPool r2dbcConnectionPool,
+                                                           R2dbcRepositoryProperties properties,
+                                                           DailyLogWriteNotifier dailyLogWriteNotifier,
+                                                           ObjectProvider<ArchivePolicy> archivePolicy) {
+        // アーカイブ済みの月へ書き込むと、ホットな行だけから集計し直して残してある集計を上書き・削除してしまう
+        if (archivePolicy.getIfAvailable() != null) {
+            throw new IllegalStateException(
+                    "r2dbcプロファイルはアーカイブ（lifelog.archive.enabled=true）と併用できません");
+        }
+        // r2dbc:mysql://... / r2dbc:postgresql://... のドライバ名をそのままdatabaseIdとして使う
+        String databaseId = ConnectionFactoryOptions.parse(properties.getUrl())
+                .getRequiredValue(ConnectionFactoryOptions.DRIVER).toString();
+        return new R2dbcDailyLogRepository(
+                DatabaseClient.create(r2dbcConnectionPool),
+                TransactionalOperator.create(new R2dbcTransactionManager(r2dbcConnectionPool)),
+                databaseId,
+                dailyLogWriteNotifier);
+    }
+}
@@ -0,0 +1,27 @@
+package nekopunch_rush.testjava21.infrastructure.repository.r2dbc;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * R2DBC版リポジトリの接続設定。
+ * <p>
+ * application.yml の {@code lifelog.r2dbc.*} にバインドされ、r2dbcプロファイルでのみ使用する。
+ */
+@Data
+@ConfigurationProperties(prefix = "lifelog.r2dbc")
+public class R2dbcRepositoryProperties {
+
+    /** 接続URL（例: r2dbc:mysql://localhost:3306/healthlog, r2dbc:postgresql://localhost:5432/healthlog） */
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    /** 起動時に確立する接続数 */
+    private int initialSize = 2;
+
+    /** 接続数の上限。詳細取得は1リクエストで5本の接続を同時に使う */
+    private int maxSize = 20;
+}
@@ -0,0 +1,40 @@
+package nekopunch_rush.testjava21.infrastructure.repository.sharding;
+
+import java.util.List;
+
+/**
+ * 全シャードと、userIdからシャードを選ぶShardResolverの組。
+ * <p>
+ * シャードを追加する場合は、書き込みを止めた状態で新しい構成のまま {@code --rebalance-shards} を付けて起動し
+ * （{@link ShardRebalanceRunner}）、ユーザーを移動し終えてから通常の起動に戻す。
+ */
+public class DailyLogShards implements AutoCloseable {
+
+    private final List<Shard> shards;
+    private final ShardResolver resolver;
+
+    public DailyLogShards(List<Shard> shards) {
+        this.shards = List.copyOf(shards);
+        this.resolver = new ShardResolver(shards.size());
+    }
+
+    public List<Shard> all() {
+        return shards;
+    }
+
+    public Shard get(int index) {
+        return shards.get(index);
+    }
+
+    /**
+     * userIdの格納先のシャードを返す。
+     */
+    public Shard shardFor(Long userId) {
+        return shards.get(resolver.shardOf(userId));
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(shard -> shard.dataSource().close());
+    }
+}
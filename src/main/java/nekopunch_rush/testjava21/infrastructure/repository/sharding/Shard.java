@@ -0,0 +1,55 @@
+package nekopunch_rush.testjava21.infrastructure.repository.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogMapper;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogRollupMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 1つのシャードの接続プールと、そのシャードに束縛したリポジトリ・Mapper・トランザクション。
+ * <p>
+ * シャードごとのリポジトリはSpringのプロキシを経由しないため、@Transactionalの代わりに
+ * read / write でそのシャードのトランザクションを開始してから呼び出す。
+ * サービス層のトランザクション内で呼ばれた場合は、そのトランザクションにシャードの接続を参加させ、
+ * サービス層の境界でコミットする（{@link ShardTransactionManager}）。
+ *
+ * @param index           シャード番号（0始まり）
+ * @param dataSource      シャードの接続プール
+ * @param repository      シャードのMapperに束縛したリポジトリ
+ * @param dailyLogMapper  シャードに束縛したMapper（シャード間の移動で使用）
+ * @param rollupMapper    シャードに束縛した集計のMapper（シャード間の移動で使用）
+ * @param readTransaction 読み取り専用のトランザクション
+ * @param writeTransaction 読み書きのトランザクション
+ */
+public record Shard(int index,
+                    HikariDataSource dataSource,
+                    DailyLogRepository repository,
+                    DailyLogMapper dailyLogMapper,
+                    DailyLogRollupMapper rollupMapper,
+                    TransactionTemplate readTransaction,
+                    TransactionTemplate writeTransaction) {
+
+    public <T> T read(Function<DailyLogRepository, T> action) {
+        ShardTransactionManager.enlist(dataSource);
+        return readTransaction.execute(status -> action.apply(repository));
+    }
+
+    public void readWithoutResult(Consumer<DailyLogRepository> action) {
+        ShardTransactionManager.enlist(dataSource);
+        readTransaction.executeWithoutResult(status -> action.accept(repository));
+    }
+
+    public <T> T write(Function<DailyLogRepository, T> action) {
+        ShardTransactionManager.enlist(dataSource);
+        return writeTransaction.execute(status -> action.apply(repository));
+    }
+
+    public void writeWithoutResult(Consumer<DailyLogRepository> action) {
+        ShardTransactionManager.enlist(dataSource);
+        writeTransaction.executeWithoutResult(status -> action.accept(repository));
+    }
+}
@@ -0,0 +1,30 @@
+package nekopunch_rush.testjava21.infrastructure.repository.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 起動引数に {@code --rebalance-shards} がある場合にシャード間の移動を実行し、終了後にアプリケーションを停止する。
+ * <p>
+ * 例: {@code java -jar app.jar --lifelog.sharding.enabled=true --rebalance-shards}
+ */
+@RequiredArgsConstructor
+public class ShardRebalanceRunner implements ApplicationRunner {
+
+    static final String OPTION_NAME = "rebalance-shards";
+
+    private final ShardRebalancer rebalancer;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION_NAME)) {
+            return;
+        }
+        rebalancer.rebalance();
+        SpringApplication.exit(context, () -> 0);
+    }
+}
@@ -0,0 +1,79 @@
+package nekopunch_rush.testjava21.infrastructure.repository.sharding;
+
+import com.google.common.collect.Lists;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.DailyLogRollupEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * 現在のシャード構成で格納先が変わったユーザーを、元のシャードから新しいシャードへ移動する。
+ * <p>
+ * ユーザー単位で「移動先の既存行を削除 → 全期間をコピー → 集計行をコピー」を移動先の1トランザクションで行い、
+ * コミット後に移動元から削除する。アーカイブ済みの期間の集計は元のログがDBに無く移動先で集計し直せないため、
+ * 移動元の集計行をそのまま写す。途中で失敗しても移動元の行は残るため、再実行すればやり直せる。
+ * 移動中のユーザーへの書き込みは考慮しないため、書き込みを止めた状態で実行すること。
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ShardRebalancer {
+
+    private final DailyLogShards shards;
+    private final int copyChunkSize;
+
+    /**
+     * 全シャードを走査し、格納先の異なるユーザーを移動する。
+     *
+     * @return 移動したユーザー数
+     */
+    public int rebalance() {
+        int moved = 0;
+        for (Shard source : shards.all()) {
+            // ログをすべてアーカイブへ移したユーザーも、集計を移動するため対象にする
+            List<Long> userIds = source.read(repository -> {
+                SortedSet<Long> ids = new TreeSet<>(source.dailyLogMapper().findUserIds());
+                ids.addAll(source.rollupMapper().findUserIds());
+                return List.copyOf(ids);
+            });
+            for (Long userId : userIds) {
+                Shard target = shards.shardFor(userId);
+                if (target.index() != source.index()) {
+                    moveUser(userId, source, target);
+                    moved++;
+                }
+            }
+            log.info("Rebalanced shard {}: scanned {} users", source.index(), userIds.size());
+        }
+        log.info("Rebalance finished: moved {} users", moved);
+        return moved;
+    }
+
+    void moveUser(Long userId, Shard source, Shard target) {
+        target.writeWithoutResult(targetRepository -> {
+            // 前回の実行が移動元の削除前に失敗していた場合に備え、移動先の途中までのコピーを消してからやり直す
+            target.dailyLogMapper().deleteAllByUserId(userId);
+            List<DailyLog> chunk = new ArrayList<>(copyChunkSize);
+            source.readWithoutResult(sourceRepository -> sourceRepository.streamByUserId(userId, dailyLog -> {
+                chunk.add(dailyLog);
+                if (chunk.size() == copyChunkSize) {
+                    targetRepository.saveAll(chunk);
+                    chunk.clear();
+                }
+            }));
+            if (!chunk.isEmpty()) {
+                targetRepository.saveAll(chunk);
+            }
+            List<DailyLogRollupEntity> rollups = source.read(sourceRepository -> source.rollupMapper().findAllByUserId(userId));
+            for (List<DailyLogRollupEntity> rollupChunk : Lists.partition(rollups, copyChunkSize)) {
+                target.rollupMapper().upsertAll(rollupChunk);
+            }
+        });
+        source.writeWithoutResult(repository -> source.dailyLogMapper().deleteAllByUserId(userId));
+        log.debug("Moved user {} from shard {} to shard {}", userId, source.index(), target.index());
+    }
+}
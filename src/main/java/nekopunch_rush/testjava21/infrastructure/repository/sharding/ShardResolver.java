@@ -0,0 +1,37 @@
+package nekopunch_rush.testjava21.infrastructure.repository.sharding;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * userIdから格納先のシャード番号を決める。
+ * <p>
+ * Guavaのconsistent hashを使うため、シャードをN個からN+1個へ増やしたときに移動するのは
+ * 約1/(N+1)のユーザーだけで、移動先はすべて新しいシャードになる。
+ * シャード番号は設定の並び順なので、既存のシャードの順序は変えず末尾に追加すること。
+ */
+public class ShardResolver {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final int shardCount;
+
+    public ShardResolver(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("シャード数は1以上で指定してください");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * userIdの格納先のシャード番号（0始まり）を返す。
+     */
+    public int shardOf(Long userId) {
+        // 連番のuserIdでも偏らないよう、一度ハッシュしてからバケットを決める
+        return Hashing.consistentHash(HASH_FUNCTION.hashLong(userId), shardCount);
+    }
+}
@@ -0,0 +1,222 @@
+package nekopunch_rush.testjava21.infrastructure.repository.sharding;
+
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * シャーディング時に、サービス層の {@code @Transactional} を操作対象のユーザーのシャードのトランザクションにするトランザクションマネージャ。
+ * <p>
+ * 開始時には接続を取得せず、トランザクション内で最初に {@link Shard#read} / {@link Shard#write} を呼んだ時点で、
+ * そのシャードの接続を取得してトランザクションに参加させる（{@link #enlist}）。シャードのTransactionTemplateは参加済みの接続を
+ * 既存のトランザクションとして扱うため、コミット・ロールバックはサービス層の境界でまとめて行われ、
+ * コミット後の処理（キャッシュの破棄・他インスタンスへの通知）もシャードのコミットの後に実行される。
+ * <p>
+ * 1つのトランザクションで複数のシャードに触れた場合（シャードをまたぐ saveAll など）は、参加した順にシャードごとにコミットする。
+ * 途中のシャードでコミットに失敗した場合は残りをロールバックするが、コミット済みのシャードは取り消せない。
+ */
+public class ShardTransactionManager extends AbstractPlatformTransactionManager {
+
+    /** 現在のトランザクションをTransactionSynchronizationManagerに束縛するキー */
+    private static final Object RESOURCE_KEY = ShardTransactionManager.class;
+
+    /**
+     * 実行中のトランザクションがあれば、シャードの接続を取得して参加させる。
+     * 参加済みの場合や、トランザクション外で呼ばれた場合は何もしない。
+     */
+    static void enlist(DataSource dataSource) {
+        ShardTransaction current = (ShardTransaction) TransactionSynchronizationManager.getResource(RESOURCE_KEY);
+        if (current == null || TransactionSynchronizationManager.hasResource(dataSource)) return;
+        current.enlist(dataSource);
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        return new TransactionObject((ShardTransaction) TransactionSynchronizationManager.getResource(RESOURCE_KEY));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((TransactionObject) transaction).current != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ShardTransaction begun = new ShardTransaction(definition);
+        ((TransactionObject) transaction).current = begun;
+        TransactionSynchronizationManager.bindResource(RESOURCE_KEY, begun);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((TransactionObject) transaction).current = null;
+        ShardTransaction suspended = (ShardTransaction) TransactionSynchronizationManager.unbindResource(RESOURCE_KEY);
+        suspended.unbindConnections();
+        return suspended;
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        ShardTransaction resumed = (ShardTransaction) suspendedResources;
+        resumed.bindConnections();
+        TransactionSynchronizationManager.bindResource(RESOURCE_KEY, resumed);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        ((TransactionObject) status.getTransaction()).current.commit();
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        ((TransactionObject) status.getTransaction()).current.rollback();
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((TransactionObject) status.getTransaction()).current.rollbackOnly = true;
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResource(RESOURCE_KEY);
+        ((TransactionObject) transaction).current.release();
+    }
+
+    private static final class TransactionObject implements SmartTransactionObject {
+
+        private ShardTransaction current;
+
+        TransactionObject(ShardTransaction current) {
+            this.current = current;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return current != null && current.isRollbackOnly();
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+
+    /**
+     * 1つのサービス層のトランザクションと、それに参加したシャードの接続。
+     */
+    private static final class ShardTransaction {
+
+        private final TransactionDefinition definition;
+        private final List<Enlisted> enlisted = new ArrayList<>();
+        private boolean rollbackOnly;
+
+        ShardTransaction(TransactionDefinition definition) {
+            this.definition = definition;
+        }
+
+        void enlist(DataSource dataSource) {
+            Connection connection = null;
+            try {
+                connection = dataSource.getConnection();
+                Integer previousIsolation = DataSourceUtils.prepareConnectionForTransaction(connection, definition);
+                boolean previousAutoCommit = connection.getAutoCommit();
+                if (previousAutoCommit) connection.setAutoCommit(false);
+                Enlisted shard = new Enlisted(dataSource, new EnlistedConnectionHolder(connection),
+                        previousIsolation, previousAutoCommit);
+                enlisted.add(shard);
+                TransactionSynchronizationManager.bindResource(dataSource, shard.holder());
+            } catch (SQLException e) {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+                throw new CannotCreateTransactionException("シャードの接続をトランザクションに参加させられませんでした", e);
+            }
+        }
+
+        boolean isRollbackOnly() {
+            return rollbackOnly || enlisted.stream().anyMatch(shard -> shard.holder().isRollbackOnly());
+        }
+
+        void commit() {
+            for (int i = 0; i < enlisted.size(); i++) {
+                try {
+                    enlisted.get(i).holder().getConnection().commit();
+                } catch (SQLException e) {
+                    rollbackFrom(i);
+                    throw new TransactionSystemException("シャードのコミットに失敗しました", e);
+                }
+            }
+        }
+
+        void rollback() {
+            SQLException failure = rollbackFrom(0);
+            if (failure != null) {
+                throw new TransactionSystemException("シャードのロールバックに失敗しました", failure);
+            }
+        }
+
+        private SQLException rollbackFrom(int start) {
+            SQLException failure = null;
+            for (Enlisted shard : enlisted.subList(start, enlisted.size())) {
+                try {
+                    shard.holder().getConnection().rollback();
+                } catch (SQLException e) {
+                    if (failure == null) failure = e;
+                    else failure.addSuppressed(e);
+                }
+            }
+            return failure;
+        }
+
+        void unbindConnections() {
+            enlisted.forEach(shard -> TransactionSynchronizationManager.unbindResource(shard.dataSource()));
+        }
+
+        void bindConnections() {
+            enlisted.forEach(shard -> TransactionSynchronizationManager.bindResource(shard.dataSource(), shard.holder()));
+        }
+
+        void release() {
+            for (Enlisted shard : enlisted) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(shard.dataSource());
+                Connection connection = shard.holder().getConnection();
+                try {
+                    if (shard.previousAutoCommit()) connection.setAutoCommit(true);
+                    DataSourceUtils.resetConnectionAfterTransaction(connection, shard.previousIsolation(),
+                            definition.isReadOnly());
+                } catch (SQLException e) {
+                    // 接続はプールへ返すため、戻せなかった設定はプール側の検査に任せる
+                }
+                shard.holder().clear();
+                DataSourceUtils.releaseConnection(connection, shard.dataSource());
+            }
+            enlisted.clear();
+        }
+    }
+
+    private record Enlisted(DataSource dataSource, EnlistedConnectionHolder holder,
+                            Integer previousIsolation, boolean previousAutoCommit) {
+    }
+
+    /**
+     * シャードのDataSourceTransactionManagerに既存のトランザクションとして扱わせるための接続ホルダー。
+     */
+    private static final class EnlistedConnectionHolder extends ConnectionHolder {
+
+        EnlistedConnectionHolder(Connection connection) {
+            super(connection);
+            setTransactionActive(true);
+            setSynchronizedWithTransaction(true);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package nekopunch_rush.testjava21.infrastructure.repository.sharding;
+
+import com.google.common.base.Throwables;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+import nekopunch_rush.testjava21.infrastructure.repository.ActiveUser;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * userIdのハッシュで選んだシャードへ委譲するDailyLogRepository。
+ * <p>
+ * ユーザー単位の操作はそのユーザーのシャードのトランザクション内で実行する。
+ * ユーザーをまたぐ問い合わせは全シャードへ並行に投げて結果を結合する（scatter-gather）。
+ * 複数シャードにまたがる saveAll はシャードごとのトランザクションになり、全体では原子的でない。
+ */
+public class ShardedDailyLogRepository implements DailyLogRepository, AutoCloseable {
+
+    private final DailyLogShards shards;
+    // scatter-gatherの待ち時間はI/Oのみのため、シャード数に合わせてプールを持たず仮想スレッドで投げる
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedDailyLogRepository(DailyLogShards shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void save(DailyLog log) {
+        shards.shardFor(log.getUserId()).writeWithoutResult(repository -> repository.save(log));
+    }
+
+    @Override
+    public void saveAll(Collection<DailyLog> logs) {
+        Map<Integer, List<DailyLog>> logsByShard = logs.stream()
+                .collect(Collectors.groupingBy(log -> shards.shardFor(log.getUserId()).index(),
+                        TreeMap::new, Collectors.toList()));
+        logsByShard.forEach((index, shardLogs) ->
+                shards.get(index).writeWithoutResult(repository -> repository.saveAll(shardLogs)));
+    }
+
+    @Override
+    public boolean saveIfAbsent(DailyLog log) {
+        return shards.shardFor(log.getUserId()).write(repository -> repository.saveIfAbsent(log));
+    }
+
+    @Override
+    public boolean update(LocalDate logDate, DailyLog log) {
+        return shards.shardFor(log.getUserId()).write(repository -> repository.update(logDate, log));
+    }
+
+    @Override
+    public boolean deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return shards.shardFor(userId).write(repository -> repository.deleteByUserIdAndLogDate(userId, logDate));
+    }
+
+    @Override
+    public Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return shards.shardFor(userId).read(repository -> repository.findByUserIdAndLogDate(userId, logDate));
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndMonth(Long userId, YearMonth month) {
+        return shards.shardFor(userId).read(repository -> repository.findByUserIdAndMonth(userId, month));
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return shards.shardFor(userId).read(repository -> repository.findByUserIdAndDateRange(userId, from, to));
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth month) {
+        return shards.shardFor(userId).read(repository -> repository.findWithDetailsByUserIdAndMonth(userId, month));
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return shards.shardFor(userId).read(repository -> repository.findWithDetailsByUserIdAndDateRange(userId, from, to));
+    }
+
+    @Override
+    public List<DailyLog> findPageByUserId(Long userId, LocalDate from, LocalDate before, int limit) {
+        return shards.shardFor(userId).read(repository -> repository.findPageByUserId(userId, from, before, limit));
+    }
+
+    @Override
+    public void streamByUserId(Long userId, Consumer<DailyLog> action) {
+        shards.shardFor(userId).readWithoutResult(repository -> repository.streamByUserId(userId, action));
+    }
+
+    @Override
+    public boolean existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return shards.shardFor(userId).read(repository -> repository.existsByUserIdAndLogDate(userId, logDate));
+    }
+
+    @Override
+    public List<LocalDate> findLogDatesByUserId(Long userId) {
+        return shards.shardFor(userId).read(repository -> repository.findLogDatesByUserId(userId));
+    }
+
+    @Override
+    public List<DailyLogRollup> findRollupsByUserIdAndPeriodRange(Long userId, RollupPeriod period, LocalDate from, LocalDate to) {
+        return shards.shardFor(userId).read(repository -> repository.findRollupsByUserIdAndPeriodRange(userId, period, from, to));
+    }
+
+    @Override
+    public List<ActiveUser> findActiveUsersSince(LocalDate since, int limit) {
+        // 各シャードの上位 limit 人を合わせれば全体の上位 limit 人が含まれる。
+        // シャード間の移動中は同じユーザーが2つのシャードに存在し得るため、新しい方の日付で1人にまとめる
+        return scatter(repository -> repository.findActiveUsersSince(since, limit)).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(ActiveUser::userId, Function.identity(),
+                        (a, b) -> a.lastLogDate().isAfter(b.lastLogDate()) ? a : b))
+                .values().stream()
+                .sorted(ActiveUser.RECENT_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<Long> findUserIdsWithLogsBefore(LocalDate before) {
+        return scatter(repository -> repository.findUserIdsWithLogsBefore(before)).stream()
+                .flatMap(List::stream)
+                .sorted()
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public void deleteByUserIdBefore(Long userId, LocalDate before) {
+        shards.shardFor(userId).writeWithoutResult(repository -> repository.deleteByUserIdBefore(userId, before));
+    }
+
+    /**
+     * 全シャードへ並行に問い合わせ、シャード番号順の結果を返す。
+     */
+    private <T> List<T> scatter(Function<DailyLogRepository, T> query) {
+        List<Future<T>> futures = shards.all().stream()
+                .map(shard -> executor.submit(() -> shard.read(query)))
+                .toList();
+        return futures.stream().map(ShardedDailyLogRepository::gather).toList();
+    }
+
+    private static <T> T gather(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("シャードへの問い合わせが中断されました", e);
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException("シャードへの問い合わせに失敗しました", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
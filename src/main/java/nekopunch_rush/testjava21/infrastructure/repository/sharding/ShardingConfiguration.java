@@ -0,0 +1,154 @@
+package nekopunch_rush.testjava21.infrastructure.repository.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import nekopunch_rush.testjava21.infrastructure.repository.config.DailyLogRepositoryProperties;
+import nekopunch_rush.testjava21.infrastructure.repository.impl.DailyLogRepositoryImpl;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogMapper;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogRollupMapper;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.RelatedEntitiesMapper;
+import nekopunch_rush.testjava21.infrastructure.repository.sharding.ShardingProperties.ShardDataSourceProperties;
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.flywaydb.core.Flyway;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.boot.autoconfigure.MybatisProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * userIdによるシャーディングの定義。
+ * <p>
+ * {@code lifelog.sharding.enabled=true} の場合のみ有効になる。シャードごとに接続プール・SqlSessionFactory・Mapper・
+ * トランザクションを組み立て、DailyLogRepositoryConfiguration はDailyLogRepositoryImplの代わりに
+ * ShardedDailyLogRepositoryへデコレータを重ねる。
+ * spring.datasource の単一プールはシャード0で置き換えるため、プライマリ/レプリカ振り分けとは併用できない。
+ * サービス層の {@code @Transactional} は {@link ShardTransactionManager} が扱い、操作対象のユーザーのシャードのトランザクションになる。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lifelog.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    private static final String VENDOR_PLACEHOLDER = "{vendor}";
+
+    @Bean
+    public DailyLogShards dailyLogShards(ShardingProperties shardingProperties,
+                                         MybatisProperties mybatisProperties,
+                                         DatabaseIdProvider databaseIdProvider,
+                                         DailyLogRepositoryProperties repositoryProperties,
+                                         ObjectProvider<FlywayProperties> flywayProperties) throws Exception {
+        List<ShardDataSourceProperties> shardProperties = shardingProperties.getShards();
+        if (shardProperties.isEmpty()) {
+            throw new IllegalStateException("lifelog.sharding.shards にシャードの接続先を指定してください");
+        }
+        List<String> locations = flywayProperties.getIfAvailable(FlywayProperties::new).getLocations();
+
+        List<Shard> shards = new ArrayList<>();
+        for (int index = 0; index < shardProperties.size(); index++) {
+            HikariDataSource dataSource = createDataSource(index, shardProperties.get(index));
+            migrate(dataSource, locations);
+            shards.add(createShard(index, dataSource, mybatisProperties, databaseIdProvider, repositoryProperties));
+        }
+        return new DailyLogShards(shards);
+    }
+
+    /**
+     * 単一DBを前提とする自動構成（MyBatisの既定のMapper、Flyway）はシャード0を使う。
+     */
+    @Bean(destroyMethod = "")
+    @Primary
+    public DataSource dataSource(DailyLogShards dailyLogShards) {
+        return dailyLogShards.get(0).dataSource();
+    }
+
+    /**
+     * サービス層のトランザクションをシャード0ではなく、操作対象のユーザーのシャードで開くためのトランザクションマネージャ。
+     * 登録するとSpring BootのDataSourceTransactionManagerは作られない。
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new ShardTransactionManager();
+    }
+
+    @Bean
+    public ShardedDailyLogRepository shardedDailyLogRepository(DailyLogShards dailyLogShards) {
+        return new ShardedDailyLogRepository(dailyLogShards);
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(DailyLogShards dailyLogShards,
+                                           DailyLogRepositoryProperties repositoryProperties) {
+        return new ShardRebalancer(dailyLogShards, repositoryProperties.getBatchChunkSize());
+    }
+
+    @Bean
+    public ShardRebalanceRunner shardRebalanceRunner(ShardRebalancer shardRebalancer,
+                                                     ConfigurableApplicationContext context) {
+        return new ShardRebalanceRunner(shardRebalancer, context);
+    }
+
+    private static HikariDataSource createDataSource(int index, ShardDataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("shard-" + index);
+        dataSource.setJdbcUrl(properties.getJdbcUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        dataSource.setMinimumIdle(properties.getMinimumIdle());
+        return dataSource;
+    }
+
+    /**
+     * Spring BootのFlyway自動構成はプライマリのDataSourceにしか適用されないため、各シャードへ同じマイグレーションを流す。
+     */
+    private static void migrate(HikariDataSource dataSource, List<String> locations) {
+        String vendor = DatabaseDriver.fromJdbcUrl(dataSource.getJdbcUrl()).getId();
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(locations.stream()
+                        .map(location -> location.replace(VENDOR_PLACEHOLDER, vendor))
+                        .toArray(String[]::new))
+                .load()
+                .migrate();
+    }
+
+    private static Shard createShard(int index,
+                                     HikariDataSource dataSource,
+                                     MybatisProperties mybatisProperties,
+                                     DatabaseIdProvider databaseIdProvider,
+                                     DailyLogRepositoryProperties repositoryProperties) throws Exception {
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setMapperLocations(mybatisProperties.resolveMapperLocations());
+        factoryBean.setTypeAliasesPackage(mybatisProperties.getTypeAliasesPackage());
+        factoryBean.setDatabaseIdProvider(databaseIdProvider);
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+
+        SqlSessionTemplate sqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory);
+        DailyLogMapper dailyLogMapper = sqlSessionTemplate.getMapper(DailyLogMapper.class);
+        RelatedEntitiesMapper relatedEntitiesMapper = sqlSessionTemplate.getMapper(RelatedEntitiesMapper.class);
+        DailyLogRollupMapper rollupMapper = sqlSessionTemplate.getMapper(DailyLogRollupMapper.class);
+        DailyLogRepositoryImpl repository = new DailyLogRepositoryImpl(
+                dailyLogMapper, relatedEntitiesMapper, rollupMapper, repositoryProperties, sqlSessionFactory);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionTemplate readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        TransactionTemplate writeTransaction = new TransactionTemplate(transactionManager);
+
+        return new Shard(index, dataSource, repository, dailyLogMapper, rollupMapper, readTransaction, writeTransaction);
+    }
+}
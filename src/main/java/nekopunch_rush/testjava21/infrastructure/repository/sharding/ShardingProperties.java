@@ -0,0 +1,38 @@
+package nekopunch_rush.testjava21.infrastructure.repository.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * userIdによるシャーディングの設定。
+ * <p>
+ * application.yml の {@code lifelog.sharding.*} にバインドされる。
+ * shards の並び順がシャード番号になるため、シャードは末尾にのみ追加する。
+ */
+@Data
+@ConfigurationProperties(prefix = "lifelog.sharding")
+public class ShardingProperties {
+
+    /** シャーディングを有効にするか（無効の場合は spring.datasource の単一プールを使う） */
+    private boolean enabled = false;
+
+    /** シャードの接続先 */
+    private List<ShardDataSourceProperties> shards = new ArrayList<>();
+
+    @Data
+    public static class ShardDataSourceProperties {
+
+        private String jdbcUrl;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        private int minimumIdle = 2;
+    }
+}
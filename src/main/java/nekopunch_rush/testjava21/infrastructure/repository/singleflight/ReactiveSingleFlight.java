@@ -0,0 +1,55 @@
+package nekopunch_rush.testjava21.infrastructure.repository.singleflight;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * {@link SingleFlight} のノンブロッキング版。
+ * <p>
+ * 同じキーで実行中の読み込みがあれば、購読時にそのMonoを共有する（スレッドは待たせない）。
+ * 共有したMonoは一部の購読者が購読をやめても最後まで実行する。
+ */
+public final class ReactiveSingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder sharedLoads = new LongAdder();
+
+    public Mono<V> load(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            AtomicBoolean started = new AtomicBoolean();
+            Mono<V> flight = inFlight.computeIfAbsent(key, k -> {
+                started.set(true);
+                return newFlight(k, loader);
+            });
+            if (!started.get()) sharedLoads.increment();
+            return flight;
+        });
+    }
+
+    /**
+     * @see SingleFlight#forget
+     */
+    public void forget(Predicate<K> filter) {
+        inFlight.keySet().removeIf(filter);
+    }
+
+    /** 他の購読の読み込みに合流した回数 */
+    public long getSharedLoads() {
+        return sharedLoads.sum();
+    }
+
+    private Mono<V> newFlight(K key, Supplier<Mono<V>> loader) {
+        AtomicReference<Mono<V>> self = new AtomicReference<>();
+        Mono<V> flight = Mono.defer(loader)
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .share();
+        self.set(flight);
+        return flight;
+    }
+}
@@ -0,0 +1,62 @@
+package nekopunch_rush.testjava21.infrastructure.repository.singleflight;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 同じキーの読み込みが並行した場合に最初の呼び出しだけを実行し、実行中に来た呼び出しにはその結果を返す。
+ * <p>
+ * 読み込みが終わったキーはすぐに忘れるため、結果をキャッシュはしない（終わった後の呼び出しは新たに読み込む）。
+ * 読み込みが例外で終わった場合は、待っていた呼び出しにも同じ例外を投げる。
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder sharedLoads = new LongAdder();
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            sharedLoads.increment();
+            return await(leader);
+        }
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 条件に合うキーの実行中の読み込みに、以降の呼び出しが合流しないようにする（書き込み後に古い結果を返さないため）。
+     * 既に待っている呼び出しには、実行中の読み込みの結果がそのまま返る。
+     */
+    public void forget(Predicate<K> filter) {
+        inFlight.keySet().removeIf(filter);
+    }
+
+    /** 他の呼び出しの読み込みに合流した（委譲先を呼ばずに済んだ）回数 */
+    public long getSharedLoads() {
+        return sharedLoads.sum();
+    }
+
+    private static <V> V await(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package nekopunch_rush.testjava21.infrastructure.repository.singleflight;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import nekopunch_rush.testjava21.infrastructure.repository.ReactiveDailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.DailyLogRepositoryDecorator;
+import nekopunch_rush.testjava21.infrastructure.repository.r2dbc.R2dbcDailyLogRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 並行する同一の読み取りをまとめる処理の構成。
+ * <p>
+ * {@code lifelog.single-flight.enabled=true} の場合のみ有効になり、DailyLogRepositoryにデコレータを重ねる。
+ * r2dbcプロファイルでは、ReactiveDailyLogRepositoryとしてR2DBC版をまとめる版で包んだものを公開する。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lifelog.single-flight", name = "enabled", havingValue = "true")
+public class SingleFlightConfiguration {
+
+    /**
+     * キャッシュのすぐ内側に置き、キャッシュに無い読み取り（キャッシュ無効時はすべての読み取り）をまとめる。
+     * アーカイブ・遅延書き込みより外側のため、それらの処理を含めて1回にまとまる
+     */
+    public static final int SINGLE_FLIGHT_ORDER = 300;
+
+    @Bean
+    public DailyLogRepositoryDecorator singleFlightDecorator(ObjectProvider<MeterRegistry> meterRegistry) {
+        return DailyLogRepositoryDecorator.of(SINGLE_FLIGHT_ORDER, delegate -> {
+            SingleFlightDailyLogRepository repository = new SingleFlightDailyLogRepository(delegate);
+            meterRegistry.ifAvailable(repository::bindTo);
+            return repository;
+        });
+    }
+
+    @Bean
+    @Primary
+    @Profile("r2dbc")
+    public ReactiveDailyLogRepository singleFlightReactiveDailyLogRepository(R2dbcDailyLogRepository r2dbcDailyLogRepository) {
+        return new SingleFlightReactiveDailyLogRepository(r2dbcDailyLogRepository);
+    }
+}
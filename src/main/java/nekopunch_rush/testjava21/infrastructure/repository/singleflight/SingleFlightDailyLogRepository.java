@@ -0,0 +1,94 @@
+package nekopunch_rush.testjava21.infrastructure.repository.singleflight;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.InvalidatingDailyLogRepository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 同じ日・同じ月の読み取りが並行した場合に、委譲先の読み込みを1回にまとめるデコレータ。
+ * <p>
+ * 通知の配信直後など、多数のクライアントが同じユーザーの同じ日・月を同時に取得する場合に、
+ * 最初の呼び出しの読み込みを他の呼び出しで共有する。結果は保持しない（保持する場合は {@code lifelog.cache} を使う）。
+ * <p>
+ * 書き込みのあるトランザクション内の読み取りは、未コミットの変更が他の呼び出しへ渡ったり、
+ * 自分の変更を含まない結果を受け取ったりしないよう、まとめずに委譲する。
+ * 書き込み後（トランザクション内の場合はコミット後にも）は、その日・月の実行中の読み込みに合流しない。
+ */
+public class SingleFlightDailyLogRepository extends InvalidatingDailyLogRepository implements MeterBinder {
+
+    private final SingleFlight<DayKey, Optional<DailyLog>> days = new SingleFlight<>();
+    private final SingleFlight<MonthKey, List<DailyLog>> months = new SingleFlight<>();
+    private final SingleFlight<MonthKey, List<DailyLog>> detailedMonths = new SingleFlight<>();
+
+    public SingleFlightDailyLogRepository(DailyLogRepository delegate) {
+        super(delegate);
+    }
+
+    @Override
+    protected void onWrite(Long userId, LocalDate logDate) {
+        DayKey day = new DayKey(userId, logDate);
+        MonthKey month = new MonthKey(userId, YearMonth.from(logDate));
+        days.forget(day::equals);
+        months.forget(month::equals);
+        detailedMonths.forget(month::equals);
+    }
+
+    @Override
+    protected void onWriteBefore(Long userId, LocalDate before) {
+        days.forget(key -> key.userId().equals(userId));
+        months.forget(key -> key.userId().equals(userId));
+        detailedMonths.forget(key -> key.userId().equals(userId));
+    }
+
+    @Override
+    public Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return load(days, new DayKey(userId, logDate), () -> delegate.findByUserIdAndLogDate(userId, logDate));
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        // 同じリストを呼び出し元の間で共有するため、変更できないリストにする
+        return load(months, new MonthKey(userId, yearMonth),
+                () -> List.copyOf(delegate.findByUserIdAndMonth(userId, yearMonth)));
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return load(detailedMonths, new MonthKey(userId, yearMonth),
+                () -> List.copyOf(delegate.findWithDetailsByUserIdAndMonth(userId, yearMonth)));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("lifelog.single-flight.shared", this, SingleFlightDailyLogRepository::getSharedLoads)
+                .description("Reads that joined an identical in-flight load instead of querying storage")
+                .register(registry);
+    }
+
+    /** 実行中の読み込みに合流した回数 */
+    public long getSharedLoads() {
+        return days.getSharedLoads() + months.getSharedLoads() + detailedMonths.getSharedLoads();
+    }
+
+    private static <K, V> V load(SingleFlight<K, V> flights, K key, Supplier<V> loader) {
+        boolean writing = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return writing ? loader.get() : flights.load(key, loader);
+    }
+
+    private record DayKey(Long userId, LocalDate logDate) {
+    }
+
+    private record MonthKey(Long userId, YearMonth yearMonth) {
+    }
+}
@@ -0,0 +1,17 @@
+package nekopunch_rush.testjava21.infrastructure.repository.singleflight;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 並行する同一の読み取りをまとめる処理の設定。
+ * <p>
+ * application.yml の {@code lifelog.single-flight.*} にバインドされる。
+ */
+@Data
+@ConfigurationProperties(prefix = "lifelog.single-flight")
+public class SingleFlightProperties {
+
+    /** 同じ日・同じ月の読み取りが並行した場合に、保存先からの読み込みを1回にまとめるか */
+    private boolean enabled = false;
+}
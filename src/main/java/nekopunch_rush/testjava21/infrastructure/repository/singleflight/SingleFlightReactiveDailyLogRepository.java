@@ -0,0 +1,92 @@
+package nekopunch_rush.testjava21.infrastructure.repository.singleflight;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.ReactiveDailyLogRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * {@link SingleFlightDailyLogRepository} のノンブロッキング版。
+ * <p>
+ * 1日分の詳細と月単位の詳細の読み取りを、同じ日・同じ月について実行中のものに合流させる。
+ * 月単位の結果は共有のため一度リストに集めてから流す。
+ * R2DBC版のリポジトリは書き込みのトランザクションをリポジトリの1呼び出し内で完結させるため、
+ * トランザクション内の読み取りを考慮する必要はない。
+ */
+public class SingleFlightReactiveDailyLogRepository implements ReactiveDailyLogRepository {
+
+    private final ReactiveDailyLogRepository delegate;
+    private final ReactiveSingleFlight<DayKey, DailyLog> days = new ReactiveSingleFlight<>();
+    private final ReactiveSingleFlight<MonthKey, List<DailyLog>> detailedMonths = new ReactiveSingleFlight<>();
+
+    public SingleFlightReactiveDailyLogRepository(ReactiveDailyLogRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<Boolean> saveIfAbsent(DailyLog log) {
+        return delegate.saveIfAbsent(log)
+                .doFinally(signal -> forget(log.getUserId(), log.getLogDate()));
+    }
+
+    @Override
+    public Mono<Boolean> update(LocalDate logDate, DailyLog log) {
+        return delegate.update(logDate, log)
+                .doFinally(signal -> forget(log.getUserId(), logDate));
+    }
+
+    @Override
+    public Mono<Boolean> deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return delegate.deleteByUserIdAndLogDate(userId, logDate)
+                .doFinally(signal -> forget(userId, logDate));
+    }
+
+    @Override
+    public Mono<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return days.load(new DayKey(userId, logDate), () -> delegate.findByUserIdAndLogDate(userId, logDate));
+    }
+
+    @Override
+    public Flux<DailyLog> findByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return delegate.findByUserIdAndDateRange(userId, from, to);
+    }
+
+    @Override
+    public Flux<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth month) {
+        return detailedMonths.load(new MonthKey(userId, month),
+                        () -> delegate.findWithDetailsByUserIdAndMonth(userId, month).collectList().map(List::copyOf))
+                .flatMapIterable(logs -> logs);
+    }
+
+    @Override
+    public Flux<DailyLog> findWithDetailsByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return delegate.findWithDetailsByUserIdAndDateRange(userId, from, to);
+    }
+
+    @Override
+    public Mono<Boolean> existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return delegate.existsByUserIdAndLogDate(userId, logDate);
+    }
+
+    /** 実行中の読み込みに合流した回数 */
+    public long getSharedLoads() {
+        return days.getSharedLoads() + detailedMonths.getSharedLoads();
+    }
+
+    private void forget(Long userId, LocalDate logDate) {
+        DayKey day = new DayKey(userId, logDate);
+        MonthKey month = new MonthKey(userId, YearMonth.from(logDate));
+        days.forget(day::equals);
+        detailedMonths.forget(month::equals);
+    }
+
+    private record DayKey(Long userId, LocalDate logDate) {
+    }
+
+    private record MonthKey(Long userId, YearMonth yearMonth) {
+    }
+}
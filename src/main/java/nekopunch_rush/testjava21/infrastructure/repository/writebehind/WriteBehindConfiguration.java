@@ -0,0 +1,26 @@
+package nekopunch_rush.testjava21.infrastructure.repository.writebehind;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * 更新の遅延書き込みの構成。
+ * <p>
+ * {@code lifelog.write-behind.enabled=true} の場合のみ有効になり、DailyLogRepositoryに
+ * 同じ日の連続した更新を1回の書き込みにまとめるデコレータを重ねる。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lifelog.write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindConfiguration {
+
+    /** アーカイブ済み期間の書き込み拒否より内側（拒否は更新を受けた時点で返す）、接続先の振り分けより外側 */
+    public static final int WRITE_BEHIND_ORDER = 750;
+
+    @Bean
+    public WriteBehindDecorator writeBehindDecorator(WriteBehindProperties properties) {
+        return new WriteBehindDecorator(WRITE_BEHIND_ORDER, properties, Clock.systemDefaultZone());
+    }
+}
@@ -0,0 +1,399 @@
+package nekopunch_rush.testjava21.infrastructure.repository.writebehind;
+
+import lombok.extern.slf4j.Slf4j;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.ForwardingDailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogMapperSupport;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 同じ日への連続した更新をメモリに溜め、最新の版だけを委譲先へ書き込むデコレータ。
+ * <p>
+ * 更新は (userId, logDate) ごとに最新の版で上書きし、最後の更新から quietPeriod の間次の更新が無いか、
+ * 最初の更新から maxDelay が経ったら書き込む（{@link #flushDue}）。溜めている日数が maxPending に達した場合は、
+ * 新しい日の更新を溜めずに委譲先へ直接書き込む（更新を受けたスレッドで他の日を書き込むことはしない）。
+ * <p>
+ * 読み取りは溜めている版を委譲先の結果に重ねて返す。集計・全期間のストリームは書き込み後の内容から作られるため、
+ * そのユーザーの分を先に書き込んでから委譲する。削除と登録は、その日の溜めている版を捨て、書き込み中の版があれば
+ * それが終わるのを待ってから委譲する（古い版が削除・登録し直しの後に書き込まれないように）。
+ * 書き込みに失敗した版は溜めたまま残し、次回に再試行する（失敗の回数は {@link #getFailedFlushes()}）。
+ * <p>
+ * 排他は (userId, logDate) のハッシュで分けたストライプごとに行い、ロックを持ったまま委譲先を呼ばない。
+ * 存在確認から溜めるまでの間に同じストライプで削除・登録があった場合は、世代の変化で検出して確認からやり直す。
+ */
+@Slf4j
+public class WriteBehindDailyLogRepository extends ForwardingDailyLogRepository {
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::userId).thenComparing(Key::logDate);
+    private static final int STRIPES = 64;
+
+    private final Duration quietPeriod;
+    private final Duration maxDelay;
+    private final int maxPending;
+    private final Clock clock;
+    private final ConcurrentNavigableMap<Key, Pending> pending = new ConcurrentSkipListMap<>(KEY_ORDER);
+    // 書き込み中の日。同じ日の削除・登録はこれが終わるのを待つ
+    private final ConcurrentMap<Key, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    // 削除・登録のたびに進める世代と、溜める・捨てる操作の排他（いずれもメモリ上の操作だけを囲む）
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final AtomicLong bufferedUpdates = new AtomicLong();
+    private final AtomicLong flushedUpdates = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    public WriteBehindDailyLogRepository(DailyLogRepository delegate, Duration quietPeriod, Duration maxDelay,
+                                         int maxPending, Clock clock) {
+        super(delegate);
+        this.quietPeriod = quietPeriod;
+        this.maxDelay = maxDelay;
+        this.maxPending = maxPending;
+        this.clock = clock;
+        Arrays.setAll(locks, i -> new ReentrantLock());
+    }
+
+    @Override
+    public boolean update(LocalDate logDate, DailyLog log) {
+        Key key = new Key(log.getUserId(), logDate);
+        int stripe = stripe(key);
+        while (true) {
+            long generation = generations.get(stripe);
+            if (!pending.containsKey(key)) {
+                if (pending.size() >= maxPending) {
+                    // 書き込み中の古い版に後から上書きされないよう、それを待ってから直接書き込む
+                    awaitInFlight(key);
+                    return delegate.update(logDate, log);
+                }
+                // 溜めている版があれば対象の存在は確認済み。無ければ主キーで存在だけを確認する
+                if (!delegate.existsByUserIdAndLogDate(log.getUserId(), logDate)) return false;
+            }
+            locks[stripe].lock();
+            try {
+                // 確認の間に削除・登録があった場合は、確認した結果が古いためやり直す
+                if (generations.get(stripe) != generation) continue;
+                Instant now = clock.instant();
+                pending.merge(key, new Pending(logDate, log, now, now),
+                        (previous, latest) -> new Pending(logDate, log, previous.firstUpdatedAt(), now));
+            } finally {
+                locks[stripe].unlock();
+            }
+            bufferedUpdates.incrementAndGet();
+            return true;
+        }
+    }
+
+    @Override
+    public void save(DailyLog log) {
+        register(List.of(log), () -> {
+            delegate.save(log);
+            return true;
+        });
+    }
+
+    @Override
+    public void saveAll(Collection<DailyLog> logs) {
+        register(logs, () -> {
+            delegate.saveAll(logs);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean saveIfAbsent(DailyLog log) {
+        return register(List.of(log), () -> delegate.saveIfAbsent(log));
+    }
+
+    @Override
+    public boolean deleteByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        Key key = new Key(userId, logDate);
+        discard(key);
+        awaitInFlight(key);
+        try {
+            return delegate.deleteByUserIdAndLogDate(userId, logDate);
+        } finally {
+            // 削除の確定前に存在を確認して溜めた更新も捨てる
+            discard(key);
+        }
+    }
+
+    @Override
+    public void deleteByUserIdBefore(Long userId, LocalDate before) {
+        discardBefore(userId, before);
+        inFlight.keySet().stream()
+                .filter(key -> key.userId().equals(userId) && key.logDate().isBefore(before))
+                .forEach(this::awaitInFlight);
+        try {
+            delegate.deleteByUserIdBefore(userId, before);
+        } finally {
+            discardBefore(userId, before);
+        }
+    }
+
+    @Override
+    public Optional<DailyLog> findByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        Pending buffered = pending.get(new Key(userId, logDate));
+        return buffered != null ? Optional.of(buffered.view()) : delegate.findByUserIdAndLogDate(userId, logDate);
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return findByUserIdAndDateRange(userId, yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1));
+    }
+
+    @Override
+    public List<DailyLog> findByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return overlay(delegate.findByUserIdAndDateRange(userId, from, to), userId, from, to, Pending::summary);
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndMonth(Long userId, YearMonth yearMonth) {
+        return findWithDetailsByUserIdAndDateRange(userId, yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1));
+    }
+
+    @Override
+    public List<DailyLog> findWithDetailsByUserIdAndDateRange(Long userId, LocalDate from, LocalDate to) {
+        return overlay(delegate.findWithDetailsByUserIdAndDateRange(userId, from, to), userId, from, to, Pending::view);
+    }
+
+    @Override
+    public List<DailyLog> findPageByUserId(Long userId, LocalDate from, LocalDate before, int limit) {
+        // 溜めているのは既存の日の更新だけのため、ページに含まれる日付は変わらない
+        return delegate.findPageByUserId(userId, from, before, limit).stream()
+                .map(stored -> {
+                    Pending buffered = pending.get(new Key(userId, stored.getLogDate()));
+                    return buffered != null ? buffered.summary() : stored;
+                })
+                .toList();
+    }
+
+    @Override
+    public void streamByUserId(Long userId, Consumer<DailyLog> consumer) {
+        flushUser(userId);
+        delegate.streamByUserId(userId, consumer);
+    }
+
+    @Override
+    public boolean existsByUserIdAndLogDate(Long userId, LocalDate logDate) {
+        return pending.containsKey(new Key(userId, logDate)) || delegate.existsByUserIdAndLogDate(userId, logDate);
+    }
+
+    @Override
+    public List<DailyLogRollup> findRollupsByUserIdAndPeriodRange(Long userId, RollupPeriod period, LocalDate from, LocalDate to) {
+        flushUser(userId);
+        return delegate.findRollupsByUserIdAndPeriodRange(userId, period, from, to);
+    }
+
+    /**
+     * 静止時間または最大遅延を過ぎた版を書き込む。
+     */
+    public void flushDue(Instant now) {
+        flush(entry -> entry.getValue().isDue(now, quietPeriod, maxDelay));
+    }
+
+    /**
+     * 溜めているすべての版を書き込む。
+     */
+    public void flushAll() {
+        flush(entry -> true);
+    }
+
+    /** 受け付けた更新の回数 */
+    public long getBufferedUpdates() {
+        return bufferedUpdates.get();
+    }
+
+    /** 委譲先へ書き込んだ更新の回数 */
+    public long getFlushedUpdates() {
+        return flushedUpdates.get();
+    }
+
+    /** 委譲先への書き込みに失敗した回数（失敗した版は溜めたまま再試行する） */
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void flushUser(Long userId) {
+        if (!pendingOf(userId, LocalDate.MIN, LocalDate.MAX).isEmpty()) {
+            flush(entry -> entry.getKey().userId().equals(userId));
+        }
+        // 定期書き込みが書き込み中の分も、読む前に書き込み終わっている必要がある
+        inFlight.keySet().stream()
+                .filter(key -> key.userId().equals(userId))
+                .forEach(this::awaitInFlight);
+    }
+
+    private void flush(Predicate<Map.Entry<Key, Pending>> filter) {
+        for (Map.Entry<Key, Pending> entry : pending.entrySet()) {
+            if (!filter.test(entry)) continue;
+            Key key = entry.getKey();
+            Pending buffered = entry.getValue();
+            CompletableFuture<Void> writing = new CompletableFuture<>();
+            int stripe = stripe(key);
+            locks[stripe].lock();
+            try {
+                // 捨てられた版や、他のスレッドが書き込み中の日は書き込まない
+                if (pending.get(key) != buffered || inFlight.putIfAbsent(key, writing) != null) continue;
+            } finally {
+                locks[stripe].unlock();
+            }
+            try {
+                if (!delegate.update(buffered.logDate(), buffered.log())) {
+                    log.warn("更新対象のログが削除されていたため破棄します: userId={}, logDate={}",
+                            key.userId(), buffered.logDate());
+                }
+                flushedUpdates.incrementAndGet();
+                // 書き込み中に新しい版が届いていれば、それは次回書き込む
+                pending.remove(key, buffered);
+            } catch (RuntimeException e) {
+                failedFlushes.incrementAndGet();
+                log.error("更新の書き込みに失敗しました。次回再試行します: userId={}, logDate={}",
+                        key.userId(), buffered.logDate(), e);
+            } finally {
+                inFlight.remove(key, writing);
+                writing.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 登録の前に溜めている版を捨てる（登録できるのはその日が削除されていた場合のため、溜めている版は削除前のログへの更新）。
+     * 既に同じ日があって登録しなかった場合は、捨てた版を戻す。
+     */
+    private boolean register(Collection<DailyLog> logs, Supplier<Boolean> registration) {
+        Map<Key, Discarded> discarded = new HashMap<>();
+        for (DailyLog log : logs) {
+            Key key = new Key(log.getUserId(), log.getLogDate());
+            Discarded removed = discard(key);
+            if (removed.pending() != null) discarded.put(key, removed);
+            awaitInFlight(key);
+        }
+        boolean registered = false;
+        try {
+            registered = registration.get();
+            return registered;
+        } finally {
+            if (!registered) discarded.forEach(this::restore);
+        }
+    }
+
+    private void restore(Key key, Discarded discarded) {
+        int stripe = stripe(key);
+        locks[stripe].lock();
+        try {
+            if (generations.get(stripe) == discarded.generation()) {
+                // 後から溜めた新しい版があればそちらを残す
+                pending.putIfAbsent(key, discarded.pending());
+                return;
+            }
+        } finally {
+            locks[stripe].unlock();
+        }
+        // 間に同じストライプで削除・登録があった場合は、存在確認からやり直して溜め直す
+        if (!pending.containsKey(key)) {
+            update(discarded.pending().logDate(), discarded.pending().log());
+        }
+    }
+
+    private Discarded discard(Key key) {
+        int stripe = stripe(key);
+        locks[stripe].lock();
+        try {
+            return new Discarded(pending.remove(key), generations.incrementAndGet(stripe));
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    private void discardBefore(Long userId, LocalDate before) {
+        // 範囲内のどの日の存在確認もやり直させるため、すべてのストライプの世代を進める
+        for (ReentrantLock lock : locks) lock.lock();
+        try {
+            for (int stripe = 0; stripe < STRIPES; stripe++) generations.incrementAndGet(stripe);
+            pendingOf(userId, LocalDate.MIN, before).clear();
+        } finally {
+            for (ReentrantLock lock : locks) lock.unlock();
+        }
+    }
+
+    private void awaitInFlight(Key key) {
+        CompletableFuture<Void> writing = inFlight.get(key);
+        if (writing != null) writing.join();
+    }
+
+    private static int stripe(Key key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+
+    private NavigableMap<Key, Pending> pendingOf(Long userId, LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) return new TreeMap<>(KEY_ORDER);
+        return pending.subMap(new Key(userId, from), true, new Key(userId, to), false);
+    }
+
+    private List<DailyLog> overlay(List<DailyLog> stored, Long userId, LocalDate from, LocalDate to,
+                                   Function<Pending, DailyLog> toDomain) {
+        NavigableMap<Key, Pending> buffered = pendingOf(userId, from, to);
+        if (buffered.isEmpty()) return stored;
+        TreeMap<LocalDate, DailyLog> byDate = new TreeMap<>();
+        stored.forEach(dailyLog -> byDate.put(dailyLog.getLogDate(), dailyLog));
+        buffered.values().forEach(p -> byDate.put(p.logDate(), toDomain.apply(p)));
+        return List.copyOf(byDate.values());
+    }
+
+    private record Key(Long userId, LocalDate logDate) {
+    }
+
+    private record Discarded(Pending pending, long generation) {
+    }
+
+    private record Pending(LocalDate logDate, DailyLog log, Instant firstUpdatedAt, Instant lastUpdatedAt) {
+
+        boolean isDue(Instant now, Duration quietPeriod, Duration maxDelay) {
+            return !now.isBefore(lastUpdatedAt.plus(quietPeriod)) || !now.isBefore(firstUpdatedAt.plus(maxDelay));
+        }
+
+        /**
+         * 更新対象日（パスで指定された日付）のログとして返す。
+         */
+        DailyLog view() {
+            if (log.getLogDate().equals(logDate)) return log;
+            return DailyLog.of(log.getUserId(), logDate, log.getSleepHours(), log.getMoodLevel(),
+                    log.getBodyMetricsList(), log.getActivityList(), log.getMealList(), log.getMentalNoteList());
+        }
+
+        DailyLog summary() {
+            return DailyLogMapperSupport.toDomainSummary(DailyLogMapperSupport.toEntity(view()));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package nekopunch_rush.testjava21.infrastructure.repository.writebehind;
+
+import lombok.extern.slf4j.Slf4j;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.DailyLogRepositoryDecorator;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WriteBehindDailyLogRepositoryを重ね、溜めた更新の定期的な書き込みと停止時の書き込みを行うデコレータ。
+ * <p>
+ * 停止時の書き込みはBeanの破棄（DataSourceのクローズ）より前に行う必要があるため、SmartLifecycleで行う。
+ */
+@Slf4j
+public class WriteBehindDecorator implements DailyLogRepositoryDecorator, SmartLifecycle {
+
+    // Webサーバーの停止（リクエストの受付終了）より後に止め、残りを書き込む
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final int order;
+    private final WriteBehindProperties properties;
+    private final Clock clock;
+    private final List<WriteBehindDailyLogRepository> repositories = new CopyOnWriteArrayList<>();
+    private volatile ScheduledExecutorService scheduler;
+
+    public WriteBehindDecorator(int order, WriteBehindProperties properties, Clock clock) {
+        this.order = order;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Override
+    public DailyLogRepository decorate(DailyLogRepository delegate) {
+        WriteBehindDailyLogRepository repository = new WriteBehindDailyLogRepository(delegate,
+                properties.getQuietPeriod(), properties.getMaxDelay(), properties.getMaxPending(), clock);
+        repositories.add(repository);
+        return repository;
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    @Override
+    public void start() {
+        // 書き込み時刻の誤差が静止時間の半分以内になるよう確認する
+        long intervalMillis = Math.max(1, properties.getQuietPeriod().toMillis() / 2);
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("write-behind-flush").daemon().factory());
+        scheduler.scheduleWithFixedDelay(
+                () -> repositories.forEach(repository -> repository.flushDue(clock.instant())),
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = scheduler;
+        scheduler = null;
+        if (current != null) {
+            current.shutdown();
+            try {
+                if (!current.awaitTermination(10, TimeUnit.SECONDS)) {
+                    log.warn("定期書き込みの終了を待てませんでした");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (WriteBehindDailyLogRepository repository : repositories) {
+            repository.flushAll();
+            if (repository.getPendingCount() > 0) {
+                log.error("書き込めなかった更新を破棄して停止します: {}日分", repository.getPendingCount());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
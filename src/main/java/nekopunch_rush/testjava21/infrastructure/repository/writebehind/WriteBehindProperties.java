@@ -0,0 +1,28 @@
+package nekopunch_rush.testjava21.infrastructure.repository.writebehind;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 更新の遅延書き込み（write-behind）の設定。
+ * <p>
+ * application.yml の {@code lifelog.write-behind.*} にバインドされる。
+ */
+@Data
+@ConfigurationProperties(prefix = "lifelog.write-behind")
+public class WriteBehindProperties {
+
+    /** 更新をメモリに溜めてまとめて書き込むか */
+    private boolean enabled = false;
+
+    /** 同じ日の最後の更新からこの時間、次の更新が無ければ書き込む */
+    private Duration quietPeriod = Duration.ofSeconds(3);
+
+    /** 更新が続いていても、最初の更新からこの時間が経ったら書き込む */
+    private Duration maxDelay = Duration.ofSeconds(30);
+
+    /** メモリに溜める日数の上限。達した場合、新しい日の更新は溜めずに直接書き込む */
+    private int maxPending = 10_000;
+}
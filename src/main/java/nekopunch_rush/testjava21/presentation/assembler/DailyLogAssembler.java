@@ -3,6 +3,7 @@ package nekopunch_rush.testjava21.presentation.assembler;
 import nekopunch_rush.testjava21.domain.lifelog.Activity;
 import nekopunch_rush.testjava21.domain.lifelog.BodyMetrics;
 import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
 import nekopunch_rush.testjava21.domain.lifelog.Meal;
 import nekopunch_rush.testjava21.domain.lifelog.MentalNote;
 import nekopunch_rush.testjava21.domain.lifelog.valueobject.BodyFatPercentage;
@@ -17,6 +18,8 @@ import nekopunch_rush.testjava21.presentation.resoource.lifelog.BodyMetricsReque
 import nekopunch_rush.testjava21.presentation.resoource.lifelog.BodyMetricsResponse;
 import nekopunch_rush.testjava21.presentation.resoource.lifelog.DailyLogRequest;
 import nekopunch_rush.testjava21.presentation.resoource.lifelog.DailyLogResponse;
+import nekopunch_rush.testjava21.presentation.resoource.lifelog.DailyLogRollupResponse;
+import nekopunch_rush.testjava21.presentation.resoource.lifelog.DailyLogSummaryResponse;
 import nekopunch_rush.testjava21.presentation.resoource.lifelog.MealRequest;
 import nekopunch_rush.testjava21.presentation.resoource.lifelog.MealResponse;
 import nekopunch_rush.testjava21.presentation.resoource.lifelog.MentalNoteRequest;
@@ -103,6 +106,33 @@ public class DailyLogAssembler {
                 .build();
     }
 
+    public static DailyLogSummaryResponse toSummaryResponse(DailyLog log) {
+        return DailyLogSummaryResponse.builder()
+                .logDate(log.getLogDate())
+                .sleepHours(log.getSleepHours())
+                .moodLevel(log.getMoodLevel())
+                .build();
+    }
+
+    public static DailyLogRollupResponse toResponse(DailyLogRollup rollup) {
+        return DailyLogRollupResponse.builder()
+                .periodStart(rollup.getPeriodStart())
+                .logCount(rollup.getLogCount())
+                .sleepHoursAverage(rollup.getSleepHoursAverage())
+                .sleepHoursMin(rollup.getSleepHoursMin())
+                .sleepHoursMax(rollup.getSleepHoursMax())
+                .moodLevelAverage(rollup.getMoodLevelAverage())
+                .moodLevelMin(rollup.getMoodLevelMin())
+                .moodLevelMax(rollup.getMoodLevelMax())
+                .weightAverage(rollup.getWeightAverage().isPresent() ? rollup.getWeightAverage().getAsDouble() : null)
+                .weightMin(rollup.getWeightMin())
+                .weightMax(rollup.getWeightMax())
+                .stepsAverage(rollup.getStepsAverage().isPresent() ? rollup.getStepsAverage().getAsDouble() : null)
+                .stepsMin(rollup.getStepsMin())
+                .stepsMax(rollup.getStepsMax())
+                .build();
+    }
+
     private static List<BodyMetricsResponse> toBodyMetricsResponseList(List<BodyMetrics> list) {
         return list.stream()
                 .map(b -> BodyMetricsResponse.builder()
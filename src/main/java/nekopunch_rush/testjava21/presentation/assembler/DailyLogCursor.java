@@ -0,0 +1,40 @@
+package nekopunch_rush.testjava21.presentation.assembler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 履歴一覧のページ位置を表すカーソル文字列の変換。
+ * <p>
+ * クライアントには中身を解釈させず、前のページのレスポンスの値をそのまま返してもらう。
+ * 形式を変える場合に古いカーソルを判別できるよう、先頭に版を付ける。
+ */
+public final class DailyLogCursor {
+
+    private static final String VERSION_PREFIX = "v1:";
+
+    private DailyLogCursor() {
+    }
+
+    public static String encode(LocalDate before) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((VERSION_PREFIX + before).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException カーソルの形式が正しくない場合
+     */
+    public static LocalDate decode(String cursor) {
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!decoded.startsWith(VERSION_PREFIX)) {
+            throw new IllegalArgumentException("カーソルの形式が正しくありません: " + cursor);
+        }
+        try {
+            return LocalDate.parse(decoded.substring(VERSION_PREFIX.length()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("カーソルの形式が正しくありません: " + cursor, e);
+        }
+    }
+}
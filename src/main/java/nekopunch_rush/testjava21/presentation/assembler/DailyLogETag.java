@@ -0,0 +1,100 @@
+package nekopunch_rush.testjava21.presentation.assembler;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import nekopunch_rush.testjava21.domain.lifelog.Activity;
+import nekopunch_rush.testjava21.domain.lifelog.BodyMetrics;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.Meal;
+import nekopunch_rush.testjava21.domain.lifelog.MentalNote;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * 取得APIのレスポンスに付けるETag（強いETag）の計算。
+ * <p>
+ * レスポンスを組み立てる前のログの内容（ドメインモデルの全項目）からハッシュを取るため、
+ * If-None-Match が一致した場合はレスポンスの組み立てとJSONへの変換を省略できる。
+ * 保存形式には依存しないため、ストレージの形式を変えてもETagは変わらない。
+ * レスポンスの項目や形式を変えた場合は {@link #FORMAT_VERSION} を上げ、変更前の本文に304を返さないようにする。
+ */
+public final class DailyLogETag {
+
+    private static final int FORMAT_VERSION = 2;
+
+    private DailyLogETag() {
+    }
+
+    public static String of(DailyLog log) {
+        return of(List.of(log));
+    }
+
+    public static String of(List<DailyLog> logs) {
+        Hasher hasher = Hashing.murmur3_128().newHasher()
+                .putInt(FORMAT_VERSION)
+                .putInt(logs.size());
+        for (DailyLog log : logs) {
+            putLog(hasher, log);
+        }
+        return "\"" + hasher.hash() + "\"";
+    }
+
+    private static void putLog(Hasher hasher, DailyLog log) {
+        hasher.putLong(log.getUserId())
+                .putLong(log.getLogDate().toEpochDay())
+                .putDouble(log.getSleepHours())
+                .putInt(log.getMoodLevel());
+
+        // 件数を先に入れ、子要素の境界がずれても同じハッシュにならないようにする
+        hasher.putInt(log.getBodyMetricsList().size());
+        for (BodyMetrics m : log.getBodyMetricsList()) {
+            hasher.putDouble(m.getWeight().getValue())
+                    .putDouble(m.getBodyFatPercentage().getValue())
+                    .putDouble(m.getMuscleMass().getValue());
+            putDateTime(hasher, m.getMeasuredAt().getValue());
+        }
+
+        hasher.putInt(log.getActivityList().size());
+        for (Activity a : log.getActivityList()) {
+            putString(hasher, a.getType());
+            putDateTime(hasher, a.getStartedAt().getValue());
+            hasher.putInt(a.getDurationInMinutes())
+                    .putDouble(a.getDistanceKm())
+                    .putInt(a.getSteps().getValue())
+                    .putInt(a.getCaloriesBurned().getValue());
+        }
+
+        hasher.putInt(log.getMealList().size());
+        for (Meal m : log.getMealList()) {
+            hasher.putLong(m.getTime().toNanoOfDay());
+            putString(hasher, m.getContent());
+            hasher.putInt(m.getCalories());
+            putString(hasher, m.getPhotoUrl());
+        }
+
+        hasher.putInt(log.getMentalNoteList().size());
+        for (MentalNote n : log.getMentalNoteList()) {
+            putDateTime(hasher, n.getRecordedAt());
+            hasher.putInt(n.getStressLevel())
+                    .putInt(n.getMotivationLevel());
+            putString(hasher, n.getNote());
+        }
+    }
+
+    private static void putDateTime(Hasher hasher, LocalDateTime value) {
+        hasher.putLong(value.toEpochSecond(ZoneOffset.UTC))
+                .putInt(value.getNano());
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        if (value == null) {
+            hasher.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        hasher.putInt(bytes.length).putBytes(bytes);
+    }
+}
@@ -1,17 +1,25 @@
 package nekopunch_rush.testjava21.presentation.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import nekopunch_rush.testjava21.application.DailyLogPage;
 import nekopunch_rush.testjava21.application.DailyLogService;
 import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
 import nekopunch_rush.testjava21.presentation.assembler.DailyLogAssembler;
+import nekopunch_rush.testjava21.presentation.assembler.DailyLogCursor;
+import nekopunch_rush.testjava21.presentation.assembler.DailyLogETag;
 import nekopunch_rush.testjava21.presentation.resoource.lifelog.ApiResponse;
+import nekopunch_rush.testjava21.presentation.resoource.lifelog.DailyLogHistoryResponse;
 import nekopunch_rush.testjava21.presentation.resoource.lifelog.DailyLogRequest;
 import nekopunch_rush.testjava21.presentation.resoource.lifelog.DailyLogResponse;
+import nekopunch_rush.testjava21.presentation.resoource.lifelog.DailyLogRollupResponse;
 import nekopunch_rush.testjava21.presentation.resoource.lifelog.DailyLogSummaryResponse;
 import org.apache.ibatis.javassist.NotFoundException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,8 +28,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
@@ -31,7 +45,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DailyLogController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final DailyLogService dailyLogService;
+    private final ObjectMapper objectMapper;
 
     // 登録
     @PostMapping
@@ -80,14 +97,78 @@ public class DailyLogController {
     }
 
     // 詳細取得
+    // If-None-Match がETagと一致した場合は、レスポンスを組み立てずに304を返す
     @GetMapping("/{userId}/{logDate}")
     public ResponseEntity<ApiResponse<?>> getByUserIdAndDate(
             @PathVariable Long userId,
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate logDate)
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate logDate,
+            WebRequest webRequest)
             throws NotFoundException {
 
         DailyLog log = dailyLogService.findByUserIdAndDate(userId, logDate);
+        String etag = DailyLogETag.of(log);
+        if (webRequest.checkNotModified(etag)) return null;
+
         DailyLogResponse response = DailyLogAssembler.toResponse(log);
+        return ResponseEntity.ok().eTag(etag).body(
+                ApiResponse.builder()
+                        .success(true)
+                        .message("取得成功")
+                        .data(response)
+                        .build());
+    }
+
+    // 一覧取得（月単位・子要素込み）
+    @GetMapping("/{userId}/{yearMonth}/details")
+    public ResponseEntity<ApiResponse<?>> getMonthlyWithDetails(
+            @PathVariable Long userId,
+            @PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth,
+            WebRequest webRequest) {
+
+        List<DailyLog> logs = dailyLogService.findMonthlyWithDetailsByUserId(userId, yearMonth);
+        String etag = DailyLogETag.of(logs);
+        if (webRequest.checkNotModified(etag)) return null;
+
+        List<DailyLogResponse> responseList = logs.stream()
+                .map(DailyLogAssembler::toResponse)
+                .toList();
+
+        return ResponseEntity.ok().eTag(etag).body(
+                ApiResponse.builder()
+                        .success(true)
+                        .message("取得成功")
+                        .data(responseList)
+                        .build());
+    }
+
+    // 履歴一覧（新しい順・キーセットページング）
+    // cursor には前のページの nextCursor をそのまま渡す。OFFSETを使わないため、深いページでも1ページ目と同じコストで返る
+    @GetMapping("/{userId}")
+    public ResponseEntity<ApiResponse<?>> getHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "30") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sizeは1〜" + MAX_PAGE_SIZE + "で指定してください。");
+        }
+        LocalDate before;
+        try {
+            before = cursor == null ? null : DailyLogCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "cursorが正しくありません。", e);
+        }
+
+        DailyLogPage page = dailyLogService.findHistoryByUserId(userId, from, to, before, size);
+        DailyLogHistoryResponse response = DailyLogHistoryResponse.builder()
+                .logs(page.logs().stream()
+                        .map(DailyLogAssembler::toSummaryResponse)
+                        .toList())
+                .nextCursor(page.hasNext() ? DailyLogCursor.encode(page.nextBefore()) : null)
+                .build();
+
         return ResponseEntity.ok(
                 ApiResponse.builder()
                         .success(true)
@@ -96,22 +177,60 @@ public class DailyLogController {
                         .build());
     }
 
+    // 週・月単位の集計（グラフ向け）
+    // 開始日が [from, to) の期間を返す。1年分の週次グラフでも52〜53行の読み取りで済む
+    @GetMapping("/{userId}/rollups")
+    public ResponseEntity<ApiResponse<?>> getRollups(
+            @PathVariable Long userId,
+            @RequestParam RollupPeriod period,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        List<DailyLogRollupResponse> responseList = dailyLogService.findRollupsByUserId(userId, period, from, to).stream()
+                .map(DailyLogAssembler::toResponse)
+                .toList();
+
+        return ResponseEntity.ok(
+                ApiResponse.builder()
+                        .success(true)
+                        .message("取得成功")
+                        .data(responseList)
+                        .build());
+    }
+
+    // 全期間エクスポート（NDJSON）
+    // 1日分ずつ組み立ててそのままレスポンスへ書き出すため、全件をメモリに保持しない
+    @GetMapping(value = "/{userId}/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable Long userId) {
+        StreamingResponseBody body = out -> dailyLogService.exportByUserId(userId, log -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(DailyLogAssembler.toResponse(log)));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     // 一覧取得（月単位）
     @GetMapping("/{userId}/{yearMonth}")
     public ResponseEntity<ApiResponse<?>> getMonthly(
             @PathVariable Long userId,
-            @PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth) {
+            @PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth,
+            WebRequest webRequest) {
 
         List<DailyLog> logs = dailyLogService.findMonthlyByUserId(userId, yearMonth);
+        String etag = DailyLogETag.of(logs);
+        if (webRequest.checkNotModified(etag)) return null;
+
         List<DailyLogSummaryResponse> responseList = logs.stream()
-                .map(log -> DailyLogSummaryResponse.builder()
-                        .logDate(log.getLogDate())
-                        .sleepHours(log.getSleepHours())
-                        .moodLevel(log.getMoodLevel())
-                        .build())
+                .map(DailyLogAssembler::toSummaryResponse)
                 .toList();
 
-        return ResponseEntity.ok(
+        return ResponseEntity.ok().eTag(etag).body(
                 ApiResponse.builder()
                         .success(true)
                         .message("取得成功")
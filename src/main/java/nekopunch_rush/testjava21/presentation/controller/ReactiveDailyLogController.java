@@ -0,0 +1,93 @@
+package nekopunch_rush.testjava21.presentation.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import nekopunch_rush.testjava21.application.ReactiveDailyLogService;
+import nekopunch_rush.testjava21.presentation.assembler.DailyLogAssembler;
+import nekopunch_rush.testjava21.presentation.resoource.lifelog.ApiResponse;
+import nekopunch_rush.testjava21.presentation.resoource.lifelog.DailyLogRequest;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * R2DBC版リポジトリを使うエンドポイント（r2dbcプロファイル）。
+ * <p>
+ * Mono を返すため、DBの応答待ちの間はリクエストスレッドを解放する。
+ */
+@RestController
+@Profile("r2dbc")
+@RequestMapping("/reactive/daily-logs")
+@RequiredArgsConstructor
+public class ReactiveDailyLogController {
+
+    private final ReactiveDailyLogService reactiveDailyLogService;
+
+    // 登録
+    @PostMapping
+    public Mono<ResponseEntity<ApiResponse<?>>> register(@RequestBody @Valid DailyLogRequest request) {
+        return reactiveDailyLogService.register(DailyLogAssembler.toDomain(request))
+                .then(Mono.fromSupplier(() -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(ApiResponse.builder()
+                                .success(true)
+                                .message("登録が完了しました。")
+                                .data(null)
+                                .build())));
+    }
+
+    // 削除
+    @DeleteMapping("/{userId}/{logDate}")
+    public Mono<ResponseEntity<ApiResponse<?>>> delete(
+            @PathVariable Long userId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate logDate) {
+        return reactiveDailyLogService.delete(userId, logDate)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(
+                        ApiResponse.builder()
+                                .success(true)
+                                .message("削除が完了しました。")
+                                .data(null)
+                                .build())));
+    }
+
+    // 詳細取得
+    @GetMapping("/{userId}/{logDate}")
+    public Mono<ResponseEntity<ApiResponse<?>>> getByUserIdAndDate(
+            @PathVariable Long userId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate logDate) {
+        return reactiveDailyLogService.findByUserIdAndDate(userId, logDate)
+                .map(log -> ResponseEntity.ok(
+                        ApiResponse.builder()
+                                .success(true)
+                                .message("取得成功")
+                                .data(DailyLogAssembler.toResponse(log))
+                                .build()));
+    }
+
+    // 一覧取得（月単位・子要素込み）
+    @GetMapping("/{userId}/{yearMonth}/details")
+    public Mono<ResponseEntity<ApiResponse<?>>> getMonthlyWithDetails(
+            @PathVariable Long userId,
+            @PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth) {
+        return reactiveDailyLogService.findMonthlyWithDetailsByUserId(userId, yearMonth)
+                .map(DailyLogAssembler::toResponse)
+                .collectList()
+                .map(responseList -> ResponseEntity.ok(
+                        ApiResponse.builder()
+                                .success(true)
+                                .message("取得成功")
+                                .data(responseList)
+                                .build()));
+    }
+}
@@ -0,0 +1,18 @@
+package nekopunch_rush.testjava21.presentation.resoource.lifelog;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 履歴一覧の1ページ（新しい日付順）。nextCursor は最後のページではnull。
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class DailyLogHistoryResponse {
+    private List<DailyLogSummaryResponse> logs;
+    private String nextCursor;
+}
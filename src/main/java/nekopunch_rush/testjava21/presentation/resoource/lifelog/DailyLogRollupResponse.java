@@ -0,0 +1,30 @@
+package nekopunch_rush.testjava21.presentation.resoource.lifelog;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * 週・月単位の集計値（グラフ表示向け）。体重・歩数は記録の無い期間ではnull。
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class DailyLogRollupResponse {
+    private LocalDate periodStart;
+    private int logCount;
+    private double sleepHoursAverage;
+    private double sleepHoursMin;
+    private double sleepHoursMax;
+    private double moodLevelAverage;
+    private int moodLevelMin;
+    private int moodLevelMax;
+    private Double weightAverage;
+    private Double weightMin;
+    private Double weightMax;
+    private Double stepsAverage;
+    private Long stepsMin;
+    private Long stepsMax;
+}
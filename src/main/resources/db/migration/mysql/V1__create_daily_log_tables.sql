@@ -0,0 +1,70 @@
+-- ライフログ関連テーブル（MySQL）
+-- 子テーブルの主キーは (user_id, log_date, 日内のキー) の順とし、
+-- Mapperの「ユーザー + 日付（または日付範囲）」での検索・更新・削除をすべて主キーの左端一致で引けるようにする。
+-- 日内のキーの時刻はPostgreSQLのTIMESTAMP / TIMEと同じくマイクロ秒まで保持する（秒に丸めると、更新時の差分で
+-- 保存済みの行とキーが一致せず、すべての子の行を削除・登録し直すことになる）。
+
+-- ユーザーごとのライフログ記録テーブル
+CREATE TABLE daily_log
+(
+    user_id     BIGINT           NOT NULL,
+    log_date    DATE             NOT NULL,
+    sleep_hours DOUBLE PRECISION NOT NULL,
+    mood_level  INT              NOT NULL,
+    PRIMARY KEY (user_id, log_date)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
+
+-- 体組成（体重など）
+CREATE TABLE body_metrics
+(
+    user_id             BIGINT           NOT NULL,
+    log_date            DATE             NOT NULL,
+    weight              DOUBLE PRECISION NOT NULL,
+    body_fat_percentage DOUBLE PRECISION NOT NULL,
+    muscle_mass         DOUBLE PRECISION NOT NULL,
+    measured_at         DATETIME(6)      NOT NULL,
+    PRIMARY KEY (user_id, log_date, measured_at)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
+
+-- 活動記録（運動）
+CREATE TABLE activity
+(
+    user_id             BIGINT      NOT NULL,
+    log_date            DATE        NOT NULL,
+    type                VARCHAR(50) NOT NULL,
+    started_at          DATETIME(6) NOT NULL,
+    duration_in_minutes INT         NOT NULL,
+    distance_km         DOUBLE PRECISION,
+    steps               INT,
+    calories_burned     INT,
+    PRIMARY KEY (user_id, log_date, started_at)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
+
+-- 食事記録
+CREATE TABLE meal
+(
+    user_id   BIGINT  NOT NULL,
+    log_date  DATE    NOT NULL,
+    time      TIME(6) NOT NULL,
+    content   TEXT    NOT NULL,
+    calories  INT,
+    photo_url VARCHAR(255),
+    PRIMARY KEY (user_id, log_date, time)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
+
+-- メンタルメモ
+CREATE TABLE mental_note
+(
+    user_id          BIGINT      NOT NULL,
+    log_date         DATE        NOT NULL,
+    recorded_at      DATETIME(6) NOT NULL,
+    stress_level     INT,
+    motivation_level INT,
+    note             TEXT,
+    PRIMARY KEY (user_id, log_date, recorded_at)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,85 @@
+-- 週次・月次の集計テーブル（MySQL）
+-- ユーザー × 期間（WEEK: 月曜始まりの週 / MONTH: 月）ごとに、睡眠時間・気分・体重・歩数の件数・合計・最小・最大を保持する。
+-- 平均は 合計 / 件数 で求める。歩数は1日ごとの合計を単位とし、記録のあった日数・合計・最小・最大を持つ。
+-- daily_logの登録・更新・削除と同じトランザクションで、対象日を含む週と月の行を再計算する（DailyLogRepositoryImpl）。
+
+CREATE TABLE daily_log_rollup
+(
+    user_id         BIGINT           NOT NULL,
+    period_type     VARCHAR(5)       NOT NULL,
+    period_start    DATE             NOT NULL,
+    log_count       INT              NOT NULL,
+    sleep_hours_sum DOUBLE PRECISION NOT NULL,
+    sleep_hours_min DOUBLE PRECISION NOT NULL,
+    sleep_hours_max DOUBLE PRECISION NOT NULL,
+    mood_level_sum  INT              NOT NULL,
+    mood_level_min  INT              NOT NULL,
+    mood_level_max  INT              NOT NULL,
+    weight_count    INT              NOT NULL,
+    weight_sum      DOUBLE PRECISION,
+    weight_min      DOUBLE PRECISION,
+    weight_max      DOUBLE PRECISION,
+    steps_days      INT              NOT NULL,
+    steps_sum       BIGINT,
+    steps_min       BIGINT,
+    steps_max       BIGINT,
+    PRIMARY KEY (user_id, period_type, period_start)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
+
+-- 既存データからの初期集計
+INSERT INTO daily_log_rollup (user_id, period_type, period_start, log_count,
+                              sleep_hours_sum, sleep_hours_min, sleep_hours_max,
+                              mood_level_sum, mood_level_min, mood_level_max,
+                              weight_count, weight_sum, weight_min, weight_max,
+                              steps_days, steps_sum, steps_min, steps_max)
+SELECT d.user_id, 'WEEK', d.period_start, d.log_count,
+       d.sleep_hours_sum, d.sleep_hours_min, d.sleep_hours_max,
+       d.mood_level_sum, d.mood_level_min, d.mood_level_max,
+       COALESCE(w.weight_count, 0), w.weight_sum, w.weight_min, w.weight_max,
+       COALESCE(s.steps_days, 0), s.steps_sum, s.steps_min, s.steps_max
+FROM (SELECT user_id, DATE_SUB(log_date, INTERVAL WEEKDAY(log_date) DAY) AS period_start, COUNT(*) AS log_count,
+             SUM(sleep_hours) AS sleep_hours_sum, MIN(sleep_hours) AS sleep_hours_min, MAX(sleep_hours) AS sleep_hours_max,
+             SUM(mood_level) AS mood_level_sum, MIN(mood_level) AS mood_level_min, MAX(mood_level) AS mood_level_max
+      FROM daily_log
+      GROUP BY user_id, DATE_SUB(log_date, INTERVAL WEEKDAY(log_date) DAY)) d
+         LEFT JOIN (SELECT user_id, DATE_SUB(log_date, INTERVAL WEEKDAY(log_date) DAY) AS period_start, COUNT(*) AS weight_count,
+                           SUM(weight) AS weight_sum, MIN(weight) AS weight_min, MAX(weight) AS weight_max
+                    FROM body_metrics
+                    GROUP BY user_id, DATE_SUB(log_date, INTERVAL WEEKDAY(log_date) DAY)) w
+                   ON w.user_id = d.user_id AND w.period_start = d.period_start
+         LEFT JOIN (SELECT user_id, period_start,
+                           COUNT(daily_steps) AS steps_days, SUM(daily_steps) AS steps_sum, MIN(daily_steps) AS steps_min, MAX(daily_steps) AS steps_max
+                    FROM (SELECT user_id, DATE_SUB(log_date, INTERVAL WEEKDAY(log_date) DAY) AS period_start, SUM(steps) AS daily_steps
+                          FROM activity
+                          GROUP BY user_id, log_date) a
+                    GROUP BY user_id, period_start) s
+                   ON s.user_id = d.user_id AND s.period_start = d.period_start;
+
+INSERT INTO daily_log_rollup (user_id, period_type, period_start, log_count,
+                              sleep_hours_sum, sleep_hours_min, sleep_hours_max,
+                              mood_level_sum, mood_level_min, mood_level_max,
+                              weight_count, weight_sum, weight_min, weight_max,
+                              steps_days, steps_sum, steps_min, steps_max)
+SELECT d.user_id, 'MONTH', d.period_start, d.log_count,
+       d.sleep_hours_sum, d.sleep_hours_min, d.sleep_hours_max,
+       d.mood_level_sum, d.mood_level_min, d.mood_level_max,
+       COALESCE(w.weight_count, 0), w.weight_sum, w.weight_min, w.weight_max,
+       COALESCE(s.steps_days, 0), s.steps_sum, s.steps_min, s.steps_max
+FROM (SELECT user_id, DATE_SUB(log_date, INTERVAL DAYOFMONTH(log_date) - 1 DAY) AS period_start, COUNT(*) AS log_count,
+             SUM(sleep_hours) AS sleep_hours_sum, MIN(sleep_hours) AS sleep_hours_min, MAX(sleep_hours) AS sleep_hours_max,
+             SUM(mood_level) AS mood_level_sum, MIN(mood_level) AS mood_level_min, MAX(mood_level) AS mood_level_max
+      FROM daily_log
+      GROUP BY user_id, DATE_SUB(log_date, INTERVAL DAYOFMONTH(log_date) - 1 DAY)) d
+         LEFT JOIN (SELECT user_id, DATE_SUB(log_date, INTERVAL DAYOFMONTH(log_date) - 1 DAY) AS period_start, COUNT(*) AS weight_count,
+                           SUM(weight) AS weight_sum, MIN(weight) AS weight_min, MAX(weight) AS weight_max
+                    FROM body_metrics
+                    GROUP BY user_id, DATE_SUB(log_date, INTERVAL DAYOFMONTH(log_date) - 1 DAY)) w
+                   ON w.user_id = d.user_id AND w.period_start = d.period_start
+         LEFT JOIN (SELECT user_id, period_start,
+                           COUNT(daily_steps) AS steps_days, SUM(daily_steps) AS steps_sum, MIN(daily_steps) AS steps_min, MAX(daily_steps) AS steps_max
+                    FROM (SELECT user_id, DATE_SUB(log_date, INTERVAL DAYOFMONTH(log_date) - 1 DAY) AS period_start, SUM(steps) AS daily_steps
+                          FROM activity
+                          GROUP BY user_id, log_date) a
+                    GROUP BY user_id, period_start) s
+                   ON s.user_id = d.user_id AND s.period_start = d.period_start;
@@ -1,8 +1,6 @@
--- -- データベース作成
--- CREATE DATABASE helthlog;
---
--- -- データベースを使用
--- USE helthlog;
+-- ライフログ関連テーブル（PostgreSQL）
+-- 子テーブルの主キーは (user_id, log_date, 日内のキー) の順とし、
+-- Mapperの「ユーザー + 日付（または日付範囲）」での検索・更新・削除をすべて主キーの左端一致で引けるようにする。
 
 -- ユーザーごとのライフログ記録テーブル
 CREATE TABLE daily_log
@@ -11,7 +9,7 @@ CREATE TABLE daily_log
     log_date    DATE             NOT NULL,
     sleep_hours DOUBLE PRECISION NOT NULL,
     mood_level  INT              NOT NULL,
-    PRIMARY KEY (user_id, log_date)
+    CONSTRAINT pk_daily_log PRIMARY KEY (user_id, log_date)
 );
 
 -- 体組成（体重など）
@@ -23,7 +21,7 @@ CREATE TABLE body_metrics
     body_fat_percentage DOUBLE PRECISION NOT NULL,
     muscle_mass         DOUBLE PRECISION NOT NULL,
     measured_at         TIMESTAMP        NOT NULL,
-    PRIMARY KEY (user_id, log_date, measured_at)
+    CONSTRAINT pk_body_metrics PRIMARY KEY (user_id, log_date, measured_at)
 );
 
 -- 活動記録（運動）
@@ -37,7 +35,7 @@ CREATE TABLE activity
     distance_km         DOUBLE PRECISION,
     steps               INT,
     calories_burned     INT,
-    PRIMARY KEY (user_id, log_date, started_at)
+    CONSTRAINT pk_activity PRIMARY KEY (user_id, log_date, started_at)
 );
 
 -- 食事記録
@@ -49,7 +47,7 @@ CREATE TABLE meal
     content   TEXT   NOT NULL,
     calories  INT,
     photo_url VARCHAR(255),
-    PRIMARY KEY (user_id, log_date, time)
+    CONSTRAINT pk_meal PRIMARY KEY (user_id, log_date, time)
 );
 
 -- メンタルメモ
@@ -61,6 +59,5 @@ CREATE TABLE mental_note
     stress_level     INT,
     motivation_level INT,
     note             TEXT,
-    PRIMARY KEY (user_id, log_date, recorded_at)
+    CONSTRAINT pk_mental_note PRIMARY KEY (user_id, log_date, recorded_at)
 );
-
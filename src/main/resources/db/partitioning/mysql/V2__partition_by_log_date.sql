@@ -0,0 +1,55 @@
+-- log_dateによる年単位のレンジパーティショニング（MySQL・任意）
+-- spring.flyway.locations に classpath:db/partitioning/{vendor} を追加した場合のみ適用される。
+-- V3以降を適用済みのデータベースに後から追加する場合は spring.flyway.out-of-order=true を設定すること。
+-- 主キーはすべてlog_dateを含むため、そのままパーティションキーにできる。
+-- 年が変わる前に pmax を REORGANIZE PARTITION で分割し、翌年分のパーティションを追加すること。
+
+ALTER TABLE daily_log
+    PARTITION BY RANGE COLUMNS (log_date) (
+        PARTITION p2023 VALUES LESS THAN ('2024-01-01'),
+        PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+ALTER TABLE body_metrics
+    PARTITION BY RANGE COLUMNS (log_date) (
+        PARTITION p2023 VALUES LESS THAN ('2024-01-01'),
+        PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+ALTER TABLE activity
+    PARTITION BY RANGE COLUMNS (log_date) (
+        PARTITION p2023 VALUES LESS THAN ('2024-01-01'),
+        PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+ALTER TABLE meal
+    PARTITION BY RANGE COLUMNS (log_date) (
+        PARTITION p2023 VALUES LESS THAN ('2024-01-01'),
+        PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+ALTER TABLE mental_note
+    PARTITION BY RANGE COLUMNS (log_date) (
+        PARTITION p2023 VALUES LESS THAN ('2024-01-01'),
+        PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
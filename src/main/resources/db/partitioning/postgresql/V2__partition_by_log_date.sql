@@ -0,0 +1,130 @@
+-- log_dateによる年単位のレンジパーティショニング（PostgreSQL・任意）
+-- spring.flyway.locations に classpath:db/partitioning/{vendor} を追加した場合のみ適用される。
+-- V3以降を適用済みのデータベースに後から追加する場合は spring.flyway.out-of-order=true を設定すること。
+-- 既存テーブルはパーティションテーブルへ変換できないため、退避 → 作り直し → 移送の順で置き換える。
+-- 範囲外の日付はDEFAULTパーティションに入る。年が変わる前に翌年分のパーティションを追加すること。
+
+-- daily_log
+ALTER TABLE daily_log RENAME TO daily_log_unpartitioned;
+ALTER TABLE daily_log_unpartitioned RENAME CONSTRAINT pk_daily_log TO pk_daily_log_unpartitioned;
+
+CREATE TABLE daily_log
+(
+    user_id     BIGINT           NOT NULL,
+    log_date    DATE             NOT NULL,
+    sleep_hours DOUBLE PRECISION NOT NULL,
+    mood_level  INT              NOT NULL,
+    CONSTRAINT pk_daily_log PRIMARY KEY (user_id, log_date)
+) PARTITION BY RANGE (log_date);
+
+CREATE TABLE daily_log_p2023 PARTITION OF daily_log FOR VALUES FROM ('2023-01-01') TO ('2024-01-01');
+CREATE TABLE daily_log_p2024 PARTITION OF daily_log FOR VALUES FROM ('2024-01-01') TO ('2025-01-01');
+CREATE TABLE daily_log_p2025 PARTITION OF daily_log FOR VALUES FROM ('2025-01-01') TO ('2026-01-01');
+CREATE TABLE daily_log_p2026 PARTITION OF daily_log FOR VALUES FROM ('2026-01-01') TO ('2027-01-01');
+CREATE TABLE daily_log_p2027 PARTITION OF daily_log FOR VALUES FROM ('2027-01-01') TO ('2028-01-01');
+CREATE TABLE daily_log_default PARTITION OF daily_log DEFAULT;
+
+INSERT INTO daily_log SELECT * FROM daily_log_unpartitioned;
+DROP TABLE daily_log_unpartitioned;
+
+-- body_metrics
+ALTER TABLE body_metrics RENAME TO body_metrics_unpartitioned;
+ALTER TABLE body_metrics_unpartitioned RENAME CONSTRAINT pk_body_metrics TO pk_body_metrics_unpartitioned;
+
+CREATE TABLE body_metrics
+(
+    user_id             BIGINT           NOT NULL,
+    log_date            DATE             NOT NULL,
+    weight              DOUBLE PRECISION NOT NULL,
+    body_fat_percentage DOUBLE PRECISION NOT NULL,
+    muscle_mass         DOUBLE PRECISION NOT NULL,
+    measured_at         TIMESTAMP        NOT NULL,
+    CONSTRAINT pk_body_metrics PRIMARY KEY (user_id, log_date, measured_at)
+) PARTITION BY RANGE (log_date);
+
+CREATE TABLE body_metrics_p2023 PARTITION OF body_metrics FOR VALUES FROM ('2023-01-01') TO ('2024-01-01');
+CREATE TABLE body_metrics_p2024 PARTITION OF body_metrics FOR VALUES FROM ('2024-01-01') TO ('2025-01-01');
+CREATE TABLE body_metrics_p2025 PARTITION OF body_metrics FOR VALUES FROM ('2025-01-01') TO ('2026-01-01');
+CREATE TABLE body_metrics_p2026 PARTITION OF body_metrics FOR VALUES FROM ('2026-01-01') TO ('2027-01-01');
+CREATE TABLE body_metrics_p2027 PARTITION OF body_metrics FOR VALUES FROM ('2027-01-01') TO ('2028-01-01');
+CREATE TABLE body_metrics_default PARTITION OF body_metrics DEFAULT;
+
+INSERT INTO body_metrics SELECT * FROM body_metrics_unpartitioned;
+DROP TABLE body_metrics_unpartitioned;
+
+-- activity
+ALTER TABLE activity RENAME TO activity_unpartitioned;
+ALTER TABLE activity_unpartitioned RENAME CONSTRAINT pk_activity TO pk_activity_unpartitioned;
+
+CREATE TABLE activity
+(
+    user_id             BIGINT      NOT NULL,
+    log_date            DATE        NOT NULL,
+    type                VARCHAR(50) NOT NULL,
+    started_at          TIMESTAMP   NOT NULL,
+    duration_in_minutes INT         NOT NULL,
+    distance_km         DOUBLE PRECISION,
+    steps               INT,
+    calories_burned     INT,
+    CONSTRAINT pk_activity PRIMARY KEY (user_id, log_date, started_at)
+) PARTITION BY RANGE (log_date);
+
+CREATE TABLE activity_p2023 PARTITION OF activity FOR VALUES FROM ('2023-01-01') TO ('2024-01-01');
+CREATE TABLE activity_p2024 PARTITION OF activity FOR VALUES FROM ('2024-01-01') TO ('2025-01-01');
+CREATE TABLE activity_p2025 PARTITION OF activity FOR VALUES FROM ('2025-01-01') TO ('2026-01-01');
+CREATE TABLE activity_p2026 PARTITION OF activity FOR VALUES FROM ('2026-01-01') TO ('2027-01-01');
+CREATE TABLE activity_p2027 PARTITION OF activity FOR VALUES FROM ('2027-01-01') TO ('2028-01-01');
+CREATE TABLE activity_default PARTITION OF activity DEFAULT;
+
+INSERT INTO activity SELECT * FROM activity_unpartitioned;
+DROP TABLE activity_unpartitioned;
+
+-- meal
+ALTER TABLE meal RENAME TO meal_unpartitioned;
+ALTER TABLE meal_unpartitioned RENAME CONSTRAINT pk_meal TO pk_meal_unpartitioned;
+
+CREATE TABLE meal
+(
+    user_id   BIGINT NOT NULL,
+    log_date  DATE   NOT NULL,
+    time      TIME   NOT NULL,
+    content   TEXT   NOT NULL,
+    calories  INT,
+    photo_url VARCHAR(255),
+    CONSTRAINT pk_meal PRIMARY KEY (user_id, log_date, time)
+) PARTITION BY RANGE (log_date);
+
+CREATE TABLE meal_p2023 PARTITION OF meal FOR VALUES FROM ('2023-01-01') TO ('2024-01-01');
+CREATE TABLE meal_p2024 PARTITION OF meal FOR VALUES FROM ('2024-01-01') TO ('2025-01-01');
+CREATE TABLE meal_p2025 PARTITION OF meal FOR VALUES FROM ('2025-01-01') TO ('2026-01-01');
+CREATE TABLE meal_p2026 PARTITION OF meal FOR VALUES FROM ('2026-01-01') TO ('2027-01-01');
+CREATE TABLE meal_p2027 PARTITION OF meal FOR VALUES FROM ('2027-01-01') TO ('2028-01-01');
+CREATE TABLE meal_default PARTITION OF meal DEFAULT;
+
+INSERT INTO meal SELECT * FROM meal_unpartitioned;
+DROP TABLE meal_unpartitioned;
+
+-- mental_note
+ALTER TABLE mental_note RENAME TO mental_note_unpartitioned;
+ALTER TABLE mental_note_unpartitioned RENAME CONSTRAINT pk_mental_note TO pk_mental_note_unpartitioned;
+
+CREATE TABLE mental_note
+(
+    user_id          BIGINT    NOT NULL,
+    log_date         DATE      NOT NULL,
+    recorded_at      TIMESTAMP NOT NULL,
+    stress_level     INT,
+    motivation_level INT,
+    note             TEXT,
+    CONSTRAINT pk_mental_note PRIMARY KEY (user_id, log_date, recorded_at)
+) PARTITION BY RANGE (log_date);
+
+CREATE TABLE mental_note_p2023 PARTITION OF mental_note FOR VALUES FROM ('2023-01-01') TO ('2024-01-01');
+CREATE TABLE mental_note_p2024 PARTITION OF mental_note FOR VALUES FROM ('2024-01-01') TO ('2025-01-01');
+CREATE TABLE mental_note_p2025 PARTITION OF mental_note FOR VALUES FROM ('2025-01-01') TO ('2026-01-01');
+CREATE TABLE mental_note_p2026 PARTITION OF mental_note FOR VALUES FROM ('2026-01-01') TO ('2027-01-01');
+CREATE TABLE mental_note_p2027 PARTITION OF mental_note FOR VALUES FROM ('2027-01-01') TO ('2028-01-01');
+CREATE TABLE mental_note_default PARTITION OF mental_note DEFAULT;
+
+INSERT INTO mental_note SELECT * FROM mental_note_unpartitioned;
+DROP TABLE mental_note_unpartitioned;
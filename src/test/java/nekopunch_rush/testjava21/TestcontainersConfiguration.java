@@ -13,7 +13,10 @@ public class TestcontainersConfiguration {
 	@Bean
 	@ServiceConnection
 	MySQLContainer<?> mysqlContainer() {
-		return new MySQLContainer<>(DockerImageName.parse("mysql:8"));
+		return new MySQLContainer<>(DockerImageName.parse("mysql:8"))
+				.withUrlParam("allowMultiQueries", "true")
+				.withUrlParam("rewriteBatchedStatements", "true")
+				.withUrlParam("useCursorFetch", "true");
 	}
 
 //	@Bean
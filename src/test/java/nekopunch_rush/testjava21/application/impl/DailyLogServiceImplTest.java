@@ -1,6 +1,9 @@
 package nekopunch_rush.testjava21.application.impl;
 
+import nekopunch_rush.testjava21.application.DailyLogPage;
 import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
 import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
 import org.apache.ibatis.javassist.NotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -44,11 +47,12 @@ class DailyLogServiceImplTest {
                 null,
                 null,
                 null);
-        when(repository.existsByUserIdAndLogDate(1L, LocalDate.of(2024, 6, 1))).thenReturn(false);
+        when(repository.saveIfAbsent(log)).thenReturn(true);
 
         service.register(log);
 
-        verify(repository).save(log);
+        verify(repository).saveIfAbsent(log);
+        verify(repository, never()).existsByUserIdAndLogDate(any(), any());
     }
 
     @Test
@@ -63,7 +67,7 @@ class DailyLogServiceImplTest {
                 null,
                 null,
                 null);
-        when(repository.existsByUserIdAndLogDate(1L, LocalDate.of(2024, 6, 1))).thenReturn(true);
+        when(repository.saveIfAbsent(log)).thenReturn(false);
 
         assertThrows(IllegalStateException.class, () -> service.register(log));
         verify(repository, never()).save(any());
@@ -83,21 +87,12 @@ class DailyLogServiceImplTest {
                 null,
                 null,
                 null);
-        when(repository.findByUserIdAndLogDate(userId, date)).thenReturn(Optional.of(
-                DailyLog.of(
-                        userId, 
-                        date, 
-                        7.0, 
-                        3, 
-                        null,
-                        null,
-                        null,
-                        null)));
-        when(repository.existsByUserIdAndLogDate(userId, date)).thenReturn(true);
+        when(repository.update(date, updated)).thenReturn(true);
 
         service.update(date, updated);
 
         verify(repository).update(date, updated);
+        verify(repository, never()).existsByUserIdAndLogDate(any(), any());
     }
 
     @Test
@@ -114,10 +109,9 @@ class DailyLogServiceImplTest {
                 null,
                 null,
                 null);
-        when(repository.findByUserIdAndLogDate(userId, date)).thenReturn(Optional.empty());
+        when(repository.update(date, updated)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> service.update(date, updated));
-        verify(repository, never()).update(any(), any());
     }
 
     @Test
@@ -125,11 +119,12 @@ class DailyLogServiceImplTest {
     void delete_success() throws Exception {
         Long userId = 1L;
         LocalDate date = LocalDate.of(2024, 6, 1);
-        when(repository.existsByUserIdAndLogDate(userId, date)).thenReturn(true);
+        when(repository.deleteByUserIdAndLogDate(userId, date)).thenReturn(true);
 
         service.delete(userId, date);
 
         verify(repository).deleteByUserIdAndLogDate(userId, date);
+        verify(repository, never()).existsByUserIdAndLogDate(any(), any());
     }
 
     @Test
@@ -137,10 +132,9 @@ class DailyLogServiceImplTest {
     void delete_notFound() {
         Long userId = 1L;
         LocalDate date = LocalDate.of(2024, 6, 1);
-        when(repository.existsByUserIdAndLogDate(userId, date)).thenReturn(false);
+        when(repository.deleteByUserIdAndLogDate(userId, date)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> service.delete(userId, date));
-        verify(repository, never()).deleteByUserIdAndLogDate(any(), any());
     }
 
     @Test
@@ -205,4 +199,81 @@ class DailyLogServiceImplTest {
 
         assertEquals(logs, result);
     }
+
+    @Test
+    @DisplayName("findMonthlyWithDetailsByUserId: 指定月の子要素込みデータ一覧が取得できる")
+    void findMonthlyWithDetailsByUserId_success() {
+        Long userId = 1L;
+        YearMonth ym = YearMonth.of(2024, 6);
+        List<DailyLog> logs = List.of(
+                DailyLog.of(
+                        userId,
+                        LocalDate.of(2024, 6, 1),
+                        7.0,
+                        3,
+                        List.of(),
+                        List.of(),
+                        List.of(),
+                        List.of()));
+        when(repository.findWithDetailsByUserIdAndMonth(userId, ym)).thenReturn(logs);
+
+        List<DailyLog> result = service.findMonthlyWithDetailsByUserId(userId, ym);
+
+        assertEquals(logs, result);
+    }
+
+    @Test
+    @DisplayName("findRollupsByUserId: 指定期間の週次集計が取得できる")
+    void findRollupsByUserId_success() {
+        Long userId = 1L;
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 1);
+        List<DailyLogRollup> rollups = List.of(
+                DailyLogRollup.of(userId, RollupPeriod.WEEK, LocalDate.of(2024, 1, 1), 7,
+                        49.0, 6.0, 8.0, 28, 3, 5, 0, null, null, null, 7, 56000L, 5000L, 11000L));
+        when(repository.findRollupsByUserIdAndPeriodRange(userId, RollupPeriod.WEEK, from, to)).thenReturn(rollups);
+
+        List<DailyLogRollup> result = service.findRollupsByUserId(userId, RollupPeriod.WEEK, from, to);
+
+        assertEquals(rollups, result);
+        assertEquals(7.0, result.get(0).getSleepHoursAverage());
+        assertTrue(result.get(0).getWeightAverage().isEmpty());
+        assertEquals(8000.0, result.get(0).getStepsAverage().getAsDouble());
+    }
+
+    @Test
+    @DisplayName("findHistoryByUserId: 続きがある場合は最後の日付を次のページの位置として返す")
+    void findHistoryByUserId_hasNext() {
+        Long userId = 1L;
+        LocalDate to = LocalDate.of(2024, 7, 1);
+        LocalDate before = LocalDate.of(2024, 6, 10);
+        List<DailyLog> logs = List.of(
+                DailyLog.of(userId, LocalDate.of(2024, 6, 9), 7.0, 3, List.of(), List.of(), List.of(), List.of()),
+                DailyLog.of(userId, LocalDate.of(2024, 6, 8), 6.5, 4, List.of(), List.of(), List.of(), List.of()),
+                DailyLog.of(userId, LocalDate.of(2024, 6, 7), 8.0, 5, List.of(), List.of(), List.of(), List.of()));
+        // 上限（to）とカーソルのうち前の方から、1件多く読む
+        when(repository.findPageByUserId(userId, null, before, 3)).thenReturn(logs);
+
+        DailyLogPage page = service.findHistoryByUserId(userId, null, to, before, 2);
+
+        assertEquals(logs.subList(0, 2), page.logs());
+        assertTrue(page.hasNext());
+        assertEquals(LocalDate.of(2024, 6, 8), page.nextBefore());
+    }
+
+    @Test
+    @DisplayName("findHistoryByUserId: 最後のページでは次の位置を返さない")
+    void findHistoryByUserId_lastPage() {
+        Long userId = 1L;
+        LocalDate from = LocalDate.of(2024, 6, 1);
+        LocalDate to = LocalDate.of(2024, 7, 1);
+        List<DailyLog> logs = List.of(
+                DailyLog.of(userId, LocalDate.of(2024, 6, 2), 7.0, 3, List.of(), List.of(), List.of(), List.of()));
+        when(repository.findPageByUserId(userId, from, to, 3)).thenReturn(logs);
+
+        DailyLogPage page = service.findHistoryByUserId(userId, from, to, null, 2);
+
+        assertEquals(logs, page.logs());
+        assertFalse(page.hasNext());
+    }
 }
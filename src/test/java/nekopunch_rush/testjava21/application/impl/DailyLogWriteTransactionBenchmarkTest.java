@@ -0,0 +1,167 @@
+package nekopunch_rush.testjava21.application.impl;
+
+import nekopunch_rush.testjava21.TestcontainersConfiguration;
+import nekopunch_rush.testjava21.application.DailyLogService;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.Meal;
+import nekopunch_rush.testjava21.infrastructure.repository.config.DailyLogRepositoryProperties;
+import nekopunch_rush.testjava21.infrastructure.repository.impl.DailyLogRepositoryImpl;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogMapper;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogRollupMapper;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.RelatedEntitiesMapper;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 更新1リクエストあたりのコミット数とレイテンシを、トランザクションなし（文ごとの自動コミット）と
+ * サービス層の1トランザクションで比較する。
+ * <p>
+ * 各リクエストは子テーブルの削除・更新・追加を伴う更新で、複数スレッドから同時に実行する。
+ * コミット数はMySQLの Handler_commit の増分から求める。{@code ./gradlew benchmark} で実行する。
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class DailyLogWriteTransactionBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 200;
+    private static final LocalDate LOG_DATE = LocalDate.of(2025, 4, 1);
+
+    @Autowired
+    private DailyLogService dailyLogService;
+
+    @Autowired
+    private DailyLogMapper dailyLogMapper;
+
+    @Autowired
+    private RelatedEntitiesMapper relatedEntitiesMapper;
+
+    @Autowired
+    private DailyLogRollupMapper rollupMapper;
+
+    @Autowired
+    private DailyLogRepositoryProperties properties;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("更新: 自動コミットとサービス層の1トランザクションの比較")
+    void update() throws Exception {
+        // Springのプロキシを通さずに呼ぶと@Transactionalが効かず、各ステートメントが自動コミットされる
+        DailyLogRepositoryImpl unproxied = new DailyLogRepositoryImpl(
+                dailyLogMapper, relatedEntitiesMapper, rollupMapper, properties, sqlSessionFactory);
+        Result autocommit = run("autocommit", 1_000L, unproxied::update);
+        Result transactional = run("transactional", 2_000L, dailyLogService::update);
+
+        autocommit.print();
+        transactional.print();
+
+        // 1トランザクションにまとめると、リクエストあたりのコミットはほぼ1回になる
+        assertThat(transactional.commitsPerRequest()).isLessThan(autocommit.commitsPerRequest() / 2);
+    }
+
+    private Result run(String label, long firstUserId, UpdateOperation operation) throws Exception {
+        for (int thread = 0; thread < THREADS; thread++) {
+            dailyLogService.register(version(firstUserId + thread, false));
+        }
+
+        long commitsBefore = handlerCommit();
+        long start = System.nanoTime();
+        List<Future<long[]>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int thread = 0; thread < THREADS; thread++) {
+                long userId = firstUserId + thread;
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[REQUESTS_PER_THREAD];
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        DailyLog log = version(userId, i % 2 == 0);
+                        long requestStart = System.nanoTime();
+                        operation.update(LOG_DATE, log);
+                        latencies[i] = System.nanoTime() - requestStart;
+                    }
+                    return latencies;
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long commits = handlerCommit() - commitsBefore;
+
+        long[] latencies = futures.stream()
+                .flatMapToLong(future -> Arrays.stream(get(future)))
+                .sorted()
+                .toArray();
+        return new Result(label, latencies, commits, elapsed);
+    }
+
+    /**
+     * 交互に適用すると、食事の削除・更新・追加がすべて発生する2つの版を返す。
+     */
+    private static DailyLog version(long userId, boolean alternate) {
+        List<Meal> meals = alternate
+                ? List.of(Meal.of(LocalTime.of(8, 0), "toast", 350, null), Meal.of(LocalTime.of(19, 0), "curry", 800, null))
+                : List.of(Meal.of(LocalTime.of(8, 0), "toast", 300, null), Meal.of(LocalTime.of(12, 0), "ramen", 700, null));
+        return DailyLog.of(userId, LOG_DATE, alternate ? 6.5 : 7.0, alternate ? 4 : 5,
+                List.of(), List.of(), meals, List.of());
+    }
+
+    private long handlerCommit() {
+        return Long.parseLong(jdbcTemplate.queryForObject(
+                "SELECT VARIABLE_VALUE FROM performance_schema.global_status WHERE VARIABLE_NAME = 'Handler_commit'",
+                String.class));
+    }
+
+    private static long[] get(Future<long[]> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface UpdateOperation {
+        void update(LocalDate logDate, DailyLog log) throws Exception;
+    }
+
+    private record Result(String label, long[] sortedLatencies, long commits, long elapsedNanos) {
+
+        double commitsPerRequest() {
+            return (double) commits / sortedLatencies.length;
+        }
+
+        void print() {
+            System.out.printf("[%s] requests=%d threads=%d commits/request=%.2f throughput=%.0f req/s%n",
+                    label, sortedLatencies.length, THREADS, commitsPerRequest(),
+                    sortedLatencies.length / (elapsedNanos / 1_000_000_000.0));
+            System.out.printf("[%s] latency p50=%.2f ms p95=%.2f ms p99=%.2f ms%n",
+                    label, percentile(0.50), percentile(0.95), percentile(0.99));
+        }
+
+        private double percentile(double p) {
+            int index = Math.min(sortedLatencies.length - 1, (int) Math.ceil(p * sortedLatencies.length) - 1);
+            return sortedLatencies[index] / 1_000_000.0;
+        }
+    }
+}
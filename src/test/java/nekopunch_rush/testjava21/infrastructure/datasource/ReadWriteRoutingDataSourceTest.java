@@ -0,0 +1,46 @@
+package nekopunch_rush.testjava21.infrastructure.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * ReadWriteRoutingDataSourceのテストクラス
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource();
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testDetermineCurrentLookupKey_readWrite() {
+        assertEquals(DataSourceType.PRIMARY, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testDetermineCurrentLookupKey_readOnly() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(DataSourceType.REPLICA, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testDetermineCurrentLookupKey_pinnedToPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Object key = DataSourceRoutingContext.onPrimary(() ->
+                // 入れ子にしても外側の指定が終わるまではプライマリのまま
+                DataSourceRoutingContext.onPrimary(() -> dataSource.determineCurrentLookupKey()));
+
+        assertEquals(DataSourceType.PRIMARY, key);
+        assertFalse(DataSourceRoutingContext.isPrimaryPinned());
+        assertEquals(DataSourceType.REPLICA, dataSource.determineCurrentLookupKey());
+    }
+}
@@ -0,0 +1,111 @@
+package nekopunch_rush.testjava21.infrastructure.datasource;
+
+import nekopunch_rush.testjava21.application.DailyLogService;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import org.apache.ibatis.javassist.NotFoundException;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * プライマリ/レプリカの振り分けを2つのMySQLコンテナで確認する。
+ * <p>
+ * レプリケーションは行わず、レプリカにだけ存在する行・プライマリにだけ存在する行を用意して
+ * どちらから読んだかを判別する。
+ */
+@Testcontainers
+@SpringBootTest
+class ReadWriteRoutingIntegrationTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2025, 4, 1);
+
+    @Container
+    static MySQLContainer<?> primary = new MySQLContainer<>("mysql:8")
+            .withUrlParam("allowMultiQueries", "true")
+            .withUrlParam("useCursorFetch", "true");
+
+    @Container
+    static MySQLContainer<?> replica = new MySQLContainer<>("mysql:8")
+            .withUrlParam("allowMultiQueries", "true")
+            .withUrlParam("useCursorFetch", "true");
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("lifelog.datasource.routing.enabled", () -> "true");
+        registry.add("lifelog.datasource.routing.read-your-writes-window", () -> "1s");
+        registry.add("lifelog.datasource.primary.jdbc-url", primary::getJdbcUrl);
+        registry.add("lifelog.datasource.primary.username", primary::getUsername);
+        registry.add("lifelog.datasource.primary.password", primary::getPassword);
+        registry.add("lifelog.datasource.replica.jdbc-url", replica::getJdbcUrl);
+        registry.add("lifelog.datasource.replica.username", replica::getUsername);
+        registry.add("lifelog.datasource.replica.password", replica::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        // プライマリはアプリケーション起動時のFlywayで作成される。レプリカは複製の代わりに同じマイグレーションを流す
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .locations("classpath:db/migration/mysql")
+                .load()
+                .migrate();
+    }
+
+    @Autowired
+    private DailyLogService dailyLogService;
+
+    @Test
+    @DisplayName("読み取り専用のサービスメソッドはレプリカから読む")
+    void readOnlyGoesToReplica() throws Exception {
+        jdbc(primary).update("INSERT INTO daily_log (user_id, log_date, sleep_hours, mood_level) VALUES (1, ?, 6.0, 3)", LOG_DATE);
+        jdbc(replica).update("INSERT INTO daily_log (user_id, log_date, sleep_hours, mood_level) VALUES (1, ?, 9.0, 3)", LOG_DATE);
+
+        DailyLog log = dailyLogService.findByUserIdAndDate(1L, LOG_DATE);
+
+        assertThat(log.getSleepHours()).isEqualTo(9.0);
+    }
+
+    @Test
+    @DisplayName("書き込みはプライマリへ送られ、直後の同じユーザーの読み取りはプライマリから読む")
+    void readYourWrites() throws Exception {
+        DailyLog log = DailyLog.of(2L, LOG_DATE, 7.5, 4, List.of(), List.of(), List.of(), List.of());
+
+        dailyLogService.register(log);
+
+        assertThat(count(primary, 2L)).isEqualTo(1);
+        assertThat(count(replica, 2L)).isZero();
+        assertThat(dailyLogService.findByUserIdAndDate(2L, LOG_DATE).getSleepHours()).isEqualTo(7.5);
+
+        // 期間が過ぎるとレプリカへ戻る（レプリカには複製されていないため見つからない）
+        Thread.sleep(1_500);
+        assertThatThrownBy(() -> dailyLogService.findByUserIdAndDate(2L, LOG_DATE))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private static JdbcTemplate jdbc(MySQLContainer<?> container) {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                container.getJdbcUrl(), container.getUsername(), container.getPassword()));
+    }
+
+    private static int count(MySQLContainer<?> container, Long userId) {
+        Integer count = jdbc(container).queryForObject(
+                "SELECT COUNT(*) FROM daily_log WHERE user_id = ?", Integer.class, userId);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,74 @@
+package nekopunch_rush.testjava21.infrastructure.repository;
+
+import nekopunch_rush.testjava21.domain.lifelog.Activity;
+import nekopunch_rush.testjava21.domain.lifelog.BodyMetrics;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.Meal;
+import nekopunch_rush.testjava21.domain.lifelog.MentalNote;
+import nekopunch_rush.testjava21.domain.lifelog.valueobject.BodyFatPercentage;
+import nekopunch_rush.testjava21.domain.lifelog.valueobject.CaloriesBurned;
+import nekopunch_rush.testjava21.domain.lifelog.valueobject.MeasuredAt;
+import nekopunch_rush.testjava21.domain.lifelog.valueobject.MuscleMass;
+import nekopunch_rush.testjava21.domain.lifelog.valueobject.Steps;
+import nekopunch_rush.testjava21.domain.lifelog.valueobject.Weight;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogMapperSupport;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 保存先・キャッシュ・バイナリ形式のテストで共用する、子要素をすべて含む1日分のログ。
+ * <p>
+ * 秒未満を含む日時、null と非nullの任意項目（写真URL・メモ）、マルチバイトの文字列を含め、
+ * 保存して読み戻した結果が元と一致することを {@link #assertSameLog} で確認できるようにしている。
+ */
+public final class DailyLogFixtures {
+
+    private DailyLogFixtures() {
+    }
+
+    public static DailyLog detailedLog(Long userId, LocalDate logDate) {
+        return detailedLog(userId, logDate, 7.5);
+    }
+
+    public static DailyLog detailedLog(Long userId, LocalDate logDate, double sleepHours) {
+        return detailedLog(userId, logDate, sleepHours, List.of(
+                Meal.of(LocalTime.of(8, 0), "トースト", 350, null),
+                Meal.of(LocalTime.of(12, 30), "ラーメン", 800, "https://example.com/ramen.jpg"),
+                Meal.of(LocalTime.of(19, 0), "カレー", 900, null)));
+    }
+
+    /**
+     * 食事を meals 件（8時から1時間おき）にしたログ。
+     */
+    public static DailyLog detailedLogWithMeals(Long userId, LocalDate logDate, int meals) {
+        return detailedLog(userId, logDate, 7.5, IntStream.range(0, meals)
+                .mapToObj(i -> Meal.of(LocalTime.of(8 + i, 0), "meal" + i, 400, null))
+                .toList());
+    }
+
+    /**
+     * 子要素を含めて同じ内容であることを確認する（DailyLogはequalsを持たないため、エンティティに変換して比べる）。
+     */
+    public static void assertSameLog(DailyLog expected, DailyLog actual) {
+        assertEquals(DailyLogMapperSupport.toEntity(expected), DailyLogMapperSupport.toEntity(actual));
+        assertEquals(DailyLogMapperSupport.toBodyMetricsEntities(expected), DailyLogMapperSupport.toBodyMetricsEntities(actual));
+        assertEquals(DailyLogMapperSupport.toActivityEntities(expected), DailyLogMapperSupport.toActivityEntities(actual));
+        assertEquals(DailyLogMapperSupport.toMealEntities(expected), DailyLogMapperSupport.toMealEntities(actual));
+        assertEquals(DailyLogMapperSupport.toMentalNoteEntities(expected), DailyLogMapperSupport.toMentalNoteEntities(actual));
+    }
+
+    private static DailyLog detailedLog(Long userId, LocalDate logDate, double sleepHours, List<Meal> meals) {
+        LocalDateTime morning = logDate.atTime(7, 0, 30, 500);
+        return DailyLog.of(userId, logDate, sleepHours, 6,
+                List.of(BodyMetrics.of(Weight.of(60.5), BodyFatPercentage.of(20.0), MuscleMass.of(30.0), MeasuredAt.of(morning))),
+                List.of(Activity.of("ウォーキング", MeasuredAt.of(morning.plusHours(1)), 30, 2.5, Steps.of(4000), CaloriesBurned.of(120))),
+                meals,
+                List.of(MentalNote.of(morning.plusHours(14), 3, 7, null)));
+    }
+}
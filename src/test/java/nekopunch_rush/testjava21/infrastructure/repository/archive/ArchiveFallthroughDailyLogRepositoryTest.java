@@ -0,0 +1,128 @@
+package nekopunch_rush.testjava21.infrastructure.repository.archive;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ArchiveFallthroughDailyLogRepositoryのテストクラス
+ */
+class ArchiveFallthroughDailyLogRepositoryTest {
+
+    private static final Long USER_ID = 1L;
+    // 2025-06-18 時点で保持期間1年 → 2024-06-01 より前がアーカイブ対象、2024-06-03（月）から書き込める
+    private static final Clock CLOCK = Clock.fixed(LocalDate.of(2025, 6, 18).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    private DailyLogRepository delegate;
+    private DailyLogArchive archive;
+    private ArchiveFallthroughDailyLogRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(DailyLogRepository.class);
+        archive = new DailyLogArchive(directory, 16);
+        repository = new ArchiveFallthroughDailyLogRepository(delegate, archive,
+                new ArchivePolicy(Period.ofYears(1), CLOCK));
+    }
+
+    @Test
+    void testFindByUserIdAndLogDate_fallsThroughToArchive() {
+        LocalDate logDate = LocalDate.of(2024, 5, 10);
+        archive.append(USER_ID, List.of(log(logDate, 6.0)));
+        when(delegate.findByUserIdAndLogDate(USER_ID, logDate)).thenReturn(Optional.empty());
+
+        assertEquals(6.0, repository.findByUserIdAndLogDate(USER_ID, logDate).orElseThrow().getSleepHours());
+    }
+
+    @Test
+    void testFindByUserIdAndMonth_mergesAndPrefersDatabase() {
+        YearMonth month = YearMonth.of(2024, 5);
+        archive.append(USER_ID, List.of(log(month.atDay(1), 6.0), log(month.atDay(2), 6.0)));
+        when(delegate.findByUserIdAndMonth(USER_ID, month)).thenReturn(List.of(log(month.atDay(2), 8.0), log(month.atDay(3), 8.0)));
+
+        List<DailyLog> logs = repository.findByUserIdAndMonth(USER_ID, month);
+
+        assertEquals(List.of(month.atDay(1), month.atDay(2), month.atDay(3)), logs.stream().map(DailyLog::getLogDate).toList());
+        assertEquals(List.of(6.0, 8.0, 8.0), logs.stream().map(DailyLog::getSleepHours).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamByUserId_interleavesArchiveInDateOrder() {
+        archive.append(USER_ID, List.of(
+                log(LocalDate.of(2024, 1, 1), 6.0),
+                log(LocalDate.of(2024, 1, 3), 6.0),
+                log(LocalDate.of(2024, 1, 5), 6.0)));
+        doAnswer(invocation -> {
+            Consumer<DailyLog> consumer = invocation.getArgument(1);
+            consumer.accept(log(LocalDate.of(2024, 1, 2), 8.0));
+            consumer.accept(log(LocalDate.of(2024, 1, 3), 8.0));
+            return null;
+        }).when(delegate).streamByUserId(eq(USER_ID), any(Consumer.class));
+
+        List<DailyLog> streamed = new ArrayList<>();
+        repository.streamByUserId(USER_ID, streamed::add);
+
+        assertEquals(List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 5)),
+                streamed.stream().map(DailyLog::getLogDate).toList());
+        assertEquals(List.of(6.0, 8.0, 8.0, 6.0), streamed.stream().map(DailyLog::getSleepHours).toList());
+    }
+
+    @Test
+    void testExistsByUserIdAndLogDate_archived() {
+        LocalDate logDate = LocalDate.of(2024, 5, 10);
+        archive.append(USER_ID, List.of(log(logDate, 6.0)));
+
+        assertTrue(repository.existsByUserIdAndLogDate(USER_ID, logDate));
+    }
+
+    @Test
+    void testWrite_toArchivedPeriodIsRejected() {
+        // 2024-06-01（土）・02（日）はDBに残るが、アーカイブ済みの5月27日からの週に含まれる
+        DailyLog log = log(LocalDate.of(2024, 6, 2), 7.0);
+
+        assertThrows(IllegalStateException.class, () -> repository.saveIfAbsent(log));
+        assertThrows(IllegalStateException.class, () -> repository.update(log.getLogDate(), log));
+        assertThrows(IllegalStateException.class, () -> repository.deleteByUserIdAndLogDate(USER_ID, log.getLogDate()));
+        verify(delegate, never()).saveIfAbsent(any());
+    }
+
+    @Test
+    void testWrite_afterArchivedPeriodIsDelegated() {
+        DailyLog log = log(LocalDate.of(2024, 6, 3), 7.0);
+        when(delegate.saveIfAbsent(log)).thenReturn(true);
+
+        assertTrue(repository.saveIfAbsent(log));
+    }
+
+    private static DailyLog log(LocalDate logDate, double sleepHours) {
+        return DailyLog.of(USER_ID, logDate, sleepHours, 5, List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,107 @@
+package nekopunch_rush.testjava21.infrastructure.repository.archive;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static nekopunch_rush.testjava21.infrastructure.repository.DailyLogFixtures.assertSameLog;
+import static nekopunch_rush.testjava21.infrastructure.repository.DailyLogFixtures.detailedLog;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DailyLogArchiveのテストクラス
+ */
+class DailyLogArchiveTest {
+
+    private static final Long USER_ID = 1L;
+
+    @TempDir
+    Path directory;
+
+    private DailyLogArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new DailyLogArchive(directory, 16);
+    }
+
+    @Test
+    void testAppendAndFind_restoresAllChildren() {
+        DailyLog log = detailedLog(USER_ID, LocalDate.of(2023, 5, 1));
+
+        archive.append(USER_ID, List.of(log));
+
+        DailyLog restored = archive.open(USER_ID).find(log.getLogDate()).orElseThrow();
+        assertSameLog(log, restored);
+    }
+
+    @Test
+    void testFind_notArchived() {
+        assertTrue(archive.open(USER_ID).isEmpty());
+        assertTrue(archive.open(USER_ID).find(LocalDate.of(2023, 5, 1)).isEmpty());
+    }
+
+    @Test
+    void testFindByDateRange_halfOpenAndWithoutChildren() {
+        archive.append(USER_ID, List.of(
+                detailedLog(USER_ID, LocalDate.of(2023, 4, 30)),
+                detailedLog(USER_ID, LocalDate.of(2023, 5, 1)),
+                detailedLog(USER_ID, LocalDate.of(2023, 5, 31)),
+                detailedLog(USER_ID, LocalDate.of(2023, 6, 1))));
+
+        List<DailyLog> summaries = archive.open(USER_ID).findByDateRange(LocalDate.of(2023, 5, 1), LocalDate.of(2023, 6, 1));
+
+        assertEquals(List.of(LocalDate.of(2023, 5, 1), LocalDate.of(2023, 5, 31)),
+                summaries.stream().map(DailyLog::getLogDate).toList());
+        assertTrue(summaries.getFirst().getMealList().isEmpty());
+        assertEquals(7.5, summaries.getFirst().getSleepHours());
+    }
+
+    @Test
+    void testAppend_sameDateLaterWins() {
+        LocalDate logDate = LocalDate.of(2023, 5, 1);
+        archive.append(USER_ID, List.of(DailyLog.of(USER_ID, logDate, 6.0, 3, List.of(), List.of(), List.of(), List.of())));
+        archive.append(USER_ID, List.of(DailyLog.of(USER_ID, logDate, 8.0, 7, List.of(), List.of(), List.of(), List.of())));
+
+        DailyLog restored = archive.open(USER_ID).find(logDate).orElseThrow();
+
+        assertEquals(8.0, restored.getSleepHours());
+        assertEquals(7, restored.getMoodLevel());
+    }
+
+    @Test
+    void testOpen_seesAppendsFromAnotherInstance() {
+        LocalDate logDate = LocalDate.of(2023, 5, 1);
+        assertFalse(archive.open(USER_ID).contains(logDate));
+
+        // 別プロセスのアーカイブ処理からの追記を模擬する
+        new DailyLogArchive(directory, 16).append(USER_ID, List.of(detailedLog(USER_ID, logDate)));
+
+        assertTrue(archive.open(USER_ID).contains(logDate));
+    }
+
+    @Test
+    void testAppend_afterTornIndexEntry() throws IOException {
+        archive.append(USER_ID, List.of(detailedLog(USER_ID, LocalDate.of(2023, 5, 1))));
+        // 索引への書き込みの途中で停止した状態を模擬する
+        Files.write(directory.resolve(USER_ID + ".idx"), new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        assertEquals(List.of(LocalDate.of(2023, 5, 1)), List.copyOf(archive.open(USER_ID).logDates()));
+
+        archive.append(USER_ID, List.of(detailedLog(USER_ID, LocalDate.of(2023, 5, 2))));
+
+        assertEquals(List.of(LocalDate.of(2023, 5, 1), LocalDate.of(2023, 5, 2)),
+                List.copyOf(archive.open(USER_ID).logDates()));
+        assertSameLog(detailedLog(USER_ID, LocalDate.of(2023, 5, 2)), archive.open(USER_ID).find(LocalDate.of(2023, 5, 2)).orElseThrow());
+    }
+}
@@ -0,0 +1,61 @@
+package nekopunch_rush.testjava21.infrastructure.repository.archive;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * DailyLogArchiverのテストクラス
+ */
+class DailyLogArchiverTest {
+
+    private static final Long USER_ID = 1L;
+    private static final LocalDate BEFORE = LocalDate.of(2024, 6, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testArchive_copiesMonthByMonthThenDeletes() {
+        DailyLogRepository hot = mock(DailyLogRepository.class);
+        DailyLogArchive archive = new DailyLogArchive(directory, 16);
+        Clock clock = Clock.fixed(LocalDate.of(2025, 6, 18).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        DailyLogArchiver archiver = new DailyLogArchiver(hot, archive, new ArchivePolicy(Period.ofYears(1), clock));
+
+        when(hot.findUserIdsWithLogsBefore(BEFORE)).thenReturn(List.of(USER_ID));
+        when(hot.findByUserIdAndDateRange(any(), any(), any())).thenReturn(List.of(
+                log(LocalDate.of(2024, 4, 10)), log(LocalDate.of(2024, 4, 11)), log(LocalDate.of(2024, 5, 20))));
+        when(hot.findWithDetailsByUserIdAndMonth(USER_ID, YearMonth.of(2024, 4))).thenReturn(List.of(
+                log(LocalDate.of(2024, 4, 10)), log(LocalDate.of(2024, 4, 11))));
+        when(hot.findWithDetailsByUserIdAndMonth(USER_ID, YearMonth.of(2024, 5))).thenReturn(List.of(
+                log(LocalDate.of(2024, 5, 20))));
+
+        assertEquals(1, archiver.archive());
+
+        assertEquals(List.of(LocalDate.of(2024, 4, 10), LocalDate.of(2024, 4, 11), LocalDate.of(2024, 5, 20)),
+                List.copyOf(archive.open(USER_ID).logDates()));
+        InOrder inOrder = inOrder(hot);
+        inOrder.verify(hot).findWithDetailsByUserIdAndMonth(USER_ID, YearMonth.of(2024, 5));
+        inOrder.verify(hot).deleteByUserIdBefore(USER_ID, BEFORE);
+    }
+
+    private static DailyLog log(LocalDate logDate) {
+        return DailyLog.of(USER_ID, logDate, 7.0, 5, List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,146 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * CachingDailyLogRepositoryのテストクラス
+ */
+class CachingDailyLogRepositoryTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+
+    private DailyLogRepository delegate;
+    private CachingDailyLogRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(DailyLogRepository.class);
+        repository = new CachingDailyLogRepository(delegate, 100, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testFind_repeatedRead_isServedFromCache() {
+        DailyLog log = log(5);
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.of(log));
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(log, repository.findByUserIdAndLogDate(1L, LOG_DATE).orElseThrow());
+        }
+
+        verify(delegate, times(1)).findByUserIdAndLogDate(1L, LOG_DATE);
+        assertEquals(9, repository.stats().hitCount());
+        assertEquals(1, repository.stats().missCount());
+        // 存在確認もキャッシュから答える
+        assertTrue(repository.existsByUserIdAndLogDate(1L, LOG_DATE));
+        verify(delegate, never()).existsByUserIdAndLogDate(1L, LOG_DATE);
+    }
+
+    @Test
+    void testUpdate_invalidatesOnlyThatDay() {
+        LocalDate otherDay = LOG_DATE.plusDays(1);
+        DailyLog updated = log(8);
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.of(log(5)), Optional.of(updated));
+        when(delegate.findByUserIdAndLogDate(1L, otherDay)).thenReturn(Optional.empty());
+        when(delegate.update(LOG_DATE, updated)).thenReturn(true);
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+        repository.findByUserIdAndLogDate(1L, otherDay);
+
+        repository.update(LOG_DATE, updated);
+
+        assertSame(updated, repository.findByUserIdAndLogDate(1L, LOG_DATE).orElseThrow());
+        assertTrue(repository.findByUserIdAndLogDate(1L, otherDay).isEmpty());
+        verify(delegate, times(2)).findByUserIdAndLogDate(1L, LOG_DATE);
+        verify(delegate, times(1)).findByUserIdAndLogDate(1L, otherDay);
+    }
+
+    @Test
+    void testSave_invalidatesCachedAbsence() {
+        DailyLog log = log(5);
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.empty(), Optional.of(log));
+        when(delegate.saveIfAbsent(log)).thenReturn(true);
+        assertTrue(repository.findByUserIdAndLogDate(1L, LOG_DATE).isEmpty());
+
+        repository.saveIfAbsent(log);
+
+        assertSame(log, repository.findByUserIdAndLogDate(1L, LOG_DATE).orElseThrow());
+    }
+
+    @Test
+    void testWrite_inTransaction_invalidatesAgainAfterCommit() {
+        DailyLog stale = log(5);
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.of(stale));
+        when(delegate.deleteByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        repository.deleteByUserIdAndLogDate(1L, LOG_DATE);
+        // コミット前の読み取りが古い内容を載せ直しても
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+
+        verify(delegate, times(2)).findByUserIdAndLogDate(1L, LOG_DATE);
+    }
+
+    @Test
+    void testDeleteBefore_invalidatesOlderDays() {
+        LocalDate older = LOG_DATE.minusDays(1);
+        when(delegate.findByUserIdAndLogDate(1L, older)).thenReturn(Optional.of(log(5)));
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.of(log(6)));
+        repository.findByUserIdAndLogDate(1L, older);
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+
+        repository.deleteByUserIdBefore(1L, LOG_DATE);
+        repository.findByUserIdAndLogDate(1L, older);
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+
+        verify(delegate, times(2)).findByUserIdAndLogDate(1L, older);
+        verify(delegate, times(1)).findByUserIdAndLogDate(1L, LOG_DATE);
+    }
+
+    @Test
+    void testBindTo_registersCacheMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        repository.bindTo(registry);
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.empty());
+
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "dailyLog").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "dailyLog").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    private static DailyLog log(int moodLevel) {
+        return DailyLog.of(1L, LOG_DATE, 7.0, moodLevel, List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,129 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import nekopunch_rush.testjava21.infrastructure.repository.ActiveUser;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * DailyLogCacheWarmerのテストクラス
+ */
+class DailyLogCacheWarmerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-06-15T03:00:00Z"), ZoneOffset.UTC);
+
+    private DailyLogRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DailyLogRepository.class);
+        when(repository.findActiveUsersSince(eq(TODAY.minusDays(7)), anyInt())).thenReturn(List.of(
+                new ActiveUser(1L, TODAY), new ActiveUser(2L, TODAY), new ActiveUser(3L, TODAY.minusDays(1))));
+    }
+
+    @Test
+    void testWarmUp_loadsCurrentAndPreviousMonthAndToday() {
+        DailyLogCacheWarmer warmer = warmer(10, Duration.ofSeconds(5));
+        DailyLogCacheWarmupHealthIndicator indicator = new DailyLogCacheWarmupHealthIndicator(warmer);
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+
+        warmer.warmUp();
+
+        for (long userId = 1; userId <= 3; userId++) {
+            verify(repository).findByUserIdAndMonth(userId, YearMonth.of(2024, 6));
+            verify(repository).findByUserIdAndMonth(userId, YearMonth.of(2024, 5));
+            verify(repository).findByUserIdAndLogDate(userId, TODAY);
+        }
+        assertEquals(DailyLogCacheWarmer.State.COMPLETED, warmer.getState());
+        assertEquals(3, warmer.getWarmedUsers());
+        assertEquals(Status.UP, indicator.health().getStatus());
+        assertEquals(3, indicator.health().getDetails().get("warmedUsers"));
+    }
+
+    @Test
+    void testWarmUp_limitsUsersAndSkipsFailures() {
+        when(repository.findActiveUsersSince(TODAY.minusDays(7), 2)).thenReturn(List.of(
+                new ActiveUser(1L, TODAY), new ActiveUser(2L, TODAY)));
+        when(repository.findByUserIdAndLogDate(1L, TODAY)).thenThrow(new IllegalStateException("接続エラー"));
+        DailyLogCacheWarmer warmer = warmer(2, Duration.ofSeconds(5));
+
+        warmer.warmUp();
+
+        // 対象の上限は問い合わせで絞る
+        verify(repository).findActiveUsersSince(TODAY.minusDays(7), 2);
+        assertEquals(2, warmer.getTargetUsers());
+        assertEquals(1, warmer.getWarmedUsers());
+        assertEquals(1, warmer.getFailedUsers());
+        assertEquals(DailyLogCacheWarmer.State.COMPLETED, warmer.getState());
+    }
+
+    @Test
+    void testWarmUp_timeout_stopsWaitingAndSkipsQueuedUsers() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findByUserIdAndMonth(anyLong(), any())).thenAnswer(invocation -> {
+            release.await();
+            return List.of();
+        });
+        DailyLogCacheWarmer warmer = warmer(10, Duration.ofMillis(100));
+
+        warmer.warmUp();
+
+        assertEquals(DailyLogCacheWarmer.State.TIMED_OUT, warmer.getState());
+        assertEquals(0, warmer.getWarmedUsers());
+
+        // 読み込み中のユーザーは割り込まれずに最後まで読み、待ち行列に残ったユーザーは読まない
+        release.countDown();
+        verify(repository, timeout(1000)).findByUserIdAndLogDate(1L, TODAY);
+        verify(repository, timeout(1000)).findByUserIdAndLogDate(2L, TODAY);
+        verify(repository, after(200).never()).findByUserIdAndMonth(eq(3L), any());
+        assertEquals(2, warmer.getWarmedUsers());
+        assertEquals(0, warmer.getFailedUsers());
+    }
+
+    @Test
+    void testWarmUp_interrupted_stopsRemainingUsers() {
+        when(repository.findByUserIdAndMonth(1L, YearMonth.of(2024, 6))).thenAnswer(invocation -> {
+            Thread.currentThread().interrupt();
+            return List.of();
+        });
+        // 1スレッドで順に読み込む
+        DailyLogCacheWarmer warmer = new DailyLogCacheWarmer(repository, Period.ofDays(7), 10, 1, Duration.ofSeconds(5), CLOCK);
+
+        warmer.warmUp();
+
+        verify(repository, never()).findByUserIdAndLogDate(1L, TODAY);
+        verify(repository, never()).findByUserIdAndMonth(eq(2L), any());
+        verify(repository, never()).findByUserIdAndMonth(eq(3L), any());
+        assertEquals(0, warmer.getWarmedUsers());
+        assertEquals(0, warmer.getFailedUsers());
+        assertEquals(DailyLogCacheWarmer.State.COMPLETED, warmer.getState());
+    }
+
+    private DailyLogCacheWarmer warmer(int maximumUsers, Duration timeout) {
+        return new DailyLogCacheWarmer(repository, Period.ofDays(7), maximumUsers, 2, timeout, CLOCK);
+    }
+}
@@ -0,0 +1,105 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * MonthSummaryCachingDailyLogRepositoryのテストクラス
+ */
+class MonthSummaryCachingDailyLogRepositoryTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 5);
+    private static final YearMonth OTHER_MONTH = YearMonth.of(2024, 4);
+
+    private DailyLogRepository delegate;
+    private MonthSummaryCachingDailyLogRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(DailyLogRepository.class);
+        when(delegate.findByUserIdAndMonth(1L, MONTH)).thenReturn(List.of(log(MONTH.atDay(1))));
+        when(delegate.findByUserIdAndMonth(1L, OTHER_MONTH)).thenReturn(List.of(log(OTHER_MONTH.atDay(1))));
+        repository = new MonthSummaryCachingDailyLogRepository(delegate, 100,
+                Duration.ofMinutes(5), Duration.ofHours(24),
+                Clock.fixed(Instant.parse("2024-06-15T00:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    void testFind_repeatedRead_isServedFromCache() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(1, repository.findByUserIdAndMonth(1L, MONTH).size());
+        }
+
+        verify(delegate, times(1)).findByUserIdAndMonth(1L, MONTH);
+        assertEquals(0.8, repository.stats().hitRate());
+    }
+
+    @Test
+    void testWrite_invalidatesOnlyThatMonth() {
+        repository.findByUserIdAndMonth(1L, MONTH);
+        repository.findByUserIdAndMonth(1L, OTHER_MONTH);
+
+        repository.deleteByUserIdAndLogDate(1L, MONTH.atDay(20));
+        repository.findByUserIdAndMonth(1L, MONTH);
+        repository.findByUserIdAndMonth(1L, OTHER_MONTH);
+
+        verify(delegate, times(2)).findByUserIdAndMonth(1L, MONTH);
+        verify(delegate, times(1)).findByUserIdAndMonth(1L, OTHER_MONTH);
+    }
+
+    @Test
+    void testUpdate_invalidatesMonthOfTargetDate() {
+        LocalDate logDate = MONTH.atEndOfMonth();
+        repository.findByUserIdAndMonth(1L, MONTH);
+
+        repository.update(logDate, log(logDate));
+        repository.findByUserIdAndMonth(1L, MONTH);
+
+        verify(delegate, times(2)).findByUserIdAndMonth(1L, MONTH);
+    }
+
+    @Test
+    void testDeleteBefore_invalidatesMonthsUpToBoundary() {
+        repository.findByUserIdAndMonth(1L, MONTH);
+        repository.findByUserIdAndMonth(1L, OTHER_MONTH);
+
+        repository.deleteByUserIdBefore(1L, OTHER_MONTH.atDay(15));
+        repository.findByUserIdAndMonth(1L, MONTH);
+        repository.findByUserIdAndMonth(1L, OTHER_MONTH);
+
+        verify(delegate, times(1)).findByUserIdAndMonth(1L, MONTH);
+        verify(delegate, times(2)).findByUserIdAndMonth(1L, OTHER_MONTH);
+    }
+
+    @Test
+    void testBindTo_exposesHitRatio() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        repository.bindTo(registry);
+
+        repository.findByUserIdAndMonth(1L, MONTH);
+        repository.findByUserIdAndMonth(1L, MONTH);
+
+        assertEquals(0.5, registry.get("cache.hit.ratio").tag("cache", "dailyLogMonth").gauge().value());
+    }
+
+    private static DailyLog log(LocalDate logDate) {
+        return DailyLog.of(1L, logDate, 7.0, 5, List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,92 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static nekopunch_rush.testjava21.infrastructure.repository.DailyLogFixtures.detailedLog;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * OffHeapCachingDailyLogRepositoryのテストクラス
+ */
+class OffHeapCachingDailyLogRepositoryTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+
+    private DailyLogRepository delegate;
+    private OffHeapCachingDailyLogRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(DailyLogRepository.class);
+        repository = new OffHeapCachingDailyLogRepository(delegate, 64 * 1024, 256, 4, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void testFind_repeatedRead_isDecodedFromOffHeap() {
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.of(detailedLog(1L, LOG_DATE)));
+
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+        DailyLog cached = repository.findByUserIdAndLogDate(1L, LOG_DATE).orElseThrow();
+
+        verify(delegate, times(1)).findByUserIdAndLogDate(1L, LOG_DATE);
+        assertEquals(1L, cached.getUserId());
+        assertEquals(LOG_DATE, cached.getLogDate());
+        assertEquals(6, cached.getMoodLevel());
+        assertEquals(3, cached.getMealList().size());
+        assertEquals("ラーメン", cached.getMealList().get(1).getContent());
+        assertEquals(1, cached.getActivityList().size());
+        assertEquals(1, cached.getMentalNoteList().size());
+        assertEquals(0.5, repository.hitRate());
+    }
+
+    @Test
+    void testFind_missingLog_isCachedAsAbsent() {
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.empty());
+
+        assertTrue(repository.findByUserIdAndLogDate(1L, LOG_DATE).isEmpty());
+        assertFalse(repository.existsByUserIdAndLogDate(1L, LOG_DATE));
+
+        verify(delegate, times(1)).findByUserIdAndLogDate(1L, LOG_DATE);
+        verify(delegate, times(0)).existsByUserIdAndLogDate(1L, LOG_DATE);
+    }
+
+    @Test
+    void testUpdate_invalidatesDay() {
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.of(detailedLog(1L, LOG_DATE)));
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+
+        repository.update(LOG_DATE, detailedLog(1L, LOG_DATE));
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+
+        verify(delegate, times(2)).findByUserIdAndLogDate(1L, LOG_DATE);
+    }
+
+    @Test
+    void testBindTo_exposesHitsAndUsedBytes() {
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.of(detailedLog(1L, LOG_DATE)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        repository.bindTo(registry);
+
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "dailyLogOffHeap", "result", "hit")
+                .functionCounter().count());
+        assertEquals(repository.usedBytes(), registry.get("lifelog.cache.off-heap.used").gauge().value());
+        assertTrue(repository.usedBytes() > 0);
+    }
+}
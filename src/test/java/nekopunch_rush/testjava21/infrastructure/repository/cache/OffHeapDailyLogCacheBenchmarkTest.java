@@ -0,0 +1,123 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.ref.Reference;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import static nekopunch_rush.testjava21.infrastructure.repository.DailyLogFixtures.detailedLog;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 1日分の詳細を大量にキャッシュした場合のヒープ使用量とGCの停止時間を、ヒープ上のキャッシュ（Caffeine）と
+ * ヒープ外のキャッシュで比較する。
+ * <p>
+ * キャッシュを満たした後のヒープ使用量と、キャッシュを読みながら短命なオブジェクトを作り続ける間の
+ * GCの回数・合計時間を出力する。{@code ./gradlew benchmark} で実行する。
+ */
+@Tag("benchmark")
+class OffHeapDailyLogCacheBenchmarkTest {
+
+    private static final int USERS = 1_000;
+    private static final int DAYS_PER_USER = 200;
+    private static final int ENTRIES = USERS * DAYS_PER_USER;
+    private static final int READS = 2_000_000;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+    // 1日分は約270バイトで256バイトのチャンク2つに収まるため、20万日分（約100MB）が入る大きさにする。
+    // benchmarkタスクの -XX:MaxDirectMemorySize を超えないこと
+    private static final long OFF_HEAP_CAPACITY_BYTES = 128L << 20;
+
+    @Test
+    @DisplayName("20万日分のキャッシュ: ヒープ上とヒープ外のヒープ使用量・GC停止時間の比較")
+    void heapFootprintAndGcPauses() {
+        Result offHeap = run("off-heap", delegate -> new OffHeapCachingDailyLogRepository(delegate,
+                OFF_HEAP_CAPACITY_BYTES, 256, 16, Duration.ofHours(1)));
+        Result onHeap = run("on-heap", delegate -> new CachingDailyLogRepository(delegate,
+                ENTRIES, Duration.ofHours(1)));
+
+        onHeap.print();
+        offHeap.print();
+
+        // ヒープ外はキーとチャンク番号の表だけをヒープに持つ
+        assertThat(offHeap.retainedHeapBytes()).isLessThan(onHeap.retainedHeapBytes() / 2);
+    }
+
+    private static Result run(String label, UnaryOperator<DailyLogRepository> cacheFactory) {
+        DailyLogRepository delegate = mock(DailyLogRepository.class, withSettings().stubOnly());
+        when(delegate.findByUserIdAndLogDate(anyLong(), any()))
+                .thenAnswer(invocation -> Optional.of(detailedLog(invocation.getArgument(0), invocation.getArgument(1))));
+
+        long baseline = usedHeapAfterGc();
+        DailyLogRepository cache = cacheFactory.apply(delegate);
+        for (long userId = 0; userId < USERS; userId++) {
+            for (int day = 0; day < DAYS_PER_USER; day++) {
+                cache.findByUserIdAndLogDate(userId, FIRST_DATE.plusDays(day));
+            }
+        }
+        long retained = usedHeapAfterGc() - baseline;
+
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        long start = System.nanoTime();
+        Random random = new Random(42);
+        long checksum = 0;
+        for (int i = 0; i < READS; i++) {
+            DailyLog log = cache.findByUserIdAndLogDate((long) random.nextInt(USERS),
+                    FIRST_DATE.plusDays(random.nextInt(DAYS_PER_USER))).orElseThrow();
+            // リクエスト処理で作られる短命なオブジェクトの代わり
+            byte[] garbage = new byte[512];
+            checksum += log.getMoodLevel() + garbage.length;
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertThat(checksum).isPositive();
+        Result result = new Result(label, retained, gcCount() - gcCountBefore, gcMillis() - gcMillisBefore, elapsedMillis);
+        // 計測が終わるまでキャッシュを到達可能にしておく
+        Reference.reachabilityFence(cache);
+        return result;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+
+    private record Result(String label, long retainedHeapBytes, long gcCount, long gcMillis, long elapsedMillis) {
+
+        void print() {
+            System.out.printf("[%s] retained heap=%.1f MB (%d entries, %.0f B/entry)%n",
+                    label, retainedHeapBytes / 1_048_576.0, ENTRIES, (double) retainedHeapBytes / ENTRIES);
+            System.out.printf("[%s] %d reads: elapsed=%d ms, gc count=%d, gc time=%d ms%n",
+                    label, READS, elapsedMillis, gcCount, gcMillis);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package nekopunch_rush.testjava21.infrastructure.repository.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OffHeapLruStoreのテストクラス
+ */
+class OffHeapLruStoreTest {
+
+    private static final int CHUNK_SIZE = 16;
+
+    private final AtomicLong now = new AtomicLong();
+    // 1セグメント・4チャンク（64バイト）
+    private final OffHeapLruStore<String> store = new OffHeapLruStore<>(4 * CHUNK_SIZE, CHUNK_SIZE, 1,
+            Duration.ofMinutes(10), now::get);
+
+    @Test
+    void testGet_valueSpanningChunks_isReadBack() {
+        byte[] value = bytes(40, 7);
+
+        assertTrue(put("a", value));
+
+        assertArrayEquals(value, store.get("a"));
+        assertEquals(3 * CHUNK_SIZE, store.usedBytes());
+        assertTrue(put("empty", new byte[0]));
+        assertArrayEquals(new byte[0], store.get("empty"));
+    }
+
+    @Test
+    void testPut_overBudget_evictsLeastRecentlyUsed() {
+        put("a", bytes(CHUNK_SIZE, 1));
+        put("b", bytes(CHUNK_SIZE, 2));
+        put("c", bytes(2 * CHUNK_SIZE, 3));
+        store.get("a");
+
+        put("d", bytes(CHUNK_SIZE, 4));
+
+        assertNull(store.get("b"));
+        assertArrayEquals(bytes(CHUNK_SIZE, 1), store.get("a"));
+        assertArrayEquals(bytes(2 * CHUNK_SIZE, 3), store.get("c"));
+        assertEquals(1, store.evictions());
+        assertEquals(4 * CHUNK_SIZE, store.usedBytes());
+    }
+
+    @Test
+    void testPut_replacingValue_releasesOldChunks() {
+        put("a", bytes(3 * CHUNK_SIZE, 1));
+
+        put("a", bytes(CHUNK_SIZE, 2));
+
+        assertEquals(CHUNK_SIZE, store.usedBytes());
+        assertArrayEquals(bytes(CHUNK_SIZE, 2), store.get("a"));
+    }
+
+    @Test
+    void testPutIfUnchanged_removedWhileLoading_isNotStored() {
+        long stamp = store.stamp("a");
+        store.remove("a");
+
+        assertFalse(store.putIfUnchanged("a", bytes(CHUNK_SIZE, 1), stamp));
+        assertNull(store.get("a"));
+    }
+
+    @Test
+    void testPut_largerThanCapacity_isNotStored() {
+        put("a", bytes(CHUNK_SIZE, 1));
+
+        assertFalse(put("huge", bytes(5 * CHUNK_SIZE, 2)));
+        assertArrayEquals(bytes(CHUNK_SIZE, 1), store.get("a"));
+    }
+
+    @Test
+    void testGet_expiredEntry_isRemoved() {
+        put("a", bytes(CHUNK_SIZE, 1));
+
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+
+        assertNull(store.get("a"));
+        assertEquals(0, store.usedBytes());
+    }
+
+    @Test
+    void testConstructor_segmentOver2GB_isRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapLruStore<String>(4L << 30, CHUNK_SIZE, 1, Duration.ofMinutes(1), System::nanoTime));
+    }
+
+    private boolean put(String key, byte[] value) {
+        return store.putIfUnchanged(key, value, store.stamp(key));
+    }
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] value = new byte[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = (byte) (seed * 31 + i);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,113 @@
+package nekopunch_rush.testjava21.infrastructure.repository.decorator;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * InvalidatingDailyLogRepositoryのテストクラス
+ */
+class InvalidatingDailyLogRepositoryTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+
+    private DailyLogRepository delegate;
+    private RecordingRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(DailyLogRepository.class);
+        repository = new RecordingRepository(delegate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testWrites_callHooks() {
+        DailyLog log = log(1L, LOG_DATE);
+        when(delegate.saveIfAbsent(log)).thenReturn(true);
+
+        repository.save(log);
+        repository.saveIfAbsent(log);
+        repository.update(LOG_DATE.minusDays(1), log);
+        repository.deleteByUserIdAndLogDate(1L, LOG_DATE);
+        repository.deleteByUserIdBefore(1L, LOG_DATE);
+
+        assertEquals(List.of("1:" + LOG_DATE, "1:" + LOG_DATE, "1:" + LOG_DATE.minusDays(1), "1:" + LOG_DATE,
+                "1:<" + LOG_DATE), repository.calls);
+    }
+
+    @Test
+    void testSaveIfAbsent_notSaved_doesNotCallHook() {
+        DailyLog log = log(1L, LOG_DATE);
+        when(delegate.saveIfAbsent(log)).thenReturn(false);
+
+        repository.saveIfAbsent(log);
+
+        assertTrue(repository.calls.isEmpty());
+    }
+
+    @Test
+    void testFailedWrite_stillCallsHook() {
+        DailyLog log = log(1L, LOG_DATE);
+        doThrow(new IllegalStateException()).when(delegate).save(log);
+
+        assertThrows(IllegalStateException.class, () -> repository.save(log));
+
+        assertEquals(List.of("1:" + LOG_DATE), repository.calls);
+    }
+
+    @Test
+    void testWriteInTransaction_callsHookAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        repository.save(log(1L, LOG_DATE));
+        assertEquals(1, repository.calls.size());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(2, repository.calls.size());
+    }
+
+    private static DailyLog log(Long userId, LocalDate logDate) {
+        return DailyLog.of(userId, logDate, 7.0, 5, List.of(), List.of(), List.of(), List.of());
+    }
+
+    private static final class RecordingRepository extends InvalidatingDailyLogRepository {
+
+        private final List<String> calls = new ArrayList<>();
+
+        RecordingRepository(DailyLogRepository delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected void onWrite(Long userId, LocalDate logDate) {
+            calls.add(userId + ":" + logDate);
+        }
+
+        @Override
+        protected void onWriteBefore(Long userId, LocalDate before) {
+            calls.add(userId + ":<" + before);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package nekopunch_rush.testjava21.infrastructure.repository.decorator;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.datasource.DataSourceRoutingContext;
+import nekopunch_rush.testjava21.infrastructure.datasource.RecentWriteTracker;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ReadYourWritesDailyLogRepositoryのテストクラス
+ */
+class ReadYourWritesDailyLogRepositoryTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+
+    private DailyLogRepository delegate;
+    private RecentWriteTracker tracker;
+    private ReadYourWritesDailyLogRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(DailyLogRepository.class);
+        tracker = new RecentWriteTracker(Duration.ofMinutes(1));
+        repository = new ReadYourWritesDailyLogRepository(delegate, tracker);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRead_withoutRecentWrite_isNotPinned() {
+        AtomicBoolean pinned = recordPinOnRead(1L);
+
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+
+        assertFalse(pinned.get());
+    }
+
+    @Test
+    void testRead_afterWrite_isPinnedToPrimary() {
+        DailyLog log = DailyLog.of(1L, LOG_DATE, 7.0, 5, List.of(), List.of(), List.of(), List.of());
+        when(delegate.saveIfAbsent(log)).thenReturn(true);
+        AtomicBoolean pinned = recordPinOnRead(1L);
+
+        repository.saveIfAbsent(log);
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+
+        assertTrue(pinned.get());
+        // 他のユーザーの読み取りには影響しない
+        assertFalse(tracker.wroteRecently(2L));
+    }
+
+    @Test
+    void testWrite_notApplied_isNotRecorded() {
+        when(delegate.deleteByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(false);
+
+        repository.deleteByUserIdAndLogDate(1L, LOG_DATE);
+
+        assertFalse(tracker.wroteRecently(1L));
+    }
+
+    @Test
+    void testWrite_inTransaction_isRecordedAfterCommit() {
+        when(delegate.deleteByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        repository.deleteByUserIdAndLogDate(1L, LOG_DATE);
+        assertFalse(tracker.wroteRecently(1L));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(tracker.wroteRecently(1L));
+    }
+
+    private AtomicBoolean recordPinOnRead(Long userId) {
+        AtomicBoolean pinned = new AtomicBoolean();
+        when(delegate.findByUserIdAndLogDate(userId, LOG_DATE)).thenAnswer(invocation -> {
+            pinned.set(DataSourceRoutingContext.isPrimaryPinned());
+            return Optional.empty();
+        });
+        return pinned;
+    }
+}
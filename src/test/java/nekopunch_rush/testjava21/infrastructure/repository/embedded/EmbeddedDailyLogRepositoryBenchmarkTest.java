@@ -0,0 +1,113 @@
+package nekopunch_rush.testjava21.infrastructure.repository.embedded;
+
+import nekopunch_rush.testjava21.TestcontainersConfiguration;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.impl.DailyLogRepositoryImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static nekopunch_rush.testjava21.infrastructure.repository.DailyLogFixtures.detailedLog;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 1日分のログの登録・取得のレイテンシを、MyBatis（MySQL）と組み込みストレージエンジンで比較する。
+ * <p>
+ * 組み込みはfsyncあり・なしの両方を計測する。MySQLはTestcontainersのコンテナで、
+ * ネットワーク越しの往復を含む。{@code ./gradlew benchmark} で実行する。
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class EmbeddedDailyLogRepositoryBenchmarkTest {
+
+    private static final int DAYS = 2_000;
+    private static final int READS = 20_000;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2019, 1, 1);
+
+    @Autowired
+    private DailyLogRepositoryImpl dailyLogRepositoryImpl;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("1日分の登録・取得: MyBatisと組み込みストレージエンジンの比較")
+    void singleDay() throws Exception {
+        // 他のテストと同じDBを使うため、他で使わないユーザーIDで計測する
+        Result mybatis = run("mybatis", 3_000L, dailyLogRepositoryImpl);
+        Result embeddedSync;
+        try (EmbeddedDailyLogRepository embedded = new EmbeddedDailyLogRepository(
+                directory.resolve("sync"), true, Duration.ZERO, 0.5)) {
+            embeddedSync = run("embedded(sync)", 1L, embedded);
+        }
+        Result embeddedNoSync;
+        try (EmbeddedDailyLogRepository embedded = new EmbeddedDailyLogRepository(
+                directory.resolve("nosync"), false, Duration.ZERO, 0.5)) {
+            embeddedNoSync = run("embedded(no sync)", 1L, embedded);
+        }
+
+        mybatis.print();
+        embeddedSync.print();
+        embeddedNoSync.print();
+
+        // 取得は索引の参照と1回の位置指定読み取りで済み、DBへの往復がない
+        assertThat(embeddedSync.readP50Millis()).isLessThan(mybatis.readP50Millis());
+    }
+
+    private static Result run(String label, long userId, DailyLogRepository repository) {
+        long[] writes = new long[DAYS];
+        for (int i = 0; i < DAYS; i++) {
+            DailyLog log = detailedLog(userId, FIRST_DATE.plusDays(i));
+            long start = System.nanoTime();
+            repository.save(log);
+            writes[i] = System.nanoTime() - start;
+        }
+
+        Random random = new Random(42);
+        // ウォームアップ
+        for (int i = 0; i < READS / 10; i++) {
+            repository.findByUserIdAndLogDate(userId, FIRST_DATE.plusDays(random.nextInt(DAYS)));
+        }
+        long[] reads = new long[READS];
+        for (int i = 0; i < READS; i++) {
+            LocalDate logDate = FIRST_DATE.plusDays(random.nextInt(DAYS));
+            long start = System.nanoTime();
+            assertThat(repository.findByUserIdAndLogDate(userId, logDate)).isPresent();
+            reads[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(writes);
+        Arrays.sort(reads);
+        return new Result(label, writes, reads);
+    }
+
+    private record Result(String label, long[] sortedWrites, long[] sortedReads) {
+
+        double readP50Millis() {
+            return percentile(sortedReads, 0.50);
+        }
+
+        void print() {
+            System.out.printf("[%s] save     p50=%.3f ms p99=%.3f ms (n=%d)%n",
+                    label, percentile(sortedWrites, 0.50), percentile(sortedWrites, 0.99), sortedWrites.length);
+            System.out.printf("[%s] find one p50=%.3f ms p99=%.3f ms (n=%d)%n",
+                    label, percentile(sortedReads, 0.50), percentile(sortedReads, 0.99), sortedReads.length);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            int index = Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1);
+            return sorted[index] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package nekopunch_rush.testjava21.infrastructure.repository.embedded;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+import nekopunch_rush.testjava21.infrastructure.repository.ActiveUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static nekopunch_rush.testjava21.infrastructure.repository.DailyLogFixtures.assertSameLog;
+import static nekopunch_rush.testjava21.infrastructure.repository.DailyLogFixtures.detailedLog;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EmbeddedDailyLogRepositoryのテストクラス
+ */
+class EmbeddedDailyLogRepositoryTest {
+
+    private static final Long USER_ID = 1L;
+
+    @TempDir
+    Path directory;
+
+    private EmbeddedDailyLogRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        repository.close();
+    }
+
+    @Test
+    void testSaveAndFind_restoresAllChildren() {
+        DailyLog log = detailedLog(USER_ID, LocalDate.of(2025, 5, 1), 7.5);
+
+        repository.save(log);
+
+        assertSameLog(log, repository.findByUserIdAndLogDate(USER_ID, log.getLogDate()).orElseThrow());
+        assertTrue(repository.existsByUserIdAndLogDate(USER_ID, log.getLogDate()));
+        assertTrue(repository.findByUserIdAndLogDate(USER_ID, LocalDate.of(2025, 5, 2)).isEmpty());
+    }
+
+    @Test
+    void testSave_duplicate() {
+        DailyLog log = detailedLog(USER_ID, LocalDate.of(2025, 5, 1), 7.5);
+        repository.save(log);
+
+        assertThrows(DuplicateKeyException.class, () -> repository.save(log));
+        assertFalse(repository.saveIfAbsent(detailedLog(USER_ID, log.getLogDate(), 5.0)));
+        assertEquals(7.5, repository.findByUserIdAndLogDate(USER_ID, log.getLogDate()).orElseThrow().getSleepHours());
+    }
+
+    @Test
+    void testSaveAll_duplicateWritesNothing() {
+        repository.save(detailedLog(USER_ID, LocalDate.of(2025, 5, 2), 7.5));
+
+        assertThrows(DuplicateKeyException.class, () -> repository.saveAll(List.of(
+                detailedLog(USER_ID, LocalDate.of(2025, 5, 1), 7.5),
+                detailedLog(USER_ID, LocalDate.of(2025, 5, 2), 7.5))));
+
+        assertFalse(repository.existsByUserIdAndLogDate(USER_ID, LocalDate.of(2025, 5, 1)));
+    }
+
+    @Test
+    void testUpdateAndDelete() {
+        LocalDate logDate = LocalDate.of(2025, 5, 1);
+        assertFalse(repository.update(logDate, detailedLog(USER_ID, logDate, 6.0)));
+        assertFalse(repository.deleteByUserIdAndLogDate(USER_ID, logDate));
+
+        repository.save(detailedLog(USER_ID, logDate, 7.5));
+        assertTrue(repository.update(logDate, DailyLog.of(USER_ID, logDate, 6.0, 4, List.of(), List.of(), List.of(), List.of())));
+
+        DailyLog updated = repository.findByUserIdAndLogDate(USER_ID, logDate).orElseThrow();
+        assertEquals(6.0, updated.getSleepHours());
+        assertTrue(updated.getMealList().isEmpty());
+
+        assertTrue(repository.deleteByUserIdAndLogDate(USER_ID, logDate));
+        assertFalse(repository.existsByUserIdAndLogDate(USER_ID, logDate));
+    }
+
+    @Test
+    void testFindByUserIdAndDateRange_halfOpenAndWithoutChildren() {
+        repository.saveAll(List.of(
+                detailedLog(USER_ID, LocalDate.of(2025, 4, 30), 7.5),
+                detailedLog(USER_ID, LocalDate.of(2025, 5, 1), 7.5),
+                detailedLog(USER_ID, LocalDate.of(2025, 5, 31), 7.5),
+                detailedLog(USER_ID, LocalDate.of(2025, 6, 1), 7.5)));
+
+        List<DailyLog> summaries = repository.findByUserIdAndDateRange(USER_ID, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 6, 1));
+
+        assertEquals(List.of(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 31)),
+                summaries.stream().map(DailyLog::getLogDate).toList());
+        assertTrue(summaries.getFirst().getMealList().isEmpty());
+        assertEquals(7.5, summaries.getFirst().getSleepHours());
+        assertEquals(3, repository.findWithDetailsByUserIdAndDateRange(USER_ID, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 6, 1))
+                .getFirst().getMealList().size());
+    }
+
+    @Test
+    void testStreamByUserId_inDateOrder() {
+        repository.save(detailedLog(USER_ID, LocalDate.of(2025, 5, 3), 7.5));
+        repository.save(detailedLog(USER_ID, LocalDate.of(2025, 5, 1), 7.5));
+        repository.save(DailyLog.of(2L, LocalDate.of(2025, 5, 2), 7.0, 5, List.of(), List.of(), List.of(), List.of()));
+
+        List<LocalDate> streamed = new ArrayList<>();
+        repository.streamByUserId(USER_ID, log -> streamed.add(log.getLogDate()));
+
+        assertEquals(List.of(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 3)), streamed);
+        assertEquals(List.of(new ActiveUser(1L, LocalDate.of(2025, 5, 3)), new ActiveUser(2L, LocalDate.of(2025, 5, 2))),
+                repository.findActiveUsersSince(LocalDate.of(2025, 5, 2), 10));
+        assertEquals(List.of(new ActiveUser(1L, LocalDate.of(2025, 5, 3))),
+                repository.findActiveUsersSince(LocalDate.of(2025, 5, 1), 1));
+        assertEquals(List.of(1L), repository.findUserIdsWithLogsBefore(LocalDate.of(2025, 5, 2)));
+    }
+
+    @Test
+    void testReopen_restoresIndex() throws IOException {
+        LocalDate logDate = LocalDate.of(2025, 5, 1);
+        repository.save(detailedLog(USER_ID, logDate, 7.5));
+        repository.save(detailedLog(USER_ID, logDate.plusDays(1), 7.5));
+        repository.deleteByUserIdAndLogDate(USER_ID, logDate.plusDays(1));
+        repository.close();
+
+        repository = open();
+
+        assertSameLog(detailedLog(USER_ID, logDate, 7.5), repository.findByUserIdAndLogDate(USER_ID, logDate).orElseThrow());
+        assertFalse(repository.existsByUserIdAndLogDate(USER_ID, logDate.plusDays(1)));
+    }
+
+    @Test
+    void testReopen_discardsTornTail() throws IOException {
+        LocalDate logDate = LocalDate.of(2025, 5, 1);
+        repository.save(detailedLog(USER_ID, logDate, 7.5));
+        repository.close();
+        // フレームの書き込みの途中で停止した状態を模擬する
+        Files.write(directory.resolve("data-0.log"), new byte[]{0, 0, 0, 1, 0, 0, 1, 0, 9}, StandardOpenOption.APPEND);
+
+        repository = open();
+        assertSameLog(detailedLog(USER_ID, logDate, 7.5), repository.findByUserIdAndLogDate(USER_ID, logDate).orElseThrow());
+
+        // 切り捨てた位置から追記を続けられる
+        repository.save(detailedLog(USER_ID, logDate.plusDays(1), 8.0));
+        repository.close();
+        repository = open();
+
+        assertEquals(8.0, repository.findByUserIdAndLogDate(USER_ID, logDate.plusDays(1)).orElseThrow().getSleepHours());
+    }
+
+    @Test
+    void testCompact_keepsLatestValues() throws IOException {
+        LocalDate logDate = LocalDate.of(2025, 5, 1);
+        repository.save(detailedLog(USER_ID, logDate, 1.0));
+        for (int i = 2; i <= 10; i++) {
+            repository.update(logDate, detailedLog(USER_ID, logDate, i));
+        }
+        repository.save(detailedLog(USER_ID, logDate.plusDays(1), 7.5));
+        repository.deleteByUserIdAndLogDate(USER_ID, logDate.plusDays(1));
+        assertTrue(repository.garbageRatio() > 0.5);
+
+        assertTrue(repository.compactIfNeeded(0.5));
+
+        assertTrue(repository.garbageRatio() < 0.1);
+        assertFalse(Files.exists(directory.resolve("data-0.log")));
+        assertEquals(10.0, repository.findByUserIdAndLogDate(USER_ID, logDate).orElseThrow().getSleepHours());
+
+        // コンパクション後の追記も含めて、開き直しても同じ内容を読める
+        repository.save(detailedLog(USER_ID, logDate.plusDays(2), 6.0));
+        repository.close();
+        repository = open();
+
+        assertSameLog(detailedLog(USER_ID, logDate, 10.0), repository.findByUserIdAndLogDate(USER_ID, logDate).orElseThrow());
+        assertFalse(repository.existsByUserIdAndLogDate(USER_ID, logDate.plusDays(1)));
+        assertEquals(6.0, repository.findByUserIdAndLogDate(USER_ID, logDate.plusDays(2)).orElseThrow().getSleepHours());
+    }
+
+    @Test
+    void testInterruptedThread_keepsFileUsable() throws IOException {
+        LocalDate logDate = LocalDate.of(2025, 5, 1);
+        repository.save(detailedLog(USER_ID, logDate, 7.5));
+
+        // 割り込まれたスレッドの入出力はFileChannelを閉じるが、開き直してやり直し、割り込みの状態は残す
+        Thread.currentThread().interrupt();
+        try {
+            repository.save(detailedLog(USER_ID, logDate.plusDays(1), 8.0));
+            assertEquals(7.5, repository.findByUserIdAndLogDate(USER_ID, logDate).orElseThrow().getSleepHours());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+
+        // 割り込まれていないスレッドからも引き続き読み書きできる
+        repository.save(detailedLog(USER_ID, logDate.plusDays(2), 6.0));
+        repository.close();
+        repository = open();
+
+        assertEquals(8.0, repository.findByUserIdAndLogDate(USER_ID, logDate.plusDays(1)).orElseThrow().getSleepHours());
+        assertEquals(6.0, repository.findByUserIdAndLogDate(USER_ID, logDate.plusDays(2)).orElseThrow().getSleepHours());
+    }
+
+    @Test
+    void testReopen_ignoresUnfinishedCompaction() throws IOException {
+        LocalDate logDate = LocalDate.of(2025, 5, 1);
+        repository.save(detailedLog(USER_ID, logDate, 7.5));
+        repository.close();
+        // 置き換え前に停止したコンパクションの書きかけを模擬する
+        Files.write(directory.resolve("data-1.log.tmp"), new byte[]{1, 2, 3});
+
+        repository = open();
+
+        assertTrue(repository.existsByUserIdAndLogDate(USER_ID, logDate));
+        assertFalse(Files.exists(directory.resolve("data-1.log.tmp")));
+    }
+
+    @Test
+    void testFindRollups_aggregatedFromDailyLogs() {
+        // 2025-05-05は月曜日
+        repository.saveAll(List.of(
+                detailedLog(USER_ID, LocalDate.of(2025, 5, 5), 6.0),
+                detailedLog(USER_ID, LocalDate.of(2025, 5, 6), 8.0),
+                DailyLog.of(USER_ID, LocalDate.of(2025, 5, 12), 7.0, 5, List.of(), List.of(), List.of(), List.of())));
+
+        List<DailyLogRollup> rollups = repository.findRollupsByUserIdAndPeriodRange(
+                USER_ID, RollupPeriod.WEEK, LocalDate.of(2025, 5, 5), LocalDate.of(2025, 5, 19));
+
+        assertEquals(2, rollups.size());
+        DailyLogRollup first = rollups.getFirst();
+        assertEquals(LocalDate.of(2025, 5, 5), first.getPeriodStart());
+        assertEquals(2, first.getLogCount());
+        assertEquals(7.0, first.getSleepHoursAverage());
+        assertEquals(2, first.getWeightCount());
+        assertEquals(2, first.getStepsDays());
+        assertEquals(8000L, first.getStepsSum());
+        assertEquals(0, rollups.get(1).getStepsDays());
+        assertTrue(rollups.get(1).getStepsAverage().isEmpty());
+    }
+
+    @Test
+    void testDeleteByUserIdBefore_keepsRollupsOfDeletedDays() throws IOException {
+        repository.saveAll(List.of(
+                detailedLog(USER_ID, LocalDate.of(2025, 4, 29), 6.0),
+                detailedLog(USER_ID, LocalDate.of(2025, 4, 30), 6.0),
+                detailedLog(USER_ID, LocalDate.of(2025, 5, 1), 9.0)));
+
+        repository.deleteByUserIdBefore(USER_ID, LocalDate.of(2025, 5, 1));
+        repository.close();
+        repository = open();
+
+        assertEquals(List.of(LocalDate.of(2025, 5, 1)),
+                repository.findByUserIdAndDateRange(USER_ID, LocalDate.MIN, LocalDate.MAX).stream()
+                        .map(DailyLog::getLogDate).toList());
+        // 2025-04-28からの週は、削除した2日分と残っている1日分を合算する
+        DailyLogRollup week = repository.findRollupsByUserIdAndPeriodRange(
+                USER_ID, RollupPeriod.WEEK, LocalDate.of(2025, 4, 28), LocalDate.of(2025, 5, 5)).getFirst();
+        assertEquals(3, week.getLogCount());
+        assertEquals(7.0, week.getSleepHoursAverage());
+        assertEquals(6.0, week.getSleepHoursMin());
+        assertEquals(9.0, week.getSleepHoursMax());
+        DailyLogRollup april = repository.findRollupsByUserIdAndPeriodRange(
+                USER_ID, RollupPeriod.MONTH, LocalDate.of(2025, 4, 1), LocalDate.of(2025, 5, 1)).getFirst();
+        assertEquals(2, april.getLogCount());
+    }
+
+    private EmbeddedDailyLogRepository open() {
+        return new EmbeddedDailyLogRepository(directory, true, Duration.ZERO, 0.5);
+    }
+}
@@ -0,0 +1,111 @@
+package nekopunch_rush.testjava21.infrastructure.repository.existence;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ExistenceFilterDailyLogRepositoryのテストクラス
+ */
+class ExistenceFilterDailyLogRepositoryTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+
+    private DailyLogRepository delegate;
+    private ExistenceFilterDailyLogRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(DailyLogRepository.class);
+        when(delegate.findLogDatesByUserId(1L)).thenReturn(List.of(LOG_DATE, LOG_DATE.plusDays(1)));
+        repository = new ExistenceFilterDailyLogRepository(delegate, 100, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testAbsentDay_isAnsweredWithoutDelegate() {
+        LocalDate absent = LOG_DATE.minusDays(1);
+
+        assertFalse(repository.existsByUserIdAndLogDate(1L, absent));
+        assertTrue(repository.findByUserIdAndLogDate(1L, absent).isEmpty());
+        assertFalse(repository.update(absent, log(absent)));
+        assertFalse(repository.deleteByUserIdAndLogDate(1L, absent));
+
+        verify(delegate, never()).existsByUserIdAndLogDate(any(), any());
+        verify(delegate, never()).findByUserIdAndLogDate(any(), any());
+        verify(delegate, never()).update(any(), any());
+        verify(delegate, never()).deleteByUserIdAndLogDate(any(), any());
+        // 索引の読み込みはユーザーごとに1回
+        verify(delegate, times(1)).findLogDatesByUserId(1L);
+        verify(delegate, never()).findPageByUserId(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testPresentDay_isVerifiedByDelegate() {
+        when(delegate.existsByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(false);
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.of(log(LOG_DATE)));
+
+        // 他で削除済みの場合は委譲先の結果に従う
+        assertFalse(repository.existsByUserIdAndLogDate(1L, LOG_DATE));
+        assertTrue(repository.findByUserIdAndLogDate(1L, LOG_DATE).isPresent());
+    }
+
+    @Test
+    void testSave_addsDayToLoadedIndex() {
+        LocalDate earlier = LOG_DATE.minusDays(30);
+        repository.existsByUserIdAndLogDate(1L, earlier);
+        when(delegate.saveIfAbsent(any())).thenReturn(true);
+        when(delegate.existsByUserIdAndLogDate(1L, earlier)).thenReturn(true);
+
+        repository.saveIfAbsent(log(earlier));
+
+        assertTrue(repository.existsByUserIdAndLogDate(1L, earlier));
+        // 起点より前の日を追加しても、既存の日は残る
+        when(delegate.existsByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(true);
+        assertTrue(repository.existsByUserIdAndLogDate(1L, LOG_DATE));
+    }
+
+    @Test
+    void testSave_inTransaction_isAddedAgainAfterCommit() {
+        LocalDate newDay = LOG_DATE.plusDays(10);
+        TransactionSynchronizationManager.initSynchronization();
+        // 索引の読み込み前に登録された日は、コミット前に読み込んだ索引には含まれない
+        repository.save(log(newDay));
+        repository.existsByUserIdAndLogDate(1L, newDay);
+        verify(delegate, never()).existsByUserIdAndLogDate(1L, newDay);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        when(delegate.existsByUserIdAndLogDate(1L, newDay)).thenReturn(true);
+
+        assertTrue(repository.existsByUserIdAndLogDate(1L, newDay));
+    }
+
+    private static DailyLog log(LocalDate logDate) {
+        return DailyLog.of(1L, logDate, 7.0, 5, List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,57 @@
+package nekopunch_rush.testjava21.infrastructure.repository.impl;
+
+import nekopunch_rush.testjava21.infrastructure.repository.entity.MealEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChildChangeSetTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+
+    @Test
+    @DisplayName("キーで突き合わせて追加・更新・削除に振り分ける")
+    void classifiesByKey() {
+        MealEntity unchanged = meal(8, "パン");
+        MealEntity before = meal(12, "うどん");
+        MealEntity after = meal(12, "そば");
+        MealEntity removed = meal(15, "おやつ");
+        MealEntity added = meal(19, "カレー");
+
+        ChildChangeSet<LocalTime, MealEntity> changes = ChildChangeSet.of(
+                List.of(unchanged, before, removed),
+                List.of(meal(8, "パン"), after, added),
+                MealEntity::getTime);
+
+        assertThat(changes.inserts()).containsExactly(added);
+        assertThat(changes.updates()).containsExactly(after);
+        assertThat(changes.deletes()).containsExactly(LocalTime.of(15, 0));
+        assertThat(changes.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("変更が無ければ空の差分になる")
+    void emptyWhenIdentical() {
+        ChildChangeSet<LocalTime, MealEntity> changes = ChildChangeSet.of(
+                List.of(meal(8, "パン")),
+                List.of(meal(8, "パン")),
+                MealEntity::getTime);
+
+        assertThat(changes.size()).isZero();
+    }
+
+    private static MealEntity meal(int hour, String content) {
+        return MealEntity.builder()
+                .userId(1L)
+                .logDate(LOG_DATE)
+                .time(LocalTime.of(hour, 0))
+                .content(content)
+                .calories(500)
+                .build();
+    }
+}
@@ -1,25 +1,52 @@
 package nekopunch_rush.testjava21.infrastructure.repository.impl;
 
 import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.Meal;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+import nekopunch_rush.testjava21.infrastructure.repository.config.DailyLogRepositoryProperties;
+import nekopunch_rush.testjava21.infrastructure.repository.config.DailyLogRepositoryProperties.AggregateFetchMode;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.ActivityEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.BodyMetricsEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.DailyLogEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.MealEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.MentalNoteEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogMapper;
 import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogMapperSupport;
+import nekopunch_rush.testjava21.infrastructure.repository.mapper.DailyLogRollupMapper;
 import nekopunch_rush.testjava21.infrastructure.repository.mapper.RelatedEntitiesMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -29,19 +56,28 @@ class DailyLogRepositoryImplTest {
 
     private DailyLogMapper dailyLogMapper;
     private RelatedEntitiesMapper relatedEntitiesMapper;
+    private DailyLogRollupMapper rollupMapper;
+    private DailyLogRepositoryProperties properties;
+    private SqlSessionFactory sqlSessionFactory;
     private DailyLogRepositoryImpl repository;
 
     @BeforeEach
     void setUp() {
         dailyLogMapper = mock(DailyLogMapper.class);
         relatedEntitiesMapper = mock(RelatedEntitiesMapper.class);
-        repository = new DailyLogRepositoryImpl(dailyLogMapper, relatedEntitiesMapper);
+        rollupMapper = mock(DailyLogRollupMapper.class);
+        properties = new DailyLogRepositoryProperties();
+        properties.setFetchMode(AggregateFetchMode.PER_TABLE);
+        sqlSessionFactory = mock(SqlSessionFactory.class);
+        repository = new DailyLogRepositoryImpl(dailyLogMapper, relatedEntitiesMapper, rollupMapper, properties, sqlSessionFactory);
     }
 
     @Test
     void testSave() {
         DailyLog log = mock(DailyLog.class);
         DailyLogEntity entity = mock(DailyLogEntity.class);
+        when(log.getUserId()).thenReturn(1L);
+        when(log.getLogDate()).thenReturn(LocalDate.of(2024, 6, 5));
         // ...必要に応じてDailyLogMapperSupportのstaticメソッドをMock化...
 
         try (var mocked = mockStatic(DailyLogMapperSupport.class)) {
@@ -58,9 +94,115 @@ class DailyLogRepositoryImplTest {
             verify(dailyLogMapper).insertActivity(Collections.emptyList());
             verify(dailyLogMapper).insertMeal(Collections.emptyList());
             verify(dailyLogMapper).insertMentalNote(Collections.emptyList());
+            // 2024-06-05（水）を含む週（月曜始まり）と月を集計し直す
+            verifyRollupRefreshed(1L, RollupPeriod.WEEK, LocalDate.of(2024, 6, 3), LocalDate.of(2024, 6, 10));
+            verifyRollupRefreshed(1L, RollupPeriod.MONTH, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 7, 1));
         }
     }
 
+    private void verifyRollupRefreshed(Long userId, RollupPeriod period, LocalDate periodStart, LocalDate periodEnd) {
+        InOrder inOrder = inOrder(rollupMapper);
+        inOrder.verify(rollupMapper).upsertFromDailyLogs(userId, period.name(), periodStart, periodEnd);
+        inOrder.verify(rollupMapper).deleteIfNoDailyLogs(userId, period.name(), periodStart, periodEnd);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSaveAll_batchesAllRowsInOneSession() {
+        properties.setBatchChunkSize(2);
+        SqlSession session = mock(SqlSession.class);
+        DailyLogMapper batchMapper = mock(DailyLogMapper.class);
+        when(sqlSessionFactory.openSession(ExecutorType.BATCH)).thenReturn(session);
+        when(session.getMapper(DailyLogMapper.class)).thenReturn(batchMapper);
+
+        List<DailyLog> logs = List.of(
+                logWithMeals(LocalDate.of(2024, 6, 1), 2),
+                logWithMeals(LocalDate.of(2024, 6, 2), 1),
+                logWithMeals(LocalDate.of(2024, 6, 3), 0));
+
+        repository.saveAll(logs);
+
+        verify(batchMapper, times(3)).insert(any(DailyLogEntity.class));
+        // 3日分の食事3行がチャンクサイズ2で2ステートメントに分割される
+        ArgumentCaptor<List<MealEntity>> meals = ArgumentCaptor.forClass(List.class);
+        verify(batchMapper, times(2)).insertMeal(meals.capture());
+        assertEquals(List.of(2, 1), meals.getAllValues().stream().map(List::size).toList());
+        // 行の無い子テーブルは送信しない
+        verify(batchMapper, never()).insertBodyMetrics(any());
+        verify(batchMapper, never()).insertActivity(any());
+        verify(batchMapper, never()).insertMentalNote(any());
+        verify(session).flushStatements();
+        verify(session).close();
+        verifyNoInteractions(dailyLogMapper);
+        // 6/1（土）・6/2（日）は同じ週、6/3（月）は次の週。3日とも同じ月なので再集計は3回
+        verifyRollupRefreshed(1L, RollupPeriod.WEEK, LocalDate.of(2024, 5, 27), LocalDate.of(2024, 6, 3));
+        verifyRollupRefreshed(1L, RollupPeriod.WEEK, LocalDate.of(2024, 6, 3), LocalDate.of(2024, 6, 10));
+        verifyRollupRefreshed(1L, RollupPeriod.MONTH, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 7, 1));
+        verify(rollupMapper, times(3)).upsertFromDailyLogs(any(), any(), any(), any());
+    }
+
+    @Test
+    void testSaveAll_empty() {
+        repository.saveAll(List.of());
+
+        verifyNoInteractions(sqlSessionFactory);
+    }
+
+    private static DailyLog logWithMeals(LocalDate logDate, int mealCount) {
+        List<Meal> meals = new ArrayList<>();
+        for (int i = 0; i < mealCount; i++) {
+            meals.add(Meal.of(LocalTime.of(8 + i, 0), "食事" + i, 400, null));
+        }
+        return DailyLog.of(1L, logDate, 7.0, 5, List.of(), List.of(), meals, List.of());
+    }
+
+    @Test
+    void testSaveIfAbsent_inserted() {
+        DailyLog log = logWithMeals(LocalDate.of(2024, 6, 1), 1);
+        when(dailyLogMapper.insertIfAbsent(any(DailyLogEntity.class))).thenReturn(1);
+
+        assertTrue(repository.saveIfAbsent(log));
+
+        verify(dailyLogMapper).insertMeal(DailyLogMapperSupport.toMealEntities(log));
+        // 行の無い子テーブルは送信しない
+        verify(dailyLogMapper, never()).insertBodyMetrics(any());
+        verify(dailyLogMapper, never()).insertActivity(any());
+        verify(dailyLogMapper, never()).insertMentalNote(any());
+        verify(dailyLogMapper, never()).countByUserIdAndLogDate(any(), any());
+    }
+
+    @Test
+    void testSaveIfAbsent_conflict() {
+        DailyLog log = logWithMeals(LocalDate.of(2024, 6, 1), 1);
+        when(dailyLogMapper.insertIfAbsent(any(DailyLogEntity.class))).thenReturn(0);
+
+        assertFalse(repository.saveIfAbsent(log));
+
+        verify(dailyLogMapper, never()).insertMeal(any());
+        verifyNoInteractions(rollupMapper);
+    }
+
+    @Test
+    void testSaveIfAbsent_duplicateKey() {
+        DailyLog log = logWithMeals(LocalDate.of(2024, 6, 1), 1);
+        when(dailyLogMapper.insertIfAbsent(any(DailyLogEntity.class)))
+                .thenThrow(new DuplicateKeyException("Duplicate entry"));
+
+        assertFalse(repository.saveIfAbsent(log));
+
+        verify(dailyLogMapper, never()).insertMeal(any());
+        verifyNoInteractions(rollupMapper);
+    }
+
+    @Test
+    void testSaveIfAbsent_otherIntegrityViolation_isNotSwallowed() {
+        DailyLog log = logWithMeals(LocalDate.of(2024, 6, 1), 1);
+        when(dailyLogMapper.insertIfAbsent(any(DailyLogEntity.class)))
+                .thenThrow(new DataIntegrityViolationException("Out of range value"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> repository.saveIfAbsent(log));
+    }
+
     @Test
     void testUpdate() {
         Long userId = 1L;
@@ -70,6 +212,9 @@ class DailyLogRepositoryImplTest {
 
         when(log.getUserId()).thenReturn(userId);
         when(log.getLogDate()).thenReturn(logDate);
+        when(dailyLogMapper.findByUserIdAndLogDate(userId, logDate)).thenReturn(DailyLogEntity.builder()
+                .userId(userId).logDate(logDate).sleepHours(7.0).moodLevel(5).build());
+        when(dailyLogMapper.update(logDate, entity)).thenReturn(1);
 
         try (var mocked = mockStatic(DailyLogMapperSupport.class)) {
             mocked.when(() -> DailyLogMapperSupport.toEntity(log)).thenReturn(entity);
@@ -78,32 +223,119 @@ class DailyLogRepositoryImplTest {
             mocked.when(() -> DailyLogMapperSupport.toMealEntities(log)).thenReturn(Collections.emptyList());
             mocked.when(() -> DailyLogMapperSupport.toMentalNoteEntities(log)).thenReturn(Collections.emptyList());
 
-            repository.update(logDate, log);
+            assertTrue(repository.update(logDate, log));
 
             verify(dailyLogMapper).update(logDate, entity);
-            verify(dailyLogMapper).deleteBodyMetrics(userId, logDate);
-            verify(dailyLogMapper).deleteActivity(userId, logDate);
-            verify(dailyLogMapper).deleteMeal(userId, logDate);
-            verify(dailyLogMapper).deleteMentalNote(userId, logDate);
-            verify(dailyLogMapper).insertBodyMetrics(Collections.emptyList());
-            verify(dailyLogMapper).insertActivity(Collections.emptyList());
-            verify(dailyLogMapper).insertMeal(Collections.emptyList());
-            verify(dailyLogMapper).insertMentalNote(Collections.emptyList());
+            // 子データに差分が無ければ子テーブルへの書き込みは発生しない
+            verify(dailyLogMapper, never()).deleteBodyMetrics(any(), any());
+            verify(dailyLogMapper, never()).deleteActivity(any(), any());
+            verify(dailyLogMapper, never()).deleteMeal(any(), any());
+            verify(dailyLogMapper, never()).deleteMentalNote(any(), any());
+            verify(dailyLogMapper, never()).insertBodyMetrics(any());
+            verify(dailyLogMapper, never()).insertActivity(any());
+            verify(dailyLogMapper, never()).insertMeal(any());
+            verify(dailyLogMapper, never()).insertMentalNote(any());
         }
     }
 
+    @Test
+    void testUpdate_writesOnlyChangedChildRows() {
+        Long userId = 1L;
+        LocalDate logDate = LocalDate.of(2024, 6, 1);
+        MealEntity breakfast = MealEntity.builder()
+                .userId(userId).logDate(logDate).time(LocalTime.of(8, 0)).content("パン").calories(300).build();
+        MealEntity lunch = MealEntity.builder()
+                .userId(userId).logDate(logDate).time(LocalTime.of(12, 0)).content("うどん").calories(500).build();
+        MentalNoteEntity note = MentalNoteEntity.builder()
+                .userId(userId).logDate(logDate).recordedAt(LocalDateTime.of(2024, 6, 1, 22, 0))
+                .stressLevel(3).motivationLevel(6).note("memo").build();
+
+        when(dailyLogMapper.findByUserIdAndLogDate(userId, logDate)).thenReturn(DailyLogEntity.builder()
+                .userId(userId).logDate(logDate).sleepHours(7.0).moodLevel(5).build());
+        when(relatedEntitiesMapper.selectBodyMetrics(userId, logDate)).thenReturn(List.of());
+        when(relatedEntitiesMapper.selectActivity(userId, logDate)).thenReturn(List.of());
+        when(relatedEntitiesMapper.selectMeal(userId, logDate)).thenReturn(List.of(breakfast, lunch));
+        when(relatedEntitiesMapper.selectMentalNote(userId, logDate)).thenReturn(List.of(note));
+        when(dailyLogMapper.update(eq(logDate), any(DailyLogEntity.class))).thenReturn(1);
+
+        // 昼食の内容だけを変更し、メンタルメモを削除、夕食を追加する
+        DailyLog updated = DailyLog.of(userId, logDate, 7.0, 5,
+                List.of(),
+                List.of(),
+                List.of(Meal.of(LocalTime.of(8, 0), "パン", 300, null),
+                        Meal.of(LocalTime.of(12, 0), "そば", 450, null),
+                        Meal.of(LocalTime.of(19, 0), "カレー", 800, null)),
+                List.of());
+
+        assertTrue(repository.update(logDate, updated));
+
+        verify(dailyLogMapper).update(eq(logDate), any(DailyLogEntity.class));
+        verify(dailyLogMapper).updateMeal(List.of(MealEntity.builder()
+                .userId(userId).logDate(logDate).time(LocalTime.of(12, 0)).content("そば").calories(450).build()));
+        verify(dailyLogMapper).insertMeal(List.of(MealEntity.builder()
+                .userId(userId).logDate(logDate).time(LocalTime.of(19, 0)).content("カレー").calories(800).build()));
+        verify(dailyLogMapper, never()).deleteMealByKeys(any(), any(), any());
+        verify(dailyLogMapper).deleteMentalNoteByKeys(userId, logDate, List.of(LocalDateTime.of(2024, 6, 1, 22, 0)));
+        verify(dailyLogMapper, never()).insertMentalNote(any());
+        verify(dailyLogMapper, never()).updateMentalNote(any());
+        verify(dailyLogMapper, never()).insertBodyMetrics(any());
+        verify(dailyLogMapper, never()).insertActivity(any());
+    }
+
+    @Test
+    void testUpdate_notFound() {
+        LocalDate logDate = LocalDate.of(2024, 6, 1);
+        DailyLog updated = logWithMeals(logDate, 1);
+
+        assertFalse(repository.update(logDate, updated));
+
+        verify(dailyLogMapper, never()).update(any(), any());
+        verify(dailyLogMapper, never()).insertMeal(any());
+    }
+
+    @Test
+    void testUpdate_deletedConcurrently() {
+        Long userId = 1L;
+        LocalDate logDate = LocalDate.of(2024, 6, 1);
+        when(dailyLogMapper.findByUserIdAndLogDate(userId, logDate)).thenReturn(DailyLogEntity.builder()
+                .userId(userId).logDate(logDate).sleepHours(7.0).moodLevel(5).build());
+        when(dailyLogMapper.update(eq(logDate), any(DailyLogEntity.class))).thenReturn(0);
+
+        assertFalse(repository.update(logDate, logWithMeals(logDate, 1)));
+
+        verify(dailyLogMapper, never()).insertMeal(any());
+    }
+
     @Test
     void testDeleteByUserIdAndLogDate() {
         Long userId = 1L;
         LocalDate logDate = LocalDate.now();
+        when(dailyLogMapper.delete(userId, logDate)).thenReturn(1);
 
-        repository.deleteByUserIdAndLogDate(userId, logDate);
+        assertTrue(repository.deleteByUserIdAndLogDate(userId, logDate));
 
         verify(dailyLogMapper).delete(userId, logDate);
         verify(dailyLogMapper).deleteBodyMetrics(userId, logDate);
         verify(dailyLogMapper).deleteActivity(userId, logDate);
         verify(dailyLogMapper).deleteMeal(userId, logDate);
         verify(dailyLogMapper).deleteMentalNote(userId, logDate);
+        verifyRollupRefreshed(userId, RollupPeriod.WEEK, RollupPeriod.WEEK.startOf(logDate),
+                RollupPeriod.WEEK.startOf(logDate).plusWeeks(1));
+        verifyRollupRefreshed(userId, RollupPeriod.MONTH, logDate.withDayOfMonth(1),
+                logDate.withDayOfMonth(1).plusMonths(1));
+    }
+
+    @Test
+    void testDeleteByUserIdAndLogDate_notFound() {
+        Long userId = 1L;
+        LocalDate logDate = LocalDate.now();
+        when(dailyLogMapper.delete(userId, logDate)).thenReturn(0);
+
+        assertFalse(repository.deleteByUserIdAndLogDate(userId, logDate));
+
+        verify(dailyLogMapper, never()).deleteBodyMetrics(any(), any());
+        verify(dailyLogMapper, never()).deleteMentalNote(any(), any());
+        verifyNoInteractions(rollupMapper);
     }
 
     @Test
@@ -142,6 +374,40 @@ class DailyLogRepositoryImplTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void testFindByUserIdAndLogDate_multiResultSet() {
+        properties.setFetchMode(AggregateFetchMode.MULTI_RESULT_SET);
+        Long userId = 1L;
+        LocalDate logDate = LocalDate.now();
+        DailyLogEntity entity = mock(DailyLogEntity.class);
+        DailyLog domain = mock(DailyLog.class);
+
+        when(dailyLogMapper.findAggregateByUserIdAndLogDate(userId, logDate)).thenReturn(entity);
+
+        try (var mocked = mockStatic(DailyLogMapperSupport.class)) {
+            mocked.when(() -> DailyLogMapperSupport.toDomain(entity)).thenReturn(domain);
+
+            Optional<DailyLog> result = repository.findByUserIdAndLogDate(userId, logDate);
+
+            assertTrue(result.isPresent());
+            assertEquals(domain, result.get());
+            // 1往復で取得するため、テーブルごとの個別問い合わせは発生しない
+            verifyNoInteractions(relatedEntitiesMapper);
+            verify(dailyLogMapper, never()).findByUserIdAndLogDate(userId, logDate);
+        }
+    }
+
+    @Test
+    void testFindByUserIdAndLogDate_multiResultSet_notFound() {
+        properties.setFetchMode(AggregateFetchMode.MULTI_RESULT_SET);
+        Long userId = 1L;
+        LocalDate logDate = LocalDate.now();
+
+        when(dailyLogMapper.findAggregateByUserIdAndLogDate(userId, logDate)).thenReturn(null);
+
+        assertTrue(repository.findByUserIdAndLogDate(userId, logDate).isEmpty());
+    }
+
     @Test
     void testFindByUserIdAndMonth() {
         Long userId = 1L;
@@ -150,7 +416,7 @@ class DailyLogRepositoryImplTest {
         List<DailyLogEntity> entities = List.of(entity);
         DailyLog summary = mock(DailyLog.class);
 
-        when(dailyLogMapper.findByUserIdAndMonth(userId, ym.getYear(), ym.getMonthValue())).thenReturn(entities);
+        when(dailyLogMapper.findByUserIdAndDateRange(userId, ym.atDay(1), ym.plusMonths(1).atDay(1))).thenReturn(entities);
 
         try (var mocked = mockStatic(DailyLogMapperSupport.class)) {
             mocked.when(() -> DailyLogMapperSupport.toDomainSummary(entity)).thenReturn(summary);
@@ -162,6 +428,128 @@ class DailyLogRepositoryImplTest {
         }
     }
 
+    @Test
+    void testFindByUserIdAndMonth_decemberRollsOverToNextYear() {
+        Long userId = 1L;
+
+        repository.findByUserIdAndMonth(userId, YearMonth.of(2024, 12));
+
+        verify(dailyLogMapper).findByUserIdAndDateRange(userId, LocalDate.of(2024, 12, 1), LocalDate.of(2025, 1, 1));
+    }
+
+    @Test
+    void testFindByUserIdAndDateRange() {
+        Long userId = 1L;
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 1);
+        DailyLogEntity entity = mock(DailyLogEntity.class);
+        DailyLog summary = mock(DailyLog.class);
+
+        when(dailyLogMapper.findByUserIdAndDateRange(userId, from, to)).thenReturn(List.of(entity));
+
+        try (var mocked = mockStatic(DailyLogMapperSupport.class)) {
+            mocked.when(() -> DailyLogMapperSupport.toDomainSummary(entity)).thenReturn(summary);
+
+            List<DailyLog> result = repository.findByUserIdAndDateRange(userId, from, to);
+
+            assertEquals(List.of(summary), result);
+        }
+    }
+
+    @Test
+    void testFindWithDetailsByUserIdAndMonth_fetchesEachChildTableOnce() {
+        Long userId = 1L;
+        YearMonth ym = YearMonth.of(2024, 6);
+        LocalDate from = ym.atDay(1);
+        LocalDate to = ym.plusMonths(1).atDay(1);
+        DailyLogEntity day1 = DailyLogEntity.builder().userId(userId).logDate(from).sleepHours(7.0).moodLevel(5).build();
+        DailyLogEntity day2 = DailyLogEntity.builder().userId(userId).logDate(from.plusDays(1)).sleepHours(6.0).moodLevel(4).build();
+        MealEntity breakfast = MealEntity.builder().userId(userId).logDate(from).time(LocalTime.of(8, 0)).build();
+        MealEntity lunch = MealEntity.builder().userId(userId).logDate(from.plusDays(1)).time(LocalTime.of(12, 0)).build();
+
+        when(dailyLogMapper.findByUserIdAndDateRange(userId, from, to)).thenReturn(List.of(day1, day2));
+        when(relatedEntitiesMapper.selectMealByDateRange(userId, from, to)).thenReturn(List.of(breakfast, lunch));
+
+        try (var mocked = mockStatic(DailyLogMapperSupport.class)) {
+            mocked.when(() -> DailyLogMapperSupport.toDomain(any(DailyLogEntity.class))).thenAnswer(invocation -> mock(DailyLog.class));
+
+            List<DailyLog> result = repository.findWithDetailsByUserIdAndMonth(userId, ym);
+
+            assertEquals(2, result.size());
+        }
+
+        assertEquals(List.of(breakfast), day1.getMealList());
+        assertEquals(List.of(lunch), day2.getMealList());
+        assertEquals(List.of(), day1.getBodyMetricsList());
+        // 日数によらず子テーブルごとに1回だけ問い合わせる
+        verify(relatedEntitiesMapper).selectBodyMetricsByDateRange(userId, from, to);
+        verify(relatedEntitiesMapper).selectActivityByDateRange(userId, from, to);
+        verify(relatedEntitiesMapper).selectMealByDateRange(userId, from, to);
+        verify(relatedEntitiesMapper).selectMentalNoteByDateRange(userId, from, to);
+        verify(relatedEntitiesMapper, never()).selectMeal(any(), any());
+    }
+
+    @Test
+    void testFindWithDetailsByUserIdAndMonth_empty() {
+        Long userId = 1L;
+
+        assertTrue(repository.findWithDetailsByUserIdAndMonth(userId, YearMonth.of(2024, 6)).isEmpty());
+
+        // 親行が無ければ子テーブルは問い合わせない
+        verifyNoInteractions(relatedEntitiesMapper);
+    }
+
+    @Test
+    void testStreamByUserId_mergesChildCursorsByLogDate() throws Exception {
+        Long userId = 1L;
+        LocalDate day1 = LocalDate.of(2024, 6, 1);
+        LocalDate day2 = LocalDate.of(2024, 6, 2);
+        DailyLogEntity log1 = DailyLogEntity.builder().userId(userId).logDate(day1).sleepHours(7.0).moodLevel(5).build();
+        DailyLogEntity log2 = DailyLogEntity.builder().userId(userId).logDate(day2).sleepHours(6.0).moodLevel(4).build();
+        // 親行の無い日付（5/31）の子行は読み飛ばされる
+        MealEntity orphan = MealEntity.builder().userId(userId).logDate(day1.minusDays(1)).time(LocalTime.of(8, 0)).build();
+        MealEntity breakfast = MealEntity.builder().userId(userId).logDate(day1).time(LocalTime.of(8, 0)).build();
+        MealEntity dinner = MealEntity.builder().userId(userId).logDate(day1).time(LocalTime.of(19, 0)).build();
+        MealEntity lunch = MealEntity.builder().userId(userId).logDate(day2).time(LocalTime.of(12, 0)).build();
+        MentalNoteEntity note = MentalNoteEntity.builder().userId(userId).logDate(day2).recordedAt(LocalDateTime.of(2024, 6, 2, 22, 0)).build();
+
+        Cursor<DailyLogEntity> logs = cursorOf(List.of(log1, log2));
+        Cursor<BodyMetricsEntity> bodyMetrics = cursorOf(List.of());
+        Cursor<ActivityEntity> activities = cursorOf(List.of());
+        Cursor<MealEntity> meals = cursorOf(List.of(orphan, breakfast, dinner, lunch));
+        Cursor<MentalNoteEntity> mentalNotes = cursorOf(List.of(note));
+        when(dailyLogMapper.streamByUserId(userId)).thenReturn(logs);
+        when(relatedEntitiesMapper.streamBodyMetricsByUserId(userId)).thenReturn(bodyMetrics);
+        when(relatedEntitiesMapper.streamActivityByUserId(userId)).thenReturn(activities);
+        when(relatedEntitiesMapper.streamMealByUserId(userId)).thenReturn(meals);
+        when(relatedEntitiesMapper.streamMentalNoteByUserId(userId)).thenReturn(mentalNotes);
+
+        List<DailyLog> exported = new ArrayList<>();
+        try (var mocked = mockStatic(DailyLogMapperSupport.class)) {
+            mocked.when(() -> DailyLogMapperSupport.toDomain(any(DailyLogEntity.class))).thenAnswer(invocation -> mock(DailyLog.class));
+
+            repository.streamByUserId(userId, exported::add);
+        }
+
+        assertEquals(2, exported.size());
+        assertEquals(List.of(breakfast, dinner), log1.getMealList());
+        assertEquals(List.of(), log1.getMentalNoteList());
+        assertEquals(List.of(lunch), log2.getMealList());
+        assertEquals(List.of(note), log2.getMentalNoteList());
+        verify(logs).close();
+        verify(bodyMetrics).close();
+        verify(activities).close();
+        verify(meals).close();
+        verify(mentalNotes).close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Cursor<E> cursorOf(List<E> rows) {
+        Cursor<E> cursor = mock(Cursor.class);
+        when(cursor.iterator()).thenReturn(rows.iterator());
+        return cursor;
+    }
+
     @Test
     void testExistsByUserIdAndLogDate_true() {
         Long userId = 1L;
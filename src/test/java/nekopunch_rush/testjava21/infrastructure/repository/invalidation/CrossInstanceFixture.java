@@ -0,0 +1,126 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import nekopunch_rush.testjava21.infrastructure.repository.cache.DailyLogCacheConfiguration;
+import nekopunch_rush.testjava21.infrastructure.repository.cache.DailyLogCacheProperties;
+import nekopunch_rush.testjava21.infrastructure.repository.decorator.DailyLogRepositoryDecorator;
+import nekopunch_rush.testjava21.infrastructure.repository.existence.ExistenceFilterConfiguration;
+import nekopunch_rush.testjava21.infrastructure.repository.existence.ExistenceFilterProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 同じ保存先を共有する2つのインスタンス（アプリケーションコンテキスト）を組み立てる、無効化のテスト用の部品。
+ * <p>
+ * 各コンテキストにはキャッシュ・存在判定の索引・無効化の構成だけを読み込み、登録されたデコレータを
+ * 共有のインメモリの保存先に重ねる。
+ */
+final class CrossInstanceFixture {
+
+    static final Long USER_ID = 1L;
+
+    private final Map<LocalDate, DailyLog> rows = new ConcurrentHashMap<>();
+    private final DailyLogRepository storage = mock(DailyLogRepository.class);
+
+    CrossInstanceFixture() {
+        when(storage.findByUserIdAndLogDate(eq(USER_ID), any()))
+                .thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<LocalDate>getArgument(1))));
+        when(storage.findByUserIdAndMonth(eq(USER_ID), any()))
+                .thenAnswer(invocation -> inMonth(invocation.getArgument(1)));
+        when(storage.findLogDatesByUserId(USER_ID))
+                .thenAnswer(invocation -> rows.keySet().stream().sorted().toList());
+        when(storage.existsByUserIdAndLogDate(eq(USER_ID), any()))
+                .thenAnswer(invocation -> rows.containsKey(invocation.<LocalDate>getArgument(1)));
+        when(storage.saveIfAbsent(any()))
+                .thenAnswer(invocation -> {
+                    DailyLog log = invocation.getArgument(0);
+                    return rows.putIfAbsent(log.getLogDate(), log) == null;
+                });
+        when(storage.update(any(), any()))
+                .thenAnswer(invocation -> rows.replace(invocation.getArgument(0), invocation.getArgument(1)) != null);
+    }
+
+    static ApplicationContextRunner runner(String... properties) {
+        return new ApplicationContextRunner()
+                .withUserConfiguration(PropertiesConfiguration.class, InvalidationConfiguration.class,
+                        DailyLogCacheConfiguration.class, ExistenceFilterConfiguration.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues(
+                        "lifelog.cache.enabled=true",
+                        "lifelog.existence-filter.enabled=true",
+                        "lifelog.invalidation.enabled=true")
+                .withPropertyValues(properties);
+    }
+
+    void store(DailyLog log) {
+        rows.put(log.getLogDate(), log);
+    }
+
+    /**
+     * コンテキストに登録されたデコレータを、共有の保存先に順序どおりに重ねる。
+     */
+    DailyLogRepository instance(ApplicationContext context) {
+        List<DailyLogRepositoryDecorator> ordered = context.getBeanProvider(DailyLogRepositoryDecorator.class)
+                .orderedStream()
+                .toList();
+        DailyLogRepository repository = storage;
+        for (DailyLogRepositoryDecorator decorator : ordered.reversed()) {
+            repository = decorator.decorate(repository);
+        }
+        return repository;
+    }
+
+    static DailyLog log(LocalDate logDate, int moodLevel) {
+        return DailyLog.of(USER_ID, logDate, 7.0, moodLevel, List.of(), List.of(), List.of(), List.of());
+    }
+
+    /**
+     * 条件が成り立つまで待ち、待った時間を返す。
+     *
+     * @throws AssertionError timeout までに成り立たなかった場合
+     */
+    static Duration await(BooleanSupplier condition, Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(timeout + " 以内に無効化が反映されませんでした");
+            }
+            Thread.onSpinWait();
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private List<DailyLog> inMonth(YearMonth yearMonth) {
+        return rows.values().stream()
+                .filter(log -> YearMonth.from(log.getLogDate()).equals(yearMonth))
+                .sorted(Comparator.comparing(DailyLog::getLogDate))
+                .toList();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableConfigurationProperties({DailyLogCacheProperties.class, ExistenceFilterProperties.class,
+            InvalidationProperties.class})
+    static class PropertiesConfiguration {
+    }
+}
@@ -0,0 +1,82 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static nekopunch_rush.testjava21.infrastructure.repository.invalidation.CrossInstanceFixture.USER_ID;
+import static nekopunch_rush.testjava21.infrastructure.repository.invalidation.CrossInstanceFixture.await;
+import static nekopunch_rush.testjava21.infrastructure.repository.invalidation.CrossInstanceFixture.log;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2つのアプリケーションコンテキストを同じJVM内の伝送路（LOOPBACK）でつなぎ、インスタンス間の無効化を確認する。
+ */
+class CrossInstanceInvalidationTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+
+    private final ApplicationContextRunner runner = CrossInstanceFixture.runner(
+            "lifelog.invalidation.transport=LOOPBACK",
+            "lifelog.invalidation.channel=test-" + UUID.randomUUID());
+
+    @Test
+    @DisplayName("一方のインスタンスでの更新で、もう一方のインスタンスの1日分・月単位のキャッシュが破棄される")
+    void updateInvalidatesOtherInstance() {
+        CrossInstanceFixture fixture = new CrossInstanceFixture();
+        fixture.store(log(LOG_DATE, 3));
+
+        runner.run(first -> runner.run(second -> {
+            DailyLogRepository writer = fixture.instance(first);
+            DailyLogRepository reader = fixture.instance(second);
+            assertThat(moodOf(reader)).isEqualTo(3);
+            assertThat(monthlyMoodOf(reader)).isEqualTo(3);
+
+            assertThat(writer.update(LOG_DATE, log(LOG_DATE, 8))).isTrue();
+
+            // 同じJVM内の伝送路は送信したスレッドで配るため、更新が戻った時点で反映されている
+            Duration latency = await(() -> moodOf(reader) == 8 && monthlyMoodOf(reader) == 8, Duration.ofSeconds(1));
+            assertThat(latency).isLessThan(Duration.ofMillis(100));
+            assertThat(second.getBean(MeterRegistry.class).get("lifelog.cache.invalidation.lag").timer().count())
+                    .isEqualTo(1);
+            // 送信したインスタンスは自分のメッセージを受け取らない
+            assertThat(first.getBean(MeterRegistry.class).get("lifelog.cache.invalidation.received").counter().count())
+                    .isZero();
+        }));
+    }
+
+    @Test
+    @DisplayName("一方のインスタンスで登録した日は、もう一方のインスタンスの存在判定でも存在すると判定される")
+    void registrationIsVisibleToOtherInstancesExistenceFilter() {
+        CrossInstanceFixture fixture = new CrossInstanceFixture();
+        fixture.store(log(LOG_DATE, 3));
+
+        runner.run(first -> runner.run(second -> {
+            DailyLogRepository writer = fixture.instance(first);
+            DailyLogRepository reader = fixture.instance(second);
+            LocalDate nextDay = LOG_DATE.plusDays(1);
+            // 索引を読み込み、翌日は存在しないと判定させておく
+            assertThat(reader.existsByUserIdAndLogDate(USER_ID, nextDay)).isFalse();
+
+            assertThat(writer.saveIfAbsent(log(nextDay, 6))).isTrue();
+
+            assertThat(reader.existsByUserIdAndLogDate(USER_ID, nextDay)).isTrue();
+            assertThat(reader.findByUserIdAndLogDate(USER_ID, nextDay)).isPresent();
+        }));
+    }
+
+    private static int moodOf(DailyLogRepository repository) {
+        return repository.findByUserIdAndLogDate(USER_ID, LOG_DATE).orElseThrow().getMoodLevel();
+    }
+
+    private static int monthlyMoodOf(DailyLogRepository repository) {
+        return repository.findByUserIdAndMonth(USER_ID, YearMonth.from(LOG_DATE)).getFirst().getMoodLevel();
+    }
+}
@@ -0,0 +1,31 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DailyLogInvalidationのテストクラス
+ */
+class DailyLogInvalidationTest {
+
+    @Test
+    void testDecode_encodedMessage_roundTrips() {
+        DailyLogInvalidation day = new DailyLogInvalidation("node-a", 1L, LocalDate.of(2024, 6, 1), 1_717_200_000_000L);
+        DailyLogInvalidation allDays = new DailyLogInvalidation("node-a", 2L, null, 1_717_200_000_000L);
+
+        assertEquals(day, DailyLogInvalidation.decode(day.encode()));
+        assertEquals(allDays, DailyLogInvalidation.decode(allDays.encode()));
+        assertTrue(DailyLogInvalidation.decode(allDays.encode()).isAllDays());
+    }
+
+    @Test
+    void testDecode_malformedMessage_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> DailyLogInvalidation.decode("node-a|1|2024-06-01"));
+        assertThrows(IllegalArgumentException.class, () -> DailyLogInvalidation.decode("node-a|x|2024-06-01|0"));
+    }
+}
@@ -0,0 +1,54 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * DailyLogWriteNotifierのテストクラス
+ */
+class DailyLogWriteNotifierTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+    private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(1_717_200_000_000L), ZoneOffset.UTC);
+
+    @Test
+    void testCommitted_notifiesLocalListenersAndPublishes() {
+        InvalidationTransport transport = mock(InvalidationTransport.class);
+        DailyLogWriteNotifier notifier = new DailyLogWriteNotifier(new DailyLogInvalidationBus(transport, CLOCK), CLOCK);
+        List<DailyLogInvalidation> received = new ArrayList<>();
+        notifier.subscribe(received::add);
+
+        notifier.committed(1L, LOG_DATE);
+
+        assertEquals(List.of(new DailyLogInvalidation(DailyLogWriteNotifier.LOCAL_ORIGIN, 1L, LOG_DATE, CLOCK.millis())),
+                received);
+        verify(transport).publish(argThat(invalidation -> invalidation.userId().equals(1L)
+                && LOG_DATE.equals(invalidation.logDate())));
+    }
+
+    @Test
+    void testCommitted_failingListener_doesNotStopOthers() {
+        DailyLogWriteNotifier notifier = new DailyLogWriteNotifier(null, CLOCK);
+        List<DailyLogInvalidation> received = new ArrayList<>();
+        notifier.subscribe(invalidation -> {
+            throw new IllegalStateException("boom");
+        });
+        notifier.subscribe(received::add);
+
+        notifier.committed(1L, null);
+
+        assertEquals(1, received.size());
+        assertEquals(true, received.get(0).isAllDays());
+    }
+}
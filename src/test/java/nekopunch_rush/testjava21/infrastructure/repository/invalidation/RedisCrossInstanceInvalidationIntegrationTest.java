@@ -0,0 +1,65 @@
+package nekopunch_rush.testjava21.infrastructure.repository.invalidation;
+
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static nekopunch_rush.testjava21.infrastructure.repository.invalidation.CrossInstanceFixture.USER_ID;
+import static nekopunch_rush.testjava21.infrastructure.repository.invalidation.CrossInstanceFixture.await;
+import static nekopunch_rush.testjava21.infrastructure.repository.invalidation.CrossInstanceFixture.log;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redisコンテナを伝送路として2つのアプリケーションコンテキストをつなぎ、インスタンス間の無効化と反映までの遅延を確認する。
+ */
+@Testcontainers
+class RedisCrossInstanceInvalidationIntegrationTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+
+    /** 同じデータセンター内のRedisを経由した場合の反映までの遅延の上限 */
+    private static final Duration MAX_LATENCY = Duration.ofMillis(500);
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    @Test
+    @DisplayName("一方のインスタンスでの更新が、Redis経由でもう一方のインスタンスのキャッシュへ反映される")
+    void updateInvalidatesOtherInstanceThroughRedis() {
+        ApplicationContextRunner runner = CrossInstanceFixture.runner(
+                "lifelog.invalidation.transport=REDIS",
+                "lifelog.invalidation.redis.uri=redis://" + redis.getHost() + ":" + redis.getMappedPort(6379));
+        CrossInstanceFixture fixture = new CrossInstanceFixture();
+        fixture.store(log(LOG_DATE, 3));
+
+        runner.run(first -> runner.run(second -> {
+            DailyLogRepository writer = fixture.instance(first);
+            DailyLogRepository reader = fixture.instance(second);
+            assertThat(moodOf(reader)).isEqualTo(3);
+
+            List<Duration> latencies = new ArrayList<>();
+            for (int mood = 4; mood <= 8; mood++) {
+                int expected = mood;
+                assertThat(writer.update(LOG_DATE, log(LOG_DATE, expected))).isTrue();
+                latencies.add(await(() -> moodOf(reader) == expected, Duration.ofSeconds(5)));
+            }
+
+            assertThat(latencies).allSatisfy(latency -> assertThat(latency).isLessThan(MAX_LATENCY));
+        }));
+    }
+
+    private static int moodOf(DailyLogRepository repository) {
+        return repository.findByUserIdAndLogDate(USER_ID, LOG_DATE).orElseThrow().getMoodLevel();
+    }
+}
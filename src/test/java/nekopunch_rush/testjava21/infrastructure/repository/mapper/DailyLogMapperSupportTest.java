@@ -42,6 +42,23 @@ class DailyLogMapperSupportTest {
         assertEquals("2024-06-01T08:00", entity.getMeasuredAt().toString());
     }
 
+    @Test
+    void testToChildEntities_truncatesKeysToMicros() {
+        LocalDateTime at = LocalDateTime.of(2024, 6, 1, 8, 0, 30, 123_456_789);
+        DailyLog log = DailyLog.of(1L, LocalDate.of(2024, 6, 1), 7.0, 3,
+                List.of(BodyMetrics.of(Weight.of(60.0), BodyFatPercentage.of(20.0), MuscleMass.of(30.0), MeasuredAt.of(at))),
+                List.of(Activity.of("run", MeasuredAt.of(at), 30, 5.0, Steps.of(6000), CaloriesBurned.of(300))),
+                List.of(Meal.of(at.toLocalTime(), "toast", 300, null)),
+                List.of(MentalNote.of(at, 3, 7, null)));
+
+        // DBに保存される精度（マイクロ秒）に揃え、更新時の差分で保存済みの行と一致させる
+        LocalDateTime stored = LocalDateTime.of(2024, 6, 1, 8, 0, 30, 123_456_000);
+        assertEquals(stored, DailyLogMapperSupport.toBodyMetricsEntities(log).getFirst().getMeasuredAt());
+        assertEquals(stored, DailyLogMapperSupport.toActivityEntities(log).getFirst().getStartedAt());
+        assertEquals(stored.toLocalTime(), DailyLogMapperSupport.toMealEntities(log).getFirst().getTime());
+        assertEquals(stored, DailyLogMapperSupport.toMentalNoteEntities(log).getFirst().getRecordedAt());
+    }
+
     @Test
     void testToActivityEntities() {
         Activity act = Activity.of(
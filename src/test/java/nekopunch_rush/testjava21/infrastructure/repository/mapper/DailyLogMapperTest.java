@@ -1,15 +1,24 @@
 package nekopunch_rush.testjava21.infrastructure.repository.mapper;
 
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.config.DailyLogRepositoryProperties;
+import nekopunch_rush.testjava21.infrastructure.repository.config.MyBatisConfig;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.DailyLogEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.BodyMetricsEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.ActivityEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.MealEntity;
 import nekopunch_rush.testjava21.infrastructure.repository.entity.MentalNoteEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.impl.DailyLogRepositoryImpl;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MySQLContainer;
@@ -19,20 +28,27 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 @Testcontainers
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @MybatisTest
+@Import(MyBatisConfig.class)
 class DailyLogMapperTest {
 
     @Container
     static MySQLContainer<?> dbContainer = new MySQLContainer<>("mysql:8")
             .withUsername("test")
-            .withPassword("test");
+            .withPassword("test")
+            .withUrlParam("allowMultiQueries", "true")
+            .withUrlParam("useCursorFetch", "true");
 
     @DynamicPropertySource
     static void overrideProps(DynamicPropertyRegistry registry) {
@@ -46,6 +62,15 @@ class DailyLogMapperTest {
     @Autowired
     private DailyLogMapper dailyLogMapper;
 
+    @Autowired
+    private RelatedEntitiesMapper relatedEntitiesMapper;
+
+    @Autowired
+    private DailyLogRollupMapper rollupMapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
     @Test
     @DisplayName("insertとfindByIdの正常系")
     void insertAndFindById() {
@@ -130,6 +155,80 @@ class DailyLogMapperTest {
         assertThat(result).isNull();
     }
 
+    @Test
+    @DisplayName("insertIfAbsentの正常系（MySQLでは重複時にDuplicateKeyExceptionとなり既存行を変更しない）")
+    void insertIfAbsentNormal() {
+        DailyLogEntity log = DailyLogEntity.builder()
+                .userId(4L)
+                .logDate(LocalDate.of(2025, 7, 2))
+                .sleepHours(7.0)
+                .moodLevel(4)
+                .build();
+        DailyLogEntity duplicate = DailyLogEntity.builder()
+                .userId(4L)
+                .logDate(LocalDate.of(2025, 7, 2))
+                .sleepHours(3.0)
+                .moodLevel(1)
+                .build();
+
+        assertThat(dailyLogMapper.insertIfAbsent(log)).isEqualTo(1);
+        assertThatThrownBy(() -> dailyLogMapper.insertIfAbsent(duplicate)).isInstanceOf(DuplicateKeyException.class);
+
+        DailyLogEntity result = dailyLogMapper.findByUserIdAndLogDate(4L, LocalDate.of(2025, 7, 2));
+        assertThat(result.getSleepHours()).isEqualTo(7.0);
+        assertThat(result.getMoodLevel()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("saveAllのJDBCバッチで主キーが重複した場合も、Mapperと同じくDuplicateKeyExceptionとなる")
+    void saveAllBatchDuplicateKey() {
+        DailyLogRepositoryImpl repository = new DailyLogRepositoryImpl(
+                dailyLogMapper, relatedEntitiesMapper, rollupMapper, new DailyLogRepositoryProperties(), sqlSessionFactory);
+        dailyLogMapper.insert(DailyLogEntity.builder()
+                .userId(5L)
+                .logDate(LocalDate.of(2025, 8, 2))
+                .sleepHours(7.0)
+                .moodLevel(4)
+                .build());
+
+        assertThatThrownBy(() -> repository.saveAll(List.of(
+                DailyLog.of(5L, LocalDate.of(2025, 8, 1), 6.0, 3, List.of(), List.of(), List.of(), List.of()),
+                DailyLog.of(5L, LocalDate.of(2025, 8, 2), 6.0, 3, List.of(), List.of(), List.of(), List.of()))))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    @DisplayName("insertIfAbsentは重複以外のエラーを警告にしない（NOT NULL違反は既定値で登録せずエラーとする）")
+    void insertIfAbsentNotNullViolation() {
+        DailyLogEntity withoutDate = DailyLogEntity.builder()
+                .userId(4L)
+                .sleepHours(7.0)
+                .moodLevel(4)
+                .build();
+
+        assertThatThrownBy(() -> dailyLogMapper.insertIfAbsent(withoutDate))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .isNotInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    @DisplayName("update/deleteの影響行数（存在しないデータは0）")
+    void updateAndDeleteAffectedRows() {
+        DailyLogEntity log = DailyLogEntity.builder()
+                .userId(5L)
+                .logDate(LocalDate.of(2025, 7, 3))
+                .sleepHours(7.0)
+                .moodLevel(4)
+                .build();
+        dailyLogMapper.insert(log);
+
+        // 値が変わらない場合も一致した行数を返す（Connector/JのCLIENT_FOUND_ROWS）
+        assertThat(dailyLogMapper.update(LocalDate.of(2025, 7, 3), log)).isEqualTo(1);
+        assertThat(dailyLogMapper.update(LocalDate.of(2099, 1, 1), log)).isZero();
+        assertThat(dailyLogMapper.delete(5L, LocalDate.of(2025, 7, 3))).isEqualTo(1);
+        assertThat(dailyLogMapper.delete(5L, LocalDate.of(2025, 7, 3))).isZero();
+    }
+
     @Test
     @DisplayName("insertの異常系（必須項目null）")
     void insertAbnormalNullRequired() {
@@ -150,6 +249,152 @@ class DailyLogMapperTest {
         assertThat(result).isNull();
     }
 
+    @Test
+    @DisplayName("findAggregateByUserIdAndLogDateの正常系（子テーブルを1往復で取得）")
+    void findAggregateByUserIdAndLogDateNormal() {
+        Long userId = 20L;
+        LocalDate logDate = LocalDate.of(2025, 10, 1);
+        dailyLogMapper.insert(DailyLogEntity.builder()
+                .userId(userId)
+                .logDate(logDate)
+                .sleepHours(6.5)
+                .moodLevel(4)
+                .build());
+        dailyLogMapper.insertBodyMetrics(List.of(
+                BodyMetricsEntity.builder()
+                        .userId(userId).logDate(logDate)
+                        .weight(60.0).bodyFatPercentage(18.0).muscleMass(45.0)
+                        .measuredAt(LocalDateTime.of(2025, 10, 1, 7, 0))
+                        .build(),
+                BodyMetricsEntity.builder()
+                        .userId(userId).logDate(logDate)
+                        .weight(59.5).bodyFatPercentage(17.8).muscleMass(45.1)
+                        .measuredAt(LocalDateTime.of(2025, 10, 1, 22, 0))
+                        .build()));
+        dailyLogMapper.insertActivity(Collections.singletonList(ActivityEntity.builder()
+                .userId(userId).logDate(logDate)
+                .type("walk").startedAt(LocalDateTime.of(2025, 10, 1, 8, 0))
+                .durationInMinutes(40).distanceKm(3.0).steps(4000).caloriesBurned(150)
+                .build()));
+        dailyLogMapper.insertMeal(Collections.singletonList(MealEntity.builder()
+                .userId(userId).logDate(logDate)
+                .time(LocalTime.of(12, 30)).content("昼食: そば").calories(500)
+                .build()));
+        // 別の日の子データは紐付かないこと
+        dailyLogMapper.insertMeal(Collections.singletonList(MealEntity.builder()
+                .userId(userId).logDate(logDate.plusDays(1))
+                .time(LocalTime.of(12, 30)).content("翌日の昼食").calories(600)
+                .build()));
+
+        DailyLogEntity result = dailyLogMapper.findAggregateByUserIdAndLogDate(userId, logDate);
+
+        assertThat(result).isNotNull();
+        assertThat(result.getSleepHours()).isEqualTo(6.5);
+        assertThat(result.getBodyMetricsList()).hasSize(2);
+        assertThat(result.getActivityList()).extracting(ActivityEntity::getType).containsExactly("walk");
+        assertThat(result.getMealList()).extracting(MealEntity::getContent).containsExactly("昼食: そば");
+        // 子データが無いテーブルはnull（DailyLogMapperSupport.toDomainで空リスト扱い）
+        assertThat(result.getMentalNoteList()).isNullOrEmpty();
+    }
+
+    @Test
+    @DisplayName("findAggregateByUserIdAndLogDateの異常系（存在しないデータ）")
+    void findAggregateByUserIdAndLogDateAbnormalNotFound() {
+        DailyLogEntity result = dailyLogMapper.findAggregateByUserIdAndLogDate(777L, LocalDate.of(2099, 12, 31));
+        assertThat(result).isNull();
+    }
+
+    @Test
+    @DisplayName("findByUserIdAndDateRangeの正常系（半開区間で月境界を含まない）")
+    void findByUserIdAndDateRangeNormal() {
+        Long userId = 30L;
+        for (LocalDate date : List.of(
+                LocalDate.of(2025, 1, 31),
+                LocalDate.of(2025, 2, 1),
+                LocalDate.of(2025, 2, 28),
+                LocalDate.of(2025, 3, 1))) {
+            dailyLogMapper.insert(DailyLogEntity.builder()
+                    .userId(userId).logDate(date).sleepHours(7.0).moodLevel(5)
+                    .build());
+        }
+
+        List<DailyLogEntity> result = dailyLogMapper.findByUserIdAndDateRange(
+                userId, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 1));
+
+        assertThat(result).extracting(DailyLogEntity::getLogDate)
+                .containsExactly(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28));
+    }
+
+    @Test
+    @DisplayName("findPageByUserIdの正常系（前のページの最後の日付から新しい順に続きを読める）")
+    void findPageByUserIdNormal() {
+        Long userId = 35L;
+        LocalDate first = LocalDate.of(2025, 4, 1);
+        for (int i = 0; i < 5; i++) {
+            dailyLogMapper.insert(DailyLogEntity.builder()
+                    .userId(userId).logDate(first.plusDays(i)).sleepHours(7.0).moodLevel(5)
+                    .build());
+        }
+
+        List<DailyLogEntity> page1 = dailyLogMapper.findPageByUserId(userId, null, null, 2);
+        List<DailyLogEntity> page2 = dailyLogMapper.findPageByUserId(userId, null, page1.get(1).getLogDate(), 2);
+        // 下限を指定した場合はその日より前を含まない
+        List<DailyLogEntity> page3 = dailyLogMapper.findPageByUserId(userId, first.plusDays(1), page2.get(1).getLogDate(), 2);
+
+        assertThat(page1).extracting(DailyLogEntity::getLogDate)
+                .containsExactly(first.plusDays(4), first.plusDays(3));
+        assertThat(page2).extracting(DailyLogEntity::getLogDate)
+                .containsExactly(first.plusDays(2), first.plusDays(1));
+        assertThat(page3).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findLogDatesByUserIdの正常系（対象ユーザーの日付だけを昇順で返す）")
+    void findLogDatesByUserIdNormal() {
+        Long userId = 36L;
+        for (LocalDate date : List.of(LocalDate.of(2025, 4, 3), LocalDate.of(2025, 4, 1))) {
+            dailyLogMapper.insert(DailyLogEntity.builder()
+                    .userId(userId).logDate(date).sleepHours(7.0).moodLevel(5)
+                    .build());
+        }
+        dailyLogMapper.insert(DailyLogEntity.builder()
+                .userId(userId + 1).logDate(LocalDate.of(2025, 4, 2)).sleepHours(7.0).moodLevel(5)
+                .build());
+
+        assertThat(dailyLogMapper.findLogDatesByUserId(userId))
+                .containsExactly(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 3));
+    }
+
+    @Test
+    @DisplayName("streamByUserIdの正常系（子テーブルのカーソルと同時に開いて日付順に読める）")
+    void streamByUserIdNormal() throws Exception {
+        Long userId = 40L;
+        for (LocalDate date : List.of(LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 1))) {
+            dailyLogMapper.insert(DailyLogEntity.builder()
+                    .userId(userId).logDate(date).sleepHours(7.0).moodLevel(5)
+                    .build());
+        }
+        dailyLogMapper.insertMeal(List.of(
+                MealEntity.builder().userId(userId).logDate(LocalDate.of(2025, 3, 2))
+                        .time(LocalTime.of(12, 0)).content("昼食").calories(600).build(),
+                MealEntity.builder().userId(userId).logDate(LocalDate.of(2025, 3, 1))
+                        .time(LocalTime.of(8, 0)).content("朝食").calories(400).build()));
+
+        List<LocalDate> logDates = new ArrayList<>();
+        List<String> meals = new ArrayList<>();
+        try (Cursor<DailyLogEntity> logCursor = dailyLogMapper.streamByUserId(userId);
+             Cursor<MealEntity> mealCursor = relatedEntitiesMapper.streamMealByUserId(userId)) {
+            Iterator<MealEntity> mealIterator = mealCursor.iterator();
+            for (DailyLogEntity log : logCursor) {
+                logDates.add(log.getLogDate());
+                meals.add(mealIterator.next().getContent());
+            }
+        }
+
+        assertThat(logDates).containsExactly(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2));
+        assertThat(meals).containsExactly("朝食", "昼食");
+    }
+
     @Test
     @DisplayName("insertBodyMetricsとdeleteBodyMetricsの正常系")
     void insertAndDeleteBodyMetrics() {
@@ -167,6 +412,67 @@ class DailyLogMapperTest {
         // 削除後の確認はselectが無いので例外が出ないことのみ確認
     }
 
+    @Test
+    @DisplayName("updateBodyMetricsとdeleteBodyMetricsByKeysの正常系（キー指定の行だけが変わる）")
+    void updateAndDeleteBodyMetricsByKeys() {
+        Long userId = 14L;
+        LocalDate logDate = LocalDate.of(2025, 9, 5);
+        LocalDateTime morning = LocalDateTime.of(2025, 9, 5, 7, 0);
+        LocalDateTime noon = LocalDateTime.of(2025, 9, 5, 12, 0);
+        LocalDateTime night = LocalDateTime.of(2025, 9, 5, 22, 0);
+        dailyLogMapper.insertBodyMetrics(List.of(
+                bodyMetrics(userId, logDate, morning, 60.0),
+                bodyMetrics(userId, logDate, noon, 60.2),
+                bodyMetrics(userId, logDate, night, 60.4)));
+
+        int updated = dailyLogMapper.updateBodyMetrics(List.of(
+                bodyMetrics(userId, logDate, morning, 59.0),
+                bodyMetrics(userId, logDate, night, 59.4)));
+        int deleted = dailyLogMapper.deleteBodyMetricsByKeys(userId, logDate, List.of(noon));
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(deleted).isEqualTo(1);
+        assertThat(relatedEntitiesMapper.selectBodyMetrics(userId, logDate))
+                .extracting(BodyMetricsEntity::getMeasuredAt, BodyMetricsEntity::getWeight)
+                .containsExactlyInAnyOrder(tuple(morning, 59.0), tuple(night, 59.4));
+    }
+
+    @Test
+    @DisplayName("updateMealとdeleteMealByKeysの正常系（写真URLのnull更新を含む）")
+    void updateAndDeleteMealByKeys() {
+        Long userId = 15L;
+        LocalDate logDate = LocalDate.of(2025, 9, 6);
+        dailyLogMapper.insertMeal(List.of(
+                MealEntity.builder().userId(userId).logDate(logDate).time(LocalTime.of(8, 0))
+                        .content("朝食").calories(300).photoUrl("http://example.com/a.jpg").build(),
+                MealEntity.builder().userId(userId).logDate(logDate).time(LocalTime.of(12, 0))
+                        .content("昼食").calories(600).build()));
+
+        int updated = dailyLogMapper.updateMeal(List.of(
+                MealEntity.builder().userId(userId).logDate(logDate).time(LocalTime.of(8, 0))
+                        .content("朝食（訂正）").calories(350).photoUrl(null).build()));
+        int deleted = dailyLogMapper.deleteMealByKeys(userId, logDate, List.of(LocalTime.of(12, 0)));
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(deleted).isEqualTo(1);
+        List<MealEntity> meals = relatedEntitiesMapper.selectMeal(userId, logDate);
+        assertThat(meals).hasSize(1);
+        assertThat(meals.getFirst().getContent()).isEqualTo("朝食（訂正）");
+        assertThat(meals.getFirst().getCalories()).isEqualTo(350);
+        assertThat(meals.getFirst().getPhotoUrl()).isNull();
+    }
+
+    private static BodyMetricsEntity bodyMetrics(Long userId, LocalDate logDate, LocalDateTime measuredAt, double weight) {
+        return BodyMetricsEntity.builder()
+                .userId(userId)
+                .logDate(logDate)
+                .weight(weight)
+                .bodyFatPercentage(18.0)
+                .muscleMass(45.0)
+                .measuredAt(measuredAt)
+                .build();
+    }
+
     @Test
     @DisplayName("insertActivityとdeleteActivityの正常系")
     void insertAndDeleteActivity() {
@@ -0,0 +1,146 @@
+package nekopunch_rush.testjava21.infrastructure.repository.mapper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 月単位取得の YEAR()/MONTH() 条件と半開区間条件の実行計画・レイテンシ比較。
+ * <p>
+ * 数年分のdaily_logを生成したテーブルに対して、旧クエリと新クエリ（findByUserIdAndDateRange）の
+ * EXPLAIN結果と平均実行時間を標準出力へ出す。{@code ./gradlew benchmark} で実行する。
+ */
+@Tag("benchmark")
+@Testcontainers
+class DailyLogMonthQueryBenchmarkTest {
+
+    private static final int USERS = 100;
+    private static final int YEARS = 6;
+    private static final int ITERATIONS = 300;
+    private static final long TARGET_USER_ID = USERS / 2;
+    private static final YearMonth TARGET_MONTH = YearMonth.of(2022, 6);
+    private static final LocalDate DATA_START = LocalDate.of(2019, 1, 1);
+    private static final LocalDate DATA_END = DATA_START.plusYears(YEARS);
+
+    @Container
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withUrlParam("reWriteBatchedInserts", "true");
+
+    @Test
+    @DisplayName("MySQL: YEAR()/MONTH() と半開区間の比較")
+    void mysql() {
+        JdbcTemplate jdbc = prepare(mysql);
+        String legacy = "SELECT * FROM daily_log WHERE user_id = ? AND YEAR(log_date) = ? AND MONTH(log_date) = ? ORDER BY log_date";
+        String range = "SELECT * FROM daily_log WHERE user_id = ? AND log_date >= ? AND log_date < ? ORDER BY log_date";
+
+        List<Map<String, Object>> legacyPlan = jdbc.queryForList("EXPLAIN " + legacy, legacyArgs());
+        List<Map<String, Object>> rangePlan = jdbc.queryForList("EXPLAIN " + range, rangeArgs());
+        report("MySQL", legacyPlan, rangePlan, jdbc, legacy, range);
+
+        // 旧クエリはユーザーの全行を走査し、新クエリは対象月の行だけを走査する
+        assertThat(((Number) rangePlan.getFirst().get("rows")).longValue())
+                .isLessThan(((Number) legacyPlan.getFirst().get("rows")).longValue());
+        assertThat(rangePlan.getFirst().get("type")).isEqualTo("range");
+    }
+
+    @Test
+    @DisplayName("PostgreSQL: EXTRACT() と半開区間の比較")
+    void postgres() {
+        JdbcTemplate jdbc = prepare(postgres);
+        String legacy = "SELECT * FROM daily_log WHERE user_id = ? AND EXTRACT(YEAR FROM log_date) = ? AND EXTRACT(MONTH FROM log_date) = ? ORDER BY log_date";
+        String range = "SELECT * FROM daily_log WHERE user_id = ? AND log_date >= ? AND log_date < ? ORDER BY log_date";
+
+        List<Map<String, Object>> legacyPlan = jdbc.queryForList("EXPLAIN ANALYZE " + legacy, legacyArgs());
+        List<Map<String, Object>> rangePlan = jdbc.queryForList("EXPLAIN ANALYZE " + range, rangeArgs());
+        report("PostgreSQL", legacyPlan, rangePlan, jdbc, legacy, range);
+
+        // 旧クエリは user_id だけでインデックスを引いた後に関数条件で行を捨てる（Filter）
+        assertThat(planText(legacyPlan)).contains("Filter");
+        assertThat(planText(rangePlan)).contains("Index Cond").contains("log_date");
+    }
+
+    private static JdbcTemplate prepare(JdbcDatabaseContainer<?> container) {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                container.getJdbcUrl(), container.getUsername(), container.getPassword()));
+        jdbc.execute("CREATE TABLE daily_log ("
+                + " user_id BIGINT NOT NULL,"
+                + " log_date DATE NOT NULL,"
+                + " sleep_hours DOUBLE PRECISION NOT NULL,"
+                + " mood_level INT NOT NULL,"
+                + " PRIMARY KEY (user_id, log_date))");
+
+        for (long userId = 1; userId <= USERS; userId++) {
+            List<Object[]> rows = new ArrayList<>();
+            for (LocalDate date = DATA_START; date.isBefore(DATA_END); date = date.plusDays(1)) {
+                rows.add(new Object[]{userId, Date.valueOf(date), 7.0, 5});
+            }
+            jdbc.batchUpdate("INSERT INTO daily_log (user_id, log_date, sleep_hours, mood_level) VALUES (?, ?, ?, ?)", rows);
+        }
+        jdbc.execute(container instanceof MySQLContainer<?> ? "ANALYZE TABLE daily_log" : "ANALYZE daily_log");
+        return jdbc;
+    }
+
+    private static Object[] legacyArgs() {
+        return new Object[]{TARGET_USER_ID, TARGET_MONTH.getYear(), TARGET_MONTH.getMonthValue()};
+    }
+
+    private static Object[] rangeArgs() {
+        return new Object[]{TARGET_USER_ID, Date.valueOf(TARGET_MONTH.atDay(1)), Date.valueOf(TARGET_MONTH.plusMonths(1).atDay(1))};
+    }
+
+    private static void report(String vendor,
+                               List<Map<String, Object>> legacyPlan,
+                               List<Map<String, Object>> rangePlan,
+                               JdbcTemplate jdbc,
+                               String legacy,
+                               String range) {
+        double legacyMicros = measure(jdbc, legacy, legacyArgs());
+        double rangeMicros = measure(jdbc, range, rangeArgs());
+        System.out.printf("[%s] rows=%d (users=%d, years=%d)%n",
+                vendor, USERS * ChronoUnit.DAYS.between(DATA_START, DATA_END), USERS, YEARS);
+        System.out.printf("[%s] YEAR/MONTH plan: %s%n", vendor, planText(legacyPlan));
+        System.out.printf("[%s] range plan     : %s%n", vendor, planText(rangePlan));
+        System.out.printf("[%s] YEAR/MONTH avg : %.1f us%n", vendor, legacyMicros);
+        System.out.printf("[%s] range avg      : %.1f us%n", vendor, rangeMicros);
+    }
+
+    private static double measure(JdbcTemplate jdbc, String sql, Object[] args) {
+        // ウォームアップ
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            jdbc.queryForList(sql, args);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertThat(jdbc.queryForList(sql, args)).hasSize(TARGET_MONTH.lengthOfMonth());
+        }
+        return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+    }
+
+    private static String planText(List<Map<String, Object>> plan) {
+        return plan.stream()
+                .map(row -> row.values().toString())
+                .reduce((a, b) -> a + " / " + b)
+                .orElse("");
+    }
+}
@@ -0,0 +1,286 @@
+package nekopunch_rush.testjava21.infrastructure.repository.mapper;
+
+import nekopunch_rush.testjava21.infrastructure.repository.entity.ActivityEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.BodyMetricsEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.DailyLogEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.MealEntity;
+import nekopunch_rush.testjava21.infrastructure.repository.entity.MentalNoteEntity;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * マイグレーションで作成したスキーマに対し、各Mapper XMLの全ステートメント（INSERTを除く）が
+ * インデックスを使って実行されることを実行計画で確認する。
+ * <p>
+ * 通常のスキーマを確認した後、log_dateでのパーティショニング（db/partitioning）を適用して再度確認する。
+ */
+@Testcontainers
+class MapperIndexUsageTest {
+
+    private static final List<String> MAPPER_XMLS = List.of(
+            "mapper/RelatedEntitiesMapper.xml",
+            "mapper/DailyLogMapper.xml",
+            "mapper/DailyLogRollupMapper.xml");
+    private static final String ENTITY_PACKAGE = "nekopunch_rush.testjava21.infrastructure.repository.entity";
+
+    private static final int USERS = 50;
+    private static final LocalDate DATA_START = LocalDate.of(2024, 7, 1);
+    private static final int DAYS = 365;
+    private static final long TARGET_USER_ID = USERS / 2;
+    private static final LocalDate TARGET_DATE = LocalDate.of(2025, 1, 15);
+
+    @Container
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8")
+            .withUrlParam("allowMultiQueries", "true")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withUrlParam("reWriteBatchedInserts", "true");
+
+    @Test
+    @DisplayName("MySQL: 全ステートメントがインデックスを使う")
+    void mysql() throws Exception {
+        DataSource dataSource = dataSource(mysql);
+        migrate(dataSource, "classpath:db/migration/mysql");
+        seed(dataSource);
+
+        assertThat(mysqlViolations(dataSource)).isEmpty();
+
+        migrate(dataSource, "classpath:db/migration/mysql", "classpath:db/partitioning/mysql");
+        assertThat(mysqlViolations(dataSource)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("PostgreSQL: 全ステートメントがインデックスを使う")
+    void postgres() throws Exception {
+        DataSource dataSource = dataSource(postgres);
+        migrate(dataSource, "classpath:db/migration/postgresql");
+        seed(dataSource);
+
+        assertThat(postgresViolations(dataSource)).isEmpty();
+
+        migrate(dataSource, "classpath:db/migration/postgresql", "classpath:db/partitioning/postgresql");
+        assertThat(postgresViolations(dataSource)).isEmpty();
+    }
+
+    /**
+     * MySQLのEXPLAINで、インデックスを使わない（key が NULL）行を持つステートメントを返す。
+     */
+    private static List<String> mysqlViolations(DataSource dataSource) throws Exception {
+        new JdbcTemplate(dataSource).execute("ANALYZE TABLE daily_log, body_metrics, activity, meal, mental_note, daily_log_rollup");
+
+        List<String> violations = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (MappedStatement ms : statements("mysql")) {
+                for (PreparedStatement explain : explainStatements(connection, ms, "EXPLAIN ")) {
+                    try (explain; ResultSet rs = explain.executeQuery()) {
+                        while (rs.next()) {
+                            if (rs.getString("key") == null) {
+                                violations.add(ms.getId() + ": table=" + rs.getString("table") + ", type=" + rs.getString("type"));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * PostgreSQLのEXPLAINで、Seq Scanを含むステートメントを返す。
+     * 行数が少ないとインデックスがあってもSeq Scanが選ばれるため、enable_seqscanを無効にして
+     * 「インデックスで引ける条件になっているか」を確認する（使えるインデックスが無ければSeq Scanのまま残る）。
+     */
+    private static List<String> postgresViolations(DataSource dataSource) throws Exception {
+        new JdbcTemplate(dataSource).execute("ANALYZE");
+
+        List<String> violations = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+            }
+            for (MappedStatement ms : statements("postgresql")) {
+                for (PreparedStatement explain : explainStatements(connection, ms, "EXPLAIN ")) {
+                    try (explain; ResultSet rs = explain.executeQuery()) {
+                        while (rs.next()) {
+                            String line = rs.getString(1);
+                            if (line.contains("Seq Scan")) {
+                                violations.add(ms.getId() + ": " + line.trim());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Mapper XMLを指定したdatabaseIdで読み込み、INSERT以外のステートメントを返す。
+     */
+    private static List<MappedStatement> statements(String databaseId) throws Exception {
+        Configuration configuration = new Configuration();
+        configuration.setDatabaseId(databaseId);
+        configuration.getTypeAliasRegistry().registerAliases(ENTITY_PACKAGE);
+        for (String resource : MAPPER_XMLS) {
+            try (InputStream in = Resources.getResourceAsStream(resource)) {
+                new XMLMapperBuilder(in, configuration, resource, configuration.getSqlFragments()).parse();
+            }
+        }
+        // getMappedStatementsは短縮名と完全名の両方で同じステートメントを返すため重複を除く
+        return new LinkedHashSet<>(configuration.getMappedStatements()).stream()
+                .filter(ms -> ms.getSqlCommandType() != SqlCommandType.INSERT)
+                .toList();
+    }
+
+    /**
+     * ステートメントのSQLにEXPLAINを付け、サンプルのパラメータを設定したPreparedStatementを返す。
+     * 複数のSQLを ; で連結したステートメント（結果セットを複数返すもの）は1文ずつに分ける。
+     */
+    private static List<PreparedStatement> explainStatements(Connection connection, MappedStatement ms, String prefix) throws Exception {
+        Map<String, Object> parameters = sampleParameters();
+        BoundSql boundSql = ms.getBoundSql(parameters);
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+
+        List<PreparedStatement> result = new ArrayList<>();
+        if (!boundSql.getSql().contains(";")) {
+            PreparedStatement ps = connection.prepareStatement(prefix + boundSql.getSql());
+            new DefaultParameterHandler(ms, parameters, boundSql).setParameters(ps);
+            result.add(ps);
+            return result;
+        }
+
+        int offset = 0;
+        for (String sql : boundSql.getSql().split(";")) {
+            if (sql.isBlank()) continue;
+            int placeholders = (int) sql.chars().filter(c -> c == '?').count();
+            BoundSql part = new BoundSql(ms.getConfiguration(), sql, mappings.subList(offset, offset + placeholders), parameters);
+            offset += placeholders;
+
+            PreparedStatement ps = connection.prepareStatement(prefix + sql);
+            new DefaultParameterHandler(ms, parameters, part).setParameters(ps);
+            result.add(ps);
+        }
+        return result;
+    }
+
+    private static Map<String, Object> sampleParameters() {
+        LocalDateTime at = TARGET_DATE.atTime(7, 0);
+        YearMonth month = YearMonth.from(TARGET_DATE);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", TARGET_USER_ID);
+        parameters.put("logDate", TARGET_DATE);
+        parameters.put("from", month.atDay(1));
+        parameters.put("to", month.plusMonths(1).atDay(1));
+        parameters.put("since", month.atDay(1));
+        parameters.put("before", month.atDay(1));
+        parameters.put("limit", 30);
+        parameters.put("periodType", "MONTH");
+        parameters.put("periodStart", month.atDay(1));
+        parameters.put("periodEnd", month.plusMonths(1).atDay(1));
+        parameters.put("log", DailyLogEntity.builder()
+                .userId(TARGET_USER_ID).logDate(TARGET_DATE).sleepHours(7.0).moodLevel(5).build());
+        parameters.put("metrics", List.of(BodyMetricsEntity.builder()
+                .userId(TARGET_USER_ID).logDate(TARGET_DATE).weight(60.0).bodyFatPercentage(20.0).muscleMass(45.0)
+                .measuredAt(at).build()));
+        parameters.put("activities", List.of(ActivityEntity.builder()
+                .userId(TARGET_USER_ID).logDate(TARGET_DATE).type("walk").startedAt(at).durationInMinutes(30)
+                .distanceKm(2.0).steps(3000).caloriesBurned(100).build()));
+        parameters.put("meals", List.of(MealEntity.builder()
+                .userId(TARGET_USER_ID).logDate(TARGET_DATE).time(at.toLocalTime()).content("朝食").calories(400).build()));
+        parameters.put("notes", List.of(MentalNoteEntity.builder()
+                .userId(TARGET_USER_ID).logDate(TARGET_DATE).recordedAt(at).stressLevel(3).motivationLevel(6).note("memo").build()));
+        parameters.put("measuredAts", List.of(at));
+        parameters.put("startedAts", List.of(at));
+        parameters.put("times", List.of(at.toLocalTime()));
+        parameters.put("recordedAts", List.of(at));
+        return parameters;
+    }
+
+    private static DataSource dataSource(JdbcDatabaseContainer<?> container) {
+        return new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+
+    private static void migrate(DataSource dataSource, String... locations) {
+        // パーティショニングのV2は適用済みのV3より後から追加されるため、順序外の適用を許可する
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(locations)
+                .outOfOrder(true)
+                .load()
+                .migrate();
+    }
+
+    private static void seed(DataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        for (long userId = 1; userId <= USERS; userId++) {
+            List<Object[]> logs = new ArrayList<>();
+            List<Object[]> metrics = new ArrayList<>();
+            List<Object[]> activities = new ArrayList<>();
+            List<Object[]> meals = new ArrayList<>();
+            List<Object[]> notes = new ArrayList<>();
+            List<Object[]> rollups = new ArrayList<>();
+            for (int i = 0; i < DAYS; i++) {
+                LocalDate date = DATA_START.plusDays(i);
+                Date logDate = Date.valueOf(date);
+                Timestamp at = Timestamp.valueOf(date.atTime(7, 0));
+                logs.add(new Object[]{userId, logDate, 7.0, 5});
+                metrics.add(new Object[]{userId, logDate, 60.0, 20.0, 45.0, at});
+                activities.add(new Object[]{userId, logDate, "walk", at, 30, 2.0, 3000, 100});
+                meals.add(new Object[]{userId, logDate, Time.valueOf(LocalTime.of(7, 0)), "朝食", 400, "https://example.com/meal.jpg"});
+                notes.add(new Object[]{userId, logDate, at, 3, 6, "memo"});
+                if (date.getDayOfMonth() == 1) {
+                    rollups.add(new Object[]{userId, "MONTH", logDate, 30, 210.0, 7.0, 7.0, 150, 5, 5, 30, 1800.0, 60.0, 60.0, 30, 90000L, 3000L, 3000L});
+                }
+            }
+            jdbc.batchUpdate("INSERT INTO daily_log (user_id, log_date, sleep_hours, mood_level) VALUES (?, ?, ?, ?)", logs);
+            jdbc.batchUpdate("INSERT INTO body_metrics (user_id, log_date, weight, body_fat_percentage, muscle_mass, measured_at) VALUES (?, ?, ?, ?, ?, ?)", metrics);
+            jdbc.batchUpdate("INSERT INTO activity (user_id, log_date, type, started_at, duration_in_minutes, distance_km, steps, calories_burned) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", activities);
+            jdbc.batchUpdate("INSERT INTO meal (user_id, log_date, time, content, calories, photo_url) VALUES (?, ?, ?, ?, ?, ?)", meals);
+            jdbc.batchUpdate("INSERT INTO mental_note (user_id, log_date, recorded_at, stress_level, motivation_level, note) VALUES (?, ?, ?, ?, ?, ?)", notes);
+            jdbc.batchUpdate("INSERT INTO daily_log_rollup (user_id, period_type, period_start, log_count, "
+                    + "sleep_hours_sum, sleep_hours_min, sleep_hours_max, mood_level_sum, mood_level_min, mood_level_max, "
+                    + "weight_count, weight_sum, weight_min, weight_max, steps_days, steps_sum, steps_min, steps_max) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rollups);
+        }
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @Testcontainers
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -145,4 +146,35 @@ class RelatedEntitiesMapperTest {
         List<MentalNoteEntity> result = relatedEntitiesMapper.selectMentalNote(999L, LocalDate.of(2099, 4, 4));
         assertThat(result).isEmpty();
     }
+
+    @Test
+    @DisplayName("selectMealByDateRangeの正常系（期間内の行を日付・時刻順に取得する）")
+    void selectMealByDateRangeNormal() {
+        Long userId = 110L;
+        dailyLogMapper.insertMeal(List.of(
+                meal(userId, LocalDate.of(2030, 5, 31), LocalTime.of(8, 0)),
+                meal(userId, LocalDate.of(2030, 6, 2), LocalTime.of(12, 0)),
+                meal(userId, LocalDate.of(2030, 6, 1), LocalTime.of(19, 0)),
+                meal(userId, LocalDate.of(2030, 6, 1), LocalTime.of(8, 0)),
+                meal(userId, LocalDate.of(2030, 7, 1), LocalTime.of(8, 0))));
+
+        List<MealEntity> result = relatedEntitiesMapper.selectMealByDateRange(
+                userId, LocalDate.of(2030, 6, 1), LocalDate.of(2030, 7, 1));
+
+        assertThat(result).extracting(MealEntity::getLogDate, MealEntity::getTime)
+                .containsExactly(
+                        tuple(LocalDate.of(2030, 6, 1), LocalTime.of(8, 0)),
+                        tuple(LocalDate.of(2030, 6, 1), LocalTime.of(19, 0)),
+                        tuple(LocalDate.of(2030, 6, 2), LocalTime.of(12, 0)));
+    }
+
+    private static MealEntity meal(Long userId, LocalDate logDate, LocalTime time) {
+        return MealEntity.builder()
+                .userId(userId)
+                .logDate(logDate)
+                .time(time)
+                .content("食事")
+                .calories(500)
+                .build();
+    }
 }
@@ -0,0 +1,218 @@
+package nekopunch_rush.testjava21.infrastructure.repository.r2dbc;
+
+import io.r2dbc.pool.ConnectionPool;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.Meal;
+import nekopunch_rush.testjava21.infrastructure.repository.archive.ArchivePolicy;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogInvalidation;
+import nekopunch_rush.testjava21.infrastructure.repository.invalidation.DailyLogWriteNotifier;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static nekopunch_rush.testjava21.infrastructure.repository.DailyLogFixtures.detailedLogWithMeals;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * R2dbcDailyLogRepositoryのテストクラス（MySQL / PostgreSQL）
+ */
+@Testcontainers
+class R2dbcDailyLogRepositoryTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2025, 4, 10);
+
+    @Container
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8");
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    private static final Map<String, ConnectionPool> POOLS = new HashMap<>();
+    private static final Map<String, R2dbcDailyLogRepository> REPOSITORIES = new HashMap<>();
+    /** 接続先ごとに、コミット後に知らされた変更 */
+    private static final Map<String, List<DailyLogInvalidation>> NOTIFIED = new HashMap<>();
+
+    @BeforeAll
+    static void setUp() {
+        REPOSITORIES.put("mysql", repository("mysql", mysql, 3306));
+        REPOSITORIES.put("postgresql", repository("postgresql", postgres, 5432));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        POOLS.values().forEach(ConnectionPool::dispose);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"mysql", "postgresql"})
+    void testSaveIfAbsentAndFindWithDetails(String databaseId) {
+        R2dbcDailyLogRepository repository = REPOSITORIES.get(databaseId);
+        DailyLog log = detailedLogWithMeals(1L, LOG_DATE, 2);
+
+        assertThat(repository.saveIfAbsent(log).block()).isTrue();
+        // 同じ日の2回目は登録されない
+        assertThat(repository.saveIfAbsent(log).block()).isFalse();
+
+        DailyLog found = repository.findByUserIdAndLogDate(1L, LOG_DATE).block();
+        assertThat(found).isNotNull();
+        assertThat(found.getSleepHours()).isEqualTo(7.5);
+        assertThat(found.getBodyMetricsList()).hasSize(1);
+        assertThat(found.getActivityList()).hasSize(1);
+        assertThat(found.getMealList()).extracting(Meal::getTime)
+                .containsExactly(LocalTime.of(8, 0), LocalTime.of(9, 0));
+        assertThat(found.getMentalNoteList()).singleElement()
+                .satisfies(note -> assertThat(note.getNote()).isNull());
+        assertThat(repository.existsByUserIdAndLogDate(1L, LOG_DATE).block()).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"mysql", "postgresql"})
+    void testFindWithDetailsByUserIdAndMonth(String databaseId) {
+        R2dbcDailyLogRepository repository = REPOSITORIES.get(databaseId);
+        repository.saveIfAbsent(detailedLogWithMeals(2L, LocalDate.of(2025, 4, 2), 1)).block();
+        repository.saveIfAbsent(detailedLogWithMeals(2L, LocalDate.of(2025, 4, 1), 3)).block();
+        repository.saveIfAbsent(detailedLogWithMeals(2L, LocalDate.of(2025, 5, 1), 1)).block();
+
+        List<DailyLog> logs = repository.findWithDetailsByUserIdAndMonth(2L, YearMonth.of(2025, 4)).collectList().block();
+
+        assertThat(logs).extracting(DailyLog::getLogDate)
+                .containsExactly(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 2));
+        assertThat(logs.get(0).getMealList()).hasSize(3);
+        assertThat(logs.get(1).getMealList()).hasSize(1);
+        assertThat(repository.findByUserIdAndDateRange(2L, LocalDate.of(2025, 4, 1), LocalDate.of(2025, 6, 1))
+                .collectList().block()).hasSize(3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"mysql", "postgresql"})
+    void testUpdateReplacesChildren(String databaseId) {
+        R2dbcDailyLogRepository repository = REPOSITORIES.get(databaseId);
+        repository.saveIfAbsent(detailedLogWithMeals(3L, LOG_DATE, 2)).block();
+        DailyLog updated = DailyLog.of(3L, LOG_DATE, 5.5, 2, List.of(), List.of(),
+                List.of(Meal.of(LocalTime.of(20, 0), "soba", 500, null)), List.of());
+
+        assertThat(repository.update(LOG_DATE, updated).block()).isTrue();
+        assertThat(repository.update(LOG_DATE.plusDays(1), updated).block()).isFalse();
+
+        DailyLog found = repository.findByUserIdAndLogDate(3L, LOG_DATE).block();
+        assertThat(found.getSleepHours()).isEqualTo(5.5);
+        assertThat(found.getBodyMetricsList()).isEmpty();
+        assertThat(found.getMealList()).extracting(Meal::getTime).containsExactly(LocalTime.of(20, 0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"mysql", "postgresql"})
+    void testDelete(String databaseId) {
+        R2dbcDailyLogRepository repository = REPOSITORIES.get(databaseId);
+        repository.saveIfAbsent(detailedLogWithMeals(4L, LOG_DATE, 1)).block();
+
+        assertThat(repository.deleteByUserIdAndLogDate(4L, LOG_DATE).block()).isTrue();
+        assertThat(repository.deleteByUserIdAndLogDate(4L, LOG_DATE).block()).isFalse();
+        assertThat(repository.findByUserIdAndLogDate(4L, LOG_DATE).blockOptional()).isEmpty();
+        assertThat(repository.findWithDetailsByUserIdAndDateRange(4L, LOG_DATE, LOG_DATE.plusDays(1))
+                .collectList().block()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"mysql", "postgresql"})
+    void testWritesNotifyAfterCommit(String databaseId) {
+        R2dbcDailyLogRepository repository = REPOSITORIES.get(databaseId);
+        DailyLog log = detailedLogWithMeals(5L, LOG_DATE, 1);
+
+        repository.saveIfAbsent(log).block();
+        repository.saveIfAbsent(log).block();
+        repository.update(LOG_DATE, log).block();
+        repository.update(LOG_DATE.plusDays(1), log).block();
+        repository.deleteByUserIdAndLogDate(5L, LOG_DATE).block();
+        repository.deleteByUserIdAndLogDate(5L, LOG_DATE).block();
+
+        // 変更の無かった書き込み（重複登録・存在しない日の更新・削除）は知らせない
+        assertThat(NOTIFIED.get(databaseId))
+                .filteredOn(invalidation -> invalidation.userId().equals(5L))
+                .extracting(DailyLogInvalidation::logDate)
+                .containsExactly(LOG_DATE, LOG_DATE, LOG_DATE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"mysql", "postgresql"})
+    void testWritesRefreshRollups(String databaseId) {
+        R2dbcDailyLogRepository repository = REPOSITORIES.get(databaseId);
+        repository.saveIfAbsent(detailedLogWithMeals(6L, LOG_DATE, 1)).block();
+        repository.saveIfAbsent(detailedLogWithMeals(6L, LOG_DATE.plusDays(1), 1)).block();
+        repository.update(LOG_DATE, DailyLog.of(6L, LOG_DATE, 5.5, 3, List.of(), List.of(), List.of(), List.of())).block();
+
+        // Mapper XMLから読み込んだ集計SQLで、週・月の両方が登録・更新される
+        assertThat(monthRollup(databaseId, 6L)).containsExactly(2, 13.0);
+        assertThat(rollupCount(databaseId, 6L)).isEqualTo(2);
+
+        repository.deleteByUserIdAndLogDate(6L, LOG_DATE).block();
+        assertThat(monthRollup(databaseId, 6L)).containsExactly(1, 7.5);
+
+        // 期間内のログが無くなると集計行も削除される
+        repository.deleteByUserIdAndLogDate(6L, LOG_DATE.plusDays(1)).block();
+        assertThat(rollupCount(databaseId, 6L)).isZero();
+    }
+
+    private static List<Object> monthRollup(String databaseId, Long userId) {
+        return DatabaseClient.create(POOLS.get(databaseId))
+                .sql("SELECT log_count, sleep_hours_sum FROM daily_log_rollup WHERE user_id = :userId AND period_type = 'MONTH'")
+                .bind("userId", userId)
+                .map(row -> List.<Object>of(row.get("log_count", Integer.class), row.get("sleep_hours_sum", Double.class)))
+                .one()
+                .block();
+    }
+
+    private static long rollupCount(String databaseId, Long userId) {
+        return DatabaseClient.create(POOLS.get(databaseId))
+                .sql("SELECT COUNT(*) AS cnt FROM daily_log_rollup WHERE user_id = :userId")
+                .bind("userId", userId)
+                .map(row -> row.get("cnt", Long.class))
+                .one()
+                .block();
+    }
+
+    private static R2dbcDailyLogRepository repository(String databaseId, JdbcDatabaseContainer<?> container, int port) {
+        Flyway.configure()
+                .dataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword())
+                .locations("classpath:db/migration/" + databaseId)
+                .load()
+                .migrate();
+
+        R2dbcRepositoryProperties properties = new R2dbcRepositoryProperties();
+        properties.setUrl("r2dbc:%s://%s:%d/%s".formatted(
+                databaseId, container.getHost(), container.getMappedPort(port), container.getDatabaseName()));
+        properties.setUsername(container.getUsername());
+        properties.setPassword(container.getPassword());
+
+        R2dbcRepositoryConfiguration configuration = new R2dbcRepositoryConfiguration();
+        ConnectionPool pool = configuration.r2dbcConnectionPool(properties);
+        POOLS.put(databaseId, pool);
+        // 無効化の伝送路は使わず、このインスタンスへの通知だけを記録する
+        DailyLogWriteNotifier notifier = new DailyLogWriteNotifier(null, Clock.systemUTC());
+        List<DailyLogInvalidation> notified = new CopyOnWriteArrayList<>();
+        notifier.subscribe(notified::add);
+        NOTIFIED.put(databaseId, notified);
+        // アーカイブは無効（ArchivePolicyのBeanが無い）
+        ObjectProvider<ArchivePolicy> archivePolicy = new StaticListableBeanFactory().getBeanProvider(ArchivePolicy.class);
+        return configuration.r2dbcDailyLogRepository(pool, properties, notifier, archivePolicy);
+    }
+}
@@ -0,0 +1,56 @@
+package nekopunch_rush.testjava21.infrastructure.repository.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ShardResolverのテストクラス
+ */
+class ShardResolverTest {
+
+    private static final int USERS = 10_000;
+
+    @Test
+    void testShardOf_sameUserAlwaysSameShard() {
+        ShardResolver resolver = new ShardResolver(4);
+
+        assertThat(resolver.shardOf(42L)).isEqualTo(new ShardResolver(4).shardOf(42L));
+    }
+
+    @Test
+    void testShardOf_sequentialUserIdsAreSpread() {
+        ShardResolver resolver = new ShardResolver(4);
+        int[] counts = new int[4];
+
+        LongStream.rangeClosed(1, USERS).forEach(userId -> counts[resolver.shardOf(userId)]++);
+
+        // 連番でも各シャードへほぼ均等（期待値2500の±10%以内）に散らばる
+        for (int count : counts) {
+            assertThat(count).isBetween(2_250, 2_750);
+        }
+    }
+
+    @Test
+    void testShardOf_addingShardMovesUsersOnlyToNewShard() {
+        ShardResolver before = new ShardResolver(3);
+        ShardResolver after = new ShardResolver(4);
+
+        long moved = LongStream.rangeClosed(1, USERS)
+                .filter(userId -> before.shardOf(userId) != after.shardOf(userId))
+                .peek(userId -> assertThat(after.shardOf(userId)).isEqualTo(3))
+                .count();
+
+        // 移動するのは約1/4のユーザーだけ
+        assertThat(moved).isBetween(2_250L, 2_750L);
+    }
+
+    @Test
+    void testConstructor_noShards() {
+        assertThatThrownBy(() -> new ShardResolver(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,257 @@
+package nekopunch_rush.testjava21.infrastructure.repository.sharding;
+
+import nekopunch_rush.testjava21.application.DailyLogService;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.DailyLogRollup;
+import nekopunch_rush.testjava21.domain.lifelog.RollupPeriod;
+import nekopunch_rush.testjava21.infrastructure.repository.ActiveUser;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 3つのMySQLコンテナをシャードとして、userIdによる振り分け・トランザクション境界・scatter-gather・シャード間の移動を確認する。
+ */
+@Testcontainers
+@SpringBootTest
+class ShardingIntegrationTest {
+
+    @Container
+    static MySQLContainer<?> shard0 = shardContainer();
+
+    @Container
+    static MySQLContainer<?> shard1 = shardContainer();
+
+    @Container
+    static MySQLContainer<?> shard2 = shardContainer();
+
+    private static final List<MySQLContainer<?>> SHARDS = List.of(shard0, shard1, shard2);
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        registry.add("lifelog.sharding.enabled", () -> "true");
+        for (int index = 0; index < SHARDS.size(); index++) {
+            MySQLContainer<?> shard = SHARDS.get(index);
+            registry.add("lifelog.sharding.shards[" + index + "].jdbc-url", shard::getJdbcUrl);
+            registry.add("lifelog.sharding.shards[" + index + "].username", shard::getUsername);
+            registry.add("lifelog.sharding.shards[" + index + "].password", shard::getPassword);
+        }
+    }
+
+    @Autowired
+    private DailyLogService dailyLogService;
+
+    @Autowired
+    private DailyLogRepository dailyLogRepository;
+
+    @Autowired
+    private DailyLogShards dailyLogShards;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("各ユーザーのログはuserIdから決まるシャードにだけ保存される")
+    void routesByUserId() throws Exception {
+        LocalDate logDate = LocalDate.of(2025, 4, 1);
+        Set<Integer> usedShards = new HashSet<>();
+
+        for (long userId = 1; userId <= 30; userId++) {
+            dailyLogService.register(DailyLog.of(userId, logDate, 7.0, 5, List.of(), List.of(), List.of(), List.of()));
+
+            int expected = dailyLogShards.shardFor(userId).index();
+            usedShards.add(expected);
+            for (int index = 0; index < SHARDS.size(); index++) {
+                assertThat(count(SHARDS.get(index), userId)).isEqualTo(index == expected ? 1 : 0);
+            }
+            assertThat(dailyLogService.findByUserIdAndDate(userId, logDate).getSleepHours()).isEqualTo(7.0);
+        }
+        assertThat(usedShards).containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    @Test
+    @DisplayName("サービス層のトランザクションはユーザーのシャードのトランザクションとなり、境界でまとめてコミット・ロールバックされる")
+    void serviceTransactionIsShardTransaction() {
+        Long userId = LongStream.iterate(301, id -> id + 1)
+                .filter(id -> dailyLogShards.shardFor(id).index() != 0)
+                .findFirst()
+                .orElseThrow();
+        MySQLContainer<?> shard = SHARDS.get(dailyLogShards.shardFor(userId).index());
+        LocalDate logDate = LocalDate.of(2025, 6, 1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // ロールバックした場合はシャードに残らない
+        transaction.executeWithoutResult(status -> {
+            dailyLogRepository.saveIfAbsent(DailyLog.of(userId, logDate, 7.0, 5, List.of(), List.of(), List.of(), List.of()));
+            status.setRollbackOnly();
+        });
+        assertThat(count(shard, userId)).isZero();
+
+        // コミットまでは他の接続から見えず、コミット後の処理ではシャードにコミット済み
+        List<Integer> countsAfterCommit = new ArrayList<>();
+        transaction.executeWithoutResult(status -> {
+            dailyLogRepository.saveIfAbsent(DailyLog.of(userId, logDate, 7.0, 5, List.of(), List.of(), List.of(), List.of()));
+            assertThat(count(shard, userId)).isZero();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    countsAfterCommit.add(count(shard, userId));
+                }
+            });
+        });
+        assertThat(countsAfterCommit).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("ユーザーをまたぐ問い合わせは全シャードの結果を結合する")
+    void scatterGather() {
+        LocalDate logDate = LocalDate.of(2025, 5, 1);
+        List<DailyLog> logs = LongStream.rangeClosed(101, 120)
+                .mapToObj(userId -> DailyLog.of(userId, logDate, 6.5, 4, List.of(), List.of(), List.of(), List.of()))
+                .toList();
+        dailyLogRepository.saveAll(logs);
+
+        dailyLogRepository.save(DailyLog.of(110L, logDate.plusDays(1), 6.5, 4, List.of(), List.of(), List.of(), List.of()));
+
+        List<Long> userIds = dailyLogRepository.findActiveUsersSince(logDate, 5).stream()
+                .map(ActiveUser::userId)
+                .toList();
+
+        // 最後にログを付けた日の新しい順、同じ日はユーザーIDの昇順で、全シャードを通して上位5人
+        assertThat(userIds).containsExactly(110L, 101L, 102L, 103L, 104L);
+    }
+
+    @Test
+    @DisplayName("格納先と異なるシャードにあるユーザーは子テーブルごと移動される")
+    void rebalance() throws Exception {
+        Long userId = 201L;
+        LocalDate logDate = LocalDate.of(2025, 3, 1);
+        int expected = dailyLogShards.shardFor(userId).index();
+        MySQLContainer<?> misplaced = SHARDS.get((expected + 1) % SHARDS.size());
+        // シャード追加前の構成で保存されていた状態を再現する
+        jdbc(misplaced).update("INSERT INTO daily_log (user_id, log_date, sleep_hours, mood_level) VALUES (?, ?, 8.0, 6)",
+                userId, logDate);
+        jdbc(misplaced).update("INSERT INTO meal (user_id, log_date, time, content, calories) VALUES (?, ?, '08:00:00', 'toast', 300)",
+                userId, logDate);
+
+        int moved = shardRebalancer.rebalance();
+
+        assertThat(moved).isEqualTo(1);
+        assertThat(count(misplaced, userId)).isZero();
+        assertThat(count(SHARDS.get(expected), userId)).isEqualTo(1);
+        DailyLog log = dailyLogService.findByUserIdAndDate(userId, logDate);
+        assertThat(log.getMealList()).singleElement()
+                .satisfies(meal -> assertThat(meal.getTime()).isEqualTo(LocalTime.of(8, 0)));
+
+        // 再実行しても移動対象は残っていない
+        assertThat(shardRebalancer.rebalance()).isZero();
+    }
+
+    @Test
+    @DisplayName("アーカイブ済みの月の集計は元のログが無くても移動先へ写される")
+    void rebalanceKeepsArchivedRollups() {
+        Long userId = 202L;
+        LocalDate hotDate = LocalDate.of(2025, 3, 3);
+        LocalDate archivedMonth = LocalDate.of(2024, 1, 1);
+        int expected = dailyLogShards.shardFor(userId).index();
+        MySQLContainer<?> misplaced = SHARDS.get((expected + 1) % SHARDS.size());
+        jdbc(misplaced).update("INSERT INTO daily_log (user_id, log_date, sleep_hours, mood_level) VALUES (?, ?, 8.0, 6)",
+                userId, hotDate);
+        // ログはアーカイブへ移され、集計行だけが残っている月
+        jdbc(misplaced).update("""
+                INSERT INTO daily_log_rollup (user_id, period_type, period_start, log_count,
+                                              sleep_hours_sum, sleep_hours_min, sleep_hours_max,
+                                              mood_level_sum, mood_level_min, mood_level_max,
+                                              weight_count, weight_sum, weight_min, weight_max,
+                                              steps_days, steps_sum, steps_min, steps_max)
+                VALUES (?, 'MONTH', ?, 31, 232.5, 6.0, 9.0, 155, 3, 7, 4, 242.0, 60.0, 61.0, 0, NULL, NULL, NULL)
+                """, userId, archivedMonth);
+
+        shardRebalancer.rebalance();
+
+        assertThat(rollupCount(misplaced, userId)).isZero();
+        List<DailyLogRollup> archived = dailyLogRepository.findRollupsByUserIdAndPeriodRange(
+                userId, RollupPeriod.MONTH, archivedMonth, archivedMonth.plusMonths(1));
+        assertThat(archived).singleElement().satisfies(rollup -> {
+            assertThat(rollup.getLogCount()).isEqualTo(31);
+            assertThat(rollup.getSleepHoursMax()).isEqualTo(9.0);
+            assertThat(rollup.getWeightMin()).isEqualTo(60.0);
+        });
+        // 移動したログの期間は移動先で集計し直されている
+        assertThat(dailyLogRepository.findRollupsByUserIdAndPeriodRange(
+                userId, RollupPeriod.MONTH, hotDate.withDayOfMonth(1), hotDate.withDayOfMonth(1).plusMonths(1)))
+                .singleElement()
+                .satisfies(rollup -> assertThat(rollup.getLogCount()).isEqualTo(1));
+    }
+
+    @Test
+    @DisplayName("ログをすべてアーカイブへ移したユーザーも集計が移動される")
+    void rebalanceUserWithOnlyRollups() {
+        Long userId = 203L;
+        LocalDate archivedMonth = LocalDate.of(2024, 2, 1);
+        int expected = dailyLogShards.shardFor(userId).index();
+        MySQLContainer<?> misplaced = SHARDS.get((expected + 1) % SHARDS.size());
+        jdbc(misplaced).update("""
+                INSERT INTO daily_log_rollup (user_id, period_type, period_start, log_count,
+                                              sleep_hours_sum, sleep_hours_min, sleep_hours_max,
+                                              mood_level_sum, mood_level_min, mood_level_max,
+                                              weight_count, steps_days)
+                VALUES (?, 'MONTH', ?, 29, 203.0, 6.0, 8.0, 145, 4, 6, 0, 0)
+                """, userId, archivedMonth);
+
+        shardRebalancer.rebalance();
+
+        assertThat(rollupCount(misplaced, userId)).isZero();
+        assertThat(rollupCount(SHARDS.get(expected), userId)).isEqualTo(1);
+    }
+
+    private static MySQLContainer<?> shardContainer() {
+        return new MySQLContainer<>("mysql:8")
+                .withUrlParam("allowMultiQueries", "true")
+                .withUrlParam("rewriteBatchedStatements", "true")
+                .withUrlParam("useCursorFetch", "true");
+    }
+
+    private static JdbcTemplate jdbc(MySQLContainer<?> container) {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                container.getJdbcUrl(), container.getUsername(), container.getPassword()));
+    }
+
+    private static int rollupCount(MySQLContainer<?> container, Long userId) {
+        Integer count = jdbc(container).queryForObject(
+                "SELECT COUNT(*) FROM daily_log_rollup WHERE user_id = ?", Integer.class, userId);
+        return count == null ? 0 : count;
+    }
+
+    private static int count(MySQLContainer<?> container, Long userId) {
+        Integer count = jdbc(container).queryForObject(
+                "SELECT COUNT(*) FROM daily_log WHERE user_id = ?", Integer.class, userId);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,74 @@
+package nekopunch_rush.testjava21.infrastructure.repository.singleflight;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ReactiveSingleFlightのテストクラス
+ */
+class ReactiveSingleFlightTest {
+
+    private final ReactiveSingleFlight<String, String> flights = new ReactiveSingleFlight<>();
+
+    @Test
+    void testLoad_concurrentSubscriptions_shareOneLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+        List<Mono<String>> callers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            callers.add(flights.load("day", () -> {
+                loads.incrementAndGet();
+                return result.asMono();
+            }).cache());
+        }
+        callers.forEach(Mono::subscribe);
+
+        result.tryEmitValue("log");
+
+        callers.forEach(caller -> assertEquals("log", caller.block(Duration.ofSeconds(5))));
+        assertEquals(1, loads.get());
+        assertEquals(9, flights.getSharedLoads());
+    }
+
+    @Test
+    void testLoad_afterCompletion_loadsAgain() {
+        AtomicInteger loads = new AtomicInteger();
+
+        flights.load("day", () -> Mono.fromSupplier(() -> "v" + loads.incrementAndGet())).block();
+        String second = flights.load("day", () -> Mono.fromSupplier(() -> "v" + loads.incrementAndGet())).block();
+
+        assertEquals("v2", second);
+        assertEquals(0, flights.getSharedLoads());
+    }
+
+    @Test
+    void testLoad_emptyAndErrorResults_arePassedToAllSubscribers() {
+        Sinks.One<String> empty = Sinks.one();
+        Mono<String> first = flights.load("empty", empty::asMono).cache();
+        Mono<String> second = flights.load("empty", empty::asMono).cache();
+        first.subscribe();
+        second.subscribe();
+        empty.tryEmitEmpty();
+        assertNull(first.block(Duration.ofSeconds(5)));
+        assertNull(second.block(Duration.ofSeconds(5)));
+
+        Sinks.One<String> failure = Sinks.one();
+        Mono<String> failing = flights.load("error", failure::asMono).cache();
+        Mono<String> joined = flights.load("error", failure::asMono).cache();
+        failing.subscribe(value -> { }, error -> { });
+        joined.subscribe(value -> { }, error -> { });
+        failure.tryEmitError(new IllegalStateException("接続エラー"));
+        assertThrows(IllegalStateException.class, () -> failing.block(Duration.ofSeconds(5)));
+        assertThrows(IllegalStateException.class, () -> joined.block(Duration.ofSeconds(5)));
+    }
+}
@@ -0,0 +1,174 @@
+package nekopunch_rush.testjava21.infrastructure.repository.singleflight;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * SingleFlightDailyLogRepositoryのテストクラス
+ */
+class SingleFlightDailyLogRepositoryTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+    private static final int CALLERS = 20;
+
+    private DailyLogRepository delegate;
+    private SingleFlightDailyLogRepository repository;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(DailyLogRepository.class);
+        repository = new SingleFlightDailyLogRepository(delegate);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void testFind_concurrentCalls_shareOneLoad() throws Exception {
+        DailyLog log = log(5);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Optional.of(log);
+        });
+
+        Future<Optional<DailyLog>> leader = executor.submit(() -> repository.findByUserIdAndLogDate(1L, LOG_DATE));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        List<Future<Optional<DailyLog>>> followers = new ArrayList<>();
+        for (int i = 1; i < CALLERS; i++) {
+            followers.add(executor.submit(() -> repository.findByUserIdAndLogDate(1L, LOG_DATE)));
+        }
+        awaitSharedLoads(CALLERS - 1);
+        release.countDown();
+
+        assertSame(log, leader.get(5, TimeUnit.SECONDS).orElseThrow());
+        for (Future<Optional<DailyLog>> follower : followers) {
+            assertSame(log, follower.get(5, TimeUnit.SECONDS).orElseThrow());
+        }
+        verify(delegate, times(1)).findByUserIdAndLogDate(1L, LOG_DATE);
+    }
+
+    @Test
+    void testFind_failedLoad_isThrownToAllCallers() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            throw new IllegalStateException("接続エラー");
+        });
+
+        Future<Optional<DailyLog>> leader = executor.submit(() -> repository.findByUserIdAndLogDate(1L, LOG_DATE));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<Optional<DailyLog>> follower = executor.submit(() -> repository.findByUserIdAndLogDate(1L, LOG_DATE));
+        awaitSharedLoads(1);
+        release.countDown();
+
+        Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertTrue(leaderError.getCause() instanceof IllegalStateException);
+        assertTrue(followerError.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void testFind_sequentialCalls_areNotCached() {
+        when(delegate.findByUserIdAndMonth(1L, YearMonth.from(LOG_DATE))).thenReturn(List.of(log(5)));
+
+        repository.findByUserIdAndMonth(1L, YearMonth.from(LOG_DATE));
+        repository.findByUserIdAndMonth(1L, YearMonth.from(LOG_DATE));
+
+        verify(delegate, times(2)).findByUserIdAndMonth(1L, YearMonth.from(LOG_DATE));
+        assertEquals(0, repository.getSharedLoads());
+    }
+
+    @Test
+    void testFind_insideWritingTransaction_isNotShared() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenAnswer(invocation -> {
+            if (loading.getCount() > 0) {
+                loading.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            return Optional.of(log(5));
+        });
+        Future<Optional<DailyLog>> outside = executor.submit(() -> repository.findByUserIdAndLogDate(1L, LOG_DATE));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        repository.findByUserIdAndLogDate(1L, LOG_DATE);
+        release.countDown();
+        outside.get(5, TimeUnit.SECONDS);
+
+        verify(delegate, times(2)).findByUserIdAndLogDate(1L, LOG_DATE);
+        assertEquals(0, repository.getSharedLoads());
+    }
+
+    @Test
+    void testUpdate_laterCallsDoNotJoinLoadStartedBeforeWrite() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenAnswer(invocation -> {
+            if (loading.getCount() > 0) {
+                loading.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+                return Optional.of(log(5));
+            }
+            return Optional.of(log(8));
+        });
+        Future<Optional<DailyLog>> stale = executor.submit(() -> repository.findByUserIdAndLogDate(1L, LOG_DATE));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        repository.update(LOG_DATE, log(8));
+
+        assertEquals(8, repository.findByUserIdAndLogDate(1L, LOG_DATE).orElseThrow().getMoodLevel());
+        release.countDown();
+        assertEquals(5, stale.get(5, TimeUnit.SECONDS).orElseThrow().getMoodLevel());
+    }
+
+    private void awaitSharedLoads(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (repository.getSharedLoads() < expected) {
+            if (System.nanoTime() > deadline) throw new AssertionError("合流した呼び出し数: " + repository.getSharedLoads());
+            Thread.sleep(1);
+        }
+    }
+
+    private static DailyLog log(int moodLevel) {
+        return DailyLog.of(1L, LOG_DATE, 7.0, moodLevel, List.of(), List.of(), List.of(), List.of());
+    }
+}
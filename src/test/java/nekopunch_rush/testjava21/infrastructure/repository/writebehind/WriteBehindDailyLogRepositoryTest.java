@@ -0,0 +1,343 @@
+package nekopunch_rush.testjava21.infrastructure.repository.writebehind;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.infrastructure.repository.DailyLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * WriteBehindDailyLogRepositoryのテストクラス
+ */
+class WriteBehindDailyLogRepositoryTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+    private static final Duration QUIET_PERIOD = Duration.ofSeconds(3);
+    private static final Duration MAX_DELAY = Duration.ofSeconds(30);
+
+    private DailyLogRepository delegate;
+    private WriteBehindDailyLogRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(DailyLogRepository.class);
+        when(delegate.existsByUserIdAndLogDate(eq(1L), any())).thenReturn(true);
+        when(delegate.update(any(), any())).thenReturn(true);
+        repository = new WriteBehindDailyLogRepository(delegate, QUIET_PERIOD, MAX_DELAY, 100,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void testUpdate_repeatedUpdates_areCoalescedIntoOneWrite() {
+        DailyLog latest = null;
+        for (int i = 1; i <= 50; i++) {
+            latest = log(1L, LOG_DATE, i % 10 + 1);
+            assertTrue(repository.update(LOG_DATE, latest));
+        }
+
+        // 静止時間が経つまでは書き込まない
+        repository.flushDue(NOW.plus(QUIET_PERIOD).minusMillis(1));
+        verify(delegate, never()).update(any(), any());
+
+        repository.flushDue(NOW.plus(QUIET_PERIOD));
+        verify(delegate, times(1)).update(LOG_DATE, latest);
+        // 存在確認は最初の1回だけ
+        verify(delegate, times(1)).existsByUserIdAndLogDate(1L, LOG_DATE);
+        assertEquals(50, repository.getBufferedUpdates());
+        assertEquals(1, repository.getFlushedUpdates());
+        assertEquals(0, repository.getPendingCount());
+    }
+
+    @Test
+    void testUpdate_missingLog_isNotBuffered() {
+        LocalDate missing = LOG_DATE.plusDays(1);
+        when(delegate.existsByUserIdAndLogDate(1L, missing)).thenReturn(false);
+
+        assertFalse(repository.update(missing, log(1L, missing, 5)));
+        assertEquals(0, repository.getPendingCount());
+    }
+
+    @Test
+    void testRead_returnsBufferedVersion() {
+        DailyLog stored = log(1L, LOG_DATE, 3);
+        DailyLog otherDay = log(1L, LOG_DATE.plusDays(1), 4);
+        DailyLog buffered = log(1L, LOG_DATE, 8);
+        when(delegate.findWithDetailsByUserIdAndDateRange(1L, LOG_DATE, LOG_DATE.plusDays(7)))
+                .thenReturn(List.of(stored, otherDay));
+        repository.update(LOG_DATE, buffered);
+
+        assertSame(buffered, repository.findByUserIdAndLogDate(1L, LOG_DATE).orElseThrow());
+        List<DailyLog> range = repository.findWithDetailsByUserIdAndDateRange(1L, LOG_DATE, LOG_DATE.plusDays(7));
+        assertEquals(2, range.size());
+        assertSame(buffered, range.get(0));
+        assertSame(otherDay, range.get(1));
+        verify(delegate, never()).findByUserIdAndLogDate(any(), any());
+    }
+
+    @Test
+    void testUpdate_continuousUpdates_areWrittenAfterMaxDelay() {
+        MutableClock clock = new MutableClock(NOW);
+        WriteBehindDailyLogRepository ticking = new WriteBehindDailyLogRepository(delegate, QUIET_PERIOD, MAX_DELAY, 100, clock);
+        // 静止時間より短い間隔で更新し続ける
+        for (int i = 0; i <= 15; i++) {
+            ticking.update(LOG_DATE, log(1L, LOG_DATE, i % 10 + 1));
+            ticking.flushDue(clock.instant());
+            clock.advance(Duration.ofSeconds(2));
+        }
+
+        verify(delegate, times(1)).update(eq(LOG_DATE), any());
+    }
+
+    @Test
+    void testDelete_discardsBufferedUpdate() {
+        repository.update(LOG_DATE, log(1L, LOG_DATE, 5));
+        when(delegate.deleteByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(true);
+
+        assertTrue(repository.deleteByUserIdAndLogDate(1L, LOG_DATE));
+        repository.flushAll();
+
+        verify(delegate, never()).update(any(), any());
+        when(delegate.findByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(Optional.empty());
+        assertTrue(repository.findByUserIdAndLogDate(1L, LOG_DATE).isEmpty());
+    }
+
+    @Test
+    void testUpdate_pendingLimit_writesThroughWithoutFlushing() {
+        WriteBehindDailyLogRepository small = new WriteBehindDailyLogRepository(delegate, QUIET_PERIOD, MAX_DELAY, 2,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        small.update(LOG_DATE, log(1L, LOG_DATE, 1));
+        small.update(LOG_DATE.plusDays(1), log(1L, LOG_DATE.plusDays(1), 2));
+        verify(delegate, never()).update(any(), any());
+
+        DailyLog overflow = log(1L, LOG_DATE.plusDays(2), 3);
+        assertTrue(small.update(LOG_DATE.plusDays(2), overflow));
+
+        // 溜めている日は書き込まず、新しい日だけを直接書き込む
+        verify(delegate, times(1)).update(any(), any());
+        verify(delegate).update(LOG_DATE.plusDays(2), overflow);
+        assertEquals(2, small.getPendingCount());
+    }
+
+    @Test
+    void testFlush_failedWrite_isRetried() {
+        DailyLog log = log(1L, LOG_DATE, 5);
+        repository.update(LOG_DATE, log);
+        when(delegate.update(LOG_DATE, log)).thenThrow(new IllegalStateException("接続エラー")).thenReturn(true);
+
+        repository.flushAll();
+        assertEquals(1, repository.getPendingCount());
+
+        repository.flushAll();
+        assertEquals(0, repository.getPendingCount());
+        verify(delegate, times(2)).update(LOG_DATE, log);
+    }
+
+    @Test
+    void testUpdate_pendingLimitWriteFails_throwsWithoutBuffering() {
+        WriteBehindDailyLogRepository small = new WriteBehindDailyLogRepository(delegate, QUIET_PERIOD, MAX_DELAY, 1,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        small.update(LOG_DATE, log(1L, LOG_DATE, 1));
+        when(delegate.update(any(), any())).thenThrow(new IllegalStateException("接続エラー"));
+
+        assertThrows(IllegalStateException.class,
+                () -> small.update(LOG_DATE.plusDays(1), log(1L, LOG_DATE.plusDays(1), 2)));
+        assertEquals(1, small.getPendingCount());
+        assertEquals(0, small.getFailedFlushes());
+    }
+
+    @Test
+    void testSaveIfAbsent_discardsBufferedUpdateOfDeletedLog() {
+        repository.update(LOG_DATE, log(1L, LOG_DATE, 5));
+        // 他のインスタンスなどで削除され、同じ日が登録し直された場合
+        DailyLog registered = log(1L, LOG_DATE, 9);
+        when(delegate.saveIfAbsent(registered)).thenReturn(true);
+
+        assertTrue(repository.saveIfAbsent(registered));
+        repository.flushAll();
+
+        verify(delegate, never()).update(any(), any());
+        assertEquals(0, repository.getPendingCount());
+    }
+
+    @Test
+    void testSaveIfAbsent_existingLog_keepsBufferedUpdate() {
+        DailyLog buffered = log(1L, LOG_DATE, 5);
+        repository.update(LOG_DATE, buffered);
+        when(delegate.saveIfAbsent(any())).thenReturn(false);
+
+        assertFalse(repository.saveIfAbsent(log(1L, LOG_DATE, 9)));
+        repository.flushAll();
+
+        verify(delegate).update(LOG_DATE, buffered);
+    }
+
+    @Test
+    void testUpdate_deleteDuringExistenceCheck_isNotBuffered() throws Exception {
+        AtomicBoolean deleted = new AtomicBoolean();
+        CountDownLatch checking = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        when(delegate.existsByUserIdAndLogDate(1L, LOG_DATE)).thenAnswer(invocation -> {
+            boolean exists = !deleted.get();
+            checking.countDown();
+            resume.await(5, TimeUnit.SECONDS);
+            return exists;
+        });
+        when(delegate.deleteByUserIdAndLogDate(1L, LOG_DATE)).thenAnswer(invocation -> deleted.compareAndSet(false, true));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 存在確認の途中で止めた更新と並行して削除する。削除は更新の確認を待たない
+            Future<Boolean> update = executor.submit(() -> repository.update(LOG_DATE, log(1L, LOG_DATE, 1)));
+            assertTrue(checking.await(5, TimeUnit.SECONDS));
+            assertTrue(repository.deleteByUserIdAndLogDate(1L, LOG_DATE));
+            resume.countDown();
+
+            // 削除前の確認結果では溜めず、確認し直して対象が無いことを返す
+            assertFalse(update.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        repository.flushAll();
+        verify(delegate, never()).update(any(), any());
+        verify(delegate, times(2)).existsByUserIdAndLogDate(1L, LOG_DATE);
+        assertEquals(0, repository.getPendingCount());
+    }
+
+    @Test
+    void testFlush_slowWrite_doesNotBlockOtherDays() throws Exception {
+        LocalDate otherDay = LOG_DATE.plusDays(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        when(delegate.update(eq(LOG_DATE), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            resume.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        when(delegate.deleteByUserIdAndLogDate(1L, otherDay)).thenReturn(true);
+        repository.update(LOG_DATE, log(1L, LOG_DATE, 1));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> flush = executor.submit(repository::flushAll);
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+            // 書き込み中の日とは別の日は、書き込みの完了を待たずに更新・削除できる
+            assertTrue(repository.update(otherDay, log(1L, otherDay, 2)));
+            assertTrue(repository.deleteByUserIdAndLogDate(1L, otherDay));
+            assertFalse(flush.isDone());
+
+            resume.countDown();
+            flush.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, repository.getPendingCount());
+    }
+
+    @Test
+    void testDelete_waitsForInFlightWriteOfSameDay() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        when(delegate.update(eq(LOG_DATE), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            resume.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        when(delegate.deleteByUserIdAndLogDate(1L, LOG_DATE)).thenReturn(true);
+        repository.update(LOG_DATE, log(1L, LOG_DATE, 1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> flush = executor.submit(repository::flushAll);
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            Future<Boolean> delete = executor.submit(() -> repository.deleteByUserIdAndLogDate(1L, LOG_DATE));
+
+            // 書き込み中の版が削除の後に書き込まれないよう、削除はその完了を待つ
+            assertThrows(TimeoutException.class, () -> delete.get(200, TimeUnit.MILLISECONDS));
+            verify(delegate, never()).deleteByUserIdAndLogDate(any(), any());
+            resume.countDown();
+            flush.get(5, TimeUnit.SECONDS);
+            assertTrue(delete.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testStop_flushesAllPendingUpdates() {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        WriteBehindDecorator decorator = new WriteBehindDecorator(WriteBehindConfiguration.WRITE_BEHIND_ORDER,
+                properties, Clock.fixed(NOW, ZoneOffset.UTC));
+        DailyLogRepository decorated = decorator.decorate(delegate);
+        decorator.start();
+        DailyLog log = log(1L, LOG_DATE, 5);
+        decorated.update(LOG_DATE, log);
+
+        decorator.stop();
+
+        verify(delegate, times(1)).update(LOG_DATE, log);
+        assertFalse(decorator.isRunning());
+    }
+
+    private static DailyLog log(Long userId, LocalDate logDate, int moodLevel) {
+        return DailyLog.of(userId, logDate, 7.0, moodLevel, List.of(), List.of(), List.of(), List.of());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package nekopunch_rush.testjava21.presentation.assembler;
+
+import nekopunch_rush.testjava21.domain.lifelog.DailyLog;
+import nekopunch_rush.testjava21.domain.lifelog.Meal;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DailyLogETagのテストクラス
+ */
+class DailyLogETagTest {
+
+    private static final LocalDate LOG_DATE = LocalDate.of(2024, 6, 1);
+
+    @Test
+    void testOf_sameContent_returnsSameQuotedTag() {
+        String etag = DailyLogETag.of(log(LOG_DATE, 5));
+
+        assertEquals(etag, DailyLogETag.of(log(LOG_DATE, 5)));
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+    }
+
+    @Test
+    void testOf_changedContent_returnsDifferentTag() {
+        assertNotEquals(DailyLogETag.of(log(LOG_DATE, 5)), DailyLogETag.of(log(LOG_DATE, 6)));
+        assertNotEquals(DailyLogETag.of(log(LOG_DATE, 5)), DailyLogETag.of(log(LOG_DATE.plusDays(1), 5)));
+    }
+
+    @Test
+    void testOf_changedChild_returnsDifferentTag() {
+        DailyLog ramen = DailyLog.of(1L, LOG_DATE, 7.0, 5, List.of(), List.of(),
+                List.of(Meal.of(LocalTime.NOON, "ラーメン", 800, null)), List.of());
+        DailyLog salad = DailyLog.of(1L, LOG_DATE, 7.0, 5, List.of(), List.of(),
+                List.of(Meal.of(LocalTime.NOON, "サラダ", 800, null)), List.of());
+
+        assertNotEquals(DailyLogETag.of(ramen), DailyLogETag.of(salad));
+        assertNotEquals(DailyLogETag.of(ramen), DailyLogETag.of(log(LOG_DATE, 5)));
+    }
+
+    @Test
+    void testOf_list_changesWhenDayIsAddedOrRemoved() {
+        List<DailyLog> month = List.of(log(LOG_DATE, 5), log(LOG_DATE.plusDays(1), 4));
+
+        assertEquals(DailyLogETag.of(month), DailyLogETag.of(List.copyOf(month)));
+        assertNotEquals(DailyLogETag.of(month), DailyLogETag.of(month.subList(0, 1)));
+        assertNotEquals(DailyLogETag.of(List.of()), DailyLogETag.of(month));
+    }
+
+    private static DailyLog log(LocalDate logDate, int moodLevel) {
+        return DailyLog.of(1L, logDate, 7.0, moodLevel, List.of(), List.of(), List.of(), List.of());
+    }
+}